@@ -0,0 +1,94 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.creator.benchmark;
+
+import com.google.common.io.Files;
+import com.skcraft.launcher.creator.server.TestServer;
+import com.skcraft.launcher.creator.server.TestServerBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class BenchmarkUtils {
+
+    private BenchmarkUtils() {
+    }
+
+    /**
+     * Write files of random data to serve to the downloader.
+     *
+     * @param dir the directory
+     * @param count the number of files
+     * @param size the size of each file
+     * @return the names of the files
+     * @throws IOException thrown on I/O error
+     */
+    public static List<String> createFiles(File dir, int count, int size) throws IOException {
+        dir.mkdirs();
+        Random random = new Random(0);
+        byte[] data = new byte[size];
+        List<String> names = new ArrayList<String>();
+
+        for (int i = 0; i < count; i++) {
+            String name = "file" + i + ".bin";
+            random.nextBytes(data);
+            Files.write(data, new File(dir, name));
+            names.add(name);
+        }
+
+        return names;
+    }
+
+    /**
+     * Start the creator's test server on a free port.
+     *
+     * @param baseDir the directory to serve
+     * @return the started server
+     * @throws Exception thrown if the server can't be started
+     */
+    public static TestServer startServer(File baseDir) throws Exception {
+        TestServer server = new TestServerBuilder().setBaseDir(baseDir).setPort(0).build();
+        server.start();
+        return server;
+    }
+
+    /**
+     * Reset the peak usage of the heap, so that {@link #getPeakHeapUsed()}
+     * measures from now on.
+     */
+    public static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Get the peak usage of the heap since the last reset, summed over the
+     * heap's memory pools.
+     *
+     * @return the peak in bytes
+     */
+    public static long getPeakHeapUsed() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+}
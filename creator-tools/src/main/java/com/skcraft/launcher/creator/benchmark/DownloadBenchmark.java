@@ -0,0 +1,111 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.creator.benchmark;
+
+import com.beust.jcommander.JCommander;
+import com.google.common.io.Files;
+import com.skcraft.launcher.creator.server.TestServer;
+import com.skcraft.launcher.install.HttpDownloader;
+import com.skcraft.launcher.util.SharedLocale;
+import com.skcraft.launcher.util.SimpleLogFormatter;
+import lombok.extern.java.Log;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Downloads many small files from a local test server with many threads
+ * while other threads poll the progress, the way the progress dialog does,
+ * to measure how much the downloader's bookkeeping holds the threads up.
+ */
+@Log
+public class DownloadBenchmark {
+
+    // Kept so that the level isn't lost when the logger is collected
+    private static final Logger downloaderLog = Logger.getLogger(HttpDownloader.class.getName());
+
+    public static void main(String[] args) throws Exception {
+        SimpleLogFormatter.configureGlobalLogger();
+        SharedLocale.loadBundle("com.skcraft.launcher.lang.Launcher", Locale.getDefault());
+        downloaderLog.setLevel(Level.WARNING);
+
+        DownloadBenchmarkOptions options = new DownloadBenchmarkOptions();
+        new JCommander(options, args);
+
+        File baseDir = Files.createTempDir();
+        try {
+            File filesDir = new File(baseDir, "files");
+            List<String> names = BenchmarkUtils.createFiles(filesDir, options.getFiles(), options.getSize());
+
+            TestServer server = BenchmarkUtils.startServer(filesDir);
+            try {
+                URL baseUrl = new URL("http://localhost:" + server.getLocalPort() + "/");
+                for (int threads : options.getThreads()) {
+                    for (int round = 1; round <= options.getRounds(); round++) {
+                        File downloadDir = new File(baseDir, "download");
+                        run(baseUrl, names, options, threads, round, downloadDir);
+                        FileUtils.deleteDirectory(downloadDir);
+                    }
+                }
+            } finally {
+                server.stop();
+            }
+        } finally {
+            FileUtils.deleteDirectory(baseDir);
+        }
+    }
+
+    private static void run(URL baseUrl, List<String> names, DownloadBenchmarkOptions options,
+                            int threads, int round, File downloadDir) throws Exception {
+        final HttpDownloader downloader = new HttpDownloader(downloadDir);
+        downloader.setThreadCount(threads);
+        for (String name : names) {
+            downloader.download(Collections.singletonList(new URL(baseUrl, name)), name, options.getSize(), name);
+        }
+
+        final AtomicLong polls = new AtomicLong();
+        final Thread[] pollers = new Thread[options.getPollers()];
+        for (int i = 0; i < pollers.length; i++) {
+            pollers[i] = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    downloader.getProgress();
+                    downloader.getStatus();
+                    polls.incrementAndGet();
+                }
+            }, "Progress poller");
+            pollers[i].start();
+        }
+
+        long start = System.nanoTime();
+        try {
+            downloader.execute();
+        } finally {
+            for (Thread poller : pollers) {
+                poller.interrupt();
+            }
+            for (Thread poller : pollers) {
+                poller.join();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double seconds = elapsed / 1e9;
+        log.info(String.format("%d threads, round %d: %d files in %d ms (%.0f files/s, %.1f MB/s), " +
+                        "%d progress polls (%.0f/s)",
+                threads, round, names.size(), TimeUnit.NANOSECONDS.toMillis(elapsed), names.size() / seconds,
+                (double) names.size() * options.getSize() / seconds / 1024 / 1024, polls.get(), polls.get() / seconds));
+    }
+
+}
@@ -0,0 +1,30 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.creator.benchmark;
+
+import com.beust.jcommander.Parameter;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Data
+public class DownloadBenchmarkOptions {
+
+    @Parameter(names = "--files")
+    private int files = 2048;
+    @Parameter(names = "--size")
+    private int size = 16 * 1024;
+    @Parameter(names = "--threads")
+    private List<Integer> threads = new ArrayList<Integer>(Arrays.asList(64, 128));
+    @Parameter(names = "--pollers")
+    private int pollers = 4;
+    @Parameter(names = "--rounds")
+    private int rounds = 3;
+
+}
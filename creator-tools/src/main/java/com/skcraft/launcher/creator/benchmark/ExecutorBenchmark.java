@@ -0,0 +1,170 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.creator.benchmark;
+
+import com.beust.jcommander.JCommander;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.skcraft.concurrency.VirtualThreads;
+import com.skcraft.launcher.creator.server.TestServer;
+import com.skcraft.launcher.install.HttpDownloader;
+import com.skcraft.launcher.util.SharedLocale;
+import com.skcraft.launcher.util.SimpleLogFormatter;
+import lombok.extern.java.Log;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compares the launcher's execution modes: a pool of platform threads, which
+ * is the default, and virtual threads, which need Java 21 or newer.
+ *
+ * <p>Each mode downloads files from a local test server the way installers
+ * do, then runs many short blocking tasks on the launcher's executor the way
+ * manifest fetches and file moves do. The time taken, the peak heap and the
+ * peak number of platform threads are logged for each.</p>
+ */
+@Log
+public class ExecutorBenchmark {
+
+    private static final String POOL = "pool";
+    private static final String VIRTUAL = "virtual";
+
+    // Kept so that the level isn't lost when the logger is collected
+    private static final Logger downloaderLog = Logger.getLogger(HttpDownloader.class.getName());
+
+    public static void main(String[] args) throws Exception {
+        SimpleLogFormatter.configureGlobalLogger();
+        SharedLocale.loadBundle("com.skcraft.launcher.lang.Launcher", Locale.getDefault());
+        downloaderLog.setLevel(Level.WARNING);
+
+        ExecutorBenchmarkOptions options = new ExecutorBenchmarkOptions();
+        new JCommander(options, args);
+
+        File baseDir = Files.createTempDir();
+        try {
+            File filesDir = new File(baseDir, "files");
+            List<String> names = BenchmarkUtils.createFiles(filesDir, options.getFiles(), options.getSize());
+
+            TestServer server = BenchmarkUtils.startServer(filesDir);
+            try {
+                URL baseUrl = new URL("http://localhost:" + server.getLocalPort() + "/");
+                for (int round = 1; round <= options.getRounds(); round++) {
+                    for (String mode : options.getModes()) {
+                        ListeningExecutorService executor = createExecutor(mode);
+                        if (executor == null) {
+                            log.warning("Skipping the " + mode + " mode because virtual threads need Java 21 or newer");
+                            continue;
+                        }
+
+                        try {
+                            File downloadDir = new File(baseDir, "download");
+                            runDownloads(mode, round, executor, baseUrl, names, options, downloadDir);
+                            FileUtils.deleteDirectory(downloadDir);
+
+                            runTasks(mode, round, executor, options);
+                        } finally {
+                            // Threads left over would count towards the next mode
+                            executor.shutdownNow();
+                            executor.awaitTermination(1, TimeUnit.MINUTES);
+                        }
+                    }
+                }
+            } finally {
+                server.stop();
+            }
+        } finally {
+            FileUtils.deleteDirectory(baseDir);
+        }
+    }
+
+    /**
+     * Create the executor that the launcher uses in a mode.
+     *
+     * @param mode the mode
+     * @return the executor, or null if the mode isn't supported here
+     */
+    private static ListeningExecutorService createExecutor(String mode) {
+        if (mode.equals(POOL)) {
+            return MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+        } else if (mode.equals(VIRTUAL)) {
+            ExecutorService executor = VirtualThreads.newPerTaskExecutor();
+            return executor != null ? MoreExecutors.listeningDecorator(executor) : null;
+        } else {
+            throw new IllegalArgumentException("Unknown mode '" + mode + "' (expected " + POOL + " or " + VIRTUAL + ")");
+        }
+    }
+
+    private static void runDownloads(String mode, int round, ListeningExecutorService executor, URL baseUrl,
+                                     List<String> names, ExecutorBenchmarkOptions options, File downloadDir) throws Exception {
+        // Installers only share the launcher's executor in the virtual mode
+        final HttpDownloader downloader = new HttpDownloader(downloadDir);
+        if (mode.equals(VIRTUAL)) {
+            downloader.setExecutor(executor);
+        }
+        for (String name : names) {
+            downloader.download(Collections.singletonList(new URL(baseUrl, name)), name, options.getSize(), name);
+        }
+
+        long bytes = (long) names.size() * options.getSize();
+        measure(mode, round, names.size() + " downloads", bytes, downloader::execute);
+    }
+
+    private static void runTasks(String mode, int round, final ListeningExecutorService executor,
+                                 final ExecutorBenchmarkOptions options) throws Exception {
+        measure(mode, round, options.getTasks() + " blocking tasks", -1, () -> {
+            List<ListenableFuture<?>> futures = new ArrayList<ListenableFuture<?>>();
+            for (int i = 0; i < options.getTasks(); i++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        Thread.sleep(options.getTaskMillis());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+            }
+            Futures.allAsList(futures).get();
+        });
+    }
+
+    private static void measure(String mode, int round, String name, long bytes, Workload workload) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        BenchmarkUtils.resetPeakHeap();
+        threads.resetPeakThreadCount();
+
+        long start = System.nanoTime();
+        workload.run();
+        long elapsed = System.nanoTime() - start;
+
+        String throughput = bytes >= 0
+                ? String.format(" (%.1f MB/s)", bytes / (elapsed / 1e9) / 1024 / 1024)
+                : "";
+        log.info(String.format("%s, round %d: %s in %d ms%s, peak heap %d MB, peak platform threads %d",
+                mode, round, name, TimeUnit.NANOSECONDS.toMillis(elapsed), throughput,
+                BenchmarkUtils.getPeakHeapUsed() / 1024 / 1024, threads.getPeakThreadCount()));
+    }
+
+    private interface Workload {
+        void run() throws Exception;
+    }
+
+}
@@ -0,0 +1,32 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.creator.benchmark;
+
+import com.beust.jcommander.Parameter;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Data
+public class ExecutorBenchmarkOptions {
+
+    @Parameter(names = "--modes")
+    private List<String> modes = new ArrayList<String>(Arrays.asList("pool", "virtual"));
+    @Parameter(names = "--files")
+    private int files = 1024;
+    @Parameter(names = "--size")
+    private int size = 64 * 1024;
+    @Parameter(names = "--tasks")
+    private int tasks = 10000;
+    @Parameter(names = "--task-millis")
+    private int taskMillis = 50;
+    @Parameter(names = "--rounds")
+    private int rounds = 3;
+
+}
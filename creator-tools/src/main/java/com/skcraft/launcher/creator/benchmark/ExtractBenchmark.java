@@ -0,0 +1,97 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.creator.benchmark;
+
+import com.beust.jcommander.JCommander;
+import com.google.common.io.Files;
+import com.skcraft.launcher.install.ZipExtract;
+import com.skcraft.launcher.util.SimpleLogFormatter;
+import lombok.extern.java.Log;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.zip.ZipFile;
+
+/**
+ * Extracts jars, such as LWJGL natives and Forge installers, the ways that
+ * {@link ZipExtract} can: as a stream, from the central directory on one
+ * thread, and in parallel with each of the given thresholds and batch
+ * sizes, to choose the defaults for the extractor.
+ */
+@Log
+public class ExtractBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        SimpleLogFormatter.configureGlobalLogger();
+
+        ExtractBenchmarkOptions options = new ExtractBenchmarkOptions();
+        new JCommander(options, args);
+
+        File baseDir = Files.createTempDir();
+        try {
+            for (File jar : options.getJars()) {
+                int entries;
+                ZipFile zip = new ZipFile(jar);
+                try {
+                    entries = zip.size();
+                } finally {
+                    zip.close();
+                }
+
+                log.info(jar.getName() + ": " + entries + " entries, " + jar.length() / 1024 + " KiB");
+
+                run(jar, "stream", -1, -1, options.getRounds(), baseDir);
+                run(jar, "sequential", Integer.MAX_VALUE, 1, options.getRounds(), baseDir);
+                for (int threshold : options.getThresholds()) {
+                    if (entries < threshold) {
+                        continue;
+                    }
+                    for (int batchSize : options.getBatchSizes()) {
+                        run(jar, "parallel above " + threshold + ", batches of " + batchSize,
+                                threshold, batchSize, options.getRounds(), baseDir);
+                    }
+                }
+            }
+        } finally {
+            FileUtils.deleteDirectory(baseDir);
+        }
+    }
+
+    /**
+     * Extract a jar several times and log the median and fastest times.
+     *
+     * @param threshold the parallel threshold, or -1 to extract as a stream
+     */
+    private static void run(File jar, String name, int threshold, int batchSize, int rounds, File baseDir)
+            throws Exception {
+        long[] times = new long[rounds];
+
+        for (int i = 0; i < rounds; i++) {
+            File destination = new File(baseDir, "extract");
+            ZipExtract extract;
+            if (threshold < 0) {
+                extract = new ZipExtract(Files.asByteSource(jar), destination);
+            } else {
+                extract = new ZipExtract(jar, destination);
+                extract.setParallelThreshold(threshold);
+                extract.setBatchSize(batchSize);
+            }
+
+            long start = System.nanoTime();
+            extract.run();
+            times[i] = System.nanoTime() - start;
+
+            FileUtils.deleteDirectory(destination);
+        }
+
+        Arrays.sort(times);
+        log.info(String.format("  %s: median %.1f ms, fastest %.1f ms", name,
+                times[rounds / 2] / 1e6, times[0] / 1e6));
+    }
+
+}
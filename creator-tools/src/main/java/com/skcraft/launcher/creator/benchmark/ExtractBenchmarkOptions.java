@@ -0,0 +1,29 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.creator.benchmark;
+
+import com.beust.jcommander.Parameter;
+import lombok.Data;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Data
+public class ExtractBenchmarkOptions {
+
+    @Parameter(names = "--jar", required = true)
+    private List<File> jars = new ArrayList<File>();
+    @Parameter(names = "--threshold")
+    private List<Integer> thresholds = new ArrayList<Integer>(Arrays.asList(16, 64, 256));
+    @Parameter(names = "--batch")
+    private List<Integer> batchSizes = new ArrayList<Integer>(Arrays.asList(4, 16, 64));
+    @Parameter(names = "--rounds")
+    private int rounds = 7;
+
+}
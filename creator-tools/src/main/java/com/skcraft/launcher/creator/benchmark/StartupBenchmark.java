@@ -0,0 +1,72 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.creator.benchmark;
+
+import com.beust.jcommander.JCommander;
+import com.google.common.io.Files;
+import com.skcraft.launcher.Launcher;
+import com.skcraft.launcher.util.StartupTrace;
+import lombok.extern.java.Log;
+import org.apache.commons.io.FileUtils;
+
+import java.awt.*;
+import java.io.File;
+
+/**
+ * Starts the launcher in this JVM and fails if its window takes longer
+ * than a budget to show, so that the time to first frame can be checked
+ * for regressions.
+ *
+ * <p>The time is measured by {@link StartupTrace} from the start of the
+ * JVM, and the launcher uses a new temporary directory unless
+ * {@code --dir} is given. A display is needed, which on a server can be a virtual one such as
+ * {@code xvfb-run}. The exit status is 0 within the budget, 1 over it or
+ * if no window was shown in time, and 2 without a display.</p>
+ */
+@Log
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        StartupBenchmarkOptions options = new StartupBenchmarkOptions();
+        new JCommander(options, args);
+
+        if (GraphicsEnvironment.isHeadless()) {
+            System.err.println("The launcher window can't be shown without a display");
+            System.exit(2);
+        }
+
+        boolean createdDir = options.getDir() == null;
+        File dir = createdDir ? Files.createTempDir() : options.getDir();
+        Launcher.main(new String[] { "--dir", dir.getAbsolutePath() });
+
+        long deadline = System.currentTimeMillis() + options.getTimeout();
+        long timeToFirstFrame;
+        while ((timeToFirstFrame = StartupTrace.getTimeToFirstFrame()) < 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        int status;
+        if (timeToFirstFrame < 0) {
+            log.severe("The launcher window wasn't shown within " + options.getTimeout() + " ms");
+            status = 1;
+        } else if (timeToFirstFrame > options.getBudget()) {
+            log.severe("Time to first frame was " + timeToFirstFrame + " ms, over the budget of " +
+                    options.getBudget() + " ms");
+            status = 1;
+        } else {
+            log.info("Time to first frame was " + timeToFirstFrame + " ms, within the budget of " +
+                    options.getBudget() + " ms");
+            status = 0;
+        }
+
+        if (createdDir) {
+            FileUtils.deleteDirectory(dir);
+        }
+        System.exit(status);
+    }
+
+}
@@ -0,0 +1,24 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.creator.benchmark;
+
+import com.beust.jcommander.Parameter;
+import lombok.Data;
+
+import java.io.File;
+
+@Data
+public class StartupBenchmarkOptions {
+
+    @Parameter(names = "--budget")
+    private long budget = 3000;
+    @Parameter(names = "--timeout")
+    private long timeout = 60000;
+    @Parameter(names = "--dir")
+    private File dir;
+
+}
@@ -821,6 +821,9 @@ public class PackManagerController {
                     .handleAsync(result -> {
                         ConsoleFrame.hideMessages();
                         SwingHelper.showMessageDialog(frame, "Successfully generated the package files.", "Success", null, JOptionPane.INFORMATION_MESSAGE);
+                        if (options.isShowReport() && builder.getReport() != null) {
+                            BuildDialog.showReport(frame, builder.getReport());
+                        }
                     }, ex -> {}, SwingExecutor.INSTANCE);
             ProgressDialog.showProgress(frame, deferred, builder, "Building modpack...", "Building modpack...");
             SwingHelper.addErrorDialogCallback(frame, deferred);
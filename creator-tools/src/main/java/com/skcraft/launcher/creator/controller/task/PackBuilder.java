@@ -8,9 +8,11 @@ package com.skcraft.launcher.creator.controller.task;
 
 import com.skcraft.concurrency.ProgressObservable;
 import com.skcraft.launcher.LauncherException;
-import com.skcraft.launcher.LauncherUtils;
+import com.skcraft.launcher.builder.BuildReport;
 import com.skcraft.launcher.builder.PackageBuilder;
 import com.skcraft.launcher.creator.model.creator.Pack;
+import com.skcraft.launcher.util.BulkDeleter;
+import lombok.Getter;
 
 import java.io.File;
 import java.io.IOException;
@@ -26,6 +28,7 @@ public class PackBuilder implements Callable<PackBuilder>, ProgressObservable {
     private final String manifestFilename;
     private final boolean clean;
     private final boolean downloadUrls;
+    @Getter private BuildReport report;
 
     public PackBuilder(Pack pack, File outputDir, String version, String manifestFilename, boolean clean, boolean downloadUrls) {
         this.pack = pack;
@@ -42,10 +45,10 @@ public class PackBuilder implements Callable<PackBuilder>, ProgressObservable {
             List<File> failures = new ArrayList<File>();
 
             try {
-                LauncherUtils.interruptibleDelete(outputDir, failures);
+                new BulkDeleter(outputDir).delete(failures);
             } catch (IOException e) {
                 Thread.sleep(1000);
-                LauncherUtils.interruptibleDelete(outputDir, failures);
+                new BulkDeleter(outputDir).delete(failures);
             }
 
             if (failures.size() > 0) {
@@ -61,9 +64,10 @@ public class PackBuilder implements Callable<PackBuilder>, ProgressObservable {
                 "--version", version,
                 "--manifest-dest", new File(outputDir, manifestFilename).getAbsolutePath(),
                 "-i", pack.getDirectory().getAbsolutePath(),
-                "-o", outputDir.getAbsolutePath()
+                "-o", outputDir.getAbsolutePath(),
+                "--report-summary"
         };
-        PackageBuilder.main(args);
+        report = PackageBuilder.build(args);
 
         return this;
     }
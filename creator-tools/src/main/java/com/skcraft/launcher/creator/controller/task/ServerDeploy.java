@@ -9,6 +9,7 @@ package com.skcraft.launcher.creator.controller.task;
 import com.skcraft.concurrency.ProgressObservable;
 import com.skcraft.launcher.LauncherException;
 import com.skcraft.launcher.LauncherUtils;
+import com.skcraft.launcher.builder.DeployManifest;
 import com.skcraft.launcher.builder.ServerCopyExport;
 import com.skcraft.launcher.creator.dialog.DeployServerDialog.DeployOptions;
 
@@ -32,7 +33,11 @@ public class ServerDeploy implements Callable<ServerDeploy>, ProgressObservable
     public ServerDeploy call() throws Exception {
         File modsDir = new File(options.getDestDir(), "mods");
 
-        if (options.isCleanMods() && modsDir.isDirectory()) {
+        // Incremental deploys remove stale files using the deploy manifest, so
+        // only wipe the folder if there's no manifest from an earlier deploy
+        boolean tracked = options.isIncremental() && new File(options.getDestDir(), DeployManifest.FILENAME).exists();
+
+        if (options.isCleanMods() && !tracked && modsDir.isDirectory()) {
             List<File> failures = new ArrayList<File>();
 
             try {
@@ -47,11 +52,10 @@ public class ServerDeploy implements Callable<ServerDeploy>, ProgressObservable
             }
         }
 
-        String[] args = {
-                "--source", srcDir.getAbsolutePath(),
-                "--dest", options.getDestDir().getAbsolutePath()
-        };
-        ServerCopyExport.main(args);
+        ServerCopyExport export = new ServerCopyExport(options.getDestDir());
+        export.setIncremental(options.isIncremental());
+        export.setCheckHashes(options.isCheckHashes());
+        export.export(srcDir);
 
         return this;
     }
@@ -6,6 +6,7 @@
 
 package com.skcraft.launcher.creator.dialog;
 
+import com.skcraft.launcher.builder.BuildReport;
 import com.skcraft.launcher.swing.DirectoryField;
 import com.skcraft.launcher.swing.SwingHelper;
 import com.skcraft.launcher.swing.TextFieldPopupMenu;
@@ -23,6 +24,7 @@ public class BuildDialog extends JDialog {
     private final DirectoryField destDirField = new DirectoryField();
     private final JTextField versionText = new JTextField(20);
     private final JTextField manifestFilenameText = new JTextField(30);
+    private final JCheckBox showReportCheck = new JCheckBox("Show build performance report when done");
     @Getter
     private BuildOptions options;
 
@@ -52,6 +54,8 @@ public class BuildDialog extends JDialog {
         container.add(new JLabel("Output Directory:"));
         container.add(destDirField, "span");
 
+        container.add(showReportCheck, "span, gapbottom unrel");
+
         JButton buildButton = new JButton("Build");
         JButton cancelButton = new JButton("Cancel");
 
@@ -86,7 +90,8 @@ public class BuildDialog extends JDialog {
             return;
         }
 
-        options = new BuildOptions(version, manifestFilename, new File(destDirField.getPath()));
+        options = new BuildOptions(version, manifestFilename, new File(destDirField.getPath()),
+                showReportCheck.isSelected());
         dispose();
     }
 
@@ -99,11 +104,21 @@ public class BuildDialog extends JDialog {
         return dialog.getOptions();
     }
 
+    public static void showReport(Window parent, BuildReport report) {
+        JTextArea textArea = new JTextArea(report.toSummary());
+        textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        textArea.setEditable(false);
+        textArea.setComponentPopupMenu(TextFieldPopupMenu.INSTANCE);
+
+        JOptionPane.showMessageDialog(parent, new JScrollPane(textArea), "Build Report", JOptionPane.INFORMATION_MESSAGE);
+    }
+
     @Data
     public static class BuildOptions {
         private final String version;
         private final String manifestFilename;
         private final File destDir;
+        private final boolean showReport;
     }
 
 }
@@ -21,6 +21,8 @@ public class DeployServerDialog extends JDialog {
 
     private final DirectoryField destDirField = new DirectoryField();
     private final JCheckBox cleanModsCheck = new JCheckBox("Delete \"mods/\" folder before deploying");
+    private final JCheckBox incrementalCheck = new JCheckBox("Only copy changed files");
+    private final JCheckBox checkHashesCheck = new JCheckBox("Compare file hashes (slower)");
     @Getter
     private DeployOptions options;
 
@@ -34,6 +36,7 @@ public class DeployServerDialog extends JDialog {
         setLocationRelativeTo(parent);
 
         cleanModsCheck.setSelected(true);
+        incrementalCheck.setSelected(true);
     }
 
     private void initComponents() {
@@ -43,7 +46,9 @@ public class DeployServerDialog extends JDialog {
         container.add(new JLabel("Output Directory:"));
         container.add(destDirField, "span");
 
-        container.add(cleanModsCheck, "span, gapbottom unrel");
+        container.add(cleanModsCheck, "span");
+        container.add(incrementalCheck, "span");
+        container.add(checkHashesCheck, "span, gapbottom unrel");
 
         JButton buildButton = new JButton("Deploy");
         JButton cancelButton = new JButton("Cancel");
@@ -58,6 +63,7 @@ public class DeployServerDialog extends JDialog {
 
         buildButton.addActionListener(e -> returnValue());
         cancelButton.addActionListener(e -> dispose());
+        incrementalCheck.addActionListener(e -> checkHashesCheck.setEnabled(incrementalCheck.isSelected()));
     }
 
     private void returnValue() {
@@ -75,7 +81,8 @@ public class DeployServerDialog extends JDialog {
             return;
         }
 
-        options = new DeployOptions(dirFile,cleanModsCheck.isSelected());
+        options = new DeployOptions(dirFile, cleanModsCheck.isSelected(),
+                incrementalCheck.isSelected(), checkHashesCheck.isSelected());
         dispose();
     }
 
@@ -92,6 +99,8 @@ public class DeployServerDialog extends JDialog {
     public static class DeployOptions {
         private final File destDir;
         private final boolean cleanMods;
+        private final boolean incremental;
+        private final boolean checkHashes;
     }
 
 }
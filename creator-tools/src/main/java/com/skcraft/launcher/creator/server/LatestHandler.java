@@ -14,15 +14,18 @@ import org.eclipse.jetty.server.handler.AbstractHandler;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 
 class LatestHandler extends AbstractHandler {
 
     private final ObjectMapper mapper;
+    private final File baseDir;
 
-    public LatestHandler(ObjectMapper mapper) {
+    public LatestHandler(ObjectMapper mapper, File baseDir) {
         this.mapper = mapper;
+        this.baseDir = baseDir;
     }
 
     @Override
@@ -30,9 +33,17 @@ class LatestHandler extends AbstractHandler {
         response.setContentType("text/plain; charset=utf-8");
         response.setStatus(HttpServletResponse.SC_OK);
 
-        LatestVersionInfo info = new LatestVersionInfo();
-        info.setVersion("0.0.0");
-        info.setUrl(new URL("http://localhost"));
+        // A latest.json written by the launcher patch builder can be used to test self updates
+        File file = new File(baseDir, "latest.json");
+        LatestVersionInfo info;
+        if (file.exists()) {
+            info = mapper.readValue(file, LatestVersionInfo.class);
+        } else {
+            info = new LatestVersionInfo();
+            info.setVersion("0.0.0");
+            info.setUrl(new URL("http://localhost"));
+        }
+
         mapper.writeValue(response.getWriter(), info);
 
         baseRequest.setHandled(true);
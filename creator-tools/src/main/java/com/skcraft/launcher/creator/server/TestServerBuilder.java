@@ -60,7 +60,7 @@ public class TestServerBuilder {
 
         ContextHandler latestContext = new ContextHandler("/latest.json");
         latestContext.setAllowNullPathInfo(true);
-        latestContext.setHandler(new LatestHandler(mapper));
+        latestContext.setHandler(new LatestHandler(mapper, baseDir));
 
         ContextHandler newsContext = new ContextHandler("/news.html");
         newsContext.setAllowNullPathInfo(true);
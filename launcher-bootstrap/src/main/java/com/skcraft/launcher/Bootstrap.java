@@ -39,6 +39,8 @@ public class Bootstrap {
     private final String[] originalArgs;
 
     public static void main(String[] args) throws Throwable {
+        // Read by the launcher to trace how long it takes to start
+        System.setProperty("skcraft.launcher.bootstrapTime", String.valueOf(System.currentTimeMillis()));
         SimpleLogFormatter.configureGlobalLogger();
         SharedLocale.loadBundle("com.skcraft.launcher.lang.Bootstrap", Locale.getDefault());
 
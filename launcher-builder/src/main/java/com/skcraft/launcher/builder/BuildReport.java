@@ -0,0 +1,155 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Timings and counters collected while building a package, written out as
+ * JSON so that build performance can be compared between pack versions.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BuildReport {
+
+    private String name;
+    private String version;
+    private Date started = new Date();
+    private long totalMillis;
+    private List<Phase> phases = new ArrayList<Phase>();
+
+    /**
+     * Start timing a new phase.
+     *
+     * @param name the name of the phase
+     * @return the phase, which should be ended with {@link Phase#end()}
+     */
+    public synchronized Phase startPhase(String name) {
+        Phase phase = new Phase();
+        phase.setName(name);
+        phase.startNanos = System.nanoTime();
+        phases.add(phase);
+        return phase;
+    }
+
+    /**
+     * Get the phase with the given name.
+     *
+     * @param name the name
+     * @return the phase, or null if not found
+     */
+    public synchronized Phase getPhase(String name) {
+        for (Phase phase : phases) {
+            if (phase.getName().equals(name)) {
+                return phase;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mark the build as finished.
+     */
+    public void finish() {
+        totalMillis = System.currentTimeMillis() - started.getTime();
+    }
+
+    /**
+     * Create a human-readable summary of the report.
+     *
+     * @return the summary
+     */
+    public String toSummary() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-12s %10s %8s %12s %12s %11s %10s%n",
+                "Phase", "Time (ms)", "Files", "Hashed", "Copied", "Cache hits", "Net (ms)"));
+
+        for (Phase phase : getPhases()) {
+            builder.append(String.format("%-12s %10d %8d %12s %12s %11s %10d%n",
+                    phase.getName(), phase.getMillis(), phase.getFiles(),
+                    formatBytes(phase.getBytesHashed()), formatBytes(phase.getBytesCopied()),
+                    phase.getCacheHits() + phase.getCacheMisses() > 0
+                            ? String.format("%.0f%%", phase.getCacheHitRate() * 100)
+                            : "-",
+                    phase.getNetworkMillis()));
+        }
+
+        builder.append(String.format("%-12s %10d%n", "Total", totalMillis));
+        return builder.toString();
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        } else if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        } else {
+            return String.format("%.1f MB", bytes / 1024.0 / 1024.0);
+        }
+    }
+
+    /**
+     * A single timed phase of the build. Counters may be updated from
+     * several threads at once.
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Phase {
+        private String name;
+        private long millis;
+        private long files;
+        private long bytesHashed;
+        private long bytesCopied;
+        private long cacheHits;
+        private long cacheMisses;
+        private long networkRequests;
+        private long networkMillis;
+        @JsonIgnore private transient long startNanos;
+
+        public synchronized void end() {
+            millis = (System.nanoTime() - startNanos) / 1000000;
+        }
+
+        public synchronized void addFiles(long count) {
+            files += count;
+        }
+
+        public synchronized void addBytesHashed(long bytes) {
+            bytesHashed += bytes;
+        }
+
+        public synchronized void addBytesCopied(long bytes) {
+            bytesCopied += bytes;
+        }
+
+        public synchronized void addCacheHit() {
+            cacheHits++;
+        }
+
+        public synchronized void addCacheMiss() {
+            cacheMisses++;
+        }
+
+        public synchronized void addNetworkWait(long millis) {
+            networkRequests++;
+            networkMillis += millis;
+        }
+
+        @JsonIgnore
+        public synchronized double getCacheHitRate() {
+            long total = cacheHits + cacheMisses;
+            return total > 0 ? cacheHits / (double) total : 0;
+        }
+    }
+
+}
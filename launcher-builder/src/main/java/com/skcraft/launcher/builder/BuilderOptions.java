@@ -66,6 +66,26 @@ public class BuilderOptions {
     // Misc
     @Parameter(names = "--pretty-print")
     private boolean prettyPrinting;
+    @Parameter(names = "--compress-objects")
+    private boolean compressObjects;
+    @Parameter(names = "--compression-ratio")
+    private double compressionRatio = 0.9;
+    @Parameter(names = "--report")
+    private File reportPath;
+    @Parameter(names = "--report-summary")
+    private boolean reportSummary;
+
+    // Publishing
+    @Parameter(names = "--upload-plan")
+    private File uploadPlanPath;
+    @Parameter(names = "--publish-record")
+    private File publishRecordPath;
+    @Parameter(names = "--publish-to")
+    private String publishTarget;
+    @Parameter(names = "--mark-published")
+    private boolean markPublished;
+    @Parameter(names = "--publish-threads")
+    private int publishThreads = 6;
 
     public void choosePaths() throws ParameterException {
         if (configPath == null) {
@@ -97,6 +117,10 @@ public class BuilderOptions {
             requireOutputPath("--libs-dest");
             librariesDir = new File(outputPath, librariesLocation);
         }
+
+        if ((uploadPlanPath != null || publishTarget != null) && outputPath == null) {
+            throw new ParameterException("--output needs to be specified to create an upload plan or to publish");
+        }
     }
 
     private void requireOutputPath(String name) throws ParameterException {
@@ -6,17 +6,21 @@
 
 package com.skcraft.launcher.builder;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closer;
 import com.google.common.io.Files;
 import com.skcraft.launcher.model.modpack.FileInstall;
 import com.skcraft.launcher.model.modpack.Manifest;
 import lombok.NonNull;
+import lombok.Setter;
 import lombok.extern.java.Log;
 import org.apache.commons.io.FilenameUtils;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.util.Set;
 
 /**
  * Walks a path and adds hashed path versions to the given
@@ -25,10 +29,30 @@ import java.io.IOException;
 @Log
 public class ClientFileCollector extends DirectoryWalker {
 
+    /**
+     * Extensions of files that are already compressed and not worth compressing again.
+     */
+    private static final Set<String> COMPRESSED_EXTENSIONS = ImmutableSet.of(
+            "jar", "zip", "gz", "xz", "lzma", "7z", "png", "jpg", "jpeg", "ogg", "mp3");
+
     private final Manifest manifest;
     private final PropertiesApplicator applicator;
     private final File destDir;
     private HashFunction hf = Hashing.sha1();
+    @Setter
+    private BuildReport.Phase phase;
+    /**
+     * If set, a gzip compressor used to write a compressed variant next to
+     * each object that compresses well.
+     */
+    @Setter
+    private Compressor compressor;
+    /**
+     * The largest compressed size, as a fraction of the original size, for
+     * which the compressed variant is kept.
+     */
+    @Setter
+    private double compressionRatio = 0.9;
 
     /**
      * Create a new collector.
@@ -58,6 +82,10 @@ public class ClientFileCollector extends DirectoryWalker {
 
         FileInstall entry = new FileInstall();
         String hash = Files.hash(file, hf).toString();
+        if (phase != null) {
+            phase.addFiles(1);
+            phase.addBytesHashed(file.length());
+        }
         String to = FilenameUtils.separatorsToUnix(FilenameUtils.normalize(relPath));
         
         // url.txt override file
@@ -83,11 +111,59 @@ public class ClientFileCollector extends DirectoryWalker {
         destPath.getParentFile().mkdirs();
         ClientFileCollector.log.info(String.format("Adding %s from %s...", relPath, file.getAbsolutePath()));
         if (copy) {
-            Files.copy(file, destPath);
+            // Objects are named by their hash, so one that's already there doesn't need copying again
+            if (destPath.isFile() && destPath.length() == file.length()) {
+                if (phase != null) phase.addCacheHit();
+            } else {
+                Files.copy(file, destPath);
+                if (phase != null) {
+                    phase.addCacheMiss();
+                    phase.addBytesCopied(file.length());
+                }
+            }
+
+            if (compressor != null) {
+                writeCompressedVariant(entry, file, destPath);
+            }
         }
         manifest.getTasks().add(entry);
     }
 
+    private void writeCompressedVariant(FileInstall entry, File file, File destPath) throws IOException {
+        if (COMPRESSED_EXTENSIONS.contains(FilenameUtils.getExtension(file.getName()).toLowerCase())) {
+            return;
+        }
+
+        File compressedPath = new File(compressor.transformPathname(destPath.getPath()));
+
+        if (!compressedPath.isFile()) {
+            File tempFile = new File(compressedPath.getPath() + ".tmp");
+            Closer closer = Closer.create();
+            try {
+                InputStream in = closer.register(new BufferedInputStream(new FileInputStream(file)));
+                OutputStream out = closer.register(compressor.createOutputStream(
+                        closer.register(new BufferedOutputStream(new FileOutputStream(tempFile)))));
+                ByteStreams.copy(in, out);
+            } finally {
+                closer.close();
+            }
+
+            if (tempFile.length() > file.length() * compressionRatio) {
+                tempFile.delete();
+                return;
+            }
+
+            compressedPath.delete();
+            if (!tempFile.renameTo(compressedPath)) {
+                throw new IOException(String.format("Failed to rename %s to %s", tempFile, compressedPath));
+            }
+        }
+
+        entry.setEncoding(FileInstall.GZIP_ENCODING);
+        entry.setCompressedSize(compressedPath.length());
+        manifest.setMinimumVersion(Math.max(manifest.getMinimumVersion(), Manifest.COMPRESSED_OBJECTS_PROTOCOL_VERSION));
+    }
+
     public static DirectoryBehavior getDirectoryBehavior(@NonNull String name) {
         if (name.startsWith(".")) {
             return DirectoryBehavior.SKIP;
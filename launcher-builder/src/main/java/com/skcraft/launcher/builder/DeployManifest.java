@@ -0,0 +1,40 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records the files that an incremental server export wrote into the
+ * destination directory, so that later exports can skip unchanged files and
+ * remove files that no longer exist in the source.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DeployManifest {
+
+    public static final String FILENAME = ".deploy_manifest.json";
+
+    private Map<String, Entry> files = new TreeMap<String, Entry>();
+
+    public void setFiles(Map<String, Entry> files) {
+        this.files = files != null ? new TreeMap<String, Entry>(files) : new TreeMap<String, Entry>();
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Entry {
+        private long size;
+        private long lastModified;
+        private String hash;
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder;
+
+import com.beust.jcommander.JCommander;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Closer;
+import com.google.common.io.Files;
+import com.skcraft.launcher.selfupdate.BinaryDelta;
+import com.skcraft.launcher.selfupdate.LatestVersionInfo;
+import com.skcraft.launcher.selfupdate.LauncherPatch;
+import com.skcraft.launcher.util.SimpleLogFormatter;
+import lombok.extern.java.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+
+/**
+ * Writes binary patches from previous launcher jars to a new one, and the
+ * {@code latest.json} that advertises them to the self updater.
+ */
+@Log
+public class LauncherPatchBuilder {
+
+    public static void main(String[] args) throws IOException {
+        SimpleLogFormatter.configureGlobalLogger();
+
+        LauncherPatchOptions options = new LauncherPatchOptions();
+        new JCommander(options, args);
+
+        File jarFile = options.getJarFile();
+        File destDir = options.getDestDir();
+        destDir.mkdirs();
+
+        byte[] target = Files.toByteArray(jarFile);
+        String sha1 = Hashing.sha1().hashBytes(target).toString();
+
+        LatestVersionInfo info = new LatestVersionInfo();
+        info.setVersion(options.getVersion());
+        info.setUrl(new URL(options.getJarUrl()));
+        info.setSha1(sha1);
+
+        String patchUrl = options.getPatchUrl();
+        if (!patchUrl.endsWith("/")) {
+            patchUrl += "/";
+        }
+
+        for (String path : options.getPreviousJars()) {
+            File previous = new File(path);
+            byte[] source = Files.toByteArray(previous);
+            String from = Hashing.sha1().hashBytes(source).toString();
+            File patchFile = new File(destDir, from + "-" + sha1 + ".patch");
+
+            Closer closer = Closer.create();
+            try {
+                OutputStream os = closer.register(new BufferedOutputStream(new FileOutputStream(patchFile)));
+                BinaryDelta.diff(source, target, os);
+            } finally {
+                closer.close();
+            }
+
+            log.info("Wrote a patch from " + previous.getName() + " of " + patchFile.length() +
+                    " bytes (" + target.length + " bytes in full)");
+
+            LauncherPatch patch = new LauncherPatch();
+            patch.setFrom(from);
+            patch.setUrl(new URL(patchUrl + patchFile.getName()));
+            patch.setSize(patchFile.length());
+            info.getPatches().add(patch);
+        }
+
+        File latestFile = options.getLatestFile() != null ? options.getLatestFile() : new File(destDir, "latest.json");
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.writerWithDefaultPrettyPrinter().writeValue(latestFile, info);
+
+        log.info("Wrote " + latestFile.getAbsolutePath());
+    }
+
+}
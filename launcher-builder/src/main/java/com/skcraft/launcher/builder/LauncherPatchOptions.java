@@ -0,0 +1,34 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder;
+
+import com.beust.jcommander.Parameter;
+import lombok.Data;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class LauncherPatchOptions {
+
+    @Parameter(names = "--version", required = true)
+    private String version;
+    @Parameter(names = "--jar", required = true)
+    private File jarFile;
+    @Parameter(names = "--jar-url", required = true)
+    private String jarUrl;
+    @Parameter(names = "--from")
+    private List<String> previousJars = new ArrayList<String>();
+    @Parameter(names = "--patch-url", required = true)
+    private String patchUrl;
+    @Parameter(names = "--dest", required = true)
+    private File destDir;
+    @Parameter(names = "--latest-dest")
+    private File latestFile;
+
+}
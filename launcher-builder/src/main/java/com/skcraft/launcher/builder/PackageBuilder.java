@@ -17,9 +17,14 @@ import com.google.common.collect.Lists;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Closer;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.skcraft.launcher.Launcher;
 import com.skcraft.launcher.LauncherUtils;
 import com.skcraft.launcher.builder.loaders.*;
+import com.skcraft.launcher.builder.publish.*;
 import com.skcraft.launcher.model.loader.BasicInstallProfile;
 import com.skcraft.launcher.model.minecraft.Library;
 import com.skcraft.launcher.model.minecraft.ReleaseList;
@@ -32,13 +37,18 @@ import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import lombok.extern.java.Log;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
 
 import java.io.*;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.jar.JarFile;
 import java.util.logging.Level;
 import java.util.zip.ZipEntry;
@@ -67,6 +77,12 @@ public class PackageBuilder {
     private List<Library> installerLibraries = Lists.newArrayList();
     private List<String> mavenRepos;
     private List<URL> jarMavens = Lists.newArrayList();
+    @Getter
+    private final BuildReport report = new BuildReport();
+    @Getter @Setter
+    private boolean compressObjects;
+    @Getter @Setter
+    private double compressionRatio = 0.9;
 
     /**
      * Create a new package builder.
@@ -102,40 +118,101 @@ public class PackageBuilder {
     }
 
     public void scan(File dir) throws IOException {
-        logSection("Scanning for .info.json files...");
+        BuildReport.Phase phase = report.startPhase("scan");
 
-        FileInfoScanner infoScanner = new FileInfoScanner(mapper);
-        infoScanner.walk(dir);
-        for (FeaturePattern pattern : infoScanner.getPatterns()) {
-            applicator.register(pattern);
-        }
+        try {
+            logSection("Scanning for .info.json files...");
+
+            FileInfoScanner infoScanner = new FileInfoScanner(mapper);
+            infoScanner.walk(dir);
+            for (FeaturePattern pattern : infoScanner.getPatterns()) {
+                applicator.register(pattern);
+            }
 
-        logSection("Scanning for .url.txt files...");
-        FileUrlScanner urlScanner = new FileUrlScanner();
-        urlScanner.walk(dir);
+            logSection("Scanning for .url.txt files...");
+            FileUrlScanner urlScanner = new FileUrlScanner();
+            urlScanner.walk(dir);
+        } finally {
+            phase.end();
+        }
     }
 
     public void addFiles(File dir, File destDir) throws IOException {
-        logSection("Adding files to modpack...");
+        BuildReport.Phase phase = report.startPhase("files");
+
+        try {
+            logSection("Adding files to modpack...");
 
-        ClientFileCollector collector = new ClientFileCollector(this.manifest, applicator, destDir);
-        collector.walk(dir);
+            ClientFileCollector collector = new ClientFileCollector(this.manifest, applicator, destDir);
+            collector.setPhase(phase);
+            if (compressObjects) {
+                collector.setCompressor(new Compressor("gz", CompressorStreamFactory.GZIP));
+                collector.setCompressionRatio(compressionRatio);
+            }
+            collector.walk(dir);
+        } finally {
+            phase.end();
+        }
+    }
+
+    public void addLoaders(File dir, File librariesDir) throws InterruptedException {
+        BuildReport.Phase phase = report.startPhase("loaders");
+
+        try {
+            addLoaders(dir, librariesDir, phase);
+        } finally {
+            phase.end();
+        }
     }
 
-    public void addLoaders(File dir, File librariesDir) {
+    private void addLoaders(File dir, File librariesDir, BuildReport.Phase phase) throws InterruptedException {
         logSection("Checking for mod loaders to install...");
 
         VersionManifest version = manifest.getVersionManifest();
 	    LinkedHashSet<Library> collected = new LinkedHashSet<>();
 
         File[] files = dir.listFiles(new JarFileFilter());
-        if (files != null) {
-            for (File file : files) {
+        if (files != null && files.length > 0) {
+            // Process in a fixed order so that merged results don't depend on the file system
+            Arrays.sort(files);
+            phase.addFiles(files.length);
+
+            // Loaders are independent of each other, so process them all at once and merge
+            // the results afterwards; this is mostly I/O and (for Fabric) network bound
+            ListeningExecutorService executor = MoreExecutors.listeningDecorator(
+                    Executors.newFixedThreadPool(files.length));
+
+            try {
+                List<ListenableFuture<LoaderResult>> futures = Lists.newArrayList();
+
+                for (final File file : files) {
+                    futures.add(executor.submit(new Callable<LoaderResult>() {
+                        @Override
+                        public LoaderResult call() {
+                            try {
+                                return processLoader(file, librariesDir);
+                            } catch (IOException e) {
+                                log.log(Level.WARNING, "Failed to add the loader at " + file.getAbsolutePath(), e);
+                                return null;
+                            }
+                        }
+                    }));
+                }
+
+                List<LoaderResult> results;
                 try {
-                    processLoader(collected, file, librariesDir);
-                } catch (IOException e) {
-                    log.log(Level.WARNING, "Failed to add the loader at " + file.getAbsolutePath(), e);
+                    results = Futures.allAsList(futures).get();
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Failed to process loaders", e.getCause());
+                }
+
+                for (LoaderResult result : results) {
+                    if (result != null) {
+                        mergeLoaderResult(collected, result);
+                    }
                 }
+            } finally {
+                executor.shutdownNow();
             }
         }
 
@@ -145,7 +222,7 @@ public class PackageBuilder {
         version.setLibraries(collected);
     }
 
-    private void processLoader(LinkedHashSet<Library> loaderLibraries, File file, File librariesDir) throws IOException {
+    private LoaderResult processLoader(File file, File librariesDir) throws IOException {
         log.info("Installing " + file.getName() + "...");
 
         JarFile jarFile = new JarFile(file);
@@ -182,19 +259,52 @@ public class PackageBuilder {
 
             if (result == null) {
                 log.warning("Loader " + file.getName() + " failed to process.");
-                return;
             }
 
-            loaderLibraries.addAll(result.getLoaderLibraries());
-            installerLibraries.addAll(result.getProcessorLibraries());
-            jarMavens.addAll(result.getJarMavens());
+            return result;
         } else {
             log.warning("Loader " + file.getName() + " was skipped due to missing metadata. " +
                     "Is it really a loader JAR?");
+            return null;
         }
     }
 
+    private void mergeLoaderResult(LinkedHashSet<Library> loaderLibraries, LoaderResult result) {
+        VersionManifest version = manifest.getVersionManifest();
+
+        if (result.isOverridingArguments()) {
+            version.getArguments().getGameArguments().clear();
+        }
+        version.getArguments().getGameArguments().addAll(result.getGameArguments());
+        version.getArguments().getJvmArguments().addAll(result.getJvmArguments());
+
+        if (result.getLogging() != null) {
+            version.setLogging(result.getLogging());
+        }
+
+        if (result.getMainClass() != null) {
+            version.setMainClass(result.getMainClass());
+        }
+
+        manifest.getLoaders().putAll(result.getLoaders());
+        manifest.getTasks().addAll(result.getTasks());
+
+        loaderLibraries.addAll(result.getLoaderLibraries());
+        installerLibraries.addAll(result.getProcessorLibraries());
+        jarMavens.addAll(result.getJarMavens());
+    }
+
     public void downloadLibraries(File librariesDir) throws IOException, InterruptedException {
+        BuildReport.Phase phase = report.startPhase("libraries");
+
+        try {
+            downloadLibraries(librariesDir, phase);
+        } finally {
+            phase.end();
+        }
+    }
+
+    private void downloadLibraries(File librariesDir, BuildReport.Phase phase) throws IOException, InterruptedException {
         logSection("Downloading libraries...");
 
         for (Library library : Iterables.concat(loaderLibraries, installerLibraries)) {
@@ -202,21 +312,25 @@ public class PackageBuilder {
 
             for (Library.Artifact artifact : library.getDownloads().getAllArtifacts()) {
                 File outputPath = new File(librariesDir, artifact.getPath());
+                phase.addFiles(1);
 
-                if (!outputPath.exists()) {
+                if (outputPath.exists()) {
+                    phase.addCacheHit();
+                } else {
+                    phase.addCacheMiss();
                     Files.createParentDirs(outputPath);
                     boolean found = false;
                     boolean urlEmpty = artifact.getUrl().isEmpty();
 
                     // If URL doesn't end with a /, it might be the direct file
                     if (!urlEmpty && !artifact.getUrl().endsWith("/")) {
-                        found = tryDownloadLibrary(library, artifact, artifact.getUrl(), outputPath);
+                        found = tryDownloadLibrary(library, artifact, artifact.getUrl(), outputPath, phase);
                     }
 
                     // Look inside the loader JARs
                     if (!found) {
                         for (URL base : jarMavens) {
-                            found = tryFetchLibrary(library, new URL(base, artifact.getPath()), outputPath);
+                            found = tryFetchLibrary(library, new URL(base, artifact.getPath()), outputPath, phase);
                             if (found) break;
                         }
                     }
@@ -224,14 +338,14 @@ public class PackageBuilder {
                     // Assume artifact URL is a maven repository URL and try that
                     if (!found && !urlEmpty) {
                         URL url = LauncherUtils.concat(url(artifact.getUrl()), artifact.getPath());
-                        found = tryDownloadLibrary(library, artifact, url.toString(), outputPath);
+                        found = tryDownloadLibrary(library, artifact, url.toString(), outputPath, phase);
                     }
 
                     // Try each repository if not found yet
                     if (!found) {
                         for (String baseUrl : mavenRepos) {
                             found = tryDownloadLibrary(library, artifact, baseUrl + artifact.getPath(),
-                                    outputPath);
+                                    outputPath, phase);
                             if (found) break;
                         }
                     }
@@ -245,8 +359,8 @@ public class PackageBuilder {
         }
     }
 
-    private boolean tryDownloadLibrary(Library library, Library.Artifact artifact, String baseUrl, File outputPath)
-            throws IOException, InterruptedException {
+    private boolean tryDownloadLibrary(Library library, Library.Artifact artifact, String baseUrl, File outputPath,
+                                       BuildReport.Phase phase) throws IOException, InterruptedException {
         URL url = new URL(baseUrl);
 
         if (url.getPath().isEmpty() || url.getPath().equals("/")) {
@@ -261,6 +375,7 @@ public class PackageBuilder {
         }
 
         File tempFile = File.createTempFile("launcherlib", null);
+        long start = System.currentTimeMillis();
 
         try {
             log.info("Downloading library " + library.getName() + " from " + url + "...");
@@ -270,13 +385,16 @@ public class PackageBuilder {
         } catch (IOException e) {
             log.info("Could not get file from " + url + ": " + e.getMessage());
             return false;
+        } finally {
+            phase.addNetworkWait(System.currentTimeMillis() - start);
         }
 
+        phase.addBytesCopied(tempFile.length());
         writeLibraryToFile(outputPath, tempFile, compressors);
         return true;
     }
 
-    private boolean tryFetchLibrary(Library library, URL url, File outputPath)
+    private boolean tryFetchLibrary(Library library, URL url, File outputPath, BuildReport.Phase phase)
             throws IOException {
         File tempFile = File.createTempFile("launcherlib", null);
 
@@ -294,6 +412,7 @@ public class PackageBuilder {
             closer.close();
         }
 
+        phase.addBytesCopied(tempFile.length());
         writeLibraryToFile(outputPath, tempFile, Collections.<Compressor>emptyList());
         return true;
     }
@@ -326,6 +445,16 @@ public class PackageBuilder {
     }
 
     public void readVersionManifest(File path) throws IOException, InterruptedException {
+        BuildReport.Phase phase = report.startPhase("version");
+
+        try {
+            readVersionManifest(path, phase);
+        } finally {
+            phase.end();
+        }
+    }
+
+    private void readVersionManifest(File path, BuildReport.Phase phase) throws IOException, InterruptedException {
         logSection("Reading version manifest...");
 
         if (path.exists()) {
@@ -337,6 +466,7 @@ public class PackageBuilder {
             URL url = url(properties.getProperty("versionManifestUrl"));
 
             log.info("Fetching version manifest from " + url + "...");
+            long start = System.currentTimeMillis();
 
             ReleaseList releases = HttpRequest.get(url)
                     .execute()
@@ -351,23 +481,101 @@ public class PackageBuilder {
                 .returnContent()
                 .asJson(VersionManifest.class);
 
+            phase.addNetworkWait(System.currentTimeMillis() - start);
             manifest.setVersionManifest(versionManifest);
         }
     }
 
     public void writeManifest(@NonNull File path) throws IOException {
-        logSection("Writing manifest...");
+        BuildReport.Phase phase = report.startPhase("manifest");
+
+        try {
+            logSection("Writing manifest...");
 
-        manifest.setFeatures(applicator.getFeaturesInUse());
-        VersionManifest versionManifest = manifest.getVersionManifest();
-        if (versionManifest != null) {
-            versionManifest.setId(manifest.getGameVersion());
+            manifest.setFeatures(applicator.getFeaturesInUse());
+            VersionManifest versionManifest = manifest.getVersionManifest();
+            if (versionManifest != null) {
+                versionManifest.setId(manifest.getGameVersion());
+            }
+            validateManifest();
+            path.getAbsoluteFile().getParentFile().mkdirs();
+            writer.writeValue(path, manifest);
+            phase.addFiles(1);
+            phase.addBytesCopied(path.length());
+
+            log.info("Wrote manifest to " + path.getAbsolutePath());
+        } finally {
+            phase.end();
         }
-        validateManifest();
+    }
+
+    /**
+     * Work out which files need to be uploaded, and optionally upload them.
+     *
+     * @param options the options
+     * @throws IOException thrown on I/O error
+     * @throws InterruptedException on interruption
+     */
+    public void publish(@NonNull BuilderOptions options) throws IOException, InterruptedException {
+        BuildReport.Phase phase = report.startPhase("publish");
+
+        try {
+            logSection("Planning upload...");
+
+            PublishRecord record = options.getPublishRecordPath() != null
+                    ? PublishRecord.load(options.getPublishRecordPath())
+                    : null;
+            UploadPlan plan = UploadPlan.create(options.getOutputPath(), options.getObjectsDir(), record,
+                    Collections.singletonList(options.getManifestPath()));
+            phase.addFiles(plan.getItems().size());
+
+            log.info(plan.getItems().size() + " file(s) (" + plan.getTotalSize() + " bytes) need to be uploaded; " +
+                    plan.getSkippedCount() + " object(s) (" + plan.getSkippedSize() + " bytes) were already published");
+
+            if (options.getUploadPlanPath() != null) {
+                options.getUploadPlanPath().getAbsoluteFile().getParentFile().mkdirs();
+                mapper.writerWithDefaultPrettyPrinter().writeValue(options.getUploadPlanPath(), plan);
+                log.info("Wrote upload plan to " + options.getUploadPlanPath().getAbsolutePath());
+            }
+
+            if (options.getPublishTarget() != null) {
+                logSection("Publishing...");
+
+                long start = System.currentTimeMillis();
+                PlanUploader uploader = new PlanUploader(createPublisher(options.getPublishTarget()),
+                        options.getOutputPath(), record);
+                uploader.setThreadCount(options.getPublishThreads());
+                uploader.upload(plan);
+                phase.addNetworkWait(System.currentTimeMillis() - start);
+                phase.addBytesCopied(plan.getTotalSize());
+            } else if (options.isMarkPublished() && record != null) {
+                // The plan will be uploaded by something else
+                for (UploadPlan.Item item : plan.getItems()) {
+                    if (item.getHash() != null) {
+                        record.add(item.getHash());
+                    }
+                }
+            }
+        } finally {
+            phase.end();
+        }
+    }
+
+    private static Publisher createPublisher(String target) {
+        if (target.matches("^https?://.*")) {
+            return new HttpPutPublisher(url(target.endsWith("/") ? target : target + "/"));
+        } else {
+            return new FileSystemPublisher(new File(target));
+        }
+    }
+
+    public void writeReport(@NonNull File path) throws IOException {
+        report.setName(manifest.getName());
+        report.setVersion(manifest.getVersion());
         path.getAbsoluteFile().getParentFile().mkdirs();
-        writer.writeValue(path, manifest);
+        mapper.writerWithDefaultPrettyPrinter().writeValue(path, report);
 
-        log.info("Wrote manifest to " + path.getAbsolutePath());
+        log.info("Wrote build report to " + path.getAbsolutePath());
     }
 
     private static BuilderOptions parseArgs(String[] args) {
@@ -409,8 +617,25 @@ public class PackageBuilder {
             return;
         }
 
-        // Initialize
         SimpleLogFormatter.configureGlobalLogger();
+        build(options);
+    }
+
+    /**
+     * Build a package given the arguments and return the build report.
+     *
+     * @param args arguments
+     * @return the build report
+     * @throws ParameterException thrown on invalid arguments
+     * @throws IOException thrown on I/O error
+     * @throws InterruptedException on interruption
+     */
+    public static BuildReport build(String[] args) throws IOException, InterruptedException {
+        return build(parseArgs(args));
+    }
+
+    private static BuildReport build(BuilderOptions options) throws IOException, InterruptedException {
+        // Initialize
         ObjectMapper mapper = new ObjectMapper();
         mapper.setSerializationInclusion(JsonInclude.Include.NON_ABSENT);
 
@@ -418,6 +643,8 @@ public class PackageBuilder {
         manifest.setMinimumVersion(Manifest.MIN_PROTOCOL_VERSION);
         PackageBuilder builder = new PackageBuilder(mapper, manifest);
         builder.setPrettyPrint(options.isPrettyPrinting());
+        builder.setCompressObjects(options.isCompressObjects());
+        builder.setCompressionRatio(options.getCompressionRatio());
 
         // From config
         builder.readConfig(options.getConfigPath());
@@ -438,9 +665,31 @@ public class PackageBuilder {
         builder.downloadLibraries(options.getLibrariesDir());
         builder.writeManifest(options.getManifestPath());
 
+        if (options.getUploadPlanPath() != null || options.getPublishTarget() != null) {
+            builder.publish(options);
+        }
+
+        BuildReport report = builder.getReport();
+        report.finish();
+        if (options.getReportPath() != null) {
+            builder.writeReport(options.getReportPath());
+        }
+
         logSection("Done");
 
-        log.info("Now upload the contents of " + options.getOutputPath() + " to your web server or CDN!");
+        if (options.isReportSummary()) {
+            log.info("Build summary:\n" + report.toSummary());
+        }
+
+        if (options.getPublishTarget() != null) {
+            log.info("Published the contents of " + options.getOutputPath() + " to " + options.getPublishTarget());
+        } else if (options.getUploadPlanPath() != null) {
+            log.info("Now upload the files listed in " + options.getUploadPlanPath() + " to your web server or CDN!");
+        } else {
+            log.info("Now upload the contents of " + options.getOutputPath() + " to your web server or CDN!");
+        }
+
+        return report;
     }
 
     private static void logSection(String name) {
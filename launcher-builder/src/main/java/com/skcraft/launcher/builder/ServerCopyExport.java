@@ -7,19 +7,64 @@
 package com.skcraft.launcher.builder;
 
 import com.beust.jcommander.JCommander;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Closer;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.skcraft.launcher.util.SimpleLogFormatter;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 import lombok.extern.java.Log;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import static com.skcraft.launcher.LauncherUtils.checkInterrupted;
 
 @Log
 public class ServerCopyExport extends DirectoryWalker {
 
+    private final HashFunction hf = Hashing.sha1();
+    private final ObjectMapper mapper = new ObjectMapper();
     private final File destDir;
 
+    /**
+     * If true, files are only copied if they differ from the copy recorded in the
+     * {@link DeployManifest} of the destination directory, and files that were
+     * removed from the source are removed from the destination.
+     */
+    @Getter @Setter private boolean incremental;
+    /**
+     * If true, an incremental export also compares SHA-1 hashes rather than
+     * trusting matching sizes and modification times.
+     */
+    @Getter @Setter private boolean checkHashes;
+    @Getter @Setter private int threadCount = 4;
+
+    private final Map<String, File> pending = new LinkedHashMap<String, File>();
+
+    @Getter private final AtomicInteger copiedCount = new AtomicInteger();
+    @Getter private final AtomicLong copiedBytes = new AtomicLong();
+    @Getter private final AtomicInteger skippedCount = new AtomicInteger();
+    @Getter private final AtomicLong skippedBytes = new AtomicLong();
+    @Getter private final AtomicInteger removedCount = new AtomicInteger();
+
     public ServerCopyExport(@NonNull File destDir) {
         this.destDir = destDir;
     }
@@ -39,6 +84,11 @@ public class ServerCopyExport extends DirectoryWalker {
 
     @Override
     protected void onFile(File file, String relPath) throws IOException {
+        if (incremental) {
+            pending.put(relPath, file);
+            return;
+        }
+
         File dest = new File(destDir, relPath);
 
         log.info("Copying " + file.getAbsolutePath() + " to " + dest.getAbsolutePath());
@@ -46,7 +96,175 @@ public class ServerCopyExport extends DirectoryWalker {
         Files.copy(file, dest);
     }
 
-    public static void main(String[] args) throws IOException {
+    /**
+     * Export the given source directory to the destination directory.
+     *
+     * @param sourceDir the source directory
+     * @throws IOException thrown on I/O error
+     * @throws InterruptedException thrown on interruption
+     */
+    public void export(@NonNull File sourceDir) throws IOException, InterruptedException {
+        pending.clear();
+        walk(sourceDir);
+
+        if (incremental) {
+            synchronize();
+        }
+    }
+
+    private void synchronize() throws IOException, InterruptedException {
+        File manifestFile = new File(destDir, DeployManifest.FILENAME);
+        DeployManifest previous = manifestFile.exists()
+                ? mapper.readValue(manifestFile, DeployManifest.class)
+                : new DeployManifest();
+        final DeployManifest current = new DeployManifest();
+
+        ListeningExecutorService executor = MoreExecutors.listeningDecorator(
+                Executors.newFixedThreadPool(threadCount));
+
+        try {
+            List<ListenableFuture<DeployManifest.Entry>> futures = new ArrayList<ListenableFuture<DeployManifest.Entry>>();
+            final List<String> paths = new ArrayList<String>(pending.keySet());
+
+            for (String relPath : paths) {
+                final File file = pending.get(relPath);
+                final File dest = new File(destDir, relPath);
+                final DeployManifest.Entry recorded = previous.getFiles().get(relPath);
+
+                futures.add(executor.submit(new Callable<DeployManifest.Entry>() {
+                    @Override
+                    public DeployManifest.Entry call() throws Exception {
+                        return syncFile(file, dest, recorded);
+                    }
+                }));
+            }
+
+            List<DeployManifest.Entry> entries;
+            try {
+                entries = Futures.allAsList(futures).get();
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to copy server files", e.getCause());
+            }
+
+            for (int i = 0; i < paths.size(); i++) {
+                current.getFiles().put(paths.get(i), entries.get(i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Remove files that we put there before but which are gone from the source
+        for (String relPath : previous.getFiles().keySet()) {
+            checkInterrupted();
+
+            if (!current.getFiles().containsKey(relPath)) {
+                File dest = new File(destDir, relPath);
+                if (dest.exists()) {
+                    log.info("Removing " + dest.getAbsolutePath());
+                    if (dest.delete()) {
+                        removedCount.incrementAndGet();
+                        removeEmptyParents(dest.getParentFile());
+                    } else {
+                        log.warning("Failed to delete " + dest.getAbsolutePath());
+                    }
+                }
+            }
+        }
+
+        mapper.writeValue(manifestFile, current);
+
+        log.info(String.format("Copied %d file(s) (%d bytes), skipped %d unchanged file(s) (%d bytes saved), " +
+                "removed %d file(s)", copiedCount.get(), copiedBytes.get(), skippedCount.get(), skippedBytes.get(),
+                removedCount.get()));
+    }
+
+    private DeployManifest.Entry syncFile(File file, File dest, DeployManifest.Entry recorded)
+            throws IOException, InterruptedException {
+        checkInterrupted();
+
+        DeployManifest.Entry entry = new DeployManifest.Entry();
+        entry.setSize(file.length());
+        entry.setLastModified(file.lastModified());
+        if (checkHashes) {
+            entry.setHash(Files.hash(file, hf).toString());
+        }
+
+        if (isUnchanged(entry, dest, recorded)) {
+            if (entry.getHash() == null && recorded != null) {
+                entry.setHash(recorded.getHash());
+            }
+            skippedCount.incrementAndGet();
+            skippedBytes.addAndGet(entry.getSize());
+            return entry;
+        }
+
+        log.info("Copying " + file.getAbsolutePath() + " to " + dest.getAbsolutePath());
+        dest.getParentFile().mkdirs();
+        copyFile(file, dest);
+        if (!dest.setLastModified(entry.getLastModified())) {
+            log.log(Level.FINE, "Could not set the modification time of " + dest.getAbsolutePath());
+        }
+        copiedCount.incrementAndGet();
+        copiedBytes.addAndGet(entry.getSize());
+        return entry;
+    }
+
+    private boolean isUnchanged(DeployManifest.Entry entry, File dest, DeployManifest.Entry recorded)
+            throws IOException {
+        if (recorded == null || !dest.isFile()) {
+            return false;
+        }
+
+        if (dest.length() != entry.getSize() || recorded.getSize() != entry.getSize()) {
+            return false;
+        }
+
+        if (dest.lastModified() != entry.getLastModified() || recorded.getLastModified() != entry.getLastModified()) {
+            return false;
+        }
+
+        if (checkHashes) {
+            String destHash = recorded.getHash() != null ? recorded.getHash() : Files.hash(dest, hf).toString();
+            return destHash.equals(entry.getHash());
+        }
+
+        return true;
+    }
+
+    private void removeEmptyParents(File dir) {
+        File root = destDir.getAbsoluteFile();
+        dir = dir.getAbsoluteFile();
+
+        while (dir != null && !dir.equals(root)) {
+            String[] children = dir.list();
+            if (children == null || children.length > 0 || !dir.delete()) {
+                break;
+            }
+            dir = dir.getParentFile();
+        }
+    }
+
+    private static void copyFile(File from, File to) throws IOException {
+        Closer closer = Closer.create();
+        try {
+            FileChannel in = closer.register(new FileInputStream(from)).getChannel();
+            FileChannel out = closer.register(new FileOutputStream(to)).getChannel();
+            long size = in.size();
+            long position = 0;
+
+            while (position < size) {
+                long transferred = in.transferTo(position, size - position, out);
+                if (transferred <= 0) {
+                    throw new IOException("Failed to copy " + from.getAbsolutePath() + " (file changed while copying?)");
+                }
+                position += transferred;
+            }
+        } finally {
+            closer.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
         SimpleLogFormatter.configureGlobalLogger();
 
         ServerExportOptions options = new ServerExportOptions();
@@ -55,7 +273,10 @@ public class ServerCopyExport extends DirectoryWalker {
         log.info("From: " + options.getSourceDir().getAbsolutePath());
         log.info("To: " + options.getDestDir().getAbsolutePath());
         ServerCopyExport task = new ServerCopyExport(options.getDestDir());
-        task.walk(options.getSourceDir());
+        task.setIncremental(options.isIncremental());
+        task.setCheckHashes(options.isCheckHashes());
+        task.setThreadCount(options.getThreadCount());
+        task.export(options.getSourceDir());
     }
 
 }
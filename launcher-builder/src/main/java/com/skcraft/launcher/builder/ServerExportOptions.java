@@ -18,5 +18,11 @@ public class ServerExportOptions {
     private File sourceDir;
     @Parameter(names = "--dest", required = true)
     private File destDir;
+    @Parameter(names = "--incremental")
+    private boolean incremental;
+    @Parameter(names = "--check-hashes")
+    private boolean checkHashes;
+    @Parameter(names = "--threads")
+    private int threadCount = 4;
 
 }
@@ -78,7 +78,7 @@ public class FabricLoaderProcessor implements ILoaderProcessor {
 
 			String mainClass = fabricManifest.getMainClass();
 			if (mainClass != null) {
-				manifest.getVersionManifest().setMainClass(mainClass);
+				result.setMainClass(mainClass);
 				log.info("Using main class " + mainClass);
 			}
 		} catch (InterruptedException e) {
@@ -1,15 +1,38 @@
 package com.skcraft.launcher.builder.loaders;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.skcraft.launcher.model.loader.LoaderManifest;
+import com.skcraft.launcher.model.loader.SidedData;
+import com.skcraft.launcher.model.minecraft.GameArgument;
 import com.skcraft.launcher.model.minecraft.Library;
+import com.skcraft.launcher.model.minecraft.VersionManifest;
+import com.skcraft.launcher.model.modpack.ManifestEntry;
 import lombok.Data;
 
 import java.net.URL;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * The output of a single {@link ILoaderProcessor}.
+ *
+ * <p>Loaders are processed concurrently, so processors must not modify the
+ * shared manifest themselves. Instead they record their changes here and the
+ * builder merges the results, in loader file order, once every loader has
+ * been processed.</p>
+ */
 @Data
 public class LoaderResult {
 	private final List<Library> loaderLibraries = Lists.newArrayList();
 	private final List<Library> processorLibraries = Lists.newArrayList();
 	private final List<URL> jarMavens = Lists.newArrayList();
+
+	private String mainClass;
+	private boolean overridingArguments;
+	private final List<GameArgument> gameArguments = Lists.newArrayList();
+	private final List<GameArgument> jvmArguments = Lists.newArrayList();
+	private SidedData<VersionManifest.LoggingConfig> logging;
+	private final Map<String, LoaderManifest> loaders = Maps.newLinkedHashMap();
+	private final List<ManifestEntry> tasks = Lists.newArrayList();
 }
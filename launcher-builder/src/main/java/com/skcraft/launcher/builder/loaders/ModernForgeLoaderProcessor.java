@@ -42,8 +42,6 @@ public class ModernForgeLoaderProcessor implements ILoaderProcessor {
 				VersionInfo info = mapper.readValue(
 						BuilderUtils.readStringFromStream(closer.register(new InputStreamReader(stream))),
 						VersionInfo.class);
-				VersionManifest version = manifest.getVersionManifest();
-
 				if (info.getId() != null) {
 					loaderName = info.getId();
 				}
@@ -51,17 +49,14 @@ public class ModernForgeLoaderProcessor implements ILoaderProcessor {
 				// Copy game arguments
 				List<GameArgument> gameArguments = info.getArguments().getGameArguments();
 				if (gameArguments != null) {
-					if (info.isOverridingArguments()) {
-						version.getArguments().getGameArguments().clear();
-					}
-
-					version.getArguments().getGameArguments().addAll(gameArguments);
+					result.setOverridingArguments(info.isOverridingArguments());
+					result.getGameArguments().addAll(gameArguments);
 				}
 
 				// Copy JVM arguments
 				List<GameArgument> jvmArguments = info.getArguments().getJvmArguments();
 				if (jvmArguments != null) {
-					version.getArguments().getJvmArguments().addAll(jvmArguments);
+					result.getJvmArguments().addAll(jvmArguments);
 				}
 
 				// Add libraries
@@ -76,13 +71,13 @@ public class ModernForgeLoaderProcessor implements ILoaderProcessor {
 				// Copy logging config
 				SidedData<VersionManifest.LoggingConfig> loggingConfig = info.getLogging();
 				if (loggingConfig != null) {
-					version.setLogging(loggingConfig);
+					result.setLogging(loggingConfig);
 				}
 
 				// Copy main class
 				String mainClass = info.getMainClass();
 				if (mainClass != null) {
-					version.setMainClass(mainClass);
+					result.setMainClass(mainClass);
 					log.info("Using " + mainClass + " as the main class");
 				}
 			} else {
@@ -154,7 +149,7 @@ public class ModernForgeLoaderProcessor implements ILoaderProcessor {
 				profile.getData().put("SIDE", SidedData.create("client", "server"));
 
 				// Add loader manifest to the map
-				manifest.getLoaders().put(loaderName, new LoaderManifest(profile.getLibraries(), profile.getData(), extraFiles));
+				result.getLoaders().put(loaderName, new LoaderManifest(profile.getLibraries(), profile.getData(), extraFiles));
 
 				// Find name of final patched library and mark it as excluded from download
 				// TODO: we should generalize this to all process outputs, really
@@ -173,7 +168,7 @@ public class ModernForgeLoaderProcessor implements ILoaderProcessor {
 				}
 
 				// Add processors
-				manifest.getTasks().addAll(profile.toProcessorEntries(loaderName));
+				result.getTasks().addAll(profile.toProcessorEntries(loaderName));
 			}
 
 			ZipEntry mavenEntry = BuilderUtils.getZipEntry(jarFile, "maven/");
@@ -36,7 +36,6 @@ public class OldForgeLoaderProcessor implements ILoaderProcessor {
 				// Read file
 				String data = BuilderUtils.readStringFromStream(closer.register(new InputStreamReader(stream)));
 				LegacyInstallProfile profile = mapper.readValue(data, LegacyInstallProfile.class);
-				VersionManifest version = manifest.getVersionManifest();
 
 				// Copy tweak class arguments
 				MinecraftArguments args = profile.getVersionInfo().getArguments();
@@ -49,7 +48,7 @@ public class OldForgeLoaderProcessor implements ILoaderProcessor {
 									? cur.getValues().get(1)
 									: iter.next().getJoinedValue();
 
-							List<GameArgument> gameArgs = manifest.getVersionManifest().getArguments().getGameArguments();
+							List<GameArgument> gameArgs = result.getGameArguments();
 							gameArgs.add(new GameArgument("--tweakClass"));
 							gameArgs.add(new GameArgument(tweakClass));
 
@@ -67,7 +66,7 @@ public class OldForgeLoaderProcessor implements ILoaderProcessor {
 				// Copy main class
 				String mainClass = profile.getVersionInfo().getMainClass();
 				if (mainClass != null) {
-					version.setMainClass(mainClass);
+					result.setMainClass(mainClass);
 					log.info("Using " + mainClass + " as the main class");
 				}
 
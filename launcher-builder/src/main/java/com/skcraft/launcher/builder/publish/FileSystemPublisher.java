@@ -0,0 +1,45 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder.publish;
+
+import com.google.common.io.Files;
+import lombok.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Publishes files by copying them into a directory, such as the document root
+ * of a local web server or a mounted network share.
+ */
+public class FileSystemPublisher implements Publisher {
+
+    private final File destDir;
+
+    public FileSystemPublisher(@NonNull File destDir) {
+        this.destDir = destDir;
+    }
+
+    @Override
+    public void publish(File file, String path) throws IOException {
+        File dest = new File(destDir, path);
+        File tempFile = new File(dest.getParentFile(), dest.getName() + ".tmp");
+        Files.createParentDirs(dest);
+        Files.copy(file, tempFile);
+
+        dest.delete();
+        if (!tempFile.renameTo(dest)) {
+            throw new IOException(String.format("Failed to rename %s to %s", tempFile, dest));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return destDir.getAbsolutePath();
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder.publish;
+
+import com.skcraft.launcher.LauncherUtils;
+import com.skcraft.launcher.util.HttpRequest;
+import lombok.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Publishes files with HTTP PUT requests, as supported by WebDAV servers and
+ * most object storage services.
+ */
+public class HttpPutPublisher implements Publisher {
+
+    private final URL baseUrl;
+    private final Map<String, String> headers = new HashMap<String, String>();
+
+    /**
+     * Create a new publisher.
+     *
+     * @param baseUrl the base URL, which should end in a forward slash
+     */
+    public HttpPutPublisher(@NonNull URL baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Add a header to send with every request, such as for authorization.
+     *
+     * @param key the header key
+     * @param value the header value
+     */
+    public void addHeader(String key, String value) {
+        headers.put(key, value);
+    }
+
+    @Override
+    public void publish(File file, String path) throws IOException, InterruptedException {
+        URL url = LauncherUtils.concat(baseUrl, path);
+        HttpRequest request = HttpRequest.request("PUT", url).bodyFile(file, "application/octet-stream");
+
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            request.header(entry.getKey(), entry.getValue());
+        }
+
+        try {
+            request.execute().expectResponseCode(200, 201, 204);
+        } finally {
+            request.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return baseUrl.toString();
+    }
+
+}
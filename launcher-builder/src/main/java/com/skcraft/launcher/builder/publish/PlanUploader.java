@@ -0,0 +1,148 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder.publish;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Uploads the items of an {@link UploadPlan} in parallel using a {@link Publisher}.
+ */
+@Log
+public class PlanUploader {
+
+    private final Random random = new Random();
+    private final Publisher publisher;
+    private final File outputDir;
+    private final PublishRecord record;
+    @Getter @Setter private int threadCount = 6;
+    @Getter @Setter private int retryDelay = 2000;
+    @Getter @Setter private int tryCount = 3;
+
+    private final AtomicInteger failed = new AtomicInteger();
+
+    /**
+     * Create a new uploader.
+     *
+     * @param publisher the publisher
+     * @param outputDir the directory that the paths of the plan are relative to
+     * @param record the record to add published objects to, or null
+     */
+    public PlanUploader(@NonNull Publisher publisher, @NonNull File outputDir, PublishRecord record) {
+        this.publisher = publisher;
+        this.outputDir = outputDir;
+        this.record = record;
+    }
+
+    /**
+     * Upload every item in the plan.
+     *
+     * <p>Objects are uploaded before the other files so that a manifest is
+     * never published before the objects that it refers to.</p>
+     *
+     * @param plan the plan
+     * @throws IOException thrown if any item could not be uploaded
+     * @throws InterruptedException thrown on interruption
+     */
+    public void upload(UploadPlan plan) throws IOException, InterruptedException {
+        List<UploadPlan.Item> objects = new ArrayList<UploadPlan.Item>();
+        List<UploadPlan.Item> others = new ArrayList<UploadPlan.Item>();
+
+        for (UploadPlan.Item item : plan.getItems()) {
+            if (item.getHash() != null) {
+                objects.add(item);
+            } else {
+                others.add(item);
+            }
+        }
+
+        log.info("Publishing " + plan.getItems().size() + " file(s) (" + plan.getTotalSize() + " bytes) to " +
+                publisher + "; " + plan.getSkippedCount() + " object(s) were already published");
+
+        uploadAll(objects);
+        uploadAll(others);
+    }
+
+    private void uploadAll(List<UploadPlan.Item> items) throws IOException, InterruptedException {
+        ListeningExecutorService executor = MoreExecutors.listeningDecorator(
+                Executors.newFixedThreadPool(threadCount));
+
+        try {
+            List<ListenableFuture<?>> futures = new ArrayList<ListenableFuture<?>>();
+
+            for (final UploadPlan.Item item : items) {
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            upload(item);
+                        } catch (IOException e) {
+                            log.log(Level.WARNING, "Failed to publish " + item.getPath(), e);
+                            failed.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            log.info("Publishing of " + item.getPath() + " was interrupted");
+                        }
+                    }
+                }));
+            }
+
+            try {
+                Futures.allAsList(futures).get();
+            } catch (ExecutionException e) {
+                throw new IOException("Something went wrong", e);
+            }
+
+            if (failed.get() > 0) {
+                throw new IOException(failed.get() + " file(s) could not be published");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void upload(UploadPlan.Item item) throws IOException, InterruptedException {
+        File file = new File(outputDir, item.getPath());
+        IOException lastException = null;
+
+        for (int trial = 0; trial < tryCount; trial++) {
+            if (trial > 0) {
+                Thread.sleep((long) (retryDelay / 2 + (random.nextDouble() * retryDelay)));
+            }
+
+            try {
+                log.info("Publishing " + item.getPath() + "...");
+                publisher.publish(file, item.getPath());
+
+                if (record != null && item.getHash() != null) {
+                    record.add(item.getHash());
+                }
+                return;
+            } catch (IOException e) {
+                lastException = e;
+            }
+        }
+
+        throw lastException;
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder.publish;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Closer;
+import com.google.common.io.Files;
+import lombok.NonNull;
+
+import java.io.*;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A local record of the objects that have already been published.
+ *
+ * <p>Objects are named after their hash and never change once uploaded, so
+ * anything in this record can be skipped by later publishes. The record is a
+ * plain text file with one hash per line that is only ever appended to, which
+ * means an interrupted publish keeps everything uploaded so far.</p>
+ */
+public class PublishRecord {
+
+    private final File file;
+    private final Set<String> hashes = new HashSet<String>();
+
+    private PublishRecord(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Check whether an object has been published.
+     *
+     * @param hash the hash of the object
+     * @return true if published
+     */
+    public synchronized boolean contains(String hash) {
+        return hashes.contains(hash);
+    }
+
+    /**
+     * Record that an object has been published.
+     *
+     * @param hash the hash of the object
+     * @throws IOException thrown on I/O error
+     */
+    public synchronized void add(String hash) throws IOException {
+        if (hashes.add(hash)) {
+            Files.createParentDirs(file);
+            Closer closer = Closer.create();
+            try {
+                Writer writer = closer.register(new OutputStreamWriter(
+                        new FileOutputStream(file, true), Charsets.UTF_8));
+                writer.write(hash);
+                writer.write("\n");
+            } finally {
+                closer.close();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return hashes.size();
+    }
+
+    /**
+     * Load the record from the given file, which does not have to exist yet.
+     *
+     * @param file the file
+     * @return the record
+     * @throws IOException thrown on I/O error
+     */
+    public static PublishRecord load(@NonNull File file) throws IOException {
+        PublishRecord record = new PublishRecord(file);
+
+        if (file.exists()) {
+            for (String line : Files.readLines(file, Charsets.UTF_8)) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    record.hashes.add(line);
+                }
+            }
+        }
+
+        return record;
+    }
+
+}
@@ -0,0 +1,29 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder.publish;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Uploads built package files to wherever the launcher will download them from.
+ *
+ * <p>Implementations must be safe to call from several threads at once.</p>
+ */
+public interface Publisher {
+
+    /**
+     * Publish a file.
+     *
+     * @param file the local file
+     * @param path the path relative to the root of the web server, using forward slashes
+     * @throws IOException thrown on I/O error
+     * @throws InterruptedException thrown on interruption
+     */
+    void publish(File file, String path) throws IOException, InterruptedException;
+
+}
@@ -0,0 +1,112 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder.publish;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NonNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The list of files that need to be uploaded to publish a build.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UploadPlan {
+
+    private List<Item> items = new ArrayList<Item>();
+    private long totalSize;
+    private int skippedCount;
+    private long skippedSize;
+
+    public void add(Item item) {
+        items.add(item);
+        totalSize += item.getSize();
+    }
+
+    /**
+     * Create a plan for the given output directory.
+     *
+     * <p>Every object in the objects directory that is not in the given
+     * record is included, as are the given extra files (such as the manifest),
+     * which are always uploaded.</p>
+     *
+     * @param outputDir the root directory that mirrors the web server
+     * @param objectsDir the objects directory
+     * @param record the record of published objects, or null to upload everything
+     * @param extraFiles files that are always uploaded
+     * @return the plan
+     */
+    public static UploadPlan create(@NonNull File outputDir, @NonNull File objectsDir, PublishRecord record,
+                                    @NonNull List<File> extraFiles) {
+        UploadPlan plan = new UploadPlan();
+        collectObjects(plan, outputDir, objectsDir, record);
+
+        for (File file : extraFiles) {
+            String path = relativize(outputDir, file);
+            if (file.isFile() && path != null) {
+                plan.add(new Item(path, null, file.length()));
+            }
+        }
+
+        return plan;
+    }
+
+    private static void collectObjects(UploadPlan plan, File outputDir, File dir, PublishRecord record) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            if (file.isDirectory()) {
+                collectObjects(plan, outputDir, file, record);
+            } else if (!file.getName().endsWith(".tmp")) {
+                String path = relativize(outputDir, file);
+                if (path == null) {
+                    continue;
+                }
+
+                // Objects are named after their hash
+                String hash = file.getName();
+                if (record != null && record.contains(hash)) {
+                    plan.skippedCount++;
+                    plan.skippedSize += file.length();
+                } else {
+                    plan.add(new Item(path, hash, file.length()));
+                }
+            }
+        }
+    }
+
+    private static String relativize(File baseDir, File file) {
+        String base = baseDir.getAbsoluteFile().toURI().getPath();
+        String path = file.getAbsoluteFile().toURI().getPath();
+        return path.startsWith(base) ? path.substring(base.length()) : null;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Item {
+        private String path;
+        private String hash;
+        private long size;
+
+        public Item() {
+        }
+
+        public Item(String path, String hash, long size) {
+            this.path = path;
+            this.hash = hash;
+            this.size = size;
+        }
+    }
+
+}
@@ -9,6 +9,7 @@ package com.skcraft.launcher;
 import com.google.common.base.Supplier;
 import com.skcraft.launcher.swing.SwingHelper;
 import com.skcraft.launcher.ui.UIFontManager;
+import com.skcraft.launcher.util.StartupTrace;
 import lombok.extern.java.Log;
 
 import javax.swing.*;
@@ -51,6 +52,7 @@ public class FancyLauncher {
 
                     // Set default font for all Swing components to Noto Sans (13pt for better readability)
                     setDefaultFont(UIFontManager.getUIFont(Font.PLAIN, 13f));
+                    StartupTrace.mark("look and feel");
 
                     Launcher launcher = Launcher.createFromArguments(args);
                     launcher.setMainWindowSupplier(new CustomWindowSupplier(launcher));
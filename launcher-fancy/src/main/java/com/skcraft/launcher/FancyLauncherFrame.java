@@ -6,9 +6,11 @@
 
 package com.skcraft.launcher;
 
+import com.skcraft.concurrency.CancellationScope;
 import com.skcraft.concurrency.ObservableFuture;
 import com.skcraft.launcher.dialog.ConfigurationDialog;
 import com.skcraft.launcher.dialog.ProgressDialog;
+import com.skcraft.launcher.install.UpdateTransaction;
 import com.skcraft.launcher.launch.LaunchListener;
 import com.skcraft.launcher.launch.LaunchOptions;
 import com.skcraft.launcher.launch.LaunchOptions.UpdatePolicy;
@@ -62,6 +64,7 @@ public class FancyLauncherFrame extends JFrame {
 
     private JLayeredPane layeredPane;
     private Timer autoRefreshTimer;
+    private final CancellationScope tasks = new CancellationScope();
     private Timer sidebarAnimationTimer;
     private int currentSidebarWidth = SIDEBAR_WIDTH_COLLAPSED;
     private boolean sidebarExpanded = false;
@@ -102,7 +105,7 @@ public class FancyLauncherFrame extends JFrame {
             // Silent refresh - don't show progress dialog
             // Remember current selection before refresh
             int selectedRow = instancesTable.getSelectedRow();
-            launcher.getInstanceTasks().reloadInstances(this).addListener(() -> {
+            tasks.track(launcher.getInstanceTasks().refreshInstances()).addListener(() -> {
                 instancesModel.update();
                 // Restore selection after refresh (or select first if previous selection invalid)
                 if (instancesTable.getRowCount() > 0) {
@@ -600,6 +603,12 @@ public class FancyLauncherFrame extends JFrame {
                 menuItem.addActionListener(e -> confirmHardUpdate(selected));
                 popup.add(menuItem);
 
+                if (UpdateTransaction.canRollback(selected)) {
+                    menuItem = new JMenuItem(SharedLocale.tr("instance.rollbackUpdate"));
+                    menuItem.addActionListener(e -> confirmRollback(selected));
+                    popup.add(menuItem);
+                }
+
                 menuItem = new JMenuItem(SharedLocale.tr("instance.deleteFiles"));
                 menuItem.addActionListener(e -> confirmDelete(selected));
                 popup.add(menuItem);
@@ -638,8 +647,19 @@ public class FancyLauncherFrame extends JFrame {
         }, SwingExecutor.INSTANCE);
     }
 
+    private void confirmRollback(Instance instance) {
+        if (!SwingHelper.confirmDialog(this, tr("instance.confirmRollback", instance.getTitle()),
+                SharedLocale.tr("confirmTitle"))) {
+            return;
+        }
+
+        ObservableFuture<Instance> future = launcher.getInstanceTasks().rollback(this, instance);
+        future.addListener(instancesModel::update, SwingExecutor.INSTANCE);
+    }
+
     @Override
     public void dispose() {
+        tasks.cancel();
         if (autoRefreshTimer != null) {
             autoRefreshTimer.stop();
         }
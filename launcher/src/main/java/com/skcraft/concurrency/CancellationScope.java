@@ -0,0 +1,130 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.concurrency;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+/**
+ * A group of tasks that are cancelled together, such as the work started
+ * by a window, which should stop when the window is closed.
+ *
+ * <p>Scopes form a tree: cancelling a scope cancels its children too.
+ * Tasks are forgotten once they finish, and a task that is added after
+ * the scope was cancelled is cancelled immediately.</p>
+ */
+public class CancellationScope {
+
+    private final CancellationScope parent;
+    // Guarded by this
+    private final Set<Future<?>> futures = new LinkedHashSet<Future<?>>();
+    private final List<CancellationScope> children = new ArrayList<CancellationScope>();
+    private boolean cancelled;
+
+    public CancellationScope() {
+        this(null);
+    }
+
+    private CancellationScope(CancellationScope parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Create a scope that is cancelled when this one is.
+     *
+     * @return the new scope
+     */
+    public CancellationScope newChild() {
+        CancellationScope child = new CancellationScope(this);
+        boolean cancelNow;
+        synchronized (this) {
+            cancelNow = cancelled;
+            if (!cancelNow) {
+                children.add(child);
+            }
+        }
+        if (cancelNow) {
+            child.cancel();
+        }
+        return child;
+    }
+
+    /**
+     * Add a task to this scope.
+     *
+     * @param future the future of the task
+     * @param <F> the type of future
+     * @return the future
+     */
+    public <F extends ListenableFuture<?>> F track(final F future) {
+        boolean cancelNow;
+        synchronized (this) {
+            cancelNow = cancelled;
+            if (!cancelNow) {
+                futures.add(future);
+            }
+        }
+
+        if (cancelNow) {
+            future.cancel(true);
+        } else {
+            future.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (CancellationScope.this) {
+                        futures.remove(future);
+                    }
+                }
+            }, MoreExecutors.sameThreadExecutor());
+        }
+
+        return future;
+    }
+
+    /**
+     * Cancel every task in this scope and its children, and detach this
+     * scope from its parent.
+     */
+    public void cancel() {
+        List<Future<?>> futures;
+        List<CancellationScope> children;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            futures = new ArrayList<Future<?>>(this.futures);
+            children = new ArrayList<CancellationScope>(this.children);
+            this.futures.clear();
+            this.children.clear();
+        }
+
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+        for (CancellationScope child : children) {
+            child.cancel();
+        }
+
+        if (parent != null) {
+            synchronized (parent) {
+                parent.children.remove(this);
+            }
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+}
@@ -0,0 +1,33 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.concurrency;
+
+/**
+ * A {@link ProgressObservable} that can tell listeners when it changes,
+ * so that it doesn't have to be polled.
+ */
+public interface ListenableProgress extends ProgressObservable {
+
+    /**
+     * Add a listener.
+     *
+     * @param listener the listener
+     * @return true if every change will be reported, or false if some
+     *         changes won't be and the progress still has to be polled;
+     *         if true is returned and that later stops being the case,
+     *         {@link ProgressListener#pollingRequired()} is called
+     */
+    boolean addProgressListener(ProgressListener listener);
+
+    /**
+     * Remove a listener.
+     *
+     * @param listener the listener
+     */
+    void removeProgressListener(ProgressListener listener);
+
+}
@@ -19,7 +19,7 @@ import java.util.concurrent.TimeoutException;
  *
  * @param <V> the result type
  */
-public class ObservableFuture<V> implements ListenableFuture<V>, ProgressObservable {
+public class ObservableFuture<V> implements ListenableFuture<V>, ListenableProgress {
 
     private final ListenableFuture<V> future;
     private final ProgressObservable observable;
@@ -80,4 +80,14 @@ public class ObservableFuture<V> implements ListenableFuture<V>, ProgressObserva
         return observable.getStatus();
     }
 
+    @Override
+    public boolean addProgressListener(ProgressListener listener) {
+        return ProgressNotifier.addTo(observable, listener);
+    }
+
+    @Override
+    public void removeProgressListener(ProgressListener listener) {
+        ProgressNotifier.removeFrom(observable, listener);
+    }
+
 }
@@ -6,7 +6,7 @@
 
 package com.skcraft.concurrency;
 
-public class ProgressFilter implements ProgressObservable {
+public class ProgressFilter implements ListenableProgress {
 
     private final ProgressObservable delegate;
     private final double offset;
@@ -28,6 +28,16 @@ public class ProgressFilter implements ProgressObservable {
         return delegate.getStatus();
     }
 
+    @Override
+    public boolean addProgressListener(ProgressListener listener) {
+        return ProgressNotifier.addTo(delegate, listener);
+    }
+
+    @Override
+    public void removeProgressListener(ProgressListener listener) {
+        ProgressNotifier.removeFrom(delegate, listener);
+    }
+
     public static ProgressObservable between(ProgressObservable delegate, double from, double to) {
         return new ProgressFilter(delegate, from, to - from);
     }
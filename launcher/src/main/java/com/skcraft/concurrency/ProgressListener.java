@@ -0,0 +1,29 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.concurrency;
+
+/**
+ * Notified when the progress or status of a {@link ListenableProgress}
+ * changes.
+ */
+public interface ProgressListener {
+
+    /**
+     * Called on the thread that changed the progress, possibly very often,
+     * so implementations should do as little as possible and read the new
+     * values later.
+     */
+    void progressChanged();
+
+    /**
+     * Called when a progress that said it would report every change can no
+     * longer do so, such as when it starts to relay a progress that can't,
+     * so that it has to be polled from now on.
+     */
+    void pollingRequired();
+
+}
@@ -0,0 +1,71 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.concurrency;
+
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the listeners of a {@link ListenableProgress}.
+ */
+public class ProgressNotifier {
+
+    private final List<ProgressListener> listeners = new CopyOnWriteArrayList<ProgressListener>();
+
+    public void add(@NonNull ProgressListener listener) {
+        listeners.add(listener);
+    }
+
+    public void remove(ProgressListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Notify all listeners of a change.
+     */
+    public void fire() {
+        for (ProgressListener listener : listeners) {
+            listener.progressChanged();
+        }
+    }
+
+    /**
+     * Tell all listeners that they have to poll from now on.
+     */
+    public void firePollingRequired() {
+        for (ProgressListener listener : listeners) {
+            listener.pollingRequired();
+        }
+    }
+
+    /**
+     * Add a listener to a progress if it supports listeners.
+     *
+     * @param observable the progress
+     * @param listener the listener
+     * @return true if every change will be reported
+     */
+    public static boolean addTo(ProgressObservable observable, ProgressListener listener) {
+        return observable instanceof ListenableProgress
+                && ((ListenableProgress) observable).addProgressListener(listener);
+    }
+
+    /**
+     * Remove a listener from a progress if it supports listeners.
+     *
+     * @param observable the progress
+     * @param listener the listener
+     */
+    public static void removeFrom(ProgressObservable observable, ProgressListener listener) {
+        if (observable instanceof ListenableProgress) {
+            ((ListenableProgress) observable).removeProgressListener(listener);
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.concurrency;
+
+import lombok.NonNull;
+
+/**
+ * Reports the progress of another progress that can be swapped out, such
+ * as a task that goes through several steps.
+ *
+ * <p>Listeners are told when the delegate is swapped, and when the current
+ * delegate changes if it supports listeners.</p>
+ */
+public class ProgressRelay implements ListenableProgress {
+
+    private final ProgressNotifier notifier = new ProgressNotifier();
+    private final ProgressListener forwarder = new ProgressListener() {
+        @Override
+        public void progressChanged() {
+            notifier.fire();
+        }
+
+        @Override
+        public void pollingRequired() {
+            setIncomplete();
+        }
+    };
+    private volatile ProgressObservable delegate;
+    private volatile boolean complete;
+
+    public ProgressRelay(@NonNull ProgressObservable delegate) {
+        this.delegate = delegate;
+        this.complete = ProgressNotifier.addTo(delegate, forwarder) || delegate instanceof DefaultProgress;
+    }
+
+    /**
+     * Get the current delegate.
+     *
+     * @return the delegate
+     */
+    public ProgressObservable get() {
+        return delegate;
+    }
+
+    /**
+     * Swap the delegate and notify listeners.
+     *
+     * @param delegate the new delegate
+     */
+    public void set(@NonNull ProgressObservable delegate) {
+        boolean listenable;
+        synchronized (this) {
+            ProgressNotifier.removeFrom(this.delegate, forwarder);
+            this.delegate = delegate;
+            listenable = ProgressNotifier.addTo(delegate, forwarder) || delegate instanceof DefaultProgress;
+        }
+        if (!listenable) {
+            setIncomplete();
+        }
+        notifier.fire();
+    }
+
+    private void setIncomplete() {
+        boolean changed;
+        synchronized (this) {
+            changed = complete;
+            complete = false;
+        }
+        if (changed) {
+            notifier.firePollingRequired();
+        }
+    }
+
+    @Override
+    public double getProgress() {
+        return delegate.getProgress();
+    }
+
+    @Override
+    public String getStatus() {
+        return delegate.getStatus();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Returns false once any delegate has been used that can't report
+     * its changes. Listeners that were added before then are told to start
+     * polling.</p>
+     */
+    @Override
+    public boolean addProgressListener(ProgressListener listener) {
+        notifier.add(listener);
+        return complete;
+    }
+
+    @Override
+    public void removeProgressListener(ProgressListener listener) {
+        notifier.remove(listener);
+    }
+
+}
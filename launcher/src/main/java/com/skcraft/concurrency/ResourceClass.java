@@ -0,0 +1,63 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.concurrency;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * A kind of resource that blocking work uses, with a limit on how many
+ * tasks may use it at the same time.
+ *
+ * <p>When tasks run on a pool of platform threads, the size of the pool
+ * limits concurrency. Virtual threads are cheap enough that there is one
+ * per task, so the limit is enforced here instead.</p>
+ */
+public enum ResourceClass {
+
+    /**
+     * Connections to remote servers.
+     */
+    NETWORK(16),
+
+    /**
+     * Large reads and writes to local disks.
+     */
+    DISK(4);
+
+    private final Semaphore permits;
+
+    ResourceClass(int permits) {
+        this.permits = new Semaphore(permits, true);
+    }
+
+    /**
+     * Wrap a task so that it holds a permit while it runs.
+     *
+     * @param task the task
+     * @return the wrapped task
+     */
+    public Runnable wrap(final Runnable task) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            }
+        };
+    }
+
+}
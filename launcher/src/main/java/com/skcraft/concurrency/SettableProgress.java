@@ -6,11 +6,24 @@
 
 package com.skcraft.concurrency;
 
-public class SettableProgress implements ProgressObservable {
+public class SettableProgress implements ListenableProgress {
 
-    private ProgressObservable delegate;
-    private String status = "";
-    private double progress = -1;
+    private final ProgressNotifier notifier = new ProgressNotifier();
+    private final ProgressListener forwarder = new ProgressListener() {
+        @Override
+        public void progressChanged() {
+            notifier.fire();
+        }
+
+        @Override
+        public void pollingRequired() {
+            setIncomplete();
+        }
+    };
+    private volatile ProgressObservable delegate;
+    private volatile String status = "";
+    private volatile double progress = -1;
+    private volatile boolean complete = true;
 
     public SettableProgress(String status, double progress) {
         this.status = status;
@@ -18,17 +31,41 @@ public class SettableProgress implements ProgressObservable {
     }
 
     public SettableProgress(ProgressObservable observable) {
-        this.delegate = observable;
+        observe(observable);
     }
 
-    public synchronized void observe(ProgressObservable observable) {
-        delegate = observable;
+    public void observe(ProgressObservable observable) {
+        boolean listenable;
+        synchronized (this) {
+            ProgressNotifier.removeFrom(delegate, forwarder);
+            delegate = observable;
+            listenable = ProgressNotifier.addTo(observable, forwarder) || observable instanceof DefaultProgress;
+        }
+        if (!listenable) {
+            setIncomplete();
+        }
+        notifier.fire();
     }
 
-    public synchronized void set(String status, double progress) {
-        delegate = null;
-        this.progress = progress;
-        this.status = status;
+    private void setIncomplete() {
+        boolean changed;
+        synchronized (this) {
+            changed = complete;
+            complete = false;
+        }
+        if (changed) {
+            notifier.firePollingRequired();
+        }
+    }
+
+    public void set(String status, double progress) {
+        synchronized (this) {
+            ProgressNotifier.removeFrom(delegate, forwarder);
+            delegate = null;
+            this.progress = progress;
+            this.status = status;
+        }
+        notifier.fire();
     }
 
     @Override
@@ -43,4 +80,15 @@ public class SettableProgress implements ProgressObservable {
         return delegate != null ? delegate.getStatus() : status;
     }
 
+    @Override
+    public boolean addProgressListener(ProgressListener listener) {
+        notifier.add(listener);
+        return complete;
+    }
+
+    @Override
+    public void removeProgressListener(ProgressListener listener) {
+        notifier.remove(listener);
+    }
+
 }
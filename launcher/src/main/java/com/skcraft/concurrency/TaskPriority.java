@@ -0,0 +1,39 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.concurrency;
+
+/**
+ * The lanes of a {@link TaskScheduler}, from most to least important.
+ */
+public enum TaskPriority {
+
+    /**
+     * Work that the user is waiting on, such as launching the game or
+     * logging in. Always started straight away.
+     */
+    INTERACTIVE,
+
+    /**
+     * Installing, updating and deleting instances and the launcher.
+     */
+    UPDATE,
+
+    /**
+     * Work that nobody is waiting on, such as refreshing the instance list.
+     * Only started when no work of the other lanes is running or waiting.
+     */
+    BACKGROUND,
+
+    /**
+     * Long downloads that nobody is waiting on, such as staging updates.
+     * Started under the same conditions as {@link #BACKGROUND}, but one at
+     * a time and without taking the slots of that lane, so that refreshes
+     * keep running while an update is staged.
+     */
+    STAGING
+
+}
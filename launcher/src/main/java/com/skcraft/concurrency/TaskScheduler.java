@@ -0,0 +1,374 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.concurrency;
+
+import com.google.common.util.concurrent.*;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the launcher's tasks on a shared executor in priority lanes, so
+ * that background work doesn't compete with work that the user is waiting
+ * for.
+ *
+ * <p>{@link TaskPriority#INTERACTIVE} tasks start immediately. A limited
+ * number of {@link TaskPriority#UPDATE} tasks run at once, and
+ * {@link TaskPriority#BACKGROUND} tasks wait until no task of the other
+ * lanes is running or waiting. {@link TaskPriority#STAGING} tasks wait
+ * for the same, but have a slot of their own, so a long download never
+ * keeps background tasks from starting.</p>
+ *
+ * <p>Tasks that are submitted with a key are deduplicated: while a task
+ * with the same key is waiting or running, its future is returned instead
+ * of starting another, and a waiting task is moved to the more important
+ * lane if needed. Every caller gets its own future, and the task is only
+ * cancelled once all of them have been cancelled.</p>
+ */
+@Log
+public class TaskScheduler {
+
+    private static final int MAX_UPDATES = 2;
+    private static final int MAX_BACKGROUND = 2;
+    private static final int MAX_STAGING = 1;
+    private static final long SLOW_START_MILLIS = 1000;
+
+    private final Executor executor;
+    // All guarded by this
+    private final Map<TaskPriority, Deque<Entry<?>>> queues = new EnumMap<TaskPriority, Deque<Entry<?>>>(TaskPriority.class);
+    private final Map<TaskPriority, LaneMetrics> metrics = new EnumMap<TaskPriority, LaneMetrics>(TaskPriority.class);
+    private final Map<String, Entry<?>> inFlight = new HashMap<String, Entry<?>>();
+
+    /**
+     * Create a new scheduler.
+     *
+     * @param executor the executor that tasks are run on, which must not queue tasks
+     */
+    public TaskScheduler(@NonNull Executor executor) {
+        this.executor = executor;
+        for (TaskPriority priority : TaskPriority.values()) {
+            queues.put(priority, new ArrayDeque<Entry<?>>());
+            metrics.put(priority, new LaneMetrics(priority));
+        }
+    }
+
+    /**
+     * Submit a task.
+     *
+     * @param priority the lane
+     * @param task the task
+     * @param <V> the type of result
+     * @return the future
+     */
+    public <V> ListenableFuture<V> submit(TaskPriority priority, Callable<V> task) {
+        return submit(priority, null, task);
+    }
+
+    /**
+     * Submit a task, or join the task with the same key that is waiting or
+     * running.
+     *
+     * @param priority the lane
+     * @param key the key, or null to not deduplicate
+     * @param task the task, which is not run if another task is joined
+     * @param <V> the type of result
+     * @return the future, which is an {@link ObservableFuture} if the task
+     *         is a {@link ProgressObservable}
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <V> ListenableFuture<V> submit(@NonNull TaskPriority priority, String key,
+                                                       @NonNull Callable<V> task) {
+        if (key != null) {
+            Entry<V> existing = (Entry<V>) inFlight.get(key);
+            if (existing != null) {
+                metrics.get(priority).deduplicated++;
+                if (existing.queued && priority.compareTo(existing.priority) < 0) {
+                    queues.get(existing.priority).remove(existing);
+                    metrics.get(existing.priority).queued--;
+                    existing.priority = priority;
+                    queues.get(priority).add(existing);
+                    metrics.get(priority).queued++;
+                    dispatch();
+                }
+                return existing.newView();
+            }
+        }
+
+        Entry<V> entry = new Entry<V>(priority, key, task);
+        if (key != null) {
+            inFlight.put(key, entry);
+        }
+        queues.get(priority).add(entry);
+        LaneMetrics lane = metrics.get(priority);
+        lane.submitted++;
+        lane.queued++;
+        lane.peakQueued = Math.max(lane.peakQueued, lane.queued);
+        ListenableFuture<V> view = entry.newView();
+        dispatch();
+        return view;
+    }
+
+    /**
+     * Submit a task that reports its progress.
+     *
+     * @param priority the lane
+     * @param key the key, or null to not deduplicate
+     * @param task the task
+     * @param <V> the type of result
+     * @param <T> the type of task
+     * @return the future, which reports the progress of the task that runs
+     */
+    @SuppressWarnings("unchecked")
+    public <V, T extends Callable<V> & ProgressObservable> ObservableFuture<V> submitObservable(
+            TaskPriority priority, String key, T task) {
+        return (ObservableFuture<V>) submit(priority, key, task);
+    }
+
+    /**
+     * Submit a task.
+     *
+     * @param priority the lane
+     * @param task the task
+     * @return the future
+     */
+    public ListenableFuture<?> submit(TaskPriority priority, Runnable task) {
+        return submit(priority, null, Executors.callable(task));
+    }
+
+    /**
+     * Start every waiting task that is allowed to run.
+     */
+    private void dispatch() {
+        Deque<Entry<?>> interactive = queues.get(TaskPriority.INTERACTIVE);
+        while (!interactive.isEmpty()) {
+            start(interactive.poll());
+        }
+
+        Deque<Entry<?>> updates = queues.get(TaskPriority.UPDATE);
+        while (!updates.isEmpty() && metrics.get(TaskPriority.UPDATE).running < MAX_UPDATES) {
+            start(updates.poll());
+        }
+
+        boolean idle = metrics.get(TaskPriority.INTERACTIVE).running == 0
+                && metrics.get(TaskPriority.UPDATE).running == 0
+                && updates.isEmpty();
+
+        Deque<Entry<?>> background = queues.get(TaskPriority.BACKGROUND);
+        while (idle && !background.isEmpty() && metrics.get(TaskPriority.BACKGROUND).running < MAX_BACKGROUND) {
+            start(background.poll());
+        }
+
+        Deque<Entry<?>> staging = queues.get(TaskPriority.STAGING);
+        while (idle && !staging.isEmpty() && metrics.get(TaskPriority.STAGING).running < MAX_STAGING) {
+            start(staging.poll());
+        }
+    }
+
+    /**
+     * Start a task that was taken off its queue. Cancelled tasks are removed
+     * from their queue when they are cancelled, so they never get here.
+     */
+    private void start(Entry<?> entry) {
+        LaneMetrics lane = metrics.get(entry.priority);
+        lane.queued--;
+        entry.queued = false;
+        lane.running++;
+        entry.running = true;
+        entry.startedAt = System.nanoTime();
+        long waited = entry.startedAt - entry.queuedAt;
+        lane.totalWaitNanos += waited;
+        lane.maxWaitNanos = Math.max(lane.maxWaitNanos, waited);
+
+        if (TimeUnit.NANOSECONDS.toMillis(waited) >= SLOW_START_MILLIS) {
+            log.info("A " + entry.priority + " task waited " + TimeUnit.NANOSECONDS.toMillis(waited) + " ms to start");
+        }
+
+        executor.execute(entry);
+    }
+
+    /**
+     * Called when the future of a task completes, which happens as soon as
+     * it's cancelled, even if the task is still running.
+     */
+    private synchronized void done(Entry<?> entry) {
+        LaneMetrics lane = metrics.get(entry.priority);
+        if (entry.queued) {
+            entry.queued = false;
+            queues.get(entry.priority).remove(entry);
+            lane.queued--;
+        }
+
+        if (entry.task.isCancelled()) {
+            lane.cancelled++;
+        }
+
+        if (entry.key != null && inFlight.get(entry.key) == entry) {
+            inFlight.remove(entry.key);
+        }
+
+        dispatch();
+    }
+
+    /**
+     * Called once a started task has actually stopped running, so that its
+     * slot in the lane is only given up then.
+     */
+    private synchronized void exited(Entry<?> entry) {
+        LaneMetrics lane = metrics.get(entry.priority);
+        entry.running = false;
+        lane.running--;
+        lane.completed++;
+        lane.totalRunNanos += System.nanoTime() - entry.startedAt;
+        dispatch();
+    }
+
+    private synchronized void viewCancelled(Entry<?> entry) {
+        if (++entry.cancelledViews == entry.views) {
+            entry.task.cancel(true);
+        }
+    }
+
+    /**
+     * Get a snapshot of the metrics of every lane.
+     *
+     * @return a list of metrics, in order of priority
+     */
+    public synchronized List<LaneMetrics> getMetrics() {
+        List<LaneMetrics> result = new ArrayList<LaneMetrics>();
+        for (LaneMetrics lane : metrics.values()) {
+            result.add(lane.copy());
+        }
+        return result;
+    }
+
+    private class Entry<V> implements Runnable {
+        private final String key;
+        private final Callable<V> callable;
+        private final ListenableFutureTask<V> task;
+        private final long queuedAt = System.nanoTime();
+        // Guarded by the scheduler
+        private TaskPriority priority;
+        private boolean queued = true;
+        private boolean running;
+        private long startedAt;
+        private int views;
+        private int cancelledViews;
+
+        private Entry(TaskPriority priority, String key, Callable<V> callable) {
+            this.priority = priority;
+            this.key = key;
+            this.callable = callable;
+            this.task = ListenableFutureTask.create(callable);
+
+            task.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    done(Entry.this);
+                }
+            }, MoreExecutors.sameThreadExecutor());
+        }
+
+        /**
+         * Create a future for one caller, which has the result of the task
+         * but can be cancelled without cancelling the task for the others.
+         * Called with the scheduler locked.
+         */
+        private ListenableFuture<V> newView() {
+            views++;
+            final SettableFuture<V> view = SettableFuture.create();
+
+            Futures.addCallback(task, new FutureCallback<V>() {
+                @Override
+                public void onSuccess(V result) {
+                    view.set(result);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    if (t instanceof CancellationException) {
+                        view.cancel(false);
+                    } else {
+                        view.setException(t);
+                    }
+                }
+            });
+
+            view.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    if (view.isCancelled()) {
+                        viewCancelled(Entry.this);
+                    }
+                }
+            }, MoreExecutors.sameThreadExecutor());
+
+            return callable instanceof ProgressObservable
+                    ? new ObservableFuture<V>(view, (ProgressObservable) callable)
+                    : view;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } finally {
+                exited(this);
+            }
+        }
+    }
+
+    /**
+     * Counters for one lane.
+     */
+    @Data
+    public static class LaneMetrics {
+        private final TaskPriority priority;
+        private long submitted;
+        private long completed;
+        private long cancelled;
+        private long deduplicated;
+        private int queued;
+        private int peakQueued;
+        private int running;
+        private long totalWaitNanos;
+        private long maxWaitNanos;
+        private long totalRunNanos;
+
+        /**
+         * Get the average time that tasks waited before they started.
+         *
+         * @return the average in milliseconds
+         */
+        public double getAverageWaitMillis() {
+            long started = completed + running;
+            return started > 0 ? totalWaitNanos / 1e6 / started : 0;
+        }
+
+        private LaneMetrics copy() {
+            LaneMetrics copy = new LaneMetrics(priority);
+            copy.submitted = submitted;
+            copy.completed = completed;
+            copy.cancelled = cancelled;
+            copy.deduplicated = deduplicated;
+            copy.queued = queued;
+            copy.peakQueued = peakQueued;
+            copy.running = running;
+            copy.totalWaitNanos = totalWaitNanos;
+            copy.maxWaitNanos = maxWaitNanos;
+            copy.totalRunNanos = totalRunNanos;
+            return copy;
+        }
+    }
+
+}
@@ -6,7 +6,9 @@
 
 package com.skcraft.launcher;
 
-import com.skcraft.concurrency.ProgressObservable;
+import com.skcraft.concurrency.ListenableProgress;
+import com.skcraft.concurrency.ProgressListener;
+import com.skcraft.concurrency.ProgressNotifier;
 import com.skcraft.launcher.model.minecraft.Asset;
 import com.skcraft.launcher.model.minecraft.AssetsIndex;
 import com.skcraft.launcher.model.minecraft.VersionManifest;
@@ -86,11 +88,12 @@ public class AssetsRoot {
         return new AssetsTreeBuilder(index, treeDir);
     }
 
-    public class AssetsTreeBuilder implements ProgressObservable {
+    public class AssetsTreeBuilder implements ListenableProgress {
         private final AssetsIndex index;
         private final File destDir;
         private final int count;
-        private int processed = 0;
+        private volatile int processed = 0;
+        private final ProgressNotifier notifier = new ProgressNotifier();
 
         public AssetsTreeBuilder(AssetsIndex index, File destDir) {
             this.index = index;
@@ -128,6 +131,7 @@ public class AssetsRoot {
                     }
                 }
                 processed++;
+                notifier.fire();
             }
 
             return destDir;
@@ -150,6 +154,17 @@ public class AssetsRoot {
                 return tr("assets.expandingN", count, count - processed);
             }
         }
+
+        @Override
+        public boolean addProgressListener(ProgressListener listener) {
+            notifier.add(listener);
+            return true;
+        }
+
+        @Override
+        public void removeProgressListener(ProgressListener listener) {
+            notifier.remove(listener);
+        }
     }
 
 }
@@ -40,6 +40,14 @@ public class Configuration {
     private boolean serverEnabled = false;
     private String serverHost;
     private int serverPort = 25565;
+    private boolean virtualThreads = false;
+    private boolean stageUpdates = false;
+    private boolean peerCacheEnabled = false;
+    private int peerCachePort = 0;
+    private String peerCacheHosts;
+    private int downloadLimit = 0; // KB/s, 0 for no limit
+    private int hostDownloadLimit = 0;
+    private int backgroundDownloadLimit = 0;
 
     @Override
     public boolean equals(Object o) {
@@ -3,6 +3,7 @@ package com.skcraft.launcher;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.skcraft.launcher.launch.MemorySettings;
 import com.skcraft.launcher.launch.runtime.JavaRuntime;
+import com.skcraft.launcher.launch.tuning.JvmFlagProfile;
 import lombok.Data;
 
 @Data
@@ -11,4 +12,8 @@ public class InstanceSettings {
 	private JavaRuntime runtime;
 	private MemorySettings memorySettings;
 	private String customJvmArgs;
+	private boolean gcLogging;
+	private boolean applyHeapRecommendations;
+	private JvmFlagProfile jvmFlagProfile = JvmFlagProfile.DEFAULT;
+	private boolean classDataSharing;
 }
@@ -6,30 +6,51 @@
 
 package com.skcraft.launcher;
 
+import com.google.common.base.Objects;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.skcraft.concurrency.CancellationScope;
 import com.skcraft.concurrency.ObservableFuture;
+import com.skcraft.concurrency.TaskPriority;
 import com.skcraft.launcher.dialog.ProgressDialog;
 import com.skcraft.launcher.swing.SwingHelper;
 import com.skcraft.launcher.update.HardResetter;
 import com.skcraft.launcher.update.Remover;
+import com.skcraft.launcher.update.UpdateRollback;
+import com.skcraft.launcher.update.UpdateStager;
 import com.skcraft.launcher.util.SharedLocale;
+import com.skcraft.launcher.util.StartupTrace;
+import lombok.Data;
+import lombok.extern.java.Log;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static com.skcraft.launcher.util.SharedLocale.tr;
 
+@Log
 public class InstanceTasks {
 
     private final Launcher launcher;
+    private volatile CancellationScope staging = new CancellationScope();
+    // Guarded by itself; the version being staged and its task, by instance name
+    private final Map<String, StagingTask> stagingTasks = new HashMap<String, StagingTask>();
 
     public InstanceTasks(Launcher launcher) {
         this.launcher = launcher;
     }
 
     public ObservableFuture<Instance> delete(Window window, Instance instance) {
+        cancelStaging();
+
         // Execute the deleter
-        Remover resetter = new Remover(instance);
-        ObservableFuture<Instance> future = new ObservableFuture<Instance>(
-                launcher.getExecutor().submit(resetter), resetter);
+        Remover resetter = new Remover(instance, launcher.getTrashDir());
+        ObservableFuture<Instance> future = launcher.getScheduler().submitObservable(TaskPriority.UPDATE, null, resetter);
 
         // Show progress
         ProgressDialog.showProgress(
@@ -40,10 +61,11 @@ public class InstanceTasks {
     }
 
     public ObservableFuture<Instance> hardUpdate(Window window, Instance instance) {
+        cancelStaging();
+
         // Execute the resetter
-        HardResetter resetter = new HardResetter(instance);
-        ObservableFuture<Instance> future = new ObservableFuture<Instance>(
-                launcher.getExecutor().submit(resetter), resetter);
+        HardResetter resetter = new HardResetter(instance, launcher.getTrashDir());
+        ObservableFuture<Instance> future = launcher.getScheduler().submitObservable(TaskPriority.UPDATE, null, resetter);
 
         // Show progress
         ProgressDialog.showProgress(window, future, SharedLocale.tr("instance.resettingTitle"),
@@ -53,9 +75,23 @@ public class InstanceTasks {
         return future;
     }
 
+    public ObservableFuture<Instance> rollback(Window window, Instance instance) {
+        cancelStaging();
+
+        // Execute the rollback
+        UpdateRollback rollback = new UpdateRollback(instance);
+        ObservableFuture<Instance> future = launcher.getScheduler().submitObservable(TaskPriority.UPDATE, null, rollback);
+
+        // Show progress
+        ProgressDialog.showProgress(window, future, SharedLocale.tr("instance.rollingBackTitle"),
+                tr("instance.rollingBackStatus", instance.getTitle()));
+        SwingHelper.addErrorDialogCallback(window, future);
+
+        return future;
+    }
+
     public ObservableFuture<InstanceList> reloadInstances(Window window) {
-        InstanceList.Enumerator loader = launcher.getInstances().createEnumerator();
-        ObservableFuture<InstanceList> future = new ObservableFuture<InstanceList>(launcher.getExecutor().submit(loader), loader);
+        ObservableFuture<InstanceList> future = submitReload(TaskPriority.INTERACTIVE);
 
         ProgressDialog.showProgress(window, future, SharedLocale.tr("launcher.checkingTitle"), SharedLocale.tr("launcher.checkingStatus"));
         SwingHelper.addErrorDialogCallback(window, future);
@@ -63,4 +99,110 @@ public class InstanceTasks {
         return future;
     }
 
+    /**
+     * Reload the list of instances in the background, without showing
+     * progress or errors. The reload waits for any running launches and
+     * updates to finish.
+     *
+     * @return the future
+     */
+    public ObservableFuture<InstanceList> refreshInstances() {
+        return submitReload(TaskPriority.BACKGROUND);
+    }
+
+    /**
+     * Reload the list of instances, or join the reload that is already
+     * waiting or running.
+     */
+    private ObservableFuture<InstanceList> submitReload(TaskPriority priority) {
+        InstanceList.Enumerator loader = launcher.getInstances().createEnumerator();
+        ObservableFuture<InstanceList> future = launcher.getScheduler().submitObservable(priority, "reloadInstances", loader);
+
+        Futures.addCallback(future, new FutureCallback<InstanceList>() {
+            @Override
+            public void onSuccess(InstanceList result) {
+                StartupTrace.mark(StartupTrace.INSTANCES_READY);
+                stagePendingUpdates();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Download the pending updates of installed instances in the background,
+     * if enabled in the configuration. Staging has a lane of its own that
+     * runs only while no launch or update does. If an instance has moved on
+     * to a newer version since it was last staged, the staging of the old
+     * version is cancelled and the new version is staged instead.
+     */
+    public void stagePendingUpdates() {
+        if (!launcher.getConfig().isStageUpdates()) {
+            return;
+        }
+
+        List<Instance> pending = new ArrayList<Instance>();
+        InstanceList instances = launcher.getInstances();
+        synchronized (instances) {
+            for (Instance instance : instances.getInstances()) {
+                if (instance.isInstalled() && instance.isUpdatePending() && instance.getManifestURL() != null) {
+                    pending.add(instance);
+                }
+            }
+        }
+
+        CancellationScope staging = this.staging;
+        for (Instance instance : pending) {
+            final String name = instance.getName();
+            String version = instance.getVersion();
+
+            synchronized (stagingTasks) {
+                StagingTask existing = stagingTasks.get(name);
+                if (existing != null && !existing.getFuture().isDone()) {
+                    if (Objects.equal(existing.getVersion(), version)) {
+                        continue;
+                    }
+                    log.info("Staging " + name + " again because it moved on to " + version);
+                    existing.getFuture().cancel(true);
+                }
+
+                final ListenableFuture<Instance> future = staging.track(launcher.getScheduler().submit(
+                        TaskPriority.STAGING, "stageUpdate:" + name + ":" + version, new UpdateStager(launcher, instance)));
+                stagingTasks.put(name, new StagingTask(version, future));
+
+                future.addListener(new Runnable() {
+                    @Override
+                    public void run() {
+                        synchronized (stagingTasks) {
+                            StagingTask task = stagingTasks.get(name);
+                            if (task != null && task.getFuture() == future) {
+                                stagingTasks.remove(name);
+                            }
+                        }
+                    }
+                }, MoreExecutors.sameThreadExecutor());
+            }
+        }
+    }
+
+    /**
+     * Stop downloading updates in the background. Updates that are pending
+     * are staged again after the next reload of the instance list.
+     */
+    public void cancelStaging() {
+        CancellationScope previous = staging;
+        staging = new CancellationScope();
+        previous.cancel();
+    }
+
+    @Data
+    private static class StagingTask {
+        private final String version;
+        private final ListenableFuture<Instance> future;
+    }
+
 }
@@ -8,21 +8,30 @@ package com.skcraft.launcher;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.ParameterException;
+import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.skcraft.concurrency.TaskScheduler;
+import com.skcraft.concurrency.VirtualThreads;
 import com.skcraft.launcher.auth.*;
+import com.skcraft.launcher.install.BandwidthShaper;
+import com.skcraft.launcher.install.Installer;
+import com.skcraft.launcher.install.MirrorStats;
 import com.skcraft.launcher.launch.LaunchSupervisor;
 import com.skcraft.launcher.model.minecraft.Library;
 import com.skcraft.launcher.model.minecraft.VersionManifest;
+import com.skcraft.launcher.peer.PeerCache;
 import com.skcraft.launcher.persistence.Persistence;
 import com.skcraft.launcher.swing.SwingHelper;
 import com.skcraft.launcher.update.UpdateManager;
+import com.skcraft.launcher.util.BulkDeleter;
 import com.skcraft.launcher.util.Environment;
 import com.skcraft.launcher.util.HttpRequest;
 import com.skcraft.launcher.util.SharedLocale;
 import com.skcraft.launcher.util.SimpleLogFormatter;
+import com.skcraft.launcher.util.StartupTrace;
 import com.sun.management.OperatingSystemMXBean;
 import lombok.Getter;
 import lombok.NonNull;
@@ -32,6 +41,8 @@ import org.apache.commons.io.FileUtils;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
@@ -39,8 +50,11 @@ import java.io.UnsupportedEncodingException;
 import java.lang.management.ManagementFactory;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.logging.Level;
 
@@ -52,16 +66,21 @@ import static com.skcraft.launcher.util.SharedLocale.tr;
 @Log
 public final class Launcher {
 
-    public static final int PROTOCOL_VERSION = 3;
+    public static final int PROTOCOL_VERSION = 4;
 
-    @Getter
-    private final ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+    @Getter private final ListeningExecutorService executor;
+    @Getter private final boolean virtualThreads;
+    @Getter private final TaskScheduler scheduler;
+    @Getter private final PeerCache peerCache;
+    @Getter private final MirrorStats mirrorStats;
+    @Getter private final BandwidthShaper bandwidthShaper;
     @Getter @Setter private Supplier<Window> mainWindowSupplier = new DefaultLauncherSupplier(this);
     @Getter private final File baseDir;
     @Getter private final Properties properties;
     @Getter private final InstanceList instances;
     @Getter private final Configuration config;
-    @Getter private final AccountList accounts;
+    private final File configDir;
+    private AccountList accounts;
     @Getter private final AssetsRoot assets;
     @Getter private final LaunchSupervisor launchSupervisor = new LaunchSupervisor(this);
     @Getter private final UpdateManager updateManager = new UpdateManager(this);
@@ -94,18 +113,66 @@ public final class Launcher {
         this.instances = new InstanceList(this);
         this.assets = new AssetsRoot(new File(baseDir, "assets"));
         this.config = Persistence.load(new File(configDir, "config.json"), Configuration.class);
-        this.accounts = Persistence.load(new File(configDir, "accounts.dat"), AccountList.class);
+        this.configDir = configDir;
+        this.mirrorStats = MirrorStats.load(new File(baseDir, "mirrors.json"));
+        this.bandwidthShaper = new BandwidthShaper(config);
 
         setDefaultConfig();
 
+        ExecutorService virtualExecutor = config.isVirtualThreads() ? VirtualThreads.newPerTaskExecutor() : null;
+        this.virtualThreads = virtualExecutor != null;
+        this.executor = MoreExecutors.listeningDecorator(
+                virtualThreads ? virtualExecutor : Executors.newCachedThreadPool());
+        this.scheduler = new TaskScheduler(executor);
+        if (virtualThreads) {
+            log.info("Running background tasks on virtual threads");
+        } else if (config.isVirtualThreads()) {
+            log.info("Virtual threads need Java 21 or newer; using a thread pool");
+        }
+
+        this.peerCache = config.isPeerCacheEnabled() ? startPeerCache() : null;
+
         executor.submit(new Runnable() {
             @Override
             public void run() {
+                getAccounts();
                 cleanupExtractDir();
+                BulkDeleter.emptyTrash(getTrashDir());
             }
         });
 
         updateManager.checkForUpdate(null);
+        StartupTrace.mark("launcher created");
+    }
+
+    /**
+     * Get the saved accounts. They are loaded the first time that they're
+     * needed, which is usually in the background soon after starting,
+     * because the first window doesn't need them.
+     *
+     * @return the accounts
+     */
+    public synchronized AccountList getAccounts() {
+        if (accounts == null) {
+            accounts = Persistence.load(new File(configDir, "accounts.dat"), AccountList.class);
+        }
+        return accounts;
+    }
+
+    /**
+     * Start sharing downloads with other launchers on the local network.
+     *
+     * @return the peer cache, or null if it couldn't be started
+     */
+    private PeerCache startPeerCache() {
+        try {
+            PeerCache peerCache = new PeerCache(this);
+            peerCache.start();
+            return peerCache;
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to start sharing downloads with other launchers", e);
+            return null;
+        }
     }
 
     /**
@@ -162,7 +229,7 @@ public final class Launcher {
      * @return the Yggdrasil (legacy) login service
      */
     public YggdrasilLoginService getYggdrasil() {
-        return new YggdrasilLoginService(HttpRequest.url(getProperties().getProperty("yggdrasilAuthUrl")), accounts.getClientId());
+        return new YggdrasilLoginService(HttpRequest.url(getProperties().getProperty("yggdrasilAuthUrl")), getAccounts().getClientId());
     }
 
     /**
@@ -200,6 +267,16 @@ public final class Launcher {
         return new File(getBaseDir(), "temp");
     }
 
+    /**
+     * Get the directory that files are moved into to be deleted in the
+     * background. It's emptied again when the launcher starts.
+     *
+     * @return the trash directory
+     */
+    public File getTrashDir() {
+        return new File(getTemporaryDir(), "trash");
+    }
+
     /**
      * Get the directory to store temporary install files.
      *
@@ -209,6 +286,30 @@ public final class Launcher {
         return new File(getTemporaryDir(), "install");
     }
 
+    /**
+     * Create an installer that downloads to the installer directory. When
+     * the launcher runs on virtual threads, so do the downloads.
+     *
+     * @return a new installer
+     */
+    public Installer createInstaller() {
+        return createInstaller(getInstallerDir());
+    }
+
+    /**
+     * Create an installer that downloads to the given directory.
+     *
+     * @param tempDir the directory to download to
+     * @return a new installer
+     */
+    public Installer createInstaller(File tempDir) {
+        Installer installer = new Installer(tempDir, virtualThreads ? executor : null);
+        installer.setPeerCache(peerCache);
+        installer.setMirrorStats(mirrorStats);
+        installer.setBandwidthShaper(bandwidthShaper, false);
+        return installer;
+    }
+
     /**
      * Get the directory to store temporarily extracted files.
      *
@@ -400,11 +501,31 @@ public final class Launcher {
         return HttpRequest.url(prop(key, args));
     }
 
+    /**
+     * Fetch a property that holds a list of URLs separated by commas.
+     *
+     * @param key the key
+     * @return a list of URLs, which is empty if the property isn't set
+     */
+    public List<URL> propUrls(String key) {
+        List<URL> urls = new ArrayList<URL>();
+        for (String url : Splitter.on(',').trimResults().omitEmptyStrings().split(Strings.nullToEmpty(prop(key)))) {
+            urls.add(HttpRequest.url(url));
+        }
+        return urls;
+    }
+
     /**
      * Show the launcher.
      */
     public Window showLauncherWindow() {
         Window window = mainWindowSupplier.get();
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                StartupTrace.mark(StartupTrace.FIRST_FRAME);
+            }
+        });
         window.setVisible(true);
 
         return window;
@@ -441,6 +562,7 @@ public final class Launcher {
      * Setup loggers and perform initialization.
      */
     public static void setupLogger() {
+        StartupTrace.mark("launcher main");
         SimpleLogFormatter.configureGlobalLogger();
     }
 
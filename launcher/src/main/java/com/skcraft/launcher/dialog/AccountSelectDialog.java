@@ -6,6 +6,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.skcraft.concurrency.ObservableFuture;
 import com.skcraft.concurrency.ProgressObservable;
 import com.skcraft.concurrency.SettableProgress;
+import com.skcraft.concurrency.TaskPriority;
 import com.skcraft.launcher.Launcher;
 import com.skcraft.launcher.auth.*;
 import com.skcraft.launcher.persistence.Persistence;
@@ -148,7 +149,7 @@ public class AccountSelectDialog extends JDialog {
 	private void attemptMicrosoftLogin(String status) {
 		SettableProgress progress = new SettableProgress(status, -1);
 
-		ListenableFuture<?> future = launcher.getExecutor().submit(() -> {
+		ListenableFuture<?> future = launcher.getScheduler().submit(TaskPriority.INTERACTIVE, () -> {
 			Session newSession = launcher.getMicrosoftLogin().login(() ->
 					progress.set(SharedLocale.tr("login.loggingInStatus"), -1));
 
@@ -171,7 +172,7 @@ public class AccountSelectDialog extends JDialog {
 		LoginService loginService = launcher.getLoginService(session.getType());
 		RestoreSessionCallable callable = new RestoreSessionCallable(loginService, session);
 
-		ObservableFuture<Session> future = new ObservableFuture<>(launcher.getExecutor().submit(callable), callable);
+		ObservableFuture<Session> future = launcher.getScheduler().submitObservable(TaskPriority.INTERACTIVE, null, callable);
 		Futures.addCallback(future, new FutureCallback<Session>() {
 			@Override
 			public void onSuccess(Session result) {
@@ -52,6 +52,14 @@ public class ConfigurationDialog extends JDialog {
     private final JPasswordField proxyPasswordText = new JPasswordField();
     private final FormPanel advancedPanel = new FormPanel();
     private final JTextField gameKeyText = new JTextField();
+    private final JCheckBox virtualThreadsCheck = new JCheckBox(SharedLocale.tr("options.virtualThreads"));
+    private final JCheckBox stageUpdatesCheck = new JCheckBox(SharedLocale.tr("options.stageUpdates"));
+    private final JCheckBox peerCacheCheck = new JCheckBox(SharedLocale.tr("options.peerCache"));
+    private final JSpinner peerCachePortSpinner = new JSpinner();
+    private final JTextField peerCacheHostsText = new JTextField();
+    private final JSpinner downloadLimitSpinner = new JSpinner();
+    private final JSpinner hostDownloadLimitSpinner = new JSpinner();
+    private final JSpinner backgroundDownloadLimitSpinner = new JSpinner();
     private final LinedBoxPanel buttonsPanel = new LinedBoxPanel(true);
     private final JButton okButton = new JButton(SharedLocale.tr("button.ok"));
     private final JButton cancelButton = new JButton(SharedLocale.tr("button.cancel"));
@@ -103,6 +111,14 @@ public class ConfigurationDialog extends JDialog {
         mapper.map(proxyUsernameText, "proxyUsername");
         mapper.map(proxyPasswordText, "proxyPassword");
         mapper.map(gameKeyText, "gameKey");
+        mapper.map(virtualThreadsCheck, "virtualThreads");
+        mapper.map(stageUpdatesCheck, "stageUpdates");
+        mapper.map(peerCacheCheck, "peerCacheEnabled");
+        mapper.map(peerCachePortSpinner, "peerCachePort");
+        mapper.map(peerCacheHostsText, "peerCacheHosts");
+        mapper.map(downloadLimitSpinner, "downloadLimit");
+        mapper.map(hostDownloadLimitSpinner, "hostDownloadLimit");
+        mapper.map(backgroundDownloadLimitSpinner, "backgroundDownloadLimit");
 
         mapper.copyFromObject();
     }
@@ -132,6 +148,14 @@ public class ConfigurationDialog extends JDialog {
         tabbedPane.addTab(SharedLocale.tr("options.proxyTab"), SwingHelper.alignTabbedPane(proxySettingsPanel));
 
         advancedPanel.addRow(new JLabel(SharedLocale.tr("options.gameKey")), gameKeyText);
+        advancedPanel.addRow(virtualThreadsCheck);
+        advancedPanel.addRow(stageUpdatesCheck);
+        advancedPanel.addRow(peerCacheCheck);
+        advancedPanel.addRow(new JLabel(SharedLocale.tr("options.peerCachePort")), peerCachePortSpinner);
+        advancedPanel.addRow(new JLabel(SharedLocale.tr("options.peerCacheHosts")), peerCacheHostsText);
+        advancedPanel.addRow(new JLabel(SharedLocale.tr("options.downloadLimit")), downloadLimitSpinner);
+        advancedPanel.addRow(new JLabel(SharedLocale.tr("options.hostDownloadLimit")), hostDownloadLimitSpinner);
+        advancedPanel.addRow(new JLabel(SharedLocale.tr("options.backgroundDownloadLimit")), backgroundDownloadLimitSpinner);
         SwingHelper.removeOpaqueness(advancedPanel);
         tabbedPane.addTab(SharedLocale.tr("options.advancedTab"), SwingHelper.alignTabbedPane(advancedPanel));
 
@@ -6,6 +6,11 @@ import com.skcraft.launcher.dialog.component.BetterComboBox;
 import com.skcraft.launcher.launch.MemorySettings;
 import com.skcraft.launcher.launch.runtime.JavaRuntime;
 import com.skcraft.launcher.launch.runtime.JavaRuntimeFinder;
+import com.skcraft.launcher.launch.tuning.ClassDataArchive;
+import com.skcraft.launcher.launch.tuning.HeapAdvisor;
+import com.skcraft.launcher.launch.tuning.HeapRecommendation;
+import com.skcraft.launcher.launch.tuning.JvmFlagProfile;
+import com.skcraft.launcher.launch.tuning.StartupHistory;
 import com.skcraft.launcher.persistence.Persistence;
 import com.skcraft.launcher.swing.FormPanel;
 import com.skcraft.launcher.swing.LinedBoxPanel;
@@ -44,6 +49,14 @@ public class InstanceSettingsDialog extends JDialog {
 	private final JComboBox<JavaRuntime> javaRuntimeBox = new BetterComboBox<>();
 	private final JTextField javaArgsBox = new JTextField();
 
+	private final FormPanel tuningPanel = new FormPanel();
+	private final JCheckBox gcLoggingCheck = new JCheckBox(SharedLocale.tr("instance.options.gcLogging"));
+	private final JCheckBox applyRecommendationsCheck = new JCheckBox(SharedLocale.tr("instance.options.applyHeapRecommendations"));
+	private final JLabel recommendationLabel = new JLabel();
+	private final JComboBox<JvmFlagProfile> profileBox = new JComboBox<>(JvmFlagProfile.values());
+	private final JCheckBox classDataSharingCheck = new JCheckBox(SharedLocale.tr("instance.options.classDataSharing"));
+	private final JLabel startupLabel = new JLabel();
+
 	private final LinedBoxPanel buttonsPanel = new LinedBoxPanel(true);
 	private final JButton okButton = new JButton(SharedLocale.tr("button.save"));
 	private final JButton cancelButton = new JButton(SharedLocale.tr("button.cancel"));
@@ -58,7 +71,7 @@ public class InstanceSettingsDialog extends JDialog {
 		setTitle(SharedLocale.tr("instance.options.title"));
 		setModalityType(DEFAULT_MODALITY_TYPE);
 		initComponents();
-		setSize(new Dimension(400, 550));
+		setSize(new Dimension(400, 760));
 		setLocationRelativeTo(owner);
 	}
 
@@ -91,6 +104,22 @@ public class InstanceSettingsDialog extends JDialog {
 		runtimePanel.addRow(new JLabel(SharedLocale.tr("options.jvmRuntime")), javaRuntimeBox);
 		runtimePanel.addRow(new JLabel(SharedLocale.tr("options.jvmArguments")), javaArgsBox);
 
+		tuningPanel.addRow(gcLoggingCheck);
+		tuningPanel.addRow(applyRecommendationsCheck);
+		tuningPanel.addRow(recommendationLabel);
+		tuningPanel.addRow(new JLabel(SharedLocale.tr("instance.options.jvmFlagProfile")), profileBox);
+		tuningPanel.addRow(classDataSharingCheck);
+		tuningPanel.addRow(startupLabel);
+
+		profileBox.setRenderer(new DefaultListCellRenderer() {
+			@Override
+			public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+														  boolean isSelected, boolean cellHasFocus) {
+				String text = value != null ? SharedLocale.tr("instance.options.jvmFlagProfile." + value) : null;
+				return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+			}
+		});
+
 		okButton.setMargin(new Insets(0, 10, 0, 10));
 		buttonsPanel.addGlue();
 		buttonsPanel.addElement(okButton);
@@ -120,6 +149,7 @@ public class InstanceSettingsDialog extends JDialog {
 		formsPanel.addElement(iconPanel);
 		formsPanel.addElement(memorySettingsPanel);
 		formsPanel.addElement(runtimePanel);
+		formsPanel.addElement(tuningPanel);
 
 		add(formsPanel, BorderLayout.NORTH);
 		add(buttonsPanel, BorderLayout.SOUTH);
@@ -149,6 +179,31 @@ public class InstanceSettingsDialog extends JDialog {
 
 		javaRuntimeBox.setSelectedItem(settings.getRuntime());
 		javaArgsBox.setText(settings.getCustomJvmArgs());
+
+		gcLoggingCheck.setSelected(settings.isGcLogging());
+		applyRecommendationsCheck.setSelected(settings.isApplyHeapRecommendations());
+
+		HeapRecommendation recommendation = HeapAdvisor.load(instance);
+		if (recommendation != null) {
+			recommendationLabel.setText(SharedLocale.tr("instance.options.heapRecommendation",
+					String.valueOf(recommendation.getMaxMemory())));
+		} else {
+			recommendationLabel.setText(SharedLocale.tr("instance.options.noHeapRecommendation"));
+		}
+
+		profileBox.setSelectedItem(settings.getJvmFlagProfile() != null ? settings.getJvmFlagProfile() : JvmFlagProfile.DEFAULT);
+		classDataSharingCheck.setSelected(settings.isClassDataSharing());
+
+		File startupFile = StartupHistory.getFile(instance);
+		StartupHistory history = startupFile.exists() ? Persistence.read(startupFile, StartupHistory.class, true) : null;
+		long without = history != null ? history.getAverageWindowReadyMillis(null) : -1;
+		long with = history != null ? history.getAverageWindowReadyMillis(ClassDataArchive.Mode.USE) : -1;
+		if (without >= 0 || with >= 0) {
+			startupLabel.setText(SharedLocale.tr("instance.options.startupTimes",
+					formatSeconds(without), formatSeconds(with)));
+		} else {
+			startupLabel.setText(SharedLocale.tr("instance.options.noStartupTimes"));
+		}
 	}
 
 	private void save() {
@@ -169,9 +224,18 @@ public class InstanceSettingsDialog extends JDialog {
 			settings.setCustomJvmArgs(null);
 		}
 
+		settings.setGcLogging(gcLoggingCheck.isSelected());
+		settings.setApplyHeapRecommendations(applyRecommendationsCheck.isSelected());
+		settings.setJvmFlagProfile((JvmFlagProfile) profileBox.getSelectedItem());
+		settings.setClassDataSharing(classDataSharingCheck.isSelected());
+
 		saved = true;
 	}
 
+	private static String formatSeconds(long millis) {
+		return millis >= 0 ? String.format("%.1f s", millis / 1000.0) : "-";
+	}
+
 	private void updateIconPreview() {
 		File iconFile = instance.getIconPath();
 		if (iconFile.exists()) {
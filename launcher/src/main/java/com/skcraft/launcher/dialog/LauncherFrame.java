@@ -10,6 +10,7 @@ import com.skcraft.concurrency.ObservableFuture;
 import com.skcraft.launcher.Instance;
 import com.skcraft.launcher.InstanceList;
 import com.skcraft.launcher.Launcher;
+import com.skcraft.launcher.install.UpdateTransaction;
 import com.skcraft.launcher.launch.LaunchListener;
 import com.skcraft.launcher.launch.LaunchOptions;
 import com.skcraft.launcher.launch.LaunchOptions.UpdatePolicy;
@@ -271,6 +272,17 @@ public class LauncherFrame extends JFrame {
                 });
                 popup.add(menuItem);
 
+                if (UpdateTransaction.canRollback(selected)) {
+                    menuItem = new JMenuItem(SharedLocale.tr("instance.rollbackUpdate"));
+                    menuItem.addActionListener(new ActionListener() {
+                        @Override
+                        public void actionPerformed(ActionEvent e) {
+                            confirmRollback(selected);
+                        }
+                    });
+                    popup.add(menuItem);
+                }
+
                 menuItem = new JMenuItem(SharedLocale.tr("instance.deleteFiles"));
                 menuItem.addActionListener(new ActionListener() {
                     @Override
@@ -331,6 +343,23 @@ public class LauncherFrame extends JFrame {
         }, SwingExecutor.INSTANCE);
     }
 
+    private void confirmRollback(Instance instance) {
+        if (!SwingHelper.confirmDialog(this,
+                tr("instance.confirmRollback", instance.getTitle()), SharedLocale.tr("confirmTitle"))) {
+            return;
+        }
+
+        ObservableFuture<Instance> future = launcher.getInstanceTasks().rollback(this, instance);
+
+        // Update the list of instances after rolling back
+        future.addListener(new Runnable() {
+            @Override
+            public void run() {
+                instancesModel.update();
+            }
+        }, SwingExecutor.INSTANCE);
+    }
+
     private void loadInstances() {
         ObservableFuture<InstanceList> future = launcher.getInstanceTasks().reloadInstances(this);
 
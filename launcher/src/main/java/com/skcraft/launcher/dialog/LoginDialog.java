@@ -10,6 +10,7 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.skcraft.concurrency.ObservableFuture;
 import com.skcraft.concurrency.ProgressObservable;
+import com.skcraft.concurrency.TaskPriority;
 import com.skcraft.launcher.Configuration;
 import com.skcraft.launcher.Launcher;
 import com.skcraft.launcher.auth.AuthenticationException;
@@ -126,8 +127,8 @@ public class LoginDialog extends JDialog {
 
     private void attemptLogin(String username, String password) {
         LoginCallable callable = new LoginCallable(username, password);
-        ObservableFuture<Session> future = new ObservableFuture<Session>(
-                launcher.getExecutor().submit(callable), callable);
+        ObservableFuture<Session> future = launcher.getScheduler().submitObservable(
+                TaskPriority.INTERACTIVE, null, callable);
 
         Futures.addCallback(future, new FutureCallback<Session>() {
             @Override
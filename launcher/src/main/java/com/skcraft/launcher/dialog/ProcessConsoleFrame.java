@@ -6,6 +6,8 @@
 
 package com.skcraft.launcher.dialog;
 
+import com.skcraft.launcher.launch.monitor.ProcessSample;
+import com.skcraft.launcher.launch.monitor.ProcessSupervisor;
 import com.skcraft.launcher.swing.LinedBoxPanel;
 import com.skcraft.launcher.swing.SwingHelper;
 import com.skcraft.launcher.util.SharedLocale;
@@ -16,6 +18,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
 import java.io.PrintWriter;
 
 import static com.skcraft.launcher.util.SharedLocale.tr;
@@ -25,13 +28,17 @@ import static com.skcraft.launcher.util.SharedLocale.tr;
  */
 public class ProcessConsoleFrame extends ConsoleFrame {
     
+    private JButton logsButton;
     private JButton killButton;
     private JButton minimizeButton;
+    private JLabel metricsLabel;
     private TrayIcon trayIcon;
 
     @Getter private Process process;
     @Getter @Setter private boolean killOnClose;
     @Getter private int lastExitCode = 0;
+    @Getter private File logsDir;
+    @Getter private ProcessSupervisor supervisor;
 
     private PrintWriter processOut;
 
@@ -77,6 +84,79 @@ public class ProcessConsoleFrame extends ConsoleFrame {
         });
     }
 
+    /**
+     * Set the directory where the session logs of the game are saved,
+     * which enables the button to view them.
+     *
+     * @param logsDir the directory, or null
+     */
+    public void setLogsDir(File logsDir) {
+        this.logsDir = logsDir;
+        logsButton.setEnabled(logsDir != null);
+    }
+
+    /**
+     * Show the metrics of the given supervisor below the log.
+     *
+     * @param supervisor the supervisor
+     */
+    public void setSupervisor(ProcessSupervisor supervisor) {
+        this.supervisor = supervisor;
+        metricsLabel.setVisible(supervisor != null);
+        if (supervisor != null) {
+            supervisor.addListener(new ProcessSupervisor.Listener() {
+                @Override
+                public void metricsUpdated(final ProcessSupervisor supervisor) {
+                    SwingUtilities.invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            updateMetrics(supervisor);
+                        }
+                    });
+                }
+            });
+            updateMetrics(supervisor);
+        }
+    }
+
+    private void updateMetrics(ProcessSupervisor supervisor) {
+        StringBuilder text = new StringBuilder();
+
+        ProcessSample sample = supervisor.getLastSample();
+        if (sample != null) {
+            text.append(tr("console.metricsUsage",
+                    String.format("%.0f", sample.getCpuPercent()),
+                    String.valueOf(sample.getResidentBytes() / 1024 / 1024),
+                    String.valueOf(sample.getThreadCount())));
+        }
+
+        long firstOutput = supervisor.getFirstOutputMillis();
+        if (firstOutput >= 0) {
+            appendMetric(text, tr("console.metricsFirstOutput", String.format("%.1f", firstOutput / 1000.0)));
+        }
+
+        long windowReady = supervisor.getWindowReadyMillis();
+        if (windowReady >= 0) {
+            appendMetric(text, tr("console.metricsWindowReady", String.format("%.1f", windowReady / 1000.0)));
+        }
+
+        if (supervisor.isHangSuspected()) {
+            appendMetric(text, tr("console.metricsHang"));
+            metricsLabel.setForeground(new Color(0xFF0000));
+        } else {
+            metricsLabel.setForeground(UIManager.getColor("Label.foreground"));
+        }
+
+        metricsLabel.setText(text.length() > 0 ? text.toString() : " ");
+    }
+
+    private static void appendMetric(StringBuilder text, String metric) {
+        if (text.length() > 0) {
+            text.append("   ");
+        }
+        text.append(metric);
+    }
+
     private synchronized boolean hasProcess() {
         return process != null;
     }
@@ -112,14 +192,29 @@ public class ProcessConsoleFrame extends ConsoleFrame {
     }
 
     protected void initComponents() {
+        logsButton = new JButton(SharedLocale.tr("console.viewLogs"));
+        logsButton.setEnabled(false);
         killButton = new JButton(SharedLocale.tr("console.forceClose"));
         minimizeButton = new JButton(); // Text set later
 
+        metricsLabel = new JLabel(" ");
+        metricsLabel.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+        metricsLabel.setVisible(false);
+        add(metricsLabel, BorderLayout.SOUTH);
+
         LinedBoxPanel buttonsPanel = getButtonsPanel();
+        buttonsPanel.addElement(logsButton);
         buttonsPanel.addGlue();
         buttonsPanel.addElement(killButton);
         buttonsPanel.addElement(minimizeButton);
         
+        logsButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                new SessionLogDialog(ProcessConsoleFrame.this, logsDir).setVisible(true);
+            }
+        });
+
         killButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -10,6 +10,8 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.skcraft.concurrency.ObservableFuture;
+import com.skcraft.concurrency.ProgressListener;
+import com.skcraft.concurrency.ProgressNotifier;
 import com.skcraft.concurrency.ProgressObservable;
 import com.skcraft.launcher.swing.LinedBoxPanel;
 import com.skcraft.launcher.swing.SwingHelper;
@@ -24,8 +26,7 @@ import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.lang.ref.WeakReference;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.skcraft.launcher.util.SharedLocale.tr;
 
@@ -170,19 +171,19 @@ public class ProgressDialog extends JDialog {
 
         lastDialogRef = new WeakReference<ProgressDialog>(dialog);
 
-        final Timer timer = new Timer();
-        timer.scheduleAtFixedRate(new UpdateProgress(dialog, observable), 400, 400);
+        final UpdateProgress updater = new UpdateProgress(dialog, observable);
+        updater.start();
 
         Futures.addCallback(future, new FutureCallback<Object>() {
             @Override
             public void onSuccess(Object result) {
-                timer.cancel();
+                updater.stop();
                 dialog.dispose();
             }
 
             @Override
             public void onFailure(Throwable t) {
-                timer.cancel();
+                updater.stop();
                 dialog.dispose();
             }
         }, SwingExecutor.INSTANCE);
@@ -199,52 +200,118 @@ public class ProgressDialog extends JDialog {
         return null;
     }
 
-    private static class UpdateProgress extends TimerTask {
+    /**
+     * Updates the dialog when the progress changes. Changes are coalesced so
+     * that the dialog is updated at most every {@link #UPDATE_DELAY} ms no
+     * matter how often workers report progress, and the status is only read
+     * and formatted when the dialog is about to be updated. Progress that
+     * can't report its changes is polled instead.
+     */
+    private static class UpdateProgress implements ProgressListener, ActionListener {
+        private static final int UPDATE_DELAY = 100;
+        private static final int POLL_INTERVAL = 400;
+
         private final ProgressDialog dialog;
         private final ProgressObservable observable;
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private final Timer timer;
+        private boolean listening;
+        private boolean stopped;
 
         public UpdateProgress(ProgressDialog dialog, ProgressObservable observable) {
             this.dialog = dialog;
             this.observable = observable;
+            this.timer = new Timer(UPDATE_DELAY, this);
+        }
+
+        public void start() {
+            listening = ProgressNotifier.addTo(observable, this);
+            if (listening) {
+                timer.setRepeats(false);
+                progressChanged();
+            } else {
+                startPolling();
+            }
+        }
+
+        private void startPolling() {
+            timer.setRepeats(true);
+            timer.setDelay(POLL_INTERVAL);
+            timer.setInitialDelay(POLL_INTERVAL);
+            timer.restart();
+        }
+
+        public void stop() {
+            stopped = true;
+            if (listening) {
+                ProgressNotifier.removeFrom(observable, this);
+            }
+            timer.stop();
         }
 
         @Override
-        public void run() {
+        public void progressChanged() {
+            if (pending.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!timer.isRunning()) {
+                            timer.start();
+                        }
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void pollingRequired() {
             SwingUtilities.invokeLater(new Runnable() {
                 @Override
                 public void run() {
-                    JProgressBar progressBar = dialog.progressBar;
-                    JTextArea logText = dialog.logText;
-                    JLabel label = dialog.label;
-
-                    double progress = observable.getProgress();
-                    if (progress >= 0) {
-                        dialog.setTitle(tr("progress.percentTitle",
-                                Math.round(progress * 100 * 100) / 100.0, dialog.defaultTitle));
-                        progressBar.setValue((int) (progress * 1000));
-                        progressBar.setIndeterminate(false);
-                    } else {
-                        dialog.setTitle( dialog.defaultTitle);
-                        progressBar.setIndeterminate(true);
-                    }
-
-                    String status = observable.getStatus();
-                    if (status == null) {
-                        status = SharedLocale.tr("progress.defaultStatus");
-                        label.setText(dialog.defaultMessage);
-                    } else {
-                        int index = status.indexOf('\n');
-                        if (index == -1) {
-                            label.setText(status);
-                        } else {
-                            label.setText(status.substring(0, index));
-                        }
+                    if (!stopped) {
+                        startPolling();
                     }
-                    logText.setText(status);
-                    logText.setCaretPosition(0);
                 }
             });
         }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            pending.set(false);
+            update();
+        }
+
+        private void update() {
+            JProgressBar progressBar = dialog.progressBar;
+            JTextArea logText = dialog.logText;
+            JLabel label = dialog.label;
+
+            double progress = observable.getProgress();
+            if (progress >= 0) {
+                dialog.setTitle(tr("progress.percentTitle",
+                        Math.round(progress * 100 * 100) / 100.0, dialog.defaultTitle));
+                progressBar.setValue((int) (progress * 1000));
+                progressBar.setIndeterminate(false);
+            } else {
+                dialog.setTitle(dialog.defaultTitle);
+                progressBar.setIndeterminate(true);
+            }
+
+            String status = observable.getStatus();
+            if (status == null) {
+                status = SharedLocale.tr("progress.defaultStatus");
+                label.setText(dialog.defaultMessage);
+            } else {
+                int index = status.indexOf('\n');
+                if (index == -1) {
+                    label.setText(status);
+                } else {
+                    label.setText(status.substring(0, index));
+                }
+            }
+            logText.setText(status);
+            logText.setCaretPosition(0);
+        }
     }
 
 }
@@ -0,0 +1,313 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.dialog;
+
+import com.skcraft.launcher.launch.log.LogFilter;
+import com.skcraft.launcher.launch.log.LogLevel;
+import com.skcraft.launcher.launch.log.SessionLogReader;
+import com.skcraft.launcher.launch.log.SessionLogRecord;
+import com.skcraft.launcher.launch.log.SessionLogWriter;
+import com.skcraft.launcher.swing.LinedBoxPanel;
+import com.skcraft.launcher.swing.SessionLogListModel;
+import com.skcraft.launcher.swing.SwingHelper;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static com.skcraft.launcher.util.SharedLocale.tr;
+
+/**
+ * Shows the saved game output of an instance, with search and filtering.
+ */
+@Log
+public class SessionLogDialog extends JDialog {
+
+    private static final int MAX_MATCHES = 100000;
+
+    private final File logsDir;
+    private final SessionLogListModel model = new SessionLogListModel();
+    private final JComboBox<File> fileCombo = new JComboBox<File>();
+    private final JButton refreshButton = new JButton(tr("sessionLog.refresh"));
+    private final JComboBox<Object> levelCombo = new JComboBox<Object>();
+    private final JTextField patternText = new JTextField(16);
+    private final JTextField fromText = new JTextField(6);
+    private final JTextField toText = new JTextField(6);
+    private final JButton searchButton = new JButton(tr("sessionLog.search"));
+    private final JButton showAllButton = new JButton(tr("sessionLog.showAll"));
+    private final JList<SessionLogRecord> list = new JList<SessionLogRecord>(model);
+    private final JLabel statusLabel = new JLabel(" ");
+    private SwingWorker<List<Long>, Void> searchWorker;
+
+    public SessionLogDialog(Window owner, @NonNull File logsDir) {
+        super(owner, tr("sessionLog.title"), ModalityType.MODELESS);
+        this.logsDir = logsDir;
+
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        initComponents();
+        setSize(new Dimension(800, 500));
+        setLocationRelativeTo(owner);
+
+        refreshFiles();
+    }
+
+    private void initComponents() {
+        levelCombo.addItem(tr("sessionLog.allLevels"));
+        for (LogLevel level : LogLevel.values()) {
+            levelCombo.addItem(level);
+        }
+
+        fileCombo.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                String text = value instanceof File ? ((File) value).getName() : "";
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+
+        final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+        list.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        list.setFixedCellHeight(list.getFontMetrics(list.getFont()).getHeight() + 1);
+        list.setFixedCellWidth(4000);
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                SessionLogRecord record = (SessionLogRecord) value;
+                String text = timeFormat.format(new Date(record.getTime())) + " "
+                        + record.getText().replace("\t", "    ");
+                super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+                if (!isSelected) {
+                    if (record.getLevel().compareTo(LogLevel.ERROR) >= 0) {
+                        setForeground(new Color(0xFF0000));
+                    } else if (record.getLevel() == LogLevel.WARN) {
+                        setForeground(new Color(0xFF7F00));
+                    }
+                }
+                return this;
+            }
+        });
+
+        LinedBoxPanel filePanel = new LinedBoxPanel(true).fullyPadded();
+        filePanel.addElement(new JLabel(tr("sessionLog.session")));
+        filePanel.addElement(fileCombo);
+        filePanel.addElement(refreshButton);
+        filePanel.addGlue();
+
+        LinedBoxPanel filterPanel = new LinedBoxPanel(true);
+        filterPanel.addElement(new JLabel(tr("sessionLog.level")));
+        filterPanel.addElement(levelCombo);
+        filterPanel.addElement(new JLabel(tr("sessionLog.pattern")));
+        filterPanel.addElement(patternText);
+        filterPanel.addElement(new JLabel(tr("sessionLog.from")));
+        filterPanel.addElement(fromText);
+        filterPanel.addElement(new JLabel(tr("sessionLog.to")));
+        filterPanel.addElement(toText);
+        filterPanel.addElement(searchButton);
+        filterPanel.addElement(showAllButton);
+
+        JPanel northPanel = new JPanel(new BorderLayout());
+        northPanel.add(filePanel, BorderLayout.NORTH);
+        northPanel.add(filterPanel, BorderLayout.SOUTH);
+
+        JScrollPane scrollPane = new JScrollPane(list);
+        scrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS);
+
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(4, 10, 4, 10));
+
+        add(northPanel, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+
+        fileCombo.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                openSelected();
+            }
+        });
+
+        refreshButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refreshFiles();
+            }
+        });
+
+        ActionListener searchListener = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                search();
+            }
+        };
+        searchButton.addActionListener(searchListener);
+        patternText.addActionListener(searchListener);
+
+        showAllButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                cancelSearch();
+                model.setMatches(null);
+                updateStatus();
+            }
+        });
+    }
+
+    private void refreshFiles() {
+        Object selected = fileCombo.getSelectedItem();
+        List<File> files = SessionLogWriter.getLogFiles(logsDir);
+
+        fileCombo.setModel(new DefaultComboBoxModel<File>(files.toArray(new File[files.size()])));
+        if (selected != null && files.contains(selected)) {
+            fileCombo.setSelectedItem(selected);
+        }
+
+        openSelected();
+    }
+
+    private void openSelected() {
+        cancelSearch();
+
+        File file = (File) fileCombo.getSelectedItem();
+        model.setReader(file != null ? new SessionLogReader(file) : null);
+
+        if (file != null && model.getSize() > 0) {
+            list.ensureIndexIsVisible(model.getSize() - 1);
+        }
+
+        updateStatus();
+    }
+
+    private void search() {
+        final SessionLogReader reader = model.getReader();
+        if (reader == null) {
+            return;
+        }
+
+        final LogFilter filter = new LogFilter();
+
+        if (levelCombo.getSelectedItem() instanceof LogLevel) {
+            filter.setMinLevel((LogLevel) levelCombo.getSelectedItem());
+        }
+
+        try {
+            String pattern = patternText.getText();
+            if (!pattern.isEmpty()) {
+                filter.setPattern(Pattern.compile(pattern, Pattern.CASE_INSENSITIVE));
+            }
+        } catch (PatternSyntaxException e) {
+            SwingHelper.showErrorDialog(this, tr("sessionLog.invalidPattern", e.getDescription()),
+                    tr("sessionLog.invalidFilterTitle"));
+            return;
+        }
+
+        try {
+            filter.setFromTime(parseTime(fromText.getText(), reader.getStartTime(), false, 0));
+            filter.setToTime(parseTime(toText.getText(), reader.getStartTime(), true, Long.MAX_VALUE));
+        } catch (ParseException e) {
+            SwingHelper.showErrorDialog(this, tr("sessionLog.invalidTime"), tr("sessionLog.invalidFilterTitle"));
+            return;
+        }
+
+        cancelSearch();
+        statusLabel.setText(tr("sessionLog.searching"));
+
+        searchWorker = new SwingWorker<List<Long>, Void>() {
+            @Override
+            protected List<Long> doInBackground() throws Exception {
+                return reader.search(filter, MAX_MATCHES);
+            }
+
+            @Override
+            protected void done() {
+                if (searchWorker != this || model.getReader() != reader) {
+                    return;
+                }
+
+                try {
+                    model.setMatches(get());
+                } catch (CancellationException ignored) {
+                } catch (InterruptedException ignored) {
+                } catch (ExecutionException e) {
+                    log.log(Level.WARNING, "Failed to search " + reader.getFile().getAbsolutePath(), e.getCause());
+                    SwingHelper.showErrorDialog(SessionLogDialog.this, tr("sessionLog.searchFailed"),
+                            tr("errorTitle"), e.getCause());
+                }
+
+                updateStatus();
+            }
+        };
+        searchWorker.execute();
+    }
+
+    private void cancelSearch() {
+        if (searchWorker != null) {
+            searchWorker.cancel(true);
+            searchWorker = null;
+        }
+    }
+
+    private void updateStatus() {
+        if (model.getReader() == null) {
+            statusLabel.setText(tr("sessionLog.noLogs"));
+        } else if (model.isFiltered()) {
+            statusLabel.setText(tr("sessionLog.matchCount", model.getSize()));
+        } else {
+            statusLabel.setText(tr("sessionLog.lineCount", model.getSize()));
+        }
+    }
+
+    /**
+     * Parse a time of day on the day the session started. If the time is
+     * the end of a range, the whole minute or second is included.
+     */
+    private static long parseTime(String text, long sessionStart, boolean end, long defaultValue)
+            throws ParseException {
+        text = text.trim();
+        if (text.isEmpty()) {
+            return defaultValue;
+        }
+
+        boolean withSeconds = text.length() > 5;
+        SimpleDateFormat format = new SimpleDateFormat(withSeconds ? "HH:mm:ss" : "HH:mm");
+        format.setLenient(false);
+        Calendar time = Calendar.getInstance();
+        time.setTime(format.parse(text));
+
+        Calendar result = Calendar.getInstance();
+        result.setTimeInMillis(sessionStart > 0 ? sessionStart : System.currentTimeMillis());
+        result.set(Calendar.HOUR_OF_DAY, time.get(Calendar.HOUR_OF_DAY));
+        result.set(Calendar.MINUTE, time.get(Calendar.MINUTE));
+        result.set(Calendar.SECOND, time.get(Calendar.SECOND));
+        result.set(Calendar.MILLISECOND, 0);
+        if (end) {
+            result.add(Calendar.MILLISECOND, withSeconds ? 999 : 59999);
+        }
+
+        // Sessions may run past midnight
+        if (sessionStart > 0 && result.getTimeInMillis() < sessionStart - 1000) {
+            result.add(Calendar.DAY_OF_MONTH, 1);
+        }
+
+        return result.getTimeInMillis();
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.install;
+
+import com.skcraft.launcher.Configuration;
+import com.skcraft.launcher.util.Throttle;
+import com.skcraft.launcher.util.TokenBucket;
+import lombok.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limits the bandwidth used by all downloads together, by the downloads
+ * from each host, and by downloads made in the background.
+ *
+ * <p>The limits are read from the {@link Configuration} as downloads
+ * progress, so changes made in the options take effect right away. Limits
+ * are in kilobytes per second, and 0 means no limit.</p>
+ *
+ * <p>Background downloads also step aside while any other download is
+ * transferring, so they only use bandwidth that would otherwise go
+ * unused.</p>
+ */
+public class BandwidthShaper {
+
+    private static final long YIELD_MILLIS = 250;
+
+    private final Configuration config;
+    private final TokenBucket global = new TokenBucket();
+    private final TokenBucket background = new TokenBucket();
+    private final ConcurrentMap<String, TokenBucket> hosts = new ConcurrentHashMap<String, TokenBucket>();
+    private volatile long lastForegroundTransfer;
+
+    public BandwidthShaper(@NonNull Configuration config) {
+        this.config = config;
+    }
+
+    /**
+     * Get a throttle for a download.
+     *
+     * @param host the host that is downloaded from
+     * @param inBackground true if nobody is waiting for the download
+     * @return the throttle
+     */
+    public Throttle getThrottle(@NonNull String host, final boolean inBackground) {
+        String key = host.toLowerCase(Locale.ROOT);
+        TokenBucket bucket = hosts.get(key);
+        if (bucket == null) {
+            TokenBucket created = new TokenBucket();
+            bucket = hosts.putIfAbsent(key, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+
+        final TokenBucket hostBucket = bucket;
+
+        return new Throttle() {
+            @Override
+            public void acquire(int bytes) throws InterruptedException {
+                if (inBackground) {
+                    while (System.currentTimeMillis() - lastForegroundTransfer < YIELD_MILLIS) {
+                        Thread.sleep(YIELD_MILLIS);
+                    }
+                    background.setRate(toBytes(config.getBackgroundDownloadLimit()));
+                    background.acquire(bytes);
+                } else {
+                    lastForegroundTransfer = System.currentTimeMillis();
+                }
+
+                hostBucket.setRate(toBytes(config.getHostDownloadLimit()));
+                hostBucket.acquire(bytes);
+                global.setRate(toBytes(config.getDownloadLimit()));
+                global.acquire(bytes);
+            }
+        };
+    }
+
+    private static long toBytes(int kilobytes) {
+        return Math.max(0, kilobytes) * 1024L;
+    }
+
+}
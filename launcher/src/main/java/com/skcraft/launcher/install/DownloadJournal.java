@@ -0,0 +1,317 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.install;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Remembers the downloads in a temporary directory, so that a download that
+ * was stopped when the launcher closed can be resumed where it left off.
+ *
+ * <p>The journal is a tab separated log that is appended to as downloads
+ * progress: {@code START <name> <size> <sha1> <validator> <url>} when a
+ * download begins, {@code PARTIAL <name> <bytes>} after the first bytes of
+ * the file have been written out, and {@code DONE <name> <bytes>} once the
+ * file is complete. Names are relative to the directory of the journal.
+ * Empty fields are written as {@code -}. The last line about a file wins.</p>
+ *
+ * <p>Downloaders that use the same directory at the same time share one
+ * journal, because compacting the file would otherwise replace it under
+ * another downloader that is still appending to it. The journal is only
+ * compacted when it's opened by the first of them, and only closed when
+ * the last of them closes it.</p>
+ */
+@Log
+public class DownloadJournal implements Closeable {
+
+    private static final String START = "START";
+    private static final String PARTIAL = "PARTIAL";
+    private static final String DONE = "DONE";
+    private static final String EMPTY = "-";
+
+    // Guarded by itself
+    private static final Map<File, DownloadJournal> openJournals = new HashMap<File, DownloadJournal>();
+
+    private final File file;
+    private final File baseDir;
+    // Guarded by this
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    private Writer writer;
+    private int references;
+
+    private DownloadJournal(File file) {
+        this.file = file;
+        this.baseDir = file.getParentFile();
+    }
+
+    /**
+     * Open the journal in a file, creating it if it doesn't exist. If the
+     * journal is already open, the same journal is returned, and it must
+     * be closed once more before the file is closed.
+     *
+     * @param file the file
+     * @return the journal
+     * @throws IOException thrown on I/O error
+     */
+    public static DownloadJournal open(@NonNull File file) throws IOException {
+        file = file.getCanonicalFile();
+
+        synchronized (openJournals) {
+            DownloadJournal journal = openJournals.get(file);
+            if (journal == null) {
+                journal = load(file);
+                openJournals.put(file, journal);
+            }
+
+            synchronized (journal) {
+                journal.references++;
+            }
+            return journal;
+        }
+    }
+
+    /**
+     * Read and compact the journal in a file. Entries about files that are
+     * gone are dropped.
+     *
+     * @param file the file
+     * @return the journal
+     * @throws IOException thrown on I/O error
+     */
+    private static DownloadJournal load(File file) throws IOException {
+        DownloadJournal journal = new DownloadJournal(file);
+
+        if (file.exists()) {
+            for (String line : Files.readLines(file, Charsets.UTF_8)) {
+                journal.read(Splitter.on('\t').splitToList(line));
+            }
+            journal.entries.keySet().retainAll(journal.existing(journal.entries.keySet()));
+        }
+
+        file.getParentFile().mkdirs();
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        journal.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), Charsets.UTF_8));
+        for (Map.Entry<String, Entry> entry : journal.entries.entrySet()) {
+            journal.write(entry.getKey(), entry.getValue());
+        }
+        journal.writer.close();
+
+        file.delete();
+        if (!tempFile.renameTo(file)) {
+            throw new IOException(String.format("Failed to rename %s to %s", tempFile, file));
+        }
+
+        journal.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), Charsets.UTF_8));
+        return journal;
+    }
+
+    private void read(List<String> fields) {
+        try {
+            String type = fields.get(0);
+            if (type.equals(START) && fields.size() >= 6) {
+                Entry entry = new Entry(Long.parseLong(fields.get(2)), field(fields.get(3)),
+                        field(fields.get(4)), fields.get(5));
+                entries.put(fields.get(1), entry);
+            } else if ((type.equals(PARTIAL) || type.equals(DONE)) && fields.size() >= 3) {
+                Entry entry = entries.get(fields.get(1));
+                if (entry != null) {
+                    entry.setBytes(Long.parseLong(fields.get(2)));
+                    entry.setComplete(type.equals(DONE));
+                }
+            }
+        } catch (NumberFormatException ignored) {
+            // A line cut off when the launcher closed
+        }
+    }
+
+    private List<String> existing(Iterable<String> names) {
+        List<String> found = new ArrayList<String>();
+        for (String name : names) {
+            File file = new File(baseDir, name);
+            if (file.exists() || getPartFile(file).exists()) {
+                found.add(name);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Get what is known about a file.
+     *
+     * @param file the downloaded file
+     * @return the entry, or null if the file isn't in the journal
+     */
+    public synchronized Entry get(File file) {
+        Entry entry = entries.get(getName(file));
+        return entry != null ? entry.copy() : null;
+    }
+
+    /**
+     * Record that a file has started to download from scratch.
+     *
+     * @param file the downloaded file
+     * @param entry the download
+     */
+    public synchronized void started(File file, Entry entry) {
+        String name = getName(file);
+        Entry copy = entry.copy();
+        entries.put(name, copy);
+        write(name, copy);
+    }
+
+    /**
+     * Record how much of a file has been written out so far.
+     *
+     * @param file the downloaded file
+     * @param bytes the number of bytes
+     */
+    public synchronized void progress(File file, long bytes) {
+        update(file, PARTIAL, bytes, false);
+    }
+
+    /**
+     * Record that a file has been downloaded completely.
+     *
+     * @param file the downloaded file
+     * @param bytes the size of the file
+     */
+    public synchronized void completed(File file, long bytes) {
+        update(file, DONE, bytes, true);
+    }
+
+    /**
+     * Forget about a file, so that it starts over the next time.
+     *
+     * @param file the downloaded file
+     */
+    public synchronized void forget(File file) {
+        update(file, PARTIAL, 0, false);
+    }
+
+    private void update(File file, String type, long bytes, boolean complete) {
+        String name = getName(file);
+        Entry entry = entries.get(name);
+        if (entry != null) {
+            entry.setBytes(bytes);
+            entry.setComplete(complete);
+            append(type, name, String.valueOf(bytes));
+        }
+    }
+
+    private void write(String name, Entry entry) {
+        append(START, name, String.valueOf(entry.getSize()), Strings.isNullOrEmpty(entry.getSha1()) ? EMPTY : entry.getSha1(),
+                Strings.isNullOrEmpty(entry.getValidator()) ? EMPTY : entry.getValidator(), entry.getUrl());
+        if (entry.getBytes() > 0 || entry.isComplete()) {
+            append(entry.isComplete() ? DONE : PARTIAL, name, String.valueOf(entry.getBytes()));
+        }
+    }
+
+    private void append(String... fields) {
+        if (writer == null) return;
+
+        StringBuilder line = new StringBuilder();
+        for (String field : fields) {
+            if (line.length() > 0) line.append('\t');
+            line.append(field.replace('\t', ' ').replace('\n', ' '));
+        }
+
+        try {
+            writer.write(line.append('\n').toString());
+            writer.flush();
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to write to the download journal " + file.getAbsolutePath(), e);
+            closeWriter();
+        }
+    }
+
+    private String getName(File file) {
+        return baseDir.toURI().relativize(file.toURI()).getPath();
+    }
+
+    /**
+     * Give up this use of the journal. The file is closed once every
+     * {@link #open(File)} of it has been closed.
+     *
+     * @throws IOException thrown on I/O error
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (openJournals) {
+            synchronized (this) {
+                if (references == 0 || --references > 0) {
+                    return;
+                }
+
+                openJournals.remove(file);
+                if (writer != null) {
+                    writer.close();
+                    writer = null;
+                }
+            }
+        }
+    }
+
+    private void closeWriter() {
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+        }
+        writer = null;
+    }
+
+    private static String field(String value) {
+        return value.equals(EMPTY) ? null : value;
+    }
+
+    /**
+     * Get the file that a download is written to until it's complete.
+     *
+     * @param file the downloaded file
+     * @return the partial file
+     */
+    public static File getPartFile(File file) {
+        return new File(file.getParentFile(), file.getName() + ".tmp");
+    }
+
+    /**
+     * A download in the journal.
+     */
+    @Data
+    public static class Entry {
+        private final long size;
+        private final String sha1;
+        /**
+         * The ETag or Last-Modified date of the response, which is sent back
+         * when resuming so that a file that changed is sent again in full.
+         */
+        private final String validator;
+        private final String url;
+        private long bytes;
+        private boolean complete;
+
+        private Entry copy() {
+            Entry copy = new Entry(size, sha1, validator, url);
+            copy.setBytes(bytes);
+            copy.setComplete(complete);
+            return copy;
+        }
+    }
+
+}
@@ -18,4 +18,17 @@ public interface Downloader extends ProgressObservable {
     File download(List<URL> urls, String key, long size, String name);
 
     File download(URL url, String key, long size, String name);
+
+    /**
+     * Download a file whose SHA-1 hash is known, which lets it be fetched
+     * from a source other than the given URLs as long as it matches.
+     *
+     * @param urls the URLs to download from, in order
+     * @param key the key that the download is stored under
+     * @param sha1 the SHA-1 hash of the file, or null if unknown
+     * @param size the size of the file, or an estimate
+     * @param name the name to show
+     * @return the file that will hold the download
+     */
+    File download(List<URL> urls, String key, String sha1, long size, String name);
 }
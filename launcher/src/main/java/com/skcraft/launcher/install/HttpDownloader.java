@@ -10,11 +10,18 @@ import com.google.common.base.Charsets;
 import com.google.common.base.Strings;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.skcraft.concurrency.ListenableProgress;
+import com.skcraft.concurrency.ProgressListener;
+import com.skcraft.concurrency.ProgressNotifier;
 import com.skcraft.concurrency.ProgressObservable;
+import com.skcraft.concurrency.ResourceClass;
+import com.skcraft.launcher.peer.PeerCache;
 import com.skcraft.launcher.util.HttpRequest;
 import com.skcraft.launcher.util.SharedLocale;
 import lombok.Getter;
@@ -24,16 +31,46 @@ import lombok.extern.java.Log;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
 import static com.skcraft.launcher.util.SharedLocale.tr;
 
 @Log
-public class HttpDownloader implements Downloader {
+public class HttpDownloader implements Downloader, ListenableProgress {
+
+    private static final String JOURNAL_NAME = "downloads.log";
+    private static final long CHECKPOINT_BYTES = 1024 * 1024;
+
+    /**
+     * Runs requests that are raced against each other. A request that loses
+     * can't be stopped before it connects, so it finishes here on its own.
+     */
+    private static final ExecutorService hedgeExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "Hedged download request");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
 
     private final Random random = new Random();
     private final HashFunction hf = Hashing.sha1();
@@ -42,15 +79,46 @@ public class HttpDownloader implements Downloader {
     @Getter @Setter private int threadCount = 6;
     @Getter @Setter private int retryDelay = 2000;
     @Getter @Setter private int tryCount = 3;
+    /**
+     * An executor that starts a thread for every task, such as one using
+     * virtual threads. Concurrency is then limited by
+     * {@link ResourceClass#NETWORK} rather than by {@link #threadCount}.
+     */
+    @Getter @Setter private ListeningExecutorService executor;
+    /**
+     * Other launchers to try before the origin, for files with a known hash.
+     */
+    @Getter @Setter private PeerCache peerCache;
+    /**
+     * The history of the download sources, used to try the best source
+     * first and to hedge slow requests.
+     */
+    @Getter @Setter private MirrorStats mirrorStats;
+    /**
+     * Limits the bandwidth of the downloads, or null for no limits.
+     */
+    @Getter @Setter private BandwidthShaper bandwidthShaper;
+    /**
+     * Whether nobody is waiting for these downloads, which lets them yield
+     * bandwidth to other downloads.
+     */
+    @Getter @Setter private boolean background;
 
-    private List<HttpDownloadJob> queue = new ArrayList<HttpDownloadJob>();
+    // Guarded by this until execute() is called
+    private volatile List<HttpDownloadJob> queue = new ArrayList<HttpDownloadJob>();
     private final Set<String> usedKeys = new HashSet<String>();
-
-    private final List<HttpDownloadJob> running = new ArrayList<HttpDownloadJob>();
-    private final List<HttpDownloadJob> failed = new ArrayList<HttpDownloadJob>();
-    private long downloaded = 0;
-    private long total = 0;
-    private int left = 0;
+    private DownloadJournal journal;
+    private boolean journalOpened;
+
+    // Updated by the download threads without a common lock
+    private final Set<HttpDownloadJob> running = Collections.newSetFromMap(
+            new ConcurrentHashMap<HttpDownloadJob, Boolean>());
+    private final AtomicInteger failedCount = new AtomicInteger();
+    private final LongAdder transferred = new LongAdder();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicInteger left = new AtomicInteger();
+    private final ThroughputMeter throughput = new ThroughputMeter();
+    private final ProgressNotifier notifier = new ProgressNotifier();
 
     /**
      * Create a new downloader using the given executor.
@@ -78,7 +146,12 @@ public class HttpDownloader implements Downloader {
     }
 
     @Override
-    public synchronized File download(@NonNull List<URL> urls, @NonNull String key, long size, String name) {
+    public File download(@NonNull List<URL> urls, @NonNull String key, long size, String name) {
+        return download(urls, key, null, size, name);
+    }
+
+    @Override
+    public synchronized File download(@NonNull List<URL> urls, @NonNull String key, String sha1, long size, String name) {
         if (urls.isEmpty()) {
             throw new IllegalArgumentException("Can't download empty list of URLs");
         }
@@ -87,17 +160,45 @@ public class HttpDownloader implements Downloader {
         hash = createUniqueKey(hash);
         File tempFile = new File(tempDir, hash.substring(0, 2) + "/" + hash);
 
+        // A file that the journal doesn't know to be complete may have been cut off
+        DownloadJournal journal = getJournal();
+        DownloadJournal.Entry entry = journal != null ? journal.get(tempFile) : null;
+        if (entry != null && tempFile.exists() && (!entry.isComplete() || entry.getBytes() != tempFile.length())) {
+            log.info("Downloading " + tempFile + " again because it is incomplete");
+            tempFile.delete();
+        }
+
         // If the file is already downloaded (such as from before), then don't re-download
         if (!tempFile.exists()) {
-            total += size;
-            left++;
-            queue.add(new HttpDownloadJob(tempFile, urls, size, name != null ? name : tempFile.getName()));
+            total.addAndGet(size);
+            left.incrementAndGet();
+            queue.add(new HttpDownloadJob(tempFile, urls, sha1, size, name != null ? name : tempFile.getName()));
         }
 
         return tempFile;
     }
 
 
+    /**
+     * Open the journal of the temporary directory the first time that it's
+     * needed. Downloads still work without one, but can't be resumed.
+     *
+     * @return the journal, or null if it couldn't be opened
+     */
+    private synchronized DownloadJournal getJournal() {
+        if (!journalOpened) {
+            journalOpened = true;
+            File file = new File(tempDir, JOURNAL_NAME);
+            try {
+                journal = DownloadJournal.open(file);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed to open the download journal " + file.getAbsolutePath(), e);
+            }
+        }
+
+        return journal;
+    }
+
     @Override
     public File download(URL url, String key, long size, String name) {
         List<URL> urls = new ArrayList<URL>();
@@ -116,15 +217,16 @@ public class HttpDownloader implements Downloader {
             queue = Collections.unmodifiableList(queue);
         }
 
-        ListeningExecutorService executor = MoreExecutors.listeningDecorator(
-                Executors.newFixedThreadPool(threadCount));
+        boolean ownExecutor = this.executor == null;
+        ListeningExecutorService executor = ownExecutor
+                ? MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(threadCount))
+                : this.executor;
+        List<ListenableFuture<?>> futures = new ArrayList<ListenableFuture<?>>();
 
         try {
-            List<ListenableFuture<?>> futures = new ArrayList<ListenableFuture<?>>();
-
             synchronized (this) {
                 for (HttpDownloadJob job : queue) {
-                    futures.add(executor.submit(job));
+                    futures.add(executor.submit(ownExecutor ? job : ResourceClass.NETWORK.wrap(job)));
                 }
             }
 
@@ -134,32 +236,80 @@ public class HttpDownloader implements Downloader {
                 throw new IOException("Something went wrong", e);
             }
 
+            int failedCount = this.failedCount.get();
+            if (failedCount > 0) {
+                throw new IOException(failedCount + " file(s) could not be downloaded");
+            }
+        } finally {
+            if (ownExecutor) {
+                executor.shutdownNow();
+            } else {
+                // The executor is shared, so only stop our own downloads
+                for (ListenableFuture<?> future : futures) {
+                    future.cancel(true);
+                }
+            }
+
+            // Interrupted downloads record how far they got before the journal can be closed
+            for (HttpDownloadJob job : queue) {
+                job.awaitStopped();
+            }
+
+            if (mirrorStats != null) {
+                mirrorStats.save();
+            }
+
             synchronized (this) {
-                if (failed.size() > 0) {
-                    throw new IOException(failed.size() + " file(s) could not be downloaded");
+                if (journal != null) {
+                    try {
+                        journal.close();
+                    } catch (IOException e) {
+                        log.log(Level.WARNING, "Failed to close the download journal", e);
+                    }
                 }
             }
-        } finally {
-            executor.shutdownNow();
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This is read from counters that the download threads update, so
+     * it can be called often without slowing the downloads down.</p>
+     */
     @Override
-    public synchronized double getProgress() {
+    public double getProgress() {
+        long total = this.total.get();
         if (total <= 0) {
             return -1;
         }
 
-        long downloaded = this.downloaded;
-        for (HttpDownloadJob job : running) {
-            downloaded += Math.max(0, job.getProgress() * job.size);
-        }
-        return downloaded / (double) total;
+        return Math.min(1, Math.max(0, transferred.sum()) / (double) total);
+    }
+
+    /**
+     * Get the rate at which files have been downloaded over the last few
+     * seconds.
+     *
+     * @return the rate in bytes per second
+     */
+    public long getTransferRate() {
+        return throughput.getRate(Math.max(0, transferred.sum()));
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The status is only formatted when asked for, so it should be
+     * read when it's about to be shown rather than on every change.</p>
+     */
     @Override
-    public synchronized String getStatus() {
-        String failMessage = tr("downloader.failedCount", failed.size());
+    public String getStatus() {
+        List<HttpDownloadJob> running = new ArrayList<HttpDownloadJob>(this.running);
+        int failedCount = this.failedCount.get();
+        int left = this.left.get();
+        String failMessage = tr("downloader.failedCount", failedCount) +
+                "\n" + tr("downloader.transferRate", ThroughputMeter.format(getTransferRate()));
         if (running.size() == 1) {
             return tr("downloader.downloadingItem", running.get(0).getName()) +
                     "\n" + running.get(0).getStatus() +
@@ -170,7 +320,7 @@ public class HttpDownloader implements Downloader {
                 builder.append("\n");
                 builder.append(job.getStatus());
             }
-            return tr("downloader.downloadingList", queue.size(), left, failed.size()) +
+            return tr("downloader.downloadingList", queue.size(), left, failedCount) +
                     builder.toString() +
                     "\n" + failMessage;
         } else {
@@ -178,77 +328,329 @@ public class HttpDownloader implements Downloader {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Listeners are called from the download threads whenever data
+     * arrives, and when downloads start and finish.</p>
+     */
+    @Override
+    public boolean addProgressListener(ProgressListener listener) {
+        notifier.add(listener);
+        return true;
+    }
+
+    @Override
+    public void removeProgressListener(ProgressListener listener) {
+        notifier.remove(listener);
+    }
+
+    /**
+     * Send a request, and record how long the source took to respond.
+     *
+     * @param mirrorStats the statistics to record to, or null
+     * @param request the request
+     * @return the request
+     * @throws IOException thrown on I/O error
+     */
+    private static HttpRequest execute(MirrorStats mirrorStats, HttpRequest request) throws IOException {
+        long start = System.currentTimeMillis();
+        try {
+            request.execute();
+        } catch (IOException e) {
+            if (mirrorStats != null) {
+                mirrorStats.recordFailure(request.getUrl());
+            }
+            throw e;
+        }
+        if (mirrorStats != null) {
+            mirrorStats.recordLatency(request.getUrl(), System.currentTimeMillis() - start);
+        }
+        return request;
+    }
+
+    /**
+     * One of the requests sent by {@link HttpDownloadJob#executeHedged}.
+     */
+    private static class HedgedAttempt implements Callable<HttpRequest> {
+        private final MirrorStats mirrorStats;
+        private final HttpRequest request;
+        private final Future<HttpRequest> future;
+        // Guarded by this
+        private boolean finished;
+        private boolean abandoned;
+
+        private HedgedAttempt(MirrorStats mirrorStats, URL url, CompletionService<HttpRequest> completion) {
+            this.mirrorStats = mirrorStats;
+            this.request = HttpRequest.get(url);
+            this.future = completion.submit(this);
+        }
+
+        @Override
+        public HttpRequest call() throws IOException {
+            execute(mirrorStats, request);
+            synchronized (this) {
+                finished = true;
+                if (abandoned) {
+                    closeRequest();
+                }
+            }
+            return request;
+        }
+
+        /**
+         * Close the request once it has been answered, unless it won.
+         */
+        private void abandonUnless(HttpRequest winner) {
+            if (request == winner) return;
+
+            future.cancel(false);
+            synchronized (this) {
+                abandoned = true;
+                if (finished) {
+                    closeRequest();
+                }
+            }
+        }
+
+        private void closeRequest() {
+            try {
+                request.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
     public class HttpDownloadJob implements Runnable, ProgressObservable {
         private final File destFile;
         private final List<URL> urls;
+        private final String sha1;
         private final long size;
         @Getter private String name;
-        private HttpRequest request;
+        private volatile HttpRequest request;
+        private long counted;
+        private long requestCounted;
+        private long requestOffset;
+        private long checkpointed;
+        private String validator;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private final ProgressListener requestListener = new ProgressListener() {
+            @Override
+            public void progressChanged() {
+                countTransferred();
+            }
 
-        private HttpDownloadJob(File destFile, List<URL> urls, long size, String name) {
+            @Override
+            public void pollingRequired() {
+                // Requests always report their progress
+            }
+        };
+
+        private HttpDownloadJob(File destFile, List<URL> urls, String sha1, long size, String name) {
             this.destFile = destFile;
             this.urls = urls;
+            this.sha1 = sha1;
             this.size = size;
             this.name = name;
         }
 
         @Override
         public void run() {
+            // The job may have been given up on before it got to start
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+
             try {
-                synchronized (HttpDownloader.this) {
-                    running.add(this);
-                }
+                running.add(this);
+                notifier.fire();
 
                 download();
 
-                synchronized (HttpDownloader.this) {
-                    downloaded += size;
-                }
+                // The size given to us may not be the size of the file
+                setCounted(size);
             } catch (IOException e) {
-                synchronized (HttpDownloader.this) {
-                    failed.add(this);
-                }
+                setCounted(0);
+                failedCount.incrementAndGet();
+                checkpoint();
             } catch (InterruptedException e) {
                 log.info("Download of " + destFile + " was interrupted");
+                checkpoint();
+            } finally {
+                left.decrementAndGet();
+                running.remove(this);
+                notifier.fire();
+                stopped.countDown();
+            }
+        }
+
+        /**
+         * Wait for the job to stop if it has started, or keep it from
+         * starting if it hasn't.
+         */
+        private void awaitStopped() {
+            if (!claimed.compareAndSet(false, true)) {
+                Uninterruptibles.awaitUninterruptibly(stopped);
+            }
+        }
+
+        /**
+         * Add the bytes that the current request has saved since the last
+         * call to the total. Only called from the thread running this job.
+         */
+        private void countTransferred() {
+            long read = request.getReadBytes();
+            long delta = read - requestCounted;
+            if (delta != 0) {
+                requestCounted = read;
+                counted += delta;
+                transferred.add(delta);
+                notifier.fire();
+            }
+
+            // Bytes that are still buffered are covered because resuming never goes past the end of the file
+            long written = requestOffset + read;
+            if (journal != null && written - checkpointed >= CHECKPOINT_BYTES) {
+                checkpointed = written;
+                journal.progress(destFile, written);
+            }
+        }
+
+        private void setCounted(long bytes) {
+            transferred.add(bytes - counted);
+            counted = bytes;
+        }
+
+        /**
+         * Record how much of the file is on disk, so that the next attempt
+         * can continue from there.
+         */
+        private void checkpoint() {
+            File partFile = DownloadJournal.getPartFile(destFile);
+            if (journal != null && partFile.exists()) {
+                journal.progress(destFile, partFile.length());
+            }
+        }
+
+        /**
+         * Find out where a download that was stopped before can continue.
+         * Only downloads that can be checked for changes, with a validator
+         * from the server or a hash, are resumed.
+         *
+         * @param partFile the partial file
+         * @param entry what the journal knows about the download, or null
+         * @return the details, or null to start over
+         * @throws IOException thrown on I/O error
+         */
+        private HttpRequest.PartialDownloadInfo findResumePoint(File partFile, DownloadJournal.Entry entry)
+                throws IOException {
+            if (entry == null || entry.isComplete() || !partFile.exists()) {
+                return null;
+            }
+
+            if (entry.getValidator() == null && entry.getSha1() == null) {
+                return null;
+            }
+
+            long bytes = Math.min(entry.getBytes(), partFile.length());
+            if (bytes <= 0) {
+                return null;
+            }
+
+            // Anything past the last checkpoint may not have been written out
+            RandomAccessFile raf = new RandomAccessFile(partFile, "rw");
+            try {
+                raf.setLength(bytes);
             } finally {
-                synchronized (HttpDownloader.this) {
-                    left--;
-                    running.remove(this);
+                raf.close();
+            }
+
+            return new HttpRequest.PartialDownloadInfo(entry.getSize(), bytes);
+        }
+
+        private URL findSource(DownloadJournal.Entry entry) {
+            for (URL url : urls) {
+                if (url.toString().equals(entry.getUrl())) {
+                    return url;
                 }
             }
+            return null;
         }
 
         private void download() throws IOException, InterruptedException {
             log.log(Level.INFO, "Downloading " + destFile + " from " + urls);
 
             File destDir = destFile.getParentFile();
-            File tempFile = new File(destDir, destFile.getName() + ".tmp");
+            File tempFile = DownloadJournal.getPartFile(destFile);
             destDir.mkdirs();
 
-            // Try to download
-            download(tempFile);
+            // Continue from where the last session stopped, if it was the same download
+            DownloadJournal.Entry entry = journal != null ? journal.get(destFile) : null;
+            URL resumeSource = entry != null ? findSource(entry) : null;
+            HttpRequest.PartialDownloadInfo resumeInfo = resumeSource != null ? findResumePoint(tempFile, entry) : null;
+            boolean resumed = false;
+
+            if (resumeInfo != null) {
+                log.info("Resuming " + destFile + " from byte " + resumeInfo.getCurrentLength());
+                validator = entry.getValidator();
+                setCounted(resumeInfo.getCurrentLength());
+                try {
+                    tryDownloadFrom(resumeSource, null, tempFile, resumeInfo, 0);
+                    resumed = true;
+                } catch (IOException e) {
+                    log.log(Level.WARNING, "Failed to resume " + destFile + ", so starting over", e);
+                }
+            }
+
+            // Try another launcher nearby first, then the origin
+            PeerCache peerCache = HttpDownloader.this.peerCache;
+            boolean shareable = peerCache != null && sha1 != null;
+            if (!resumed && (!shareable || !peerCache.fetch(sha1, size, tempFile))) {
+                download(tempFile);
+            }
+
+            // A resumed file is only put together correctly if its parts match
+            if (resumed && sha1 != null && !Files.hash(tempFile, hf).toString().equalsIgnoreCase(sha1)) {
+                log.warning("The resumed download of " + destFile + " is corrupt, so starting over");
+                if (journal != null) {
+                    journal.forget(destFile);
+                }
+                download(tempFile);
+            }
 
             destFile.delete();
             if (!tempFile.renameTo(destFile)) {
                 throw new IOException(String.format("Failed to rename %s to %s", tempFile, destFile));
             }
+
+            if (journal != null) {
+                journal.completed(destFile, destFile.length());
+            }
+
+            if (shareable) {
+                peerCache.offer(sha1, destFile);
+            }
         }
 
         private void download(File file) throws IOException, InterruptedException {
+            MirrorStats mirrorStats = HttpDownloader.this.mirrorStats;
+            List<URL> urls = mirrorStats != null ? mirrorStats.rank(this.urls, size) : this.urls;
             int trial = 0;
             boolean first = true;
             IOException lastException = null;
 
             do {
-                for (URL url : urls) {
+                for (int i = 0; i < urls.size(); i++) {
                     // Sleep between each trial
                     if (!first) {
                         Thread.sleep((long) (retryDelay / 2 + (random.nextDouble() * retryDelay)));
                     }
                     first = false;
 
+                    URL backup = i + 1 < urls.size() ? urls.get(i + 1) : null;
                     try {
-                        tryDownloadFrom(url, file, null, 0);
+                        tryDownloadFrom(urls.get(i), backup, file, null, 0);
                         return;
                     } catch (IOException e) {
                         lastException = e;
@@ -259,23 +661,142 @@ public class HttpDownloader implements Downloader {
             throw new IOException("Failed to download from " + urls, lastException);
         }
 
-        private void tryDownloadFrom(URL url, File file, HttpRequest.PartialDownloadInfo retryDetails, int tries)
+        private void tryDownloadFrom(URL url, URL backup, File file, HttpRequest.PartialDownloadInfo retryDetails, int tries)
                 throws InterruptedException, IOException {
+            MirrorStats mirrorStats = HttpDownloader.this.mirrorStats;
+            URL source = url;
+
             try {
-                request = HttpRequest.get(url);
-                request.setResumeInfo(retryDetails).execute().expectResponseCode(200).saveContent(file);
+                if (retryDetails == null) {
+                    // Starting over, so the file is overwritten
+                    setCounted(0);
+                }
+                requestCounted = 0;
+                request = null;
+
+                HttpRequest request;
+                if (retryDetails == null && backup != null && mirrorStats != null) {
+                    request = executeHedged(mirrorStats, url, backup);
+                } else {
+                    HttpRequest resumed = HttpRequest.get(url).setResumeInfo(retryDetails);
+                    if (retryDetails != null && validator != null) {
+                        // The whole file is sent instead if it changed in the meantime
+                        resumed.header("If-Range", validator);
+                    }
+                    request = execute(mirrorStats, resumed);
+                }
+                source = request.getUrl();
+                this.request = request;
+
+                if (retryDetails == null || request.getResponseCode() != 206) {
+                    if (retryDetails != null) {
+                        setCounted(0);
+                    }
+                    startJournal(request);
+                } else {
+                    requestOffset = retryDetails.getCurrentLength();
+                }
+                request.addProgressListener(requestListener);
+                if (bandwidthShaper != null) {
+                    request.setThrottle(bandwidthShaper.getThrottle(source.getHost(), background));
+                }
+
+                long start = System.currentTimeMillis();
+                request.expectResponseCode(200).saveContent(file);
+                if (mirrorStats != null) {
+                    mirrorStats.recordTransfer(source, request.getReadBytes(), System.currentTimeMillis() - start);
+                }
             } catch (IOException e) {
-                log.log(Level.WARNING, "Failed to download " + url, e);
+                log.log(Level.WARNING, "Failed to download " + source, e);
+
+                HttpRequest request = this.request;
+                boolean missing = request != null && request.isConnected() && request.getResponseCode() == 404;
+                if (mirrorStats != null && request != null && !missing) {
+                    mirrorStats.recordFailure(source);
+                }
 
                 // We only want to try to resume a partial download if the request succeeded before
                 // throwing an exception halfway through. If it didn't succeed, just throw the error.
-                if (tries >= tryCount || !request.isConnected() || !request.isSuccessCode()) {
+                if (tries >= tryCount || request == null || !request.isConnected() || !request.isSuccessCode()) {
                     throw e;
                 }
 
+                // Continue from the end of the file, which may have been resumed more than once
                 Optional<HttpRequest.PartialDownloadInfo> byteRangeSupport = request.canRetryPartial();
                 if (byteRangeSupport.isPresent()) {
-                    tryDownloadFrom(url, file, byteRangeSupport.get(), tries + 1);
+                    tryDownloadFrom(source, null, file, new HttpRequest.PartialDownloadInfo(
+                            byteRangeSupport.get().getExpectedLength(), file.length()), tries + 1);
+                } else {
+                    throw e;
+                }
+            }
+        }
+
+        /**
+         * Record a download that starts from the beginning of the file,
+         * along with what identifies the version of the file on the server.
+         */
+        private void startJournal(HttpRequest request) throws IOException {
+            requestOffset = 0;
+            checkpointed = 0;
+
+            String etag = request.getHeaderField("ETag");
+            validator = etag != null && !etag.startsWith("W/") ? etag : request.getHeaderField("Last-Modified");
+
+            if (journal != null && request.isSuccessCode()) {
+                journal.started(destFile, new DownloadJournal.Entry(size, sha1, validator, request.getUrl().toString()));
+            }
+        }
+
+        /**
+         * Ask the first source, and if it hasn't responded by the time it
+         * usually has, ask the backup too. The first successful response is
+         * used and the other request is abandoned.
+         */
+        private HttpRequest executeHedged(MirrorStats mirrorStats, URL primary, URL backup)
+                throws IOException, InterruptedException {
+            long hedgeDelay = mirrorStats.getHedgeDelay(primary);
+            if (hedgeDelay < 0) {
+                return execute(mirrorStats, HttpRequest.get(primary));
+            }
+
+            CompletionService<HttpRequest> completion = new ExecutorCompletionService<HttpRequest>(hedgeExecutor);
+            List<HedgedAttempt> attempts = new ArrayList<HedgedAttempt>();
+            attempts.add(new HedgedAttempt(mirrorStats, primary, completion));
+
+            HttpRequest winner = null;
+            IOException lastException = null;
+
+            try {
+                Future<HttpRequest> done = completion.poll(hedgeDelay, TimeUnit.MILLISECONDS);
+                if (done == null) {
+                    log.info("Also asking " + backup + " for " + name + " because " + primary +
+                            " has taken more than " + hedgeDelay + " ms");
+                    attempts.add(new HedgedAttempt(mirrorStats, backup, completion));
+                    done = completion.take();
+                }
+
+                for (int remaining = attempts.size(); ; ) {
+                    try {
+                        HttpRequest request = done.get();
+                        if (request.isSuccessCode() || remaining == 1) {
+                            winner = request;
+                            return request;
+                        }
+                        request.close();
+                    } catch (ExecutionException e) {
+                        lastException = e.getCause() instanceof IOException
+                                ? (IOException) e.getCause() : new IOException(e.getCause());
+                    }
+
+                    if (--remaining == 0) {
+                        throw lastException != null ? lastException : new IOException("No response from " + primary);
+                    }
+                    done = completion.take();
+                }
+            } finally {
+                for (HedgedAttempt attempt : attempts) {
+                    attempt.abandonUnless(winner);
                 }
             }
         }
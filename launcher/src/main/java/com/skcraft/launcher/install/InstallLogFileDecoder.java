@@ -0,0 +1,126 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.install;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Closer;
+import com.skcraft.launcher.Launcher;
+import com.skcraft.launcher.LauncherException;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.*;
+import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
+
+import static com.skcraft.launcher.LauncherUtils.checkInterrupted;
+import static com.skcraft.launcher.util.SharedLocale.tr;
+
+/**
+ * Decompresses a downloaded gzip object into place, verifying the hash of
+ * the decompressed bytes as they are written.
+ */
+@Log
+public class InstallLogFileDecoder implements InstallTask {
+
+    private static final int BUFFER_SIZE = 1024 * 32;
+
+    private final InstallLog installLog;
+    private final File from;
+    private final File to;
+    private final String hash;
+    private final UpdateTransaction transaction;
+    private final String version;
+
+    public InstallLogFileDecoder(InstallLog installLog, @NonNull File from, @NonNull File to, String hash) {
+        this(installLog, from, to, hash, null, null);
+    }
+
+    /**
+     * Create a new decoder that installs the file in a transaction.
+     *
+     * @param installLog the install log
+     * @param from the downloaded gzip object
+     * @param to the target file
+     * @param hash the expected SHA-1 of the decompressed file, or null
+     * @param transaction the transaction, or null to install the file directly
+     * @param version the version of the file, or null
+     */
+    public InstallLogFileDecoder(InstallLog installLog, @NonNull File from, @NonNull File to, String hash,
+                                 UpdateTransaction transaction, String version) {
+        this.installLog = installLog;
+        this.from = from;
+        this.to = to;
+        this.hash = hash;
+        this.transaction = transaction;
+        this.version = version;
+    }
+
+    @Override
+    public void execute(Launcher launcher) throws Exception {
+        InstallLogFileDecoder.log.log(Level.INFO, "Decompressing to {0} (from {1})...", new Object[]{to.getAbsoluteFile(), from.getName()});
+        to.getParentFile().mkdirs();
+
+        File tempFile = new File(to.getParentFile(), to.getName() + ".tmp");
+        Hasher hasher = Hashing.sha1().newHasher();
+        Closer closer = Closer.create();
+        boolean successful = false;
+
+        try {
+            InputStream in = closer.register(new GZIPInputStream(new FileInputStream(from), BUFFER_SIZE));
+            OutputStream out = closer.register(new BufferedOutputStream(new FileOutputStream(tempFile), BUFFER_SIZE));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int len;
+
+            while ((len = in.read(buffer)) != -1) {
+                out.write(buffer, 0, len);
+                hasher.putBytes(buffer, 0, len);
+                checkInterrupted();
+            }
+
+            successful = true;
+        } finally {
+            closer.close();
+            if (!successful) {
+                tempFile.delete();
+            }
+        }
+
+        String actualHash = hasher.hash().toString();
+        if (hash != null && !actualHash.equalsIgnoreCase(hash)) {
+            tempFile.delete();
+            from.delete();
+            String message = String.format(
+                    "File %s is corrupt (invalid hash)\nExpected '%s'\nGot '%s'",
+                    to.getAbsolutePath(), hash, actualHash);
+            throw new LauncherException(message, message);
+        }
+
+        if (transaction != null) {
+            transaction.replace(tempFile, to, version);
+        } else {
+            to.delete();
+            if (!tempFile.renameTo(to)) {
+                throw new IOException(String.format("Failed to rename %s to %s", tempFile, to));
+            }
+        }
+        from.delete();
+        installLog.add(to, to);
+    }
+
+    @Override
+    public double getProgress() {
+        return -1;
+    }
+
+    @Override
+    public String getStatus() {
+        return tr("installer.decompressingFile", from, to);
+    }
+
+}
@@ -22,19 +22,41 @@ public class InstallLogFileMover implements InstallTask {
     private final InstallLog installLog;
     private final File from;
     private final File to;
+    private final UpdateTransaction transaction;
+    private final String version;
 
     public InstallLogFileMover(InstallLog installLog, @NonNull File from, @NonNull File to) {
+        this(installLog, from, to, null, null);
+    }
+
+    /**
+     * Create a new mover that installs the file in a transaction.
+     *
+     * @param installLog the install log
+     * @param from the downloaded file
+     * @param to the target file
+     * @param transaction the transaction, or null to install the file directly
+     * @param version the version of the file, or null
+     */
+    public InstallLogFileMover(InstallLog installLog, @NonNull File from, @NonNull File to,
+                               UpdateTransaction transaction, String version) {
         this.installLog = installLog;
         this.from = from;
         this.to = to;
+        this.transaction = transaction;
+        this.version = version;
     }
 
     @Override
     public void execute(Launcher launcher) throws IOException {
         InstallLogFileMover.log.log(Level.INFO, "Installing to {0} (from {1})...", new Object[]{to.getAbsoluteFile(), from.getName()});
-        to.getParentFile().mkdirs();
-        to.delete();
-        from.renameTo(to);
+        if (transaction != null) {
+            transaction.replace(from, to, version);
+        } else {
+            to.getParentFile().mkdirs();
+            to.delete();
+            from.renameTo(to);
+        }
         installLog.add(to, to);
     }
 
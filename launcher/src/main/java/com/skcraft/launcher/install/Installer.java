@@ -6,8 +6,12 @@
 
 package com.skcraft.launcher.install;
 
-import com.skcraft.concurrency.ProgressObservable;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.skcraft.concurrency.ListenableProgress;
+import com.skcraft.concurrency.ProgressListener;
+import com.skcraft.concurrency.ProgressNotifier;
 import com.skcraft.launcher.Launcher;
+import com.skcraft.launcher.peer.PeerCache;
 import com.skcraft.launcher.util.SharedLocale;
 import lombok.Getter;
 import lombok.NonNull;
@@ -23,19 +27,60 @@ import static com.skcraft.launcher.LauncherUtils.checkInterrupted;
 import static com.skcraft.launcher.util.SharedLocale.tr;
 
 @Log
-public class Installer implements ProgressObservable {
+public class Installer implements ListenableProgress {
 
     @Getter private final File tempDir;
     private final HttpDownloader downloader;
 
-    private TaskQueue mainQueue = new TaskQueue();
-    private TaskQueue lateQueue = new TaskQueue();
+    private final ProgressNotifier notifier = new ProgressNotifier();
+    private TaskQueue mainQueue = new TaskQueue(notifier);
+    private TaskQueue lateQueue = new TaskQueue(notifier);
 
-    private transient TaskQueue activeQueue;
+    private volatile TaskQueue activeQueue;
 
     public Installer(@NonNull File tempDir) {
+        this(tempDir, null);
+    }
+
+    /**
+     * Create a new installer.
+     *
+     * @param tempDir the temporary directory
+     * @param executor the executor to download on, or null to use a new pool for each download
+     */
+    public Installer(@NonNull File tempDir, ListeningExecutorService executor) {
         this.tempDir = tempDir;
         this.downloader = new HttpDownloader(tempDir);
+        this.downloader.setExecutor(executor);
+    }
+
+    /**
+     * Set the other launchers to try before the origin when downloading.
+     *
+     * @param peerCache the peer cache, or null to only use the origin
+     */
+    public void setPeerCache(PeerCache peerCache) {
+        downloader.setPeerCache(peerCache);
+    }
+
+    /**
+     * Set the history of download sources to rank sources by.
+     *
+     * @param mirrorStats the statistics, or null to use sources in order
+     */
+    public void setMirrorStats(MirrorStats mirrorStats) {
+        downloader.setMirrorStats(mirrorStats);
+    }
+
+    /**
+     * Set the limits on the bandwidth of the downloads.
+     *
+     * @param bandwidthShaper the shaper, or null for no limits
+     * @param background true if nobody is waiting for the downloads
+     */
+    public void setBandwidthShaper(BandwidthShaper bandwidthShaper, boolean background) {
+        downloader.setBandwidthShaper(bandwidthShaper);
+        downloader.setBackground(background);
     }
 
     public synchronized void queue(@NonNull InstallTask runnable) {
@@ -68,6 +113,7 @@ public class Installer implements ProgressObservable {
 
     @Override
     public double getProgress() {
+        TaskQueue activeQueue = this.activeQueue;
         if (activeQueue == null) return 0.0;
 
         return activeQueue.finished / (double) activeQueue.count;
@@ -75,8 +121,9 @@ public class Installer implements ProgressObservable {
 
     @Override
     public String getStatus() {
-        if (activeQueue != null && activeQueue.running != null) {
-            InstallTask running = activeQueue.running;
+        TaskQueue activeQueue = this.activeQueue;
+        InstallTask running = activeQueue != null ? activeQueue.running : null;
+        if (running != null) {
             String status = running.getStatus();
             if (status == null) {
                 status = running.toString();
@@ -87,12 +134,34 @@ public class Installer implements ProgressObservable {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Listeners are called when tasks start and finish. Tasks are short
+     * enough that their own status isn't watched.</p>
+     */
+    @Override
+    public boolean addProgressListener(ProgressListener listener) {
+        notifier.add(listener);
+        return true;
+    }
+
+    @Override
+    public void removeProgressListener(ProgressListener listener) {
+        notifier.remove(listener);
+    }
+
     public static class TaskQueue {
+        private final ProgressNotifier notifier;
         private List<InstallTask> queue = new ArrayList<InstallTask>();
 
-        private int count = 0;
-        private int finished = 0;
-        private InstallTask running;
+        private volatile int count = 0;
+        private volatile int finished = 0;
+        private volatile InstallTask running;
+
+        public TaskQueue(@NonNull ProgressNotifier notifier) {
+            this.notifier = notifier;
+        }
 
         public synchronized void queue(@NonNull InstallTask runnable) {
             queue.add(runnable);
@@ -106,11 +175,13 @@ public class Installer implements ProgressObservable {
                 for (InstallTask runnable : queue) {
                     checkInterrupted();
                     running = runnable;
+                    notifier.fire();
                     runnable.execute(launcher);
                     finished++;
                 }
             } finally {
                 running = null;
+                notifier.fire();
             }
         }
     }
@@ -0,0 +1,261 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.install;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.skcraft.launcher.persistence.Persistence;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Keeps track of how quickly and reliably each download source has served
+ * files, so that the best source is tried first. A source is the scheme,
+ * host and port of a URL, so each mirror is tracked separately.
+ *
+ * <p>The time taken until the response headers arrive is kept as a window
+ * of recent samples, which also gives the 95th percentile that a request
+ * is hedged after. Throughput and failure rate are moving averages.</p>
+ */
+@Log
+public class MirrorStats {
+
+    private static final int MAX_SAMPLES = 50;
+    private static final int MIN_SAMPLES = 5;
+    private static final double ALPHA = 0.2;
+    private static final long MIN_THROUGHPUT_BYTES = 64 * 1024;
+    private static final double MAX_FAILURE_RATE = 0.9;
+    private static final long FAILING_HEDGE_DELAY = 1000;
+
+    private final File file;
+    // Guarded by this
+    private final Map<String, Source> sources;
+    private boolean dirty;
+
+    private MirrorStats(File file, Map<String, Source> sources) {
+        this.file = file;
+        this.sources = sources;
+    }
+
+    /**
+     * Load the statistics from a file.
+     *
+     * @param file the file, which may not exist
+     * @return the statistics
+     */
+    public static MirrorStats load(@NonNull File file) {
+        Stored stored = file.exists() ? Persistence.read(file, Stored.class, true) : null;
+        Map<String, Source> sources = stored != null && stored.getSources() != null
+                ? stored.getSources() : new HashMap<String, Source>();
+        return new MirrorStats(file, sources);
+    }
+
+    /**
+     * Save the statistics if they have changed.
+     */
+    public void save() {
+        Stored stored;
+        synchronized (this) {
+            if (!dirty) return;
+            stored = new Stored();
+            for (Map.Entry<String, Source> entry : sources.entrySet()) {
+                stored.getSources().put(entry.getKey(), entry.getValue().copy());
+            }
+            dirty = false;
+        }
+
+        try {
+            Persistence.write(file, stored, Persistence.L2F_LIST_PRETTY_PRINTER);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to save download source statistics to " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Sort URLs so that the one expected to deliver a file of the given
+     * size soonest comes first. Sources without enough history keep their
+     * place ahead of known sources, so that they get tried. Sources that
+     * have only ever failed go last.
+     *
+     * @param urls the URLs, most preferred first
+     * @param size the expected size of the file
+     * @return a new list
+     */
+    public synchronized List<URL> rank(List<URL> urls, final long size) {
+        List<URL> ranked = new ArrayList<URL>(urls);
+        if (ranked.size() < 2) {
+            return ranked;
+        }
+
+        final Map<URL, Double> scores = new HashMap<URL, Double>();
+        for (URL url : ranked) {
+            Source source = sources.get(getKey(url));
+            if (!hasHistory(source)) {
+                scores.put(url, 0.0);
+            } else if (source.getLatencies().isEmpty()) {
+                scores.put(url, Double.POSITIVE_INFINITY);
+            } else {
+                scores.put(url, source.getExpectedMillis(size));
+            }
+        }
+
+        Collections.sort(ranked, new Comparator<URL>() {
+            @Override
+            public int compare(URL o1, URL o2) {
+                return Double.compare(scores.get(o1), scores.get(o2));
+            }
+        });
+
+        return ranked;
+    }
+
+    /**
+     * Get how long to wait for a source to respond before also asking
+     * another one.
+     *
+     * @param url the URL
+     * @return the time in milliseconds, or -1 if not known yet
+     */
+    public synchronized long getHedgeDelay(URL url) {
+        Source source = sources.get(getKey(url));
+        if (!hasHistory(source)) {
+            return -1;
+        }
+        return source.getLatencies().isEmpty() ? FAILING_HEDGE_DELAY : source.getLatencyPercentile(0.95);
+    }
+
+    /**
+     * Check whether a source has been asked often enough to be judged,
+     * counting failed requests too, so that a source that always fails
+     * doesn't look untried.
+     */
+    private static boolean hasHistory(Source source) {
+        return source != null && (source.getRequests() >= MIN_SAMPLES || source.getLatencies().size() >= MIN_SAMPLES);
+    }
+
+    /**
+     * Record the time taken until a source responded.
+     *
+     * @param url the URL
+     * @param millis the time in milliseconds
+     */
+    public synchronized void recordLatency(URL url, long millis) {
+        Source source = getSource(url);
+        source.getLatencies().add(millis);
+        if (source.getLatencies().size() > MAX_SAMPLES) {
+            source.getLatencies().remove(0);
+        }
+        source.setRequests(source.getRequests() + 1);
+        source.setFailureRate(source.getFailureRate() * (1 - ALPHA));
+    }
+
+    /**
+     * Record a transfer of a body from a source. Small transfers are ignored,
+     * since their time is mostly latency.
+     *
+     * @param url the URL
+     * @param bytes the number of bytes
+     * @param millis the time in milliseconds
+     */
+    public synchronized void recordTransfer(URL url, long bytes, long millis) {
+        if (bytes < MIN_THROUGHPUT_BYTES) return;
+
+        Source source = getSource(url);
+        double throughput = bytes / (double) Math.max(1, millis);
+        source.setThroughput(source.getThroughput() > 0
+                ? source.getThroughput() * (1 - ALPHA) + throughput * ALPHA
+                : throughput);
+    }
+
+    /**
+     * Record a failed request to a source.
+     *
+     * @param url the URL
+     */
+    public synchronized void recordFailure(URL url) {
+        Source source = getSource(url);
+        source.setRequests(source.getRequests() + 1);
+        source.setFailures(source.getFailures() + 1);
+        source.setFailureRate(source.getFailureRate() * (1 - ALPHA) + ALPHA);
+    }
+
+    private Source getSource(URL url) {
+        dirty = true;
+        String key = getKey(url);
+        Source source = sources.get(key);
+        if (source == null) {
+            source = new Source();
+            sources.put(key, source);
+        }
+        return source;
+    }
+
+    private static String getKey(URL url) {
+        return url.getProtocol() + "://" + url.getAuthority();
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Stored {
+        private Map<String, Source> sources = new HashMap<String, Source>();
+    }
+
+    /**
+     * The history of one source.
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Source {
+        /**
+         * Recent times until the response headers arrived, oldest first.
+         */
+        private List<Long> latencies = new ArrayList<Long>();
+        /**
+         * Bytes per millisecond, or 0 if unknown.
+         */
+        private double throughput;
+        private double failureRate;
+        private long requests;
+        private long failures;
+
+        private long getLatencyPercentile(double percentile) {
+            List<Long> sorted = new ArrayList<Long>(latencies);
+            Collections.sort(sorted);
+            return sorted.get((int) Math.min(sorted.size() - 1, Math.floor(percentile * sorted.size())));
+        }
+
+        private double getExpectedMillis(long size) {
+            double millis = getLatencyPercentile(0.5);
+            if (throughput > 0 && size > 0) {
+                millis += size / throughput;
+            }
+            return millis / (1 - Math.min(MAX_FAILURE_RATE, failureRate));
+        }
+
+        private Source copy() {
+            Source copy = new Source();
+            copy.setLatencies(new ArrayList<Long>(latencies));
+            copy.setThroughput(throughput);
+            copy.setFailureRate(failureRate);
+            copy.setRequests(requests);
+            copy.setFailures(failures);
+            return copy;
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.install;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Measures the rate of a growing byte count over the last few seconds.
+ * The count is sampled whenever the rate is asked for, so nothing needs
+ * to be done as bytes arrive.
+ */
+class ThroughputMeter {
+
+    private static final long WINDOW = 5000;
+    private static final long MIN_INTERVAL = 200;
+
+    // Guarded by this
+    private final Deque<long[]> samples = new ArrayDeque<long[]>();
+
+    /**
+     * Get the rate.
+     *
+     * @param total the number of bytes transferred so far
+     * @return the rate in bytes per second
+     */
+    public synchronized long getRate(long total) {
+        long now = System.currentTimeMillis();
+        long[] last = samples.peekLast();
+        if (last == null || now - last[0] >= MIN_INTERVAL) {
+            samples.addLast(new long[] { now, total });
+        }
+
+        while (samples.size() > 2 && now - samples.peekFirst()[0] > WINDOW) {
+            samples.removeFirst();
+        }
+
+        long[] first = samples.peekFirst();
+        long elapsed = now - first[0];
+        return elapsed > 0 ? Math.max(0, (total - first[1]) * 1000 / elapsed) : 0;
+    }
+
+    /**
+     * Format a rate for display.
+     *
+     * @param rate the rate in bytes per second
+     * @return the rate, such as "1.5 MB/s"
+     */
+    public static String format(long rate) {
+        if (rate >= 1024 * 1024) {
+            return String.format("%.1f MB/s", rate / (1024.0 * 1024));
+        } else {
+            return String.format("%d KB/s", rate / 1024);
+        }
+    }
+
+}
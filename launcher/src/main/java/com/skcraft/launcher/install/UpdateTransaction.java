@@ -0,0 +1,469 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.install;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
+import com.skcraft.launcher.Instance;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+import org.apache.commons.io.FileUtils;
+
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Installs the files of an update to an instance so that the update can be
+ * resumed after a crash and rolled back afterwards.
+ *
+ * <p>Every file that an update replaces or removes is first moved into a
+ * generation directory, and every step is written to a journal before the
+ * next one is taken. Moves are renames within the instance directory, so a
+ * rollback only touches the files that changed. The journal and the
+ * generation of the last committed update are kept so that it can be
+ * rolled back later.</p>
+ *
+ * <p>Journal lines are tab separated: {@code BACKUP <path>} before a file is
+ * moved aside, {@code INSTALL <path> <version> <size> <modified>} after a new
+ * file is in place, {@code REMOVE <path>} before a stale file is moved aside,
+ * and {@code COMMIT} once the update's logs have been written. Paths are
+ * relative to the content directory.</p>
+ */
+@Log
+public class UpdateTransaction implements Closeable {
+
+    private static final String JOURNAL_NAME = "update_journal.log";
+    private static final String GENERATIONS_DIR = "generations";
+    private static final String CONTENT_DIR = "content";
+    private static final String METADATA_DIR = "metadata";
+    private static final String[] METADATA_FILES = {
+            "install_log.json", "update_cache.json", "features.json", "manifest.json", "version.json" };
+
+    private static final String BACKUP = "BACKUP";
+    private static final String INSTALL = "INSTALL";
+    private static final String REMOVE = "REMOVE";
+    private static final String COMMIT = "COMMIT";
+
+    private final File instanceDir;
+    private final File contentDir;
+    private final File generationDir;
+    private final File journalFile;
+    @Getter private final boolean resumed;
+    // Guarded by this
+    private final Journal journal;
+    private Writer writer;
+
+    private UpdateTransaction(File instanceDir, File contentDir, File generationDir, Journal journal, boolean resumed)
+            throws IOException {
+        this.instanceDir = instanceDir;
+        this.contentDir = contentDir;
+        this.generationDir = generationDir;
+        this.journalFile = new File(instanceDir, JOURNAL_NAME);
+        this.journal = journal;
+        this.resumed = resumed;
+        this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalFile, true), Charsets.UTF_8));
+    }
+
+    /**
+     * Start an update of an instance, or resume the update that was
+     * interrupted.
+     *
+     * @param instance the instance
+     * @return the transaction
+     * @throws IOException thrown on I/O error
+     */
+    public static UpdateTransaction begin(@NonNull Instance instance) throws IOException {
+        File instanceDir = instance.getDir();
+        File journalFile = new File(instanceDir, JOURNAL_NAME);
+
+        if (journalFile.exists()) {
+            Journal journal = Journal.read(journalFile);
+            if (journal.generationDir != null && !journal.committed) {
+                log.info("Resuming the interrupted update of " + instance.getName() + " (" +
+                        journal.installed.size() + " file(s) were already installed)");
+                UpdateTransaction transaction = new UpdateTransaction(instanceDir, instance.getContentDir(),
+                        new File(instanceDir, journal.generationDir), journal, true);
+                try {
+                    transaction.finishMoves();
+                } catch (IOException e) {
+                    transaction.close();
+                    throw e;
+                }
+                return transaction;
+            }
+            journalFile.delete();
+        }
+
+        String generation = GENERATIONS_DIR + "/" + System.currentTimeMillis();
+        File generationDir = new File(instanceDir, generation);
+        File metadataDir = new File(generationDir, METADATA_DIR);
+        metadataDir.mkdirs();
+
+        // The logs of the previous update are restored on rollback
+        for (String name : METADATA_FILES) {
+            File file = new File(instanceDir, name);
+            if (file.exists()) {
+                Files.copy(file, new File(metadataDir, name));
+            }
+        }
+
+        Journal journal = new Journal();
+        journal.generationDir = generation;
+        UpdateTransaction transaction = new UpdateTransaction(instanceDir, instance.getContentDir(), generationDir, journal, false);
+        transaction.append(generation);
+        return transaction;
+    }
+
+    /**
+     * Move a new file into place, moving the file it replaces aside.
+     *
+     * @param from the new file
+     * @param to the file in the content directory to replace
+     * @param version the version of the new file, or null if it is unknown
+     * @throws IOException thrown on I/O error
+     */
+    public synchronized void replace(@NonNull File from, @NonNull File to, String version) throws IOException {
+        String path = relativize(to);
+        backUp(path, to);
+
+        to.getParentFile().mkdirs();
+        to.delete();
+        if (!from.renameTo(to)) {
+            throw new IOException(String.format("Failed to rename %s to %s", from, to));
+        }
+
+        String installedVersion = Strings.nullToEmpty(version);
+        append(INSTALL, path, installedVersion, String.valueOf(to.length()), String.valueOf(to.lastModified()));
+        journal.installed.put(path, new Installed(installedVersion, to.length(), to.lastModified()));
+    }
+
+    /**
+     * Remove a file that is no longer part of the instance, by moving it
+     * aside.
+     *
+     * @param file the file in the content directory
+     * @throws IOException thrown on I/O error
+     */
+    public synchronized void remove(@NonNull File file) throws IOException {
+        if (!file.exists()) return;
+
+        String path = relativize(file);
+        if (journal.backedUp.contains(path) || journal.removed.contains(path)) {
+            // The original is already set aside
+            file.delete();
+            return;
+        }
+
+        append(REMOVE, path);
+        journal.removed.add(path);
+        moveAside(path, file);
+    }
+
+    /**
+     * Check whether a file was installed by the interrupted update that this
+     * transaction resumes, and hasn't been touched since.
+     *
+     * @param file the file in the content directory
+     * @param version the version that should be installed
+     * @return true if installed
+     */
+    public synchronized boolean isInstalled(@NonNull File file, @NonNull String version) {
+        Installed installed = journal.installed.get(relativize(file));
+        return installed != null && installed.version.equals(version)
+                && installed.size == file.length() && installed.modified == file.lastModified();
+    }
+
+    /**
+     * Mark the update as complete. The generation of files that were
+     * replaced is kept for a rollback, and older generations are deleted.
+     *
+     * @throws IOException thrown on I/O error
+     */
+    public synchronized void commit() throws IOException {
+        append(COMMIT);
+        close();
+
+        File kept = new File(generationDir, JOURNAL_NAME);
+        kept.delete();
+        if (!journalFile.renameTo(kept)) {
+            throw new IOException(String.format("Failed to rename %s to %s", journalFile, kept));
+        }
+
+        File[] generations = new File(instanceDir, GENERATIONS_DIR).listFiles();
+        if (generations != null) {
+            for (File generation : generations) {
+                if (!generation.equals(generationDir)) {
+                    deleteDirectory(generation);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop writing to the journal. An update that wasn't committed is
+     * resumed by the next transaction.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Move aside the files that the interrupted update had journaled but
+     * not yet moved, so that the original is never deleted as a copy.
+     *
+     * @throws IOException thrown on I/O error
+     */
+    private synchronized void finishMoves() throws IOException {
+        Set<String> setAside = new LinkedHashSet<String>(journal.backedUp);
+        setAside.addAll(journal.removed);
+
+        for (String path : setAside) {
+            File file = new File(contentDir, path);
+            File original = new File(generationDir, CONTENT_DIR + "/" + path);
+            if (!original.exists() && file.exists() && !journal.installed.containsKey(path)) {
+                log.info("Moving " + path + " aside, which the interrupted update hadn't done yet");
+                moveAside(path, file);
+            }
+        }
+    }
+
+    private void backUp(String path, File file) throws IOException {
+        if (journal.backedUp.contains(path) || journal.installed.containsKey(path)) {
+            // Either the original is already set aside or this is a new file
+            return;
+        }
+
+        journal.backedUp.add(path);
+        if (file.exists()) {
+            append(BACKUP, path);
+            moveAside(path, file);
+        }
+    }
+
+    private void moveAside(String path, File file) throws IOException {
+        File target = new File(generationDir, CONTENT_DIR + "/" + path);
+        target.getParentFile().mkdirs();
+        target.delete();
+        if (!file.renameTo(target)) {
+            throw new IOException(String.format("Failed to rename %s to %s", file, target));
+        }
+    }
+
+    private void append(String... fields) throws IOException {
+        if (writer == null) {
+            throw new IOException("The transaction has been closed");
+        }
+
+        StringBuilder line = new StringBuilder();
+        for (String field : fields) {
+            if (line.length() > 0) line.append('\t');
+            line.append(field);
+        }
+        writer.write(line.append('\n').toString());
+        writer.flush();
+    }
+
+    private String relativize(File file) {
+        URI uri = file.toURI();
+        String relative = contentDir.toURI().relativize(uri).getPath();
+        if (relative.equals(uri.getPath())) {
+            throw new IllegalArgumentException(file + " is not in " + contentDir);
+        }
+        return relative;
+    }
+
+    /**
+     * Check whether the last update of an instance can be rolled back.
+     *
+     * @param instance the instance
+     * @return true if there is an update to roll back
+     */
+    public static boolean canRollback(@NonNull Instance instance) {
+        return findRollbackJournal(instance) != null;
+    }
+
+    /**
+     * Roll back the last update of an instance, whether it was committed or
+     * interrupted. Only the files that the update changed are touched.
+     *
+     * @param instance the instance
+     * @return the version that was restored, or null if it is unknown
+     * @throws IOException thrown on I/O error, or if there is nothing to roll back
+     */
+    public static String rollback(@NonNull Instance instance) throws IOException {
+        File journalFile = findRollbackJournal(instance);
+        if (journalFile == null) {
+            throw new IOException("There is no update of " + instance.getName() + " to roll back");
+        }
+
+        File instanceDir = instance.getDir();
+        File contentDir = instance.getContentDir();
+        Journal journal = Journal.read(journalFile);
+        File generationDir = new File(instanceDir, journal.generationDir);
+        int restored = 0;
+
+        // Remove the files that the update added, then put back what it replaced
+        for (String path : journal.installed.keySet()) {
+            if (!journal.backedUp.contains(path)) {
+                new File(contentDir, path).delete();
+            }
+        }
+
+        List<String> setAside = new ArrayList<String>(journal.backedUp);
+        setAside.addAll(journal.removed);
+        for (String path : setAside) {
+            File original = new File(generationDir, CONTENT_DIR + "/" + path);
+            if (original.exists()) {
+                File target = new File(contentDir, path);
+                target.getParentFile().mkdirs();
+                target.delete();
+                if (!original.renameTo(target)) {
+                    throw new IOException(String.format("Failed to rename %s to %s", original, target));
+                }
+                restored++;
+            }
+        }
+
+        File metadataDir = new File(generationDir, METADATA_DIR);
+        for (String name : METADATA_FILES) {
+            File saved = new File(metadataDir, name);
+            File file = new File(instanceDir, name);
+            if (saved.exists()) {
+                Files.copy(saved, file);
+            } else {
+                file.delete();
+            }
+        }
+
+        String version = readVersion(new File(instanceDir, "manifest.json"));
+
+        new File(instanceDir, JOURNAL_NAME).delete();
+        deleteDirectory(generationDir);
+
+        log.info("Rolled back the last update of " + instance.getName() + " to version " + version +
+                " (" + journal.installed.size() + " file(s) removed or replaced, " + restored + " restored)");
+        return version;
+    }
+
+    /**
+     * Forget the last update of an instance, so that it can no longer be
+     * rolled back.
+     *
+     * @param instance the instance
+     */
+    public static void discard(@NonNull Instance instance) {
+        new File(instance.getDir(), JOURNAL_NAME).delete();
+        deleteDirectory(new File(instance.getDir(), GENERATIONS_DIR));
+    }
+
+    private static File findRollbackJournal(Instance instance) {
+        File instanceDir = instance.getDir();
+        File journalFile = new File(instanceDir, JOURNAL_NAME);
+        if (journalFile.exists()) {
+            return journalFile;
+        }
+
+        File[] generations = new File(instanceDir, GENERATIONS_DIR).listFiles();
+        if (generations != null) {
+            for (File generation : generations) {
+                File kept = new File(generation, JOURNAL_NAME);
+                if (kept.exists()) {
+                    return kept;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static void deleteDirectory(File dir) {
+        try {
+            if (dir.exists()) {
+                FileUtils.deleteDirectory(dir);
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to delete " + dir.getAbsolutePath(), e);
+        }
+    }
+
+    private static String readVersion(File manifestFile) {
+        if (!manifestFile.exists()) return null;
+
+        try {
+            JsonNode version = new ObjectMapper().readTree(manifestFile).get("version");
+            return version != null ? version.asText() : null;
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to read the version from " + manifestFile.getAbsolutePath(), e);
+            return null;
+        }
+    }
+
+    private static class Installed {
+        private final String version;
+        private final long size;
+        private final long modified;
+
+        private Installed(String version, long size, long modified) {
+            this.version = version;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+
+    /**
+     * The contents of a journal.
+     */
+    private static class Journal {
+        private String generationDir;
+        private boolean committed;
+        private final Set<String> backedUp = new LinkedHashSet<String>();
+        private final Set<String> removed = new LinkedHashSet<String>();
+        private final Map<String, Installed> installed = new LinkedHashMap<String, Installed>();
+
+        private static Journal read(File file) throws IOException {
+            Journal journal = new Journal();
+            boolean first = true;
+
+            for (String line : Files.readLines(file, Charsets.UTF_8)) {
+                List<String> fields = Splitter.on('\t').splitToList(line);
+                String type = fields.get(0);
+
+                if (first) {
+                    journal.generationDir = type;
+                    first = false;
+                } else if (type.equals(BACKUP) && fields.size() >= 2) {
+                    journal.backedUp.add(fields.get(1));
+                } else if (type.equals(REMOVE) && fields.size() >= 2) {
+                    journal.removed.add(fields.get(1));
+                } else if (type.equals(INSTALL) && fields.size() >= 5) {
+                    try {
+                        journal.installed.put(fields.get(1), new Installed(fields.get(2),
+                                Long.parseLong(fields.get(3)), Long.parseLong(fields.get(4))));
+                    } catch (NumberFormatException ignored) {
+                        // A line cut off by a crash
+                    }
+                } else if (type.equals(COMMIT)) {
+                    journal.committed = true;
+                }
+            }
+
+            return journal;
+        }
+    }
+
+}
@@ -8,32 +8,172 @@ package com.skcraft.launcher.install;
 
 import com.google.common.io.ByteSource;
 import com.google.common.io.Closer;
+import com.google.common.io.Files;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
-import org.apache.commons.io.IOUtils;
 
 import java.io.*;
-import java.util.List;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import static org.apache.commons.io.IOUtils.closeQuietly;
 
+/**
+ * Extracts the contents of a zip file into a directory.
+ *
+ * <p>Zip files on disk are read through their central directory, and large
+ * ones are extracted with several threads. Other sources are read as a
+ * stream.</p>
+ */
 public class ZipExtract implements Runnable {
 
+    private static final int BUFFER_SIZE = 1024 * 32;
+    // Chosen with ExtractBenchmark in creator-tools: smaller batches lost to one thread
+    private static final int PARALLEL_THRESHOLD = 128;
+    private static final int BATCH_SIZE = 64;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Zip extraction");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
     @Getter private final ByteSource source;
+    private final File file;
     @Getter private final File destination;
     @Getter @Setter
     private List<String> exclude;
+    /**
+     * The number of entries above which a zip file on disk is extracted
+     * with several threads.
+     */
+    @Getter @Setter
+    private int parallelThreshold = PARALLEL_THRESHOLD;
+    /**
+     * The number of entries that each thread extracts at a time.
+     */
+    @Getter @Setter
+    private int batchSize = BATCH_SIZE;
+
+    private PrefixTrie excludes;
+    private Path destinationPath;
+    private final Set<File> createdDirs = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
 
     public ZipExtract(@NonNull ByteSource source, @NonNull File destination) {
         this.source = source;
+        this.file = null;
+        this.destination = destination;
+    }
+
+    /**
+     * Create a new extractor for a zip file on disk, which can be read
+     * faster than other sources.
+     *
+     * @param file the zip file
+     * @param destination the directory to extract to
+     */
+    public ZipExtract(@NonNull File file, @NonNull File destination) {
+        this.source = Files.asByteSource(file);
+        this.file = file;
         this.destination = destination;
     }
 
     @Override
     public void run() {
+        try {
+            destination.mkdirs();
+            destinationPath = destination.getCanonicalFile().toPath();
+            excludes = new PrefixTrie(exclude);
+
+            if (file != null) {
+                extractFile();
+            } else {
+                extractStream();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void extractFile() throws IOException, InterruptedException {
+        final ZipFile zip = new ZipFile(file);
+
+        try {
+            List<ZipEntry> entries = new ArrayList<ZipEntry>();
+            Enumeration<? extends ZipEntry> it = zip.entries();
+            while (it.hasMoreElements()) {
+                ZipEntry entry = it.nextElement();
+                if (matches(entry)) {
+                    entries.add(entry);
+                }
+            }
+
+            if (entries.size() < parallelThreshold) {
+                for (ZipEntry entry : entries) {
+                    extract(zip, entry);
+                }
+                return;
+            }
+
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < entries.size(); i += batchSize) {
+                final List<ZipEntry> batch = entries.subList(i, Math.min(entries.size(), i + batchSize));
+                futures.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws IOException {
+                        for (ZipEntry entry : batch) {
+                            extract(zip, entry);
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+            } finally {
+                for (Future<?> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        } finally {
+            zip.close();
+        }
+    }
+
+    private void extract(ZipFile zip, ZipEntry entry) throws IOException {
+        File target = getTarget(entry);
+        if (entry.isDirectory()) {
+            makeDirs(target);
+        } else {
+            InputStream is = zip.getInputStream(entry);
+            try {
+                writeEntry(is, target, entry.getSize());
+            } finally {
+                closeQuietly(is);
+            }
+        }
+    }
+
+    private void extractStream() throws IOException {
         Closer closer = Closer.create();
 
         try {
@@ -41,29 +181,18 @@ public class ZipExtract implements Runnable {
             ZipInputStream zis = closer.register(new ZipInputStream(is));
             ZipEntry entry;
 
-            destination.getParentFile().mkdirs();
-
             while ((entry = zis.getNextEntry()) != null) {
                 if (matches(entry)) {
-                    File file = new File(getDestination(), entry.getName());
-                    if (!file.getCanonicalPath().startsWith(getDestination().getCanonicalPath() + File.separator)
-                            && !file.getCanonicalPath().equals(getDestination().getCanonicalPath())) {
-                        throw new IOException("Zip entry outside target directory: " + entry.getName());
-                    }
+                    File target = getTarget(entry);
                     if (entry.isDirectory()) {
-                        file.mkdirs();
+                        makeDirs(target);
                     } else {
-                        writeEntry(zis, file);
+                        writeEntry(zis, target, entry.getSize());
                     }
                 }
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         } finally {
-            try {
-                closer.close();
-            } catch (IOException e) {
-            }
+            closer.close();
         }
     }
 
@@ -74,30 +203,56 @@ public class ZipExtract implements Runnable {
      * @return true if the entry matches the filter
      */
     private boolean matches(ZipEntry entry) {
-        if (exclude != null) {
-            for (String pattern : exclude) {
-                if (entry.getName().startsWith(pattern)) {
-                    return false;
-                }
-            }
+        return !excludes.matchesPrefixOf(entry.getName());
+    }
+
+    /**
+     * Get the file that an entry is extracted to, making sure that it's in
+     * the destination directory.
+     */
+    private File getTarget(ZipEntry entry) throws IOException {
+        Path target;
+        try {
+            target = destinationPath.resolve(entry.getName()).normalize();
+        } catch (InvalidPathException e) {
+            throw new IOException("Zip entry has an invalid name: " + entry.getName(), e);
+        }
+        if (!target.startsWith(destinationPath)) {
+            throw new IOException("Zip entry outside target directory: " + entry.getName());
         }
+        return target.toFile();
+    }
 
-        return true;
+    private void makeDirs(File dir) {
+        if (dir != null && !createdDirs.contains(dir)) {
+            dir.mkdirs();
+            createdDirs.add(dir);
+        }
     }
 
-    private void writeEntry(ZipInputStream zis, File path) throws IOException {
-        FileOutputStream fos = null;
-        BufferedOutputStream bos = null;
+    private void writeEntry(InputStream is, File path, long size) throws IOException {
+        makeDirs(path.getParentFile());
 
+        RandomAccessFile raf = new RandomAccessFile(path, "rw");
         try {
-            path.getParentFile().mkdirs();
+            // Setting the length up front lets the file be allocated in one piece
+            if (size >= 0) {
+                raf.setLength(size);
+            }
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long written = 0;
+            int len;
+            while ((len = is.read(buffer)) != -1) {
+                raf.write(buffer, 0, len);
+                written += len;
+            }
 
-            fos = new FileOutputStream(path);
-            bos = new BufferedOutputStream(fos);
-            IOUtils.copy(zis, bos);
+            if (written != size) {
+                raf.setLength(written);
+            }
         } finally {
-            closeQuietly(bos);
-            closeQuietly(fos);
+            raf.close();
         }
     }
 
@@ -106,5 +261,52 @@ public class ZipExtract implements Runnable {
         return destination.getName();
     }
 
+    /**
+     * A set of prefixes that finds the prefixes of a string in the time
+     * that it takes to read the string once, whatever the number of
+     * prefixes.
+     */
+    private static class PrefixTrie {
+        private final Node root = new Node();
+
+        private PrefixTrie(Collection<String> prefixes) {
+            if (prefixes != null) {
+                for (String prefix : prefixes) {
+                    Node node = root;
+                    for (int i = 0; i < prefix.length(); i++) {
+                        char c = prefix.charAt(i);
+                        Node child = node.children.get(c);
+                        if (child == null) {
+                            child = new Node();
+                            node.children.put(c, child);
+                        }
+                        node = child;
+                    }
+                    node.terminal = true;
+                }
+            }
+        }
+
+        private boolean matchesPrefixOf(String value) {
+            Node node = root;
+            for (int i = 0; ; i++) {
+                if (node.terminal) {
+                    return true;
+                }
+                if (i == value.length()) {
+                    return false;
+                }
+                node = node.children.get(value.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+            }
+        }
+
+        private static class Node {
+            private final Map<Character, Node> children = new HashMap<Character, Node>();
+            private boolean terminal;
+        }
+    }
 
 }
@@ -7,17 +7,30 @@
 package com.skcraft.launcher.launch;
 
 import com.google.common.base.Function;
+import com.skcraft.launcher.Instance;
 import com.skcraft.launcher.Launcher;
 import com.skcraft.launcher.dialog.LauncherFrame;
 import com.skcraft.launcher.dialog.ProcessConsoleFrame;
+import com.skcraft.launcher.launch.log.SessionLogWriter;
+import com.skcraft.launcher.launch.monitor.ProcessSupervisor;
+import com.skcraft.launcher.launch.monitor.SessionSummary;
+import com.skcraft.launcher.launch.tuning.ClassDataArchive;
+import com.skcraft.launcher.launch.tuning.HeapAdvisor;
+import com.skcraft.launcher.launch.tuning.HeapRecommendation;
+import com.skcraft.launcher.launch.tuning.StartupHistory;
+import com.skcraft.launcher.persistence.Persistence;
 import com.skcraft.launcher.swing.MessageLog;
 import lombok.NonNull;
 import lombok.extern.java.Log;
 
 import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.logging.Level;
 
+import static com.skcraft.launcher.util.SharedLocale.tr;
+
 /**
  * Handles post-process creation during launch.
  */
@@ -27,16 +40,33 @@ public class LaunchProcessHandler implements Function<Process, ProcessConsoleFra
     private static final int CONSOLE_NUM_LINES = 10000;
 
     private final Launcher launcher;
+    private final Instance instance;
+    private final Runner runner;
     private ProcessConsoleFrame consoleFrame;
 
-    public LaunchProcessHandler(@NonNull Launcher launcher) {
+    public LaunchProcessHandler(@NonNull Launcher launcher, @NonNull Instance instance, @NonNull Runner runner) {
         this.launcher = launcher;
+        this.instance = instance;
+        this.runner = runner;
     }
 
     @Override
     public ProcessConsoleFrame apply(final Process process) {
         log.info("Watching process " + process);
 
+        final ProcessSupervisor supervisor = new ProcessSupervisor(process, System.currentTimeMillis());
+        final File logsDir = SessionLogWriter.getLogsDir(instance);
+        final SessionLogWriter sessionLog = new SessionLogWriter(logsDir);
+        boolean sessionLogStarted;
+        try {
+            sessionLog.start();
+            sessionLogStarted = true;
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to create the session log; game output won't be saved", e);
+            sessionLogStarted = false;
+        }
+        final boolean saveOutput = sessionLogStarted;
+
         try {
             SwingUtilities.invokeAndWait(new Runnable() {
                 @Override
@@ -44,18 +74,53 @@ public class LaunchProcessHandler implements Function<Process, ProcessConsoleFra
                     consoleFrame = new ProcessConsoleFrame(CONSOLE_NUM_LINES, true);
                     consoleFrame.setProcess(process);
                     consoleFrame.setVisible(true);
+                    consoleFrame.setSupervisor(supervisor);
                     MessageLog messageLog = consoleFrame.getMessageLog();
-                    messageLog.consume(process.getInputStream());
-                    messageLog.consume(process.getErrorStream());
+                    if (saveOutput) {
+                        consoleFrame.setLogsDir(logsDir);
+                    }
+                    messageLog.consume(process.getInputStream(),
+                            supervisor.monitor(saveOutput ? sessionLog.openStream(false) : null));
+                    messageLog.consume(process.getErrorStream(),
+                            supervisor.monitor(saveOutput ? sessionLog.openStream(true) : null));
                 }
             });
 
             // Wait for the process to end
-            process.waitFor();
+            supervisor.start();
+            supervisor.waitFor();
         } catch (InterruptedException e) {
             // Orphan process
         } catch (InvocationTargetException e) {
             log.log(Level.WARNING, "Unexpected failure", e);
+        } finally {
+            supervisor.stop();
+        }
+
+        SessionSummary summary = supervisor.createSummary(instance.getName());
+        writeSummary(summary, new File(logsDir, sessionLog.getSessionName() + SessionSummary.EXTENSION));
+
+        ClassDataArchive archive = runner.getClassDataArchive();
+        if (archive != null) {
+            archive.finish(summary.getExitCode());
+        }
+
+        StartupHistory history = StartupHistory.record(instance, summary, archive);
+        long without = history.getAverageWindowReadyMillis(null);
+        long with = history.getAverageWindowReadyMillis(ClassDataArchive.Mode.USE);
+        if (without >= 0 && with >= 0) {
+            log.info("Average startup time without a class data archive: " + without + " ms, with: " + with + " ms");
+        }
+
+        JavaProcessBuilder builder = runner.getBuilder();
+        final HeapRecommendation recommendation = HeapAdvisor.analyze(instance,
+                builder.getMinMemory(), builder.getMaxMemory(),
+                builder.getRuntime() != null ? builder.getRuntime().getMajorVersion() : 0,
+                supervisor.isOutOfMemorySeen(), supervisor.getLaunchTime());
+
+        if (recommendation != null) {
+            log.info("Recommending " + recommendation.getMaxMemory() + " MB and the " +
+                    recommendation.getGcStrategy() + " collector: " + recommendation.getReasons());
         }
 
         log.info("Process ended, re-showing launcher...");
@@ -65,6 +130,11 @@ public class LaunchProcessHandler implements Function<Process, ProcessConsoleFra
             @Override
             public void run() {
                 if (consoleFrame != null) {
+                    if (recommendation != null) {
+                        MessageLog messageLog = consoleFrame.getMessageLog();
+                        messageLog.log(tr("console.heapRecommendation",
+                                String.valueOf(recommendation.getMaxMemory())) + "\n", messageLog.asHighlighted());
+                    }
                     consoleFrame.setProcess(null);
                     consoleFrame.requestFocus();
                 }
@@ -74,4 +144,18 @@ public class LaunchProcessHandler implements Function<Process, ProcessConsoleFra
         return consoleFrame;
     }
 
+    private static void writeSummary(SessionSummary summary, File file) {
+        log.info(String.format("Session summary: ran for %d s, first output after %s ms, window after %s ms, " +
+                        "peak memory %d MB, average CPU %.0f%%, %d hang(s) detected",
+                summary.getDurationMillis() / 1000, summary.getFirstOutputMillis(), summary.getWindowReadyMillis(),
+                summary.getPeakResidentBytes() / 1024 / 1024, summary.getAverageCpuPercent(),
+                summary.getHangsDetected()));
+
+        try {
+            Persistence.write(file, summary, Persistence.L2F_LIST_PRETTY_PRINTER);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to write the session summary to " + file.getAbsolutePath(), e);
+        }
+    }
+
 }
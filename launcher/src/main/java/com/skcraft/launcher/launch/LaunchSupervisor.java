@@ -10,6 +10,7 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.skcraft.concurrency.ObservableFuture;
+import com.skcraft.concurrency.TaskPriority;
 import com.skcraft.launcher.Instance;
 import com.skcraft.launcher.Launcher;
 import com.skcraft.launcher.auth.Session;
@@ -81,11 +82,14 @@ public class LaunchSupervisor {
             }
 
             if (update) {
+                // The updater takes over from any staging in the background
+                launcher.getInstanceTasks().cancelStaging();
+
                 // Execute the updater
                 Updater updater = new Updater(launcher, instance);
                 updater.setOnline(options.getUpdatePolicy() == UpdatePolicy.ALWAYS_UPDATE || session.isOnline());
-                ObservableFuture<Instance> future = new ObservableFuture<Instance>(
-                        launcher.getExecutor().submit(updater), updater);
+                ObservableFuture<Instance> future = launcher.getScheduler().submitObservable(
+                        TaskPriority.UPDATE, null, updater);
 
                 // Show progress
                 ProgressDialog.showProgress(window, future, SharedLocale.tr("launcher.updatingTitle"), tr("launcher.updatingStatus", instance.getTitle()));
@@ -128,8 +132,8 @@ public class LaunchSupervisor {
 
         // Get the process
         Runner task = new Runner(launcher, instance, session, extractDir, new RuntimeVerifier(instance));
-        ObservableFuture<Process> processFuture = new ObservableFuture<Process>(
-                launcher.getExecutor().submit(task), task);
+        ObservableFuture<Process> processFuture = launcher.getScheduler().submitObservable(
+                TaskPriority.INTERACTIVE, null, task);
 
         // Show process for the process retrieval
         ProgressDialog.showProgress(
@@ -149,7 +153,7 @@ public class LaunchSupervisor {
 
         // Watch the created process
         ListenableFuture<ProcessConsoleFrame> future = Futures.transform(
-                processFuture, new LaunchProcessHandler(launcher), launcher.getExecutor());
+                processFuture, new LaunchProcessHandler(launcher, instance, task), launcher.getExecutor());
         SwingHelper.addErrorDialogCallback(null, future);
 
         // Clean up at the very end
@@ -10,14 +10,19 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.io.Files;
 import com.skcraft.concurrency.DefaultProgress;
-import com.skcraft.concurrency.ProgressObservable;
+import com.skcraft.concurrency.ListenableProgress;
+import com.skcraft.concurrency.ProgressListener;
+import com.skcraft.concurrency.ProgressRelay;
 import com.skcraft.launcher.*;
 import com.skcraft.launcher.auth.Session;
 import com.skcraft.launcher.install.ZipExtract;
 import com.skcraft.launcher.launch.runtime.JavaRuntime;
 import com.skcraft.launcher.launch.runtime.JavaRuntimeFinder;
+import com.skcraft.launcher.launch.tuning.ClassDataArchive;
+import com.skcraft.launcher.launch.tuning.HeapAdvisor;
+import com.skcraft.launcher.launch.tuning.HeapRecommendation;
+import com.skcraft.launcher.launch.tuning.JvmFlagProfile;
 import com.skcraft.launcher.model.minecraft.*;
 import com.skcraft.launcher.persistence.Persistence;
 import com.skcraft.launcher.util.Environment;
@@ -47,9 +52,9 @@ import static com.skcraft.launcher.util.SharedLocale.tr;
  * Handles the launching of an instance.
  */
 @Log
-public class Runner implements Callable<Process>, ProgressObservable {
+public class Runner implements Callable<Process>, ListenableProgress {
 
-    private ProgressObservable progress = new DefaultProgress(0, SharedLocale.tr("runner.preparing"));
+    private final ProgressRelay progress = new ProgressRelay(new DefaultProgress(0, SharedLocale.tr("runner.preparing")));
 
     private final ObjectMapper mapper = new ObjectMapper();
     private final Launcher launcher;
@@ -63,7 +68,8 @@ public class Runner implements Callable<Process>, ProgressObservable {
     private AssetsIndex assetsIndex;
     private File virtualAssetsDir;
     private Configuration config;
-    private JavaProcessBuilder builder;
+    @Getter private JavaProcessBuilder builder;
+    @Getter private ClassDataArchive classDataArchive;
     private AssetsRoot assetsRoot;
     private FeatureList.Mutable featureList;
 
@@ -131,7 +137,7 @@ public class Runner implements Callable<Process>, ProgressObservable {
         // Copy over assets to the tree
         try {
             AssetsRoot.AssetsTreeBuilder assetsBuilder = assetsRoot.createAssetsBuilder(versionManifest);
-            progress = assetsBuilder;
+            progress.set(assetsBuilder);
             virtualAssetsDir = assetsBuilder.build();
         } catch (LauncherException e) {
             instance.setInstalled(false);
@@ -139,7 +145,7 @@ public class Runner implements Callable<Process>, ProgressObservable {
             throw e;
         }
 
-        progress = new DefaultProgress(0.9, SharedLocale.tr("runner.collectingArgs"));
+        progress.set(new DefaultProgress(0.9, SharedLocale.tr("runner.collectingArgs")));
         builder.setMainClass(versionManifest.getMainClass());
 
         addWindowArgs();
@@ -154,13 +160,14 @@ public class Runner implements Callable<Process>, ProgressObservable {
         callLaunchModifier();
 
         verifyJavaRuntime();
+        addClassDataSharingArgs();
 
         ProcessBuilder processBuilder = new ProcessBuilder(builder.buildCommand());
         processBuilder.directory(instance.getContentDir());
         Runner.log.info("Launching: " + builder);
         checkInterrupted();
 
-        progress = new DefaultProgress(1, SharedLocale.tr("runner.startingJava"));
+        progress.set(new DefaultProgress(1, SharedLocale.tr("runner.startingJava")));
 
         return processBuilder.start();
     }
@@ -218,7 +225,7 @@ public class Runner implements Callable<Process>, ProgressObservable {
             if (path.exists()) {
                 Library.Extract extract = library.getExtract();
                 if (extract != null) {
-                    ZipExtract zipExtract = new ZipExtract(Files.asByteSource(path), extractDir);
+                    ZipExtract zipExtract = new ZipExtract(path, extractDir);
                     zipExtract.setExclude(extract.getExclude());
                     zipExtract.run();
                 } else {
@@ -268,6 +275,16 @@ public class Runner implements Callable<Process>, ProgressObservable {
             permGen = 64;
         }
 
+        HeapRecommendation recommendation = instance.getSettings().isApplyHeapRecommendations()
+                ? HeapAdvisor.load(instance)
+                : null;
+
+        if (recommendation != null && recommendation.getMaxMemory() > 0) {
+            log.info("Applying recommended memory settings: " + recommendation.getReasons());
+            minMemory = recommendation.getMinMemory();
+            maxMemory = recommendation.getMaxMemory();
+        }
+
         if (minMemory > maxMemory) {
             maxMemory = minMemory;
         }
@@ -297,6 +314,23 @@ public class Runner implements Callable<Process>, ProgressObservable {
             }
         }
 
+        int majorVersion = selectedRuntime != null ? selectedRuntime.getMajorVersion() : 0;
+
+        // Collector flags set by the user take precedence, then the chosen profile
+        JvmFlagProfile profile = instance.getSettings().getJvmFlagProfile();
+        if (!hasCollectorFlag(flags)) {
+            if (profile != null && profile != JvmFlagProfile.DEFAULT) {
+                flags.addAll(profile.getFlags(majorVersion));
+            } else if (recommendation != null) {
+                flags.addAll(recommendation.getGcStrategy().getFlags(majorVersion));
+            }
+        }
+
+        if (instance.getSettings().isGcLogging()) {
+            HeapAdvisor.getGcLogFile(instance).delete();
+            flags.addAll(HeapAdvisor.getGcLogFlags(instance, majorVersion));
+        }
+
         List<GameArgument> javaArguments = versionManifest.getArguments().getJvmArguments();
         StrSubstitutor substitutor = new StrSubstitutor(getCommandSubstitutions());
         for (GameArgument arg : javaArguments) {
@@ -318,6 +352,43 @@ public class Runner implements Callable<Process>, ProgressObservable {
         }
     }
 
+    /**
+     * Add the flags that create or use a class data archive, which depends
+     * on the final class path and so has to be done last.
+     */
+    private void addClassDataSharingArgs() {
+        if (!instance.getSettings().isClassDataSharing()) {
+            return;
+        }
+
+        List<String> flags = builder.getFlags();
+        for (String flag : flags) {
+            if (flag.startsWith("-Xshare") || flag.startsWith("-XX:SharedArchiveFile")
+                    || flag.startsWith("-XX:ArchiveClassesAtExit")) {
+                log.info("Not using a class data archive because the JVM arguments already set one up");
+                return;
+            }
+        }
+
+        classDataArchive = ClassDataArchive.prepare(instance, builder);
+        if (classDataArchive != null) {
+            log.info((classDataArchive.getMode() == ClassDataArchive.Mode.USE ? "Using" : "Creating") +
+                    " class data archive " + classDataArchive.getFile().getName());
+            flags.addAll(classDataArchive.getFlags());
+        } else {
+            log.info("Class data sharing needs Java " + ClassDataArchive.MIN_MAJOR_VERSION + " or newer");
+        }
+    }
+
+    private static boolean hasCollectorFlag(List<String> flags) {
+        for (String flag : flags) {
+            if (flag.startsWith("-XX:+Use") && flag.endsWith("GC")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Add arguments for the application.
      *
@@ -478,4 +549,14 @@ public class Runner implements Callable<Process>, ProgressObservable {
         return progress.getStatus();
     }
 
+    @Override
+    public boolean addProgressListener(ProgressListener listener) {
+        return progress.addProgressListener(listener);
+    }
+
+    @Override
+    public void removeProgressListener(ProgressListener listener) {
+        progress.removeProgressListener(listener);
+    }
+
 }
@@ -0,0 +1,66 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.log;
+
+import lombok.Data;
+
+import java.util.regex.Pattern;
+
+/**
+ * Criteria for searching a session log. Criteria that are not set match
+ * every line.
+ */
+@Data
+public class LogFilter {
+
+    private LogLevel minLevel;
+    private Pattern pattern;
+    private long fromTime;
+    private long toTime = Long.MAX_VALUE;
+
+    /**
+     * Check whether a block may contain matching lines, using only the
+     * information in the index.
+     *
+     * @param block the block
+     * @return true if the block needs to be read
+     */
+    public boolean mayMatch(SessionLogIndex.Block block) {
+        if (block.getEndTime() < fromTime || block.getStartTime() > toTime) {
+            return false;
+        }
+
+        if (minLevel != null && (block.getLevels() & minLevel.getMaskAtOrAbove()) == 0) {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Check whether a line matches.
+     *
+     * @param record the line
+     * @return true if it matches
+     */
+    public boolean matches(SessionLogRecord record) {
+        if (record.getTime() < fromTime || record.getTime() > toTime) {
+            return false;
+        }
+
+        if (minLevel != null && record.getLevel().compareTo(minLevel) < 0) {
+            return false;
+        }
+
+        if (pattern != null && !pattern.matcher(record.getText()).find()) {
+            return false;
+        }
+
+        return true;
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.log;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The level of a line of game output, as far as it can be guessed from
+ * the usual log4j and java.util.logging formats.
+ */
+public enum LogLevel {
+
+    TRACE('T'),
+    DEBUG('D'),
+    INFO('I'),
+    WARN('W'),
+    ERROR('E'),
+    FATAL('F');
+
+    private static final Pattern LEVEL_PATTERN = Pattern.compile(
+            "\\[(?:[^\\]]*/)?(TRACE|DEBUG|FINE|FINER|FINEST|INFO|WARN|WARNING|ERROR|SEVERE|FATAL)\\]");
+
+    private final char code;
+
+    LogLevel(char code) {
+        this.code = code;
+    }
+
+    /**
+     * Get the single character code used to store the level.
+     *
+     * @return the code
+     */
+    public char getCode() {
+        return code;
+    }
+
+    /**
+     * Get the bit used for this level in a mask of levels.
+     *
+     * @return the bit
+     */
+    public int getMask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Get the mask of all levels at or above this one.
+     *
+     * @return the mask
+     */
+    public int getMaskAtOrAbove() {
+        return ~(getMask() - 1);
+    }
+
+    /**
+     * Get the level with the given code.
+     *
+     * @param code the code
+     * @return the level, or {@link #INFO} if the code is not known
+     */
+    public static LogLevel fromCode(char code) {
+        for (LogLevel level : values()) {
+            if (level.code == code) {
+                return level;
+            }
+        }
+        return INFO;
+    }
+
+    /**
+     * Detect the level of the given line.
+     *
+     * @param line the line
+     * @return the level, or null if the line does not name one
+     */
+    public static LogLevel detect(String line) {
+        Matcher m = LEVEL_PATTERN.matcher(line);
+        if (!m.find()) {
+            return null;
+        }
+
+        String name = m.group(1);
+        if (name.equals("WARNING")) {
+            return WARN;
+        } else if (name.equals("SEVERE")) {
+            return ERROR;
+        } else if (name.startsWith("FINE")) {
+            return DEBUG;
+        } else {
+            return valueOf(name);
+        }
+    }
+
+}
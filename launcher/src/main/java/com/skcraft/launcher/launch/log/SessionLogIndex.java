@@ -0,0 +1,70 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.log;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The index of a session log file.
+ *
+ * <p>A session log is a series of gzip members, each holding a block of
+ * lines. The index records where each block starts in the compressed file,
+ * which lines it holds, and the time range and levels of those lines, so
+ * that a page of the log can be read (or a block skipped during a search)
+ * without decompressing the rest of the file.</p>
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SessionLogIndex {
+
+    public static final String EXTENSION = ".idx.json";
+
+    private long lineCount;
+    private List<Block> blocks = new ArrayList<Block>();
+
+    /**
+     * Find the block that holds the given line.
+     *
+     * @param line the line number
+     * @return the index of the block, or -1 if the line is not in the file
+     */
+    public int findBlock(long line) {
+        int low = 0;
+        int high = blocks.size() - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Block block = blocks.get(mid);
+            if (line < block.getFirstLine()) {
+                high = mid - 1;
+            } else if (line >= block.getFirstLine() + block.getLineCount()) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -1;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Block {
+        private long offset;
+        private long length;
+        private long firstLine;
+        private int lineCount;
+        private long startTime;
+        private long endTime;
+        private int levels;
+    }
+
+}
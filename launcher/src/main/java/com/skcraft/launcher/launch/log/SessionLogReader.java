@@ -0,0 +1,150 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.log;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closer;
+import com.skcraft.launcher.persistence.Persistence;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static com.skcraft.launcher.LauncherUtils.checkInterrupted;
+
+/**
+ * Reads a session log written by {@link SessionLogWriter}, one block at a
+ * time, so that logs of any size can be paged through and searched.
+ *
+ * <p>Only the blocks in the index when the reader was created can be read;
+ * create a new reader to see newer output of a running game.</p>
+ */
+public class SessionLogReader {
+
+    private static final int CACHED_BLOCKS = 8;
+
+    @Getter private final File file;
+    @Getter private final SessionLogIndex index;
+    private final Map<Integer, List<SessionLogRecord>> cache =
+            new LinkedHashMap<Integer, List<SessionLogRecord>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, List<SessionLogRecord>> eldest) {
+                    return size() > CACHED_BLOCKS;
+                }
+            };
+
+    public SessionLogReader(@NonNull File file) {
+        this.file = file;
+        this.index = Persistence.read(SessionLogWriter.getIndexFile(file), SessionLogIndex.class);
+    }
+
+    /**
+     * Get the number of lines that can be read.
+     *
+     * @return the number of lines
+     */
+    public long getLineCount() {
+        return index.getLineCount();
+    }
+
+    /**
+     * Get the time of the first line.
+     *
+     * @return the time, or 0 if the log is empty
+     */
+    public long getStartTime() {
+        return index.getBlocks().isEmpty() ? 0 : index.getBlocks().get(0).getStartTime();
+    }
+
+    /**
+     * Get a line.
+     *
+     * @param line the line number
+     * @return the line
+     * @throws IOException on I/O error
+     */
+    public synchronized SessionLogRecord getLine(long line) throws IOException {
+        int blockIndex = index.findBlock(line);
+        if (blockIndex == -1) {
+            throw new IndexOutOfBoundsException("Line " + line + " is not in " + file.getName());
+        }
+
+        List<SessionLogRecord> records = cache.get(blockIndex);
+        if (records == null) {
+            records = readBlock(index.getBlocks().get(blockIndex));
+            cache.put(blockIndex, records);
+        }
+
+        long offset = line - index.getBlocks().get(blockIndex).getFirstLine();
+        if (offset >= records.size()) {
+            throw new IOException("Block " + blockIndex + " of " + file.getName() + " is truncated");
+        }
+        return records.get((int) offset);
+    }
+
+    /**
+     * Find the lines that match a filter. Blocks that can't match according
+     * to the index are skipped without being read.
+     *
+     * @param filter the filter
+     * @param limit the maximum number of lines to return
+     * @return the numbers of the matching lines, in order
+     * @throws IOException on I/O error
+     * @throws InterruptedException thrown on interruption
+     */
+    public List<Long> search(LogFilter filter, int limit) throws IOException, InterruptedException {
+        List<Long> matches = new ArrayList<Long>();
+
+        for (SessionLogIndex.Block block : index.getBlocks()) {
+            checkInterrupted();
+
+            if (!filter.mayMatch(block)) {
+                continue;
+            }
+
+            List<SessionLogRecord> records = readBlock(block);
+            for (int i = 0; i < records.size(); i++) {
+                if (filter.matches(records.get(i))) {
+                    matches.add(block.getFirstLine() + i);
+                    if (matches.size() >= limit) {
+                        return matches;
+                    }
+                }
+            }
+        }
+
+        return matches;
+    }
+
+    private List<SessionLogRecord> readBlock(SessionLogIndex.Block block) throws IOException {
+        List<SessionLogRecord> records = new ArrayList<SessionLogRecord>(block.getLineCount());
+        Closer closer = Closer.create();
+
+        try {
+            InputStream in = closer.register(new FileInputStream(file));
+            ByteStreams.skipFully(in, block.getOffset());
+            BufferedReader reader = closer.register(new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(ByteStreams.limit(in, block.getLength())), Charsets.UTF_8)));
+
+            String line;
+            while (records.size() < block.getLineCount() && (line = reader.readLine()) != null) {
+                records.add(SessionLogRecord.fromStoredForm(line));
+            }
+        } finally {
+            closer.close();
+        }
+
+        return records;
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.log;
+
+import lombok.Data;
+
+/**
+ * A line of captured game output.
+ */
+@Data
+public class SessionLogRecord {
+
+    private final long time;
+    private final boolean error;
+    private final LogLevel level;
+    private final String text;
+
+    /**
+     * Format the record as stored in a session log, without the line
+     * terminator.
+     *
+     * @return the stored form
+     */
+    public String toStoredForm() {
+        return time + " " + (error ? 'E' : 'O') + " " + level.getCode() + " " + text;
+    }
+
+    /**
+     * Parse a record from its stored form.
+     *
+     * @param line the stored line
+     * @return the record
+     */
+    public static SessionLogRecord fromStoredForm(String line) {
+        int timeEnd = line.indexOf(' ');
+        if (timeEnd == -1 || line.length() < timeEnd + 5) {
+            return new SessionLogRecord(0, false, LogLevel.INFO, line);
+        }
+
+        long time;
+        try {
+            time = Long.parseLong(line.substring(0, timeEnd));
+        } catch (NumberFormatException e) {
+            return new SessionLogRecord(0, false, LogLevel.INFO, line);
+        }
+
+        boolean error = line.charAt(timeEnd + 1) == 'E';
+        LogLevel level = LogLevel.fromCode(line.charAt(timeEnd + 3));
+        return new SessionLogRecord(time, error, level, line.substring(timeEnd + 5));
+    }
+
+}
@@ -0,0 +1,404 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.log;
+
+import com.google.common.base.Charsets;
+import com.skcraft.launcher.Instance;
+import com.skcraft.launcher.persistence.Persistence;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.zip.GZIPOutputStream;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Writes the output of a game process to compressed session log files on a
+ * background thread.
+ *
+ * <p>Lines are written in blocks of up to {@link #BLOCK_LINES} lines, each
+ * block being a separate gzip member, and every finished block is recorded
+ * in a {@link SessionLogIndex} next to the log file. A block is also
+ * finished when the game has been quiet for a second, so the index stays
+ * close to the live output. Once a file reaches {@link #MAX_FILE_SIZE}
+ * bytes, the session continues in a new file. Only the last
+ * {@link #MAX_SESSIONS} sessions are kept.</p>
+ */
+@Log
+public class SessionLogWriter {
+
+    public static final String EXTENSION = ".log.gz";
+    private static final int BLOCK_LINES = 1000;
+    private static final long IDLE_FLUSH_MILLIS = 1000;
+    private static final long MAX_FILE_SIZE = 16 * 1024 * 1024;
+    private static final int MAX_SESSIONS = 10;
+    private static final int QUEUE_SIZE = 10000;
+    private static final SessionLogRecord END = new SessionLogRecord(0, false, LogLevel.INFO, "");
+
+    private final File dir;
+    @Getter private final String sessionName;
+    private final BlockingQueue<SessionLogRecord> queue = new LinkedBlockingQueue<SessionLogRecord>(QUEUE_SIZE);
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private final AtomicInteger droppedLines = new AtomicInteger();
+    private Thread thread;
+
+    // Only used by the writer thread
+    private int part;
+    private FileOutputStream fileOut;
+    private File indexFile;
+    private SessionLogIndex index;
+    private GZIPOutputStream blockOut;
+    private Writer blockWriter;
+    private SessionLogIndex.Block block;
+    private boolean failed;
+
+    /**
+     * Create a new writer.
+     *
+     * @param dir the directory to store session logs in
+     */
+    public SessionLogWriter(@NonNull File dir) {
+        this.dir = dir;
+        this.sessionName = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
+    }
+
+    /**
+     * Get the directory where session logs are kept for an instance.
+     *
+     * @param instance the instance
+     * @return the directory, which may not exist
+     */
+    public static File getLogsDir(Instance instance) {
+        return new File(instance.getDir(), "sessions");
+    }
+
+    /**
+     * Get the index file for a session log file.
+     *
+     * @param logFile the log file
+     * @return the index file, which may not exist
+     */
+    public static File getIndexFile(File logFile) {
+        String name = logFile.getName();
+        if (name.endsWith(EXTENSION)) {
+            name = name.substring(0, name.length() - EXTENSION.length());
+        }
+        return new File(logFile.getParentFile(), name + SessionLogIndex.EXTENSION);
+    }
+
+    /**
+     * Get the session log files in a directory, newest first.
+     *
+     * @param dir the directory
+     * @return a list of log files
+     */
+    public static List<File> getLogFiles(File dir) {
+        List<File> files = new ArrayList<File>();
+        File[] children = dir.listFiles();
+        if (children != null) {
+            for (File file : children) {
+                if (file.isFile() && file.getName().endsWith(EXTENSION)) {
+                    files.add(file);
+                }
+            }
+        }
+
+        Collections.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File o1, File o2) {
+                return o2.getName().compareTo(o1.getName());
+            }
+        });
+
+        return files;
+    }
+
+    /**
+     * Open the first log file of the session and start the writer thread.
+     *
+     * @throws IOException thrown if the log file can't be created
+     */
+    public synchronized void start() throws IOException {
+        if (thread != null) {
+            throw new IllegalStateException("Already started");
+        }
+
+        dir.mkdirs();
+        deleteOldSessions();
+        openFile();
+
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                SessionLogWriter.this.run();
+            }
+        }, "Session log writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Open a stream that game output can be copied to. The session ends
+     * once every opened stream is closed.
+     *
+     * @param error true if the stream is stderr
+     * @return a writer
+     */
+    public Writer openStream(boolean error) {
+        openStreams.incrementAndGet();
+        return new StreamWriter(error);
+    }
+
+    /**
+     * Queue a line for the writer thread. If the writer has fallen too far
+     * behind, such as on a slow disk, the line is dropped rather than
+     * making the game wait, and a note of it is written later.
+     */
+    private void enqueue(SessionLogRecord record) {
+        if (!queue.offer(record)) {
+            droppedLines.incrementAndGet();
+        }
+    }
+
+    private void enqueueEnd() {
+        // The game's output has closed by now, so waiting doesn't stall it
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                SessionLogRecord record = block != null
+                        ? queue.poll(IDLE_FLUSH_MILLIS, TimeUnit.MILLISECONDS)
+                        : queue.take();
+
+                if (record == END) {
+                    break;
+                }
+
+                // Keep draining the queue on failure so that the game's
+                // output is never blocked by us
+                if (failed) {
+                    continue;
+                }
+
+                try {
+                    writeDropped();
+                    if (record == null) {
+                        finishBlock();
+                    } else {
+                        write(record);
+                    }
+                } catch (IOException e) {
+                    log.log(Level.WARNING, "Failed to write the session log; no more output will be saved", e);
+                    failed = true;
+                }
+            }
+
+            if (!failed) {
+                writeDropped();
+                finishBlock();
+            }
+        } catch (InterruptedException ignored) {
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to finish the session log", e);
+        } finally {
+            closeQuietly(blockWriter);
+            closeQuietly(fileOut);
+        }
+    }
+
+    private void write(SessionLogRecord record) throws IOException {
+        if (block == null) {
+            block = new SessionLogIndex.Block();
+            block.setOffset(fileOut.getChannel().position());
+            block.setFirstLine(index.getLineCount());
+            block.setStartTime(record.getTime());
+            blockOut = new GZIPOutputStream(new UnclosableOutputStream(fileOut));
+            blockWriter = new BufferedWriter(new OutputStreamWriter(blockOut, Charsets.UTF_8));
+        }
+
+        blockWriter.write(record.toStoredForm());
+        blockWriter.write('\n');
+        block.setLineCount(block.getLineCount() + 1);
+        block.setEndTime(record.getTime());
+        block.setLevels(block.getLevels() | record.getLevel().getMask());
+
+        if (block.getLineCount() >= BLOCK_LINES) {
+            finishBlock();
+        }
+    }
+
+    private void writeDropped() throws IOException {
+        int dropped = droppedLines.getAndSet(0);
+        if (dropped > 0) {
+            write(new SessionLogRecord(System.currentTimeMillis(), false, LogLevel.WARN,
+                    "(" + dropped + " lines were not saved because output arrived too quickly)"));
+        }
+    }
+
+    private void finishBlock() throws IOException {
+        if (block == null) {
+            return;
+        }
+
+        // Closing the writer only finishes the gzip member; the file stays open
+        blockWriter.close();
+        blockWriter = null;
+        blockOut = null;
+        block.setLength(fileOut.getChannel().position() - block.getOffset());
+
+        index.getBlocks().add(block);
+        index.setLineCount(index.getLineCount() + block.getLineCount());
+        block = null;
+        Persistence.write(indexFile, index);
+
+        if (fileOut.getChannel().position() >= MAX_FILE_SIZE) {
+            fileOut.close();
+            part++;
+            openFile();
+        }
+    }
+
+    private void openFile() throws IOException {
+        File logFile = new File(dir, String.format("%s.%03d%s", sessionName, part, EXTENSION));
+        indexFile = getIndexFile(logFile);
+        index = new SessionLogIndex();
+        fileOut = new FileOutputStream(logFile);
+        Persistence.write(indexFile, index);
+    }
+
+    private void deleteOldSessions() {
+        SortedSet<String> sessions = new TreeSet<String>(Collections.reverseOrder());
+        for (File file : getLogFiles(dir)) {
+            sessions.add(getSessionName(file));
+        }
+
+        Set<String> expired = new HashSet<String>();
+        int kept = 0;
+        for (String session : sessions) {
+            if (++kept >= MAX_SESSIONS) {
+                expired.add(session);
+            }
+        }
+
+        // Also removes anything else saved for the session, like its summary
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isFile() && expired.contains(getSessionName(file))) {
+                    log.info("Deleting old session file " + file.getAbsolutePath());
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    private static String getSessionName(File logFile) {
+        String name = logFile.getName();
+        int index = name.indexOf('.');
+        return index != -1 ? name.substring(0, index) : name;
+    }
+
+    /**
+     * Splits a stream of output into records.
+     */
+    private class StreamWriter extends Writer {
+        private final boolean error;
+        private final StringBuilder line = new StringBuilder();
+        private LogLevel lastLevel;
+        private boolean closed;
+
+        private StreamWriter(boolean error) {
+            this.error = error;
+            this.lastLevel = error ? LogLevel.ERROR : LogLevel.INFO;
+        }
+
+        @Override
+        public synchronized void write(char[] cbuf, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+
+            for (int i = off; i < off + len; i++) {
+                char c = cbuf[i];
+                if (c == '\n') {
+                    emit();
+                } else if (c != '\r') {
+                    line.append(c);
+                }
+            }
+        }
+
+        private void emit() {
+            String text = line.toString();
+            line.setLength(0);
+
+            // Lines without a level (such as stack traces) continue the previous line
+            LogLevel level = LogLevel.detect(text);
+            if (level != null) {
+                lastLevel = level;
+            }
+
+            enqueue(new SessionLogRecord(System.currentTimeMillis(), error, lastLevel, text));
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+
+            if (line.length() > 0) {
+                emit();
+            }
+
+            closed = true;
+
+            if (openStreams.decrementAndGet() == 0) {
+                enqueueEnd();
+            }
+        }
+    }
+
+    /**
+     * Lets each block's gzip stream be closed without closing the file.
+     */
+    private static class UnclosableOutputStream extends FilterOutputStream {
+        private UnclosableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.monitor;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+/**
+ * Samples processes using <code>/proc/[pid]/stat</code>.
+ *
+ * <p>Clock ticks are assumed to be 1/100th of a second and pages to be
+ * 4 KB, which holds on the platforms that the game runs on.</p>
+ */
+public class LinuxProcessSampler implements ProcessSampler {
+
+    private static final long MILLIS_PER_TICK = 10;
+    private static final long PAGE_SIZE = 4096;
+
+    // Indices of fields after the command name, which is the second field
+    private static final int UTIME_FIELD = 11;
+    private static final int STIME_FIELD = 12;
+    private static final int THREADS_FIELD = 17;
+    private static final int RSS_FIELD = 21;
+
+    /**
+     * Check whether /proc can be read.
+     *
+     * @return true if available
+     */
+    public static boolean isAvailable() {
+        return new File("/proc/self/stat").canRead();
+    }
+
+    @Override
+    public ProcessSample sample(long pid) throws IOException {
+        String stat;
+        try {
+            stat = Files.toString(new File("/proc/" + pid + "/stat"), Charsets.US_ASCII);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+
+        // The command name is in brackets and may itself contain spaces
+        int nameEnd = stat.lastIndexOf(')');
+        if (nameEnd == -1) {
+            throw new IOException("Unexpected format of /proc/" + pid + "/stat");
+        }
+
+        String[] fields = stat.substring(nameEnd + 1).trim().split(" ");
+        if (fields.length <= RSS_FIELD) {
+            throw new IOException("Unexpected format of /proc/" + pid + "/stat");
+        }
+
+        try {
+            ProcessSample sample = new ProcessSample();
+            sample.setTime(System.currentTimeMillis());
+            sample.setCpuTimeMillis((Long.parseLong(fields[UTIME_FIELD]) + Long.parseLong(fields[STIME_FIELD]))
+                    * MILLIS_PER_TICK);
+            sample.setThreadCount(Integer.parseInt(fields[THREADS_FIELD]));
+            sample.setResidentBytes(Long.parseLong(fields[RSS_FIELD]) * PAGE_SIZE);
+            return sample;
+        } catch (NumberFormatException e) {
+            throw new IOException("Unexpected format of /proc/" + pid + "/stat", e);
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.monitor;
+
+import lombok.Data;
+
+/**
+ * The resource usage of a process at one point in time.
+ */
+@Data
+public class ProcessSample {
+
+    private long time;
+    /**
+     * The total CPU time used by the process so far, across all cores.
+     */
+    private long cpuTimeMillis;
+    /**
+     * The CPU usage since the previous sample, where 100 is one full core.
+     */
+    private double cpuPercent;
+    private long residentBytes;
+    private int threadCount;
+
+}
@@ -0,0 +1,26 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.monitor;
+
+import java.io.IOException;
+
+/**
+ * Reads the resource usage of a process using platform-specific means.
+ */
+public interface ProcessSampler {
+
+    /**
+     * Sample the given process. The CPU percentage of the returned sample
+     * is filled in by the caller.
+     *
+     * @param pid the process ID
+     * @return the sample, or null if the process no longer exists
+     * @throws IOException thrown if the usage could not be read
+     */
+    ProcessSample sample(long pid) throws IOException;
+
+}
@@ -0,0 +1,430 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.monitor;
+
+import com.skcraft.launcher.util.Environment;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+
+/**
+ * Watches a running game: samples the resource usage of the process,
+ * measures how long the game takes to start up and notices when it stops
+ * responding.
+ *
+ * <p>Resource usage is only available on platforms that have a
+ * {@link ProcessSampler}; everything else works everywhere. The supervisor
+ * does not depend on Swing, and it works with any child process.</p>
+ */
+@Log
+public class ProcessSupervisor {
+
+    private static final long SAMPLE_INTERVAL = 2000;
+    private static final int HISTORY_SIZE = 30;
+    private static final long HANG_THRESHOLD = 120000;
+    private static final double IDLE_CPU_PERCENT = 2;
+    private static final int MAX_WATCHED_LINE = 1000;
+
+    /**
+     * Lines that games write once their window has been created.
+     */
+    private static final Pattern WINDOW_READY_PATTERN = Pattern.compile(
+            "Backend library: LWJGL|LWJGL Version|OpenAL initialized|Sound engine started");
+
+    private static final String OUT_OF_MEMORY = "java.lang.OutOfMemoryError";
+
+    private final Process process;
+    @Getter private final long pid;
+    private final ProcessSampler sampler;
+    @Getter private final long launchTime;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+    private ScheduledExecutorService scheduler;
+
+    private volatile long firstOutputTime;
+    private volatile long lastOutputTime;
+    private volatile long windowReadyTime;
+    private volatile boolean outOfMemorySeen;
+    private final AtomicLong outputLines = new AtomicLong();
+    private final AtomicLong outputChars = new AtomicLong();
+
+    // Guarded by this
+    private final List<ProcessSample> history = new ArrayList<ProcessSample>();
+    private ProcessSample lastSample;
+    private int sampleCount;
+    private double cpuPercentTotal;
+    private double peakCpuPercent;
+    private long peakResidentBytes;
+    private int peakThreadCount;
+    private boolean hangSuspected;
+    private int hangCount;
+    private long endTime;
+    private Integer exitCode;
+
+    /**
+     * Create a new supervisor.
+     *
+     * @param process the process
+     * @param launchTime the time at which the process was started
+     */
+    public ProcessSupervisor(@NonNull Process process, long launchTime) {
+        this(process, getSampler(Environment.getInstance()), launchTime);
+    }
+
+    /**
+     * Create a new supervisor.
+     *
+     * @param process the process
+     * @param sampler the sampler to use, or null to not sample resource usage
+     * @param launchTime the time at which the process was started
+     */
+    public ProcessSupervisor(@NonNull Process process, ProcessSampler sampler, long launchTime) {
+        this.process = process;
+        this.pid = getPid(process);
+        this.sampler = pid != -1 ? sampler : null;
+        this.launchTime = launchTime;
+    }
+
+    /**
+     * Check whether resource usage is being sampled.
+     *
+     * @return true if sampled
+     */
+    public boolean isSampling() {
+        return sampler != null;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Start sampling the process.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            throw new IllegalStateException("Already started");
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Process supervisor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                tick();
+            }
+        }, SAMPLE_INTERVAL, SAMPLE_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Wrap a writer that game output is copied to, so that the supervisor
+     * can see the output of the game.
+     *
+     * @param delegate the writer to pass the output on to, or null
+     * @return a writer
+     */
+    public Writer monitor(Writer delegate) {
+        return new OutputMonitor(delegate);
+    }
+
+    /**
+     * Wait for the process to exit, then stop sampling.
+     *
+     * @return the exit code
+     * @throws InterruptedException thrown on interruption
+     */
+    public int waitFor() throws InterruptedException {
+        int code = process.waitFor();
+        synchronized (this) {
+            exitCode = code;
+        }
+        stop();
+        return code;
+    }
+
+    /**
+     * Stop sampling the process.
+     */
+    public synchronized void stop() {
+        if (endTime == 0) {
+            endTime = System.currentTimeMillis();
+        }
+
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void tick() {
+        ProcessSample sample = null;
+
+        if (sampler != null) {
+            try {
+                sample = sampler.sample(pid);
+            } catch (IOException e) {
+                log.log(Level.FINE, "Failed to sample process " + pid, e);
+            }
+        }
+
+        synchronized (this) {
+            if (sample != null) {
+                if (lastSample != null) {
+                    long elapsed = sample.getTime() - lastSample.getTime();
+                    if (elapsed > 0) {
+                        sample.setCpuPercent((sample.getCpuTimeMillis() - lastSample.getCpuTimeMillis())
+                                * 100.0 / elapsed);
+                    }
+                    sampleCount++;
+                    cpuPercentTotal += sample.getCpuPercent();
+                    peakCpuPercent = Math.max(peakCpuPercent, sample.getCpuPercent());
+                }
+
+                peakResidentBytes = Math.max(peakResidentBytes, sample.getResidentBytes());
+                peakThreadCount = Math.max(peakThreadCount, sample.getThreadCount());
+
+                lastSample = sample;
+                history.add(sample);
+                if (history.size() > HISTORY_SIZE) {
+                    history.remove(0);
+                }
+            }
+
+            checkHang(sample);
+        }
+
+        for (Listener listener : listeners) {
+            listener.metricsUpdated(this);
+        }
+    }
+
+    /**
+     * A game is suspected to hang if it has been silent for a while, and it
+     * either hasn't opened its window yet or it isn't using any CPU. Games
+     * are often quiet while being played, so silence alone isn't enough.
+     */
+    private void checkHang(ProcessSample sample) {
+        long lastOutput = lastOutputTime != 0 ? lastOutputTime : launchTime;
+        long silence = System.currentTimeMillis() - lastOutput;
+        boolean idle = sample != null && sampleCount > 0 && sample.getCpuPercent() < IDLE_CPU_PERCENT;
+        boolean hanging = silence >= HANG_THRESHOLD && (windowReadyTime == 0 || idle);
+
+        if (hanging && !hangSuspected) {
+            hangCount++;
+            log.warning("The game has not written any output for " + silence / 1000 + " seconds and may have stopped responding");
+        }
+
+        hangSuspected = hanging;
+    }
+
+    public synchronized ProcessSample getLastSample() {
+        return lastSample;
+    }
+
+    /**
+     * Get the recent samples, oldest first.
+     *
+     * @return a list of samples
+     */
+    public synchronized List<ProcessSample> getHistory() {
+        return new ArrayList<ProcessSample>(history);
+    }
+
+    public synchronized boolean isHangSuspected() {
+        return hangSuspected;
+    }
+
+    /**
+     * Get the time from launch until the first output.
+     *
+     * @return the time in milliseconds, or -1 if there hasn't been any yet
+     */
+    public long getFirstOutputMillis() {
+        long time = firstOutputTime;
+        return time != 0 ? time - launchTime : -1;
+    }
+
+    /**
+     * Get the time from launch until the game window was created.
+     *
+     * @return the time in milliseconds, or -1 if not seen yet
+     */
+    public long getWindowReadyMillis() {
+        long time = windowReadyTime;
+        return time != 0 ? time - launchTime : -1;
+    }
+
+    /**
+     * Check whether the game wrote that it ran out of memory.
+     *
+     * @return true if seen
+     */
+    public boolean isOutOfMemorySeen() {
+        return outOfMemorySeen;
+    }
+
+    public long getOutputLines() {
+        return outputLines.get();
+    }
+
+    /**
+     * Create a summary of the session so far.
+     *
+     * @param instanceName the name of the instance
+     * @return the summary
+     */
+    public synchronized SessionSummary createSummary(String instanceName) {
+        long end = endTime != 0 ? endTime : System.currentTimeMillis();
+
+        SessionSummary summary = new SessionSummary();
+        summary.setInstance(instanceName);
+        summary.setPid(pid);
+        summary.setStarted(new Date(launchTime));
+        summary.setEnded(new Date(end));
+        summary.setExitCode(exitCode);
+        summary.setDurationMillis(end - launchTime);
+        summary.setFirstOutputMillis(firstOutputTime != 0 ? firstOutputTime - launchTime : null);
+        summary.setWindowReadyMillis(windowReadyTime != 0 ? windowReadyTime - launchTime : null);
+        summary.setOutputLines(outputLines.get());
+        summary.setOutputChars(outputChars.get());
+        summary.setSamples(sampleCount);
+        summary.setAverageCpuPercent(sampleCount > 0 ? cpuPercentTotal / sampleCount : 0);
+        summary.setPeakCpuPercent(peakCpuPercent);
+        summary.setPeakResidentBytes(peakResidentBytes);
+        summary.setPeakThreadCount(peakThreadCount);
+        summary.setHangsDetected(hangCount);
+        summary.setOutOfMemory(outOfMemorySeen);
+        return summary;
+    }
+
+    private static ProcessSampler getSampler(Environment env) {
+        switch (env.getPlatform()) {
+            case LINUX:
+                return LinuxProcessSampler.isAvailable() ? new LinuxProcessSampler() : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Get the ID of a process, using {@code Process.pid()} on Java 9 and
+     * newer and the private field of the Unix implementation before that.
+     *
+     * @param process the process
+     * @return the ID, or -1 if it could not be found
+     */
+    static long getPid(Process process) {
+        try {
+            Method method = Process.class.getMethod("pid");
+            return ((Number) method.invoke(process)).longValue();
+        } catch (Exception ignored) {
+        }
+
+        try {
+            Field field = process.getClass().getDeclaredField("pid");
+            field.setAccessible(true);
+            return field.getLong(process);
+        } catch (Exception ignored) {
+        }
+
+        return -1;
+    }
+
+    /**
+     * Notified after every sample.
+     */
+    public interface Listener {
+        /**
+         * Called from the supervisor's thread after the process was sampled.
+         *
+         * @param supervisor the supervisor
+         */
+        void metricsUpdated(ProcessSupervisor supervisor);
+    }
+
+    /**
+     * Sees output on its way to the session log.
+     */
+    private class OutputMonitor extends Writer {
+        private final Writer delegate;
+        private final StringBuilder line = new StringBuilder();
+
+        private OutputMonitor(Writer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            long now = System.currentTimeMillis();
+            if (firstOutputTime == 0) {
+                firstOutputTime = now;
+            }
+            lastOutputTime = now;
+            outputChars.addAndGet(len);
+
+            for (int i = off; i < off + len; i++) {
+                char c = cbuf[i];
+                if (c == '\n') {
+                    outputLines.incrementAndGet();
+                    if (windowReadyTime == 0 && WINDOW_READY_PATTERN.matcher(line).find()) {
+                        windowReadyTime = now;
+                    }
+                    if (line.indexOf(OUT_OF_MEMORY) != -1) {
+                        outOfMemorySeen = true;
+                    }
+                    line.setLength(0);
+                } else if (line.length() < MAX_WATCHED_LINE) {
+                    line.append(c);
+                }
+            }
+
+            if (delegate != null) {
+                delegate.write(cbuf, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (delegate != null) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate != null) {
+                delegate.close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.monitor;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * A summary of one run of the game, written next to its session log.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SessionSummary {
+
+    public static final String EXTENSION = ".summary.json";
+
+    private String instance;
+    private long pid;
+    private Date started;
+    private Date ended;
+    private Integer exitCode;
+    private long durationMillis;
+    /**
+     * Milliseconds from launch until the game wrote its first output, or
+     * null if it never did.
+     */
+    private Long firstOutputMillis;
+    /**
+     * Milliseconds from launch until the game reported that its window was
+     * created, or null if that was never seen.
+     */
+    private Long windowReadyMillis;
+    private long outputLines;
+    private long outputChars;
+    private int samples;
+    private double averageCpuPercent;
+    private double peakCpuPercent;
+    private long peakResidentBytes;
+    private int peakThreadCount;
+    private int hangsDetected;
+    private boolean outOfMemory;
+
+}
@@ -0,0 +1,193 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.tuning;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.skcraft.launcher.Instance;
+import com.skcraft.launcher.launch.JavaProcessBuilder;
+import com.skcraft.launcher.launch.runtime.JavaRuntime;
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A dynamic class data sharing (CDS) archive for an instance, which lets
+ * the JVM map the classes loaded by the last run of the game instead of
+ * loading and verifying them again.
+ *
+ * <p>The archive is written by the JVM when the game exits after a run
+ * with {@code -XX:ArchiveClassesAtExit}, and used by later runs with
+ * {@code -XX:SharedArchiveFile}. Archives are specific to a Java runtime
+ * and a class path, so they are named after a hash of both, and an
+ * archive that no longer matches is deleted and created again.</p>
+ */
+@Log
+public class ClassDataArchive {
+
+    /**
+     * The first version with dynamic archives (JEP 350).
+     */
+    public static final int MIN_MAJOR_VERSION = 13;
+
+    private static final HashFunction hf = Hashing.sha1();
+
+    @Getter private final File file;
+    @Getter private final Mode mode;
+
+    private ClassDataArchive(File file, Mode mode) {
+        this.file = file;
+        this.mode = mode;
+    }
+
+    /**
+     * Get the directory that the archives of an instance are kept in.
+     *
+     * @param instance the instance
+     * @return the directory
+     */
+    public static File getArchiveDir(Instance instance) {
+        return new File(instance.getDir(), "cds");
+    }
+
+    /**
+     * Check whether a runtime can create and use dynamic archives.
+     *
+     * @param runtime the runtime, or null if unknown
+     * @return true if supported
+     */
+    public static boolean isSupported(JavaRuntime runtime) {
+        return runtime != null && runtime.getMajorVersion() >= MIN_MAJOR_VERSION;
+    }
+
+    /**
+     * Find the archive for the command that is about to be launched,
+     * deleting archives of the same runtime that no longer match.
+     *
+     * <p>This must be called once the class path and flags are final.</p>
+     *
+     * @param instance the instance
+     * @param builder the process builder
+     * @return the archive, or null if the runtime doesn't support archives
+     */
+    public static ClassDataArchive prepare(Instance instance, JavaProcessBuilder builder) {
+        JavaRuntime runtime = builder.getRuntime();
+        if (!isSupported(runtime)) {
+            return null;
+        }
+
+        File dir = getArchiveDir(instance);
+        String runtimeKey = hf.hashString(runtime.getDir().getAbsolutePath() + "|" + runtime.getVersion(),
+                Charsets.UTF_8).toString().substring(0, 12);
+        String name = runtimeKey + "-" + getLaunchHash(instance, builder) + ".jsa";
+        File file = new File(dir, name);
+
+        File[] existing = dir.listFiles();
+        if (existing != null) {
+            for (File other : existing) {
+                if (other.getName().startsWith(runtimeKey + "-") && !other.getName().equals(name)) {
+                    log.info("Deleting outdated class data archive " + other.getName());
+                    other.delete();
+                }
+            }
+        }
+
+        if (file.length() > 0) {
+            return new ClassDataArchive(file, Mode.USE);
+        } else {
+            dir.mkdirs();
+            return new ClassDataArchive(file, Mode.CREATE);
+        }
+    }
+
+    /**
+     * Get the hash of everything that an archive depends on: the class
+     * path, the mods and the flags that change the layout of objects.
+     */
+    private static String getLaunchHash(Instance instance, JavaProcessBuilder builder) {
+        Hasher hasher = hf.newHasher();
+        hasher.putString(String.valueOf(builder.getMainClass()), Charsets.UTF_8);
+
+        for (File file : builder.getClassPath()) {
+            putFile(hasher, file);
+        }
+
+        File[] mods = new File(instance.getContentDir(), "mods").listFiles();
+        if (mods != null) {
+            Arrays.sort(mods);
+            for (File file : mods) {
+                putFile(hasher, file);
+            }
+        }
+
+        for (String flag : builder.getFlags()) {
+            if (flag.startsWith("-XX:+Use") || flag.startsWith("-XX:-Use")) {
+                hasher.putString(flag, Charsets.UTF_8);
+            }
+        }
+
+        return hasher.hash().toString();
+    }
+
+    private static void putFile(Hasher hasher, File file) {
+        hasher.putString(file.getAbsolutePath(), Charsets.UTF_8);
+        hasher.putLong(file.length());
+        hasher.putLong(file.lastModified());
+    }
+
+    /**
+     * Get the flags that create or use the archive.
+     *
+     * @return the flags
+     */
+    public List<String> getFlags() {
+        String path = file.getAbsolutePath();
+        if (mode == Mode.USE) {
+            return Arrays.asList("-XX:SharedArchiveFile=" + path, "-Xshare:auto");
+        } else {
+            return Arrays.asList("-XX:ArchiveClassesAtExit=" + path);
+        }
+    }
+
+    /**
+     * Called once the game has exited. An archive is only written
+     * completely if the game exits normally, so one that was being
+     * created by a run that crashed or was killed is deleted.
+     *
+     * @param exitCode the exit code of the game, or null if unknown
+     */
+    public void finish(Integer exitCode) {
+        if (mode != Mode.CREATE) {
+            return;
+        }
+
+        if (exitCode != null && exitCode == 0 && file.length() > 0) {
+            log.info("Created class data archive " + file.getName() + " (" + file.length() / 1024 / 1024 + " MB)");
+        } else if (file.exists()) {
+            log.info("The game exited with " + exitCode + " while creating the class data archive; deleting it");
+            file.delete();
+        }
+    }
+
+    public enum Mode {
+        /**
+         * The archive is written when the game exits.
+         */
+        CREATE,
+
+        /**
+         * An existing archive is used.
+         */
+        USE
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.tuning;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Closer;
+import lombok.Data;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What could be learned from the crash reports that a run of the game left
+ * behind, both Minecraft's own reports and JVM fatal error logs.
+ */
+@Data
+public class CrashFindings {
+
+    private static final int MAX_SCANNED_LINES = 500;
+
+    private final List<String> reports = new ArrayList<String>();
+    private String description;
+    private boolean outOfMemory;
+
+    /**
+     * Scan the crash reports written since the given time.
+     *
+     * @param contentDir the game directory of the instance
+     * @param since the time the game was launched
+     * @return the findings
+     * @throws IOException on I/O error
+     */
+    public static CrashFindings scan(File contentDir, long since) throws IOException {
+        CrashFindings findings = new CrashFindings();
+
+        File[] crashReports = new File(contentDir, "crash-reports").listFiles();
+        if (crashReports != null) {
+            for (File file : crashReports) {
+                if (file.getName().startsWith("crash-") && file.lastModified() >= since) {
+                    findings.scanFile(file);
+                }
+            }
+        }
+
+        File[] files = contentDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith("hs_err_pid") && file.lastModified() >= since) {
+                    findings.scanFile(file);
+                }
+            }
+        }
+
+        return findings;
+    }
+
+    private void scanFile(File file) throws IOException {
+        reports.add(file.getName());
+        Closer closer = Closer.create();
+
+        try {
+            BufferedReader reader = closer.register(new BufferedReader(
+                    new InputStreamReader(new FileInputStream(file), Charsets.UTF_8)));
+
+            String line;
+            int count = 0;
+            while ((line = reader.readLine()) != null && count++ < MAX_SCANNED_LINES) {
+                if (line.contains("OutOfMemoryError") || line.contains("Out of Memory Error")) {
+                    outOfMemory = true;
+                }
+
+                if (description == null && line.startsWith("Description: ")) {
+                    description = line.substring("Description: ".length()).trim();
+                }
+            }
+        } finally {
+            closer.close();
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.tuning;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Closer;
+
+import java.io.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the output of <code>-Xlog:gc</code> (Java 9 and newer) with the
+ * default uptime, level and tags decorations.
+ */
+public final class GcLogParser {
+
+    private static final Pattern UPTIME_PATTERN = Pattern.compile("^\\[(\\d+(?:[.,]\\d+)?)s\\]");
+    private static final Pattern PAUSE_PATTERN = Pattern.compile(
+            "GC\\(\\d+\\) Pause (\\w+).*? (\\d+)([KMG])->(\\d+)([KMG])\\((\\d+)([KMG])\\) (\\d+(?:[.,]\\d+)?)ms");
+    private static final Pattern ZGC_PATTERN = Pattern.compile(
+            "GC\\(\\d+\\) (?:Major |Minor )?(?:Garbage )?Collection .*? (\\d+)M\\(\\d+%\\)->(\\d+)M\\(\\d+%\\)");
+
+    private GcLogParser() {
+    }
+
+    /**
+     * Parse a GC log.
+     *
+     * @param file the file
+     * @return the statistics, or null if the log contained no collections
+     * @throws IOException on I/O error
+     */
+    public static GcStats parse(File file) throws IOException {
+        GcStats stats = new GcStats();
+        Closer closer = Closer.create();
+
+        try {
+            BufferedReader reader = closer.register(new BufferedReader(
+                    new InputStreamReader(new FileInputStream(file), Charsets.UTF_8)));
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher m = UPTIME_PATTERN.matcher(line);
+                if (m.find()) {
+                    stats.setUptimeMillis((long) (parseDecimal(m.group(1)) * 1000));
+                }
+
+                m = PAUSE_PATTERN.matcher(line);
+                if (m.find()) {
+                    double pause = parseDecimal(m.group(8));
+                    stats.setCollections(stats.getCollections() + 1);
+                    if (m.group(1).equals("Full")) {
+                        stats.setFullCollections(stats.getFullCollections() + 1);
+                    }
+                    stats.setTotalPauseMillis(stats.getTotalPauseMillis() + pause);
+                    stats.setMaxPauseMillis(Math.max(stats.getMaxPauseMillis(), pause));
+                    recordHeap(stats, toMb(m.group(4), m.group(5)), toMb(m.group(6), m.group(7)));
+                    continue;
+                }
+
+                // ZGC does its work concurrently and logs no pause times here
+                m = ZGC_PATTERN.matcher(line);
+                if (m.find()) {
+                    stats.setCollections(stats.getCollections() + 1);
+                    recordHeap(stats, Long.parseLong(m.group(2)), 0);
+                }
+            }
+        } finally {
+            closer.close();
+        }
+
+        return stats.getCollections() > 0 ? stats : null;
+    }
+
+    private static void recordHeap(GcStats stats, long afterMb, long capacityMb) {
+        stats.setPeakHeapAfterGcMb(Math.max(stats.getPeakHeapAfterGcMb(), afterMb));
+        stats.setHeapCapacityMb(Math.max(stats.getHeapCapacityMb(), capacityMb));
+    }
+
+    private static double parseDecimal(String value) {
+        return Double.parseDouble(value.replace(',', '.'));
+    }
+
+    private static long toMb(String value, String unit) {
+        long amount = Long.parseLong(value);
+        if (unit.equals("K")) {
+            return amount / 1024;
+        } else if (unit.equals("G")) {
+            return amount * 1024;
+        } else {
+            return amount;
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.tuning;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+/**
+ * Garbage collection statistics for one run of the game.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GcStats {
+
+    private int collections;
+    private int fullCollections;
+    private double totalPauseMillis;
+    private double maxPauseMillis;
+    private long uptimeMillis;
+    /**
+     * The largest heap size after a collection, which approximates the
+     * amount of live data that the game needs.
+     */
+    private long peakHeapAfterGcMb;
+    private long heapCapacityMb;
+
+    /**
+     * Get the fraction of the run that was spent paused for collections.
+     *
+     * @return a value between 0 and 1
+     */
+    @JsonIgnore
+    public double getPauseTimeRatio() {
+        return uptimeMillis > 0 ? Math.min(1, totalPauseMillis / uptimeMillis) : 0;
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.tuning;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A choice of garbage collector, turned into flags for a particular Java
+ * version when the game is launched.
+ */
+public enum GcStrategy {
+
+    /**
+     * Leave the choice to the JVM.
+     */
+    DEFAULT,
+
+    /**
+     * G1 tuned for short pauses, as used by the official launcher.
+     */
+    G1,
+
+    /**
+     * ZGC, which does nearly all of its work concurrently. Falls back to
+     * {@link #G1} on Java versions where ZGC isn't production-ready.
+     */
+    ZGC;
+
+    /**
+     * Get the flags for the given Java version.
+     *
+     * @param majorVersion the major Java version, or 0 if unknown
+     * @return the flags
+     */
+    public List<String> getFlags(int majorVersion) {
+        switch (this) {
+            case ZGC:
+                if (majorVersion >= 21 && majorVersion < 23) {
+                    return Arrays.asList("-XX:+UseZGC", "-XX:+ZGenerational");
+                } else if (majorVersion >= 15) {
+                    return Collections.singletonList("-XX:+UseZGC");
+                }
+                return G1.getFlags(majorVersion);
+            case G1:
+                return Arrays.asList("-XX:+UseG1GC", "-XX:+UnlockExperimentalVMOptions",
+                        "-XX:G1NewSizePercent=20", "-XX:G1ReservePercent=20",
+                        "-XX:MaxGCPauseMillis=50", "-XX:G1HeapRegionSize=32M");
+            default:
+                return Collections.emptyList();
+        }
+    }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.tuning;
+
+import com.skcraft.launcher.Instance;
+import com.skcraft.launcher.persistence.Persistence;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Looks at the GC log and crash reports of a finished run of the game and
+ * recommends memory and garbage collector settings for the next run.
+ */
+@Log
+public final class HeapAdvisor {
+
+    private static final int STEP_MB = 512;
+    private static final int COMFORTABLE_MAX_MB = 4096;
+    private static final double HIGH_PRESSURE = 0.85;
+    private static final double LOW_PRESSURE = 0.35;
+    private static final double MAX_PAUSE_RATIO = 0.05;
+    private static final double MAX_PAUSE_MILLIS = 250;
+    private static final double MAX_PHYSICAL_FRACTION = 0.75;
+
+    private HeapAdvisor() {
+    }
+
+    /**
+     * Get the file that the recommendation for an instance is kept in.
+     *
+     * @param instance the instance
+     * @return the file, which may not exist
+     */
+    public static File getRecommendationFile(Instance instance) {
+        return new File(instance.getDir(), "heap_recommendation.json");
+    }
+
+    /**
+     * Get the file that the GC log of the last run is written to.
+     *
+     * @param instance the instance
+     * @return the file, which may not exist
+     */
+    public static File getGcLogFile(Instance instance) {
+        return new File(instance.getDir(), "gc.log");
+    }
+
+    /**
+     * Load the last recommendation made for an instance.
+     *
+     * @param instance the instance
+     * @return the recommendation, or null if there is none
+     */
+    public static HeapRecommendation load(Instance instance) {
+        File file = getRecommendationFile(instance);
+        return file.exists() ? Persistence.read(file, HeapRecommendation.class, true) : null;
+    }
+
+    /**
+     * Get the flags that enable the GC log, which needs unified logging
+     * from Java 9.
+     *
+     * @param instance the instance
+     * @param majorVersion the major Java version, or 0 if unknown
+     * @return the flags, which may be empty
+     */
+    public static List<String> getGcLogFlags(Instance instance, int majorVersion) {
+        if (majorVersion < 9) {
+            return Collections.emptyList();
+        }
+
+        // The path is quoted because -Xlog uses colons as separators
+        return Collections.singletonList(
+                "-Xlog:gc:file=\"" + getGcLogFile(instance).getAbsolutePath() + "\":uptime,level,tags");
+    }
+
+    /**
+     * Analyze a finished run of the game, and save a recommendation for
+     * the instance if its settings should change.
+     *
+     * @param instance the instance
+     * @param minMemory the minimum heap size that the game ran with, in MB
+     * @param maxMemory the maximum heap size that the game ran with, in MB
+     * @param majorVersion the major Java version, or 0 if unknown
+     * @param outOfMemorySeen true if the game's output mentioned running out of memory
+     * @param launchTime the time the game was launched
+     * @return the new recommendation, or null if nothing should change
+     */
+    public static HeapRecommendation analyze(Instance instance, int minMemory, int maxMemory, int majorVersion,
+                                             boolean outOfMemorySeen, long launchTime) {
+        GcStats stats = null;
+        File gcLog = getGcLogFile(instance);
+        if (gcLog.exists() && gcLog.lastModified() >= launchTime) {
+            try {
+                stats = GcLogParser.parse(gcLog);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed to read the GC log " + gcLog.getAbsolutePath(), e);
+            }
+        }
+
+        boolean outOfMemory = outOfMemorySeen;
+        try {
+            CrashFindings crash = CrashFindings.scan(instance.getContentDir(), launchTime);
+            if (!crash.getReports().isEmpty()) {
+                log.info("Found crash reports " + crash.getReports() +
+                        (crash.getDescription() != null ? ": " + crash.getDescription() : ""));
+            }
+            outOfMemory |= crash.isOutOfMemory();
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to read crash reports", e);
+        }
+
+        HeapRecommendation recommendation = recommend(minMemory, maxMemory, majorVersion, stats, outOfMemory);
+
+        if (recommendation != null) {
+            // A collector that was recommended before may be why pauses are fine now
+            HeapRecommendation previous = load(instance);
+            if (previous != null && recommendation.getGcStrategy() == GcStrategy.DEFAULT) {
+                recommendation.setGcStrategy(previous.getGcStrategy());
+            }
+
+            File file = getRecommendationFile(instance);
+            try {
+                Persistence.write(file, recommendation, Persistence.L2F_LIST_PRETTY_PRINTER);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed to save the heap recommendation to " + file.getAbsolutePath(), e);
+            }
+        }
+
+        return recommendation;
+    }
+
+    /**
+     * Make a recommendation.
+     *
+     * @param minMemory the current minimum heap size in MB
+     * @param maxMemory the current maximum heap size in MB
+     * @param majorVersion the major Java version, or 0 if unknown
+     * @param stats GC statistics, or null if there is no GC log
+     * @param outOfMemory true if the game ran out of memory
+     * @return the recommendation, or null if nothing should change
+     */
+    static HeapRecommendation recommend(int minMemory, int maxMemory, int majorVersion, GcStats stats,
+                                        boolean outOfMemory) {
+        HeapRecommendation recommendation = new HeapRecommendation();
+        recommendation.setGcStats(stats);
+        recommendation.setOutOfMemory(outOfMemory);
+        List<String> reasons = recommendation.getReasons();
+
+        double pressure = stats != null && maxMemory > 0 ? stats.getPeakHeapAfterGcMb() / (double) maxMemory : 0;
+        int newMax = maxMemory;
+
+        if (outOfMemory) {
+            newMax = roundUp(maxMemory * 1.5);
+            reasons.add("The game ran out of memory with a maximum of " + maxMemory + " MB");
+        } else if (pressure >= HIGH_PRESSURE) {
+            newMax = roundUp(Math.max(maxMemory * 1.25, stats.getPeakHeapAfterGcMb() / 0.7));
+            reasons.add(String.format("Live data reached %.0f%% of the maximum heap", pressure * 100));
+        } else if (pressure > 0 && pressure < LOW_PRESSURE && maxMemory > COMFORTABLE_MAX_MB) {
+            newMax = Math.max(COMFORTABLE_MAX_MB, roundUp(stats.getPeakHeapAfterGcMb() / 0.5));
+            reasons.add(String.format("Live data only reached %.0f%% of the maximum heap", pressure * 100));
+        }
+
+        long physicalMb = getPhysicalMemoryMb();
+        if (physicalMb > 0 && newMax > physicalMb * MAX_PHYSICAL_FRACTION) {
+            newMax = Math.max(maxMemory, (int) (physicalMb * MAX_PHYSICAL_FRACTION) / STEP_MB * STEP_MB);
+            reasons.add("Limited to the memory available on this computer");
+        }
+
+        GcStrategy strategy = GcStrategy.DEFAULT;
+        if (stats != null && (stats.getPauseTimeRatio() > MAX_PAUSE_RATIO || stats.getMaxPauseMillis() > MAX_PAUSE_MILLIS)) {
+            strategy = majorVersion >= 17 ? GcStrategy.ZGC : GcStrategy.G1;
+            reasons.add(String.format("Collections paused the game for %.1f%% of the time (longest pause %.0f ms)",
+                    stats.getPauseTimeRatio() * 100, stats.getMaxPauseMillis()));
+        }
+
+        if (newMax == maxMemory && strategy == GcStrategy.DEFAULT) {
+            return null;
+        }
+
+        recommendation.setMaxMemory(newMax);
+        recommendation.setMinMemory(Math.min(minMemory, newMax));
+        recommendation.setGcStrategy(strategy);
+        return recommendation;
+    }
+
+    private static int roundUp(double mb) {
+        return (int) Math.ceil(mb / STEP_MB) * STEP_MB;
+    }
+
+    private static long getPhysicalMemoryMb() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) bean).getTotalPhysicalMemorySize() / 1024 / 1024;
+        }
+        return 0;
+    }
+
+}
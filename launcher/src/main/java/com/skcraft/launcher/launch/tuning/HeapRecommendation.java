@@ -0,0 +1,32 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.tuning;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Memory and garbage collector settings recommended for an instance after
+ * looking at how a run of the game went.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HeapRecommendation {
+
+    private Date created = new Date();
+    private int minMemory;
+    private int maxMemory;
+    private GcStrategy gcStrategy = GcStrategy.DEFAULT;
+    private List<String> reasons = new ArrayList<String>();
+    private GcStats gcStats;
+    private boolean outOfMemory;
+
+}
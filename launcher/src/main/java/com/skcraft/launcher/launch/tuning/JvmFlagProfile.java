@@ -0,0 +1,62 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.tuning;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A set of JVM flags that can be chosen for an instance.
+ */
+public enum JvmFlagProfile {
+
+    /**
+     * Only add the flags that were recommended after the last run, if
+     * recommendations are enabled.
+     */
+    DEFAULT(GcStrategy.DEFAULT),
+
+    /**
+     * G1 tuned for short pauses.
+     */
+    BALANCED(GcStrategy.G1),
+
+    /**
+     * The lowest pause times available on the Java version, at the cost
+     * of some throughput and memory.
+     */
+    LOW_PAUSE(GcStrategy.ZGC),
+
+    /**
+     * G1 set up to give memory back to the system and to share duplicate
+     * strings, for computers without much memory.
+     */
+    LOW_MEMORY(GcStrategy.DEFAULT, "-XX:+UseG1GC", "-XX:+UseStringDeduplication",
+            "-XX:MinHeapFreeRatio=10", "-XX:MaxHeapFreeRatio=30");
+
+    private final GcStrategy gcStrategy;
+    private final String[] flags;
+
+    JvmFlagProfile(GcStrategy gcStrategy, String... flags) {
+        this.gcStrategy = gcStrategy;
+        this.flags = flags;
+    }
+
+    /**
+     * Get the flags of this profile for the given Java version.
+     *
+     * @param majorVersion the major Java version, or 0 if unknown
+     * @return the flags
+     */
+    public List<String> getFlags(int majorVersion) {
+        List<String> result = new ArrayList<String>(gcStrategy.getFlags(majorVersion));
+        Collections.addAll(result, flags);
+        return result;
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.tuning;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.skcraft.launcher.Instance;
+import com.skcraft.launcher.launch.monitor.SessionSummary;
+import com.skcraft.launcher.persistence.Persistence;
+import lombok.Data;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Startup times of the recent runs of an instance, kept so that the
+ * effect of tuning such as class data sharing can be measured.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Log
+public class StartupHistory {
+
+    private static final int MAX_ENTRIES = 20;
+
+    private List<Entry> entries = new ArrayList<Entry>();
+
+    /**
+     * Get the file that the history of an instance is kept in.
+     *
+     * @param instance the instance
+     * @return the file, which may not exist
+     */
+    public static File getFile(Instance instance) {
+        return new File(instance.getDir(), "startup_times.json");
+    }
+
+    /**
+     * Add the startup time of a finished run to the history of an instance.
+     *
+     * @param instance the instance
+     * @param summary the summary of the run
+     * @param archive the class data archive that was used, or null
+     * @return the updated history
+     */
+    public static StartupHistory record(Instance instance, SessionSummary summary, ClassDataArchive archive) {
+        File file = getFile(instance);
+        StartupHistory history = file.exists() ? Persistence.read(file, StartupHistory.class, true) : null;
+        if (history == null) {
+            history = new StartupHistory();
+        }
+
+        if (summary.getWindowReadyMillis() != null) {
+            Entry entry = new Entry();
+            entry.setTime(summary.getStarted());
+            entry.setArchiveMode(archive != null ? archive.getMode() : null);
+            entry.setFirstOutputMillis(summary.getFirstOutputMillis());
+            entry.setWindowReadyMillis(summary.getWindowReadyMillis());
+
+            List<Entry> entries = history.getEntries();
+            entries.add(entry);
+            while (entries.size() > MAX_ENTRIES) {
+                entries.remove(0);
+            }
+
+            try {
+                Persistence.write(file, history, Persistence.L2F_LIST_PRETTY_PRINTER);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed to save the startup times to " + file.getAbsolutePath(), e);
+            }
+        }
+
+        return history;
+    }
+
+    /**
+     * Get the average time until the game window was ready.
+     *
+     * @param archiveMode the archive mode of the runs to include, or null
+     *                    for runs without class data sharing
+     * @return the average in milliseconds, or -1 if there are no such runs
+     */
+    public long getAverageWindowReadyMillis(ClassDataArchive.Mode archiveMode) {
+        long total = 0;
+        int count = 0;
+        for (Entry entry : entries) {
+            if (entry.getArchiveMode() == archiveMode && entry.getWindowReadyMillis() != null) {
+                total += entry.getWindowReadyMillis();
+                count++;
+            }
+        }
+        return count > 0 ? total / count : -1;
+    }
+
+    @Data
+    public static class Entry {
+        private Date time;
+        private ClassDataArchive.Mode archiveMode;
+        private Long firstOutputMillis;
+        private Long windowReadyMillis;
+    }
+
+}
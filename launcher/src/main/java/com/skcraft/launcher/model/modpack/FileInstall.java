@@ -7,6 +7,7 @@
 package com.skcraft.launcher.model.modpack;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
 import com.google.common.io.Files;
@@ -19,6 +20,7 @@ import org.apache.commons.io.FilenameUtils;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Collections;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.skcraft.launcher.LauncherUtils.concat;
@@ -27,6 +29,8 @@ import static com.skcraft.launcher.LauncherUtils.concat;
 @EqualsAndHashCode(callSuper = false)
 public class FileInstall extends ManifestEntry {
 
+    public static final String GZIP_ENCODING = "gzip";
+
     private static HashFunction hf = Hashing.sha1();
     private String version;
     private String hash;
@@ -34,6 +38,14 @@ public class FileInstall extends ManifestEntry {
     private String to;
     private long size;
     private boolean userFile;
+    /**
+     * If set, a compressed variant of the object is available, which is
+     * preferred for download. The hash and size still refer to the
+     * uncompressed file.
+     */
+    private String encoding;
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private long compressedSize;
 
     @JsonIgnore
     public String getImpliedVersion() {
@@ -45,6 +57,26 @@ public class FileInstall extends ManifestEntry {
         return checkNotNull(this.to != null ? this.to : location);
     }
 
+    /**
+     * Get the location of the file that should be downloaded, which is the
+     * compressed variant if one is available.
+     *
+     * @return the location
+     */
+    @JsonIgnore
+    public String getDownloadLocation() {
+        if (GZIP_ENCODING.equals(encoding)) {
+            return location + ".gz";
+        } else {
+            return location;
+        }
+    }
+
+    @JsonIgnore
+    public boolean isEncoded() {
+        return encoding != null && !getDownloadLocation().equals(location);
+    }
+
     @Override
     public void install(@NonNull Installer installer, @NonNull InstallLog log,
                         @NonNull UpdateCache cache, InstallExtras extras) throws IOException {
@@ -55,22 +87,31 @@ public class FileInstall extends ManifestEntry {
         String targetPath = getTargetPath();
         File targetFile = new File(extras.getContentDir(), targetPath);
         String fileVersion = getImpliedVersion();
-        URL url = concat(getManifest().getObjectsUrl(), getLocation());
+        boolean encoded = isEncoded();
+        URL url = concat(getManifest().getObjectsUrl(), encoded ? getDownloadLocation() : getLocation());
 
-        if (shouldUpdate(cache, targetFile)) {
-            long size = this.size;
+        UpdateTransaction transaction = extras.getTransaction();
+
+        if (shouldUpdate(cache, targetFile, transaction)) {
+            long size = encoded ? this.compressedSize : this.size;
             if (size <= 0) {
                 size = 10 * 1024;
             }
 
-            File tempFile = installer.getDownloader().download(url, fileVersion, size, to);
-            installer.queue(new InstallLogFileMover(log, tempFile, targetFile));
+            // Only the uncompressed file can be fetched by hash
+            File tempFile = installer.getDownloader().download(
+                    Collections.singletonList(url), fileVersion, encoded ? null : hash, size, to);
+            if (encoded) {
+                installer.queue(new InstallLogFileDecoder(log, tempFile, targetFile, hash, transaction, fileVersion));
+            } else {
+                installer.queue(new InstallLogFileMover(log, tempFile, targetFile, transaction, fileVersion));
+            }
         } else {
             log.add(to, to);
         }
     }
 
-    private boolean shouldUpdate(UpdateCache cache, File targetFile) throws IOException {
+    private boolean shouldUpdate(UpdateCache cache, File targetFile, UpdateTransaction transaction) throws IOException {
         if (targetFile.exists() && isUserFile()) {
             return false;
         }
@@ -79,6 +120,12 @@ public class FileInstall extends ManifestEntry {
             return true;
         }
 
+        // Installed by the interrupted update that is being resumed
+        if (transaction != null && transaction.isInstalled(targetFile, getImpliedVersion())) {
+            cache.mark(FilenameUtils.normalize(getTargetPath()), getImpliedVersion());
+            return false;
+        }
+
         if (hash != null) {
             String existingHash = Files.hash(targetFile, hf).toString();
             if (existingHash.equalsIgnoreCase(hash)) {
@@ -32,6 +32,10 @@ import java.util.Map;
 public class Manifest extends BaseManifest {
 
     public static final int MIN_PROTOCOL_VERSION = 3;
+    /**
+     * The protocol version required by manifests with compressed objects.
+     */
+    public static final int COMPRESSED_OBJECTS_PROTOCOL_VERSION = 4;
 
     private int minimumVersion;
     private URL baseUrl;
@@ -0,0 +1,49 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.peer;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * Another launcher on the local network that serves the objects it holds.
+ */
+public class Peer {
+
+    @Getter private final String nodeId;
+    @Getter private final InetAddress address;
+    @Getter private final int port;
+    @Getter @Setter private volatile long lastSeen;
+
+    public Peer(@NonNull String nodeId, @NonNull InetAddress address, int port) {
+        this.nodeId = nodeId;
+        this.address = address;
+        this.port = port;
+    }
+
+    /**
+     * Get the URL that the object with the given hash is served at.
+     *
+     * @param sha1 the SHA-1 hash of the object
+     * @return the URL
+     * @throws MalformedURLException thrown if the address of the peer is invalid
+     */
+    public URL getObjectUrl(String sha1) throws MalformedURLException {
+        return new URL("http", address.getHostAddress(), port, PeerServer.OBJECTS_PATH + sha1);
+    }
+
+    @Override
+    public String toString() {
+        return address.getHostAddress() + ":" + port;
+    }
+
+}
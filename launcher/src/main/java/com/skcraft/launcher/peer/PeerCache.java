@@ -0,0 +1,229 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.peer;
+
+import com.google.common.base.Splitter;
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.Closer;
+import com.skcraft.launcher.Configuration;
+import com.skcraft.launcher.Launcher;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Proxy;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.logging.Level;
+
+import static com.skcraft.launcher.LauncherUtils.checkInterrupted;
+
+/**
+ * Shares downloaded objects with other launchers on the local network, so
+ * that a room full of computers downloads a modpack from the internet
+ * only once.
+ *
+ * <p>Each launcher serves the objects it holds with a {@link PeerServer}
+ * and announces itself with {@link PeerDiscovery}. Before a file with a
+ * known SHA-1 hash is downloaded from its origin, a few peers are asked
+ * for it, and whatever a peer sends is checked against the hash.</p>
+ *
+ * <p>Several launchers on one host find each other through multicast
+ * loopback as long as each serves on its own port. Where multicast isn't
+ * available, peers can be listed in the configuration instead, such as
+ * {@code 127.0.0.1:45781, 127.0.0.1:45782}.</p>
+ */
+@Log
+public class PeerCache {
+
+    private static final int MAX_PEERS_TRIED = 3;
+    private static final int CONNECT_TIMEOUT = 1000;
+    private static final int READ_TIMEOUT = 15000;
+    private static final int BUFFER_SIZE = 1024 * 32;
+
+    @Getter private final String nodeId = UUID.randomUUID().toString();
+    @Getter private final PeerObjectIndex index;
+    private final PeerServer server;
+    private final PeerDiscovery discovery;
+    private final List<Peer> configuredPeers = new ArrayList<Peer>();
+    private final int port;
+
+    /**
+     * Create a new peer cache from the launcher's configuration.
+     *
+     * @param launcher the launcher
+     * @throws IOException thrown if the multicast group is invalid
+     */
+    public PeerCache(@NonNull Launcher launcher) throws IOException {
+        Configuration config = launcher.getConfig();
+
+        this.index = new PeerObjectIndex(launcher);
+        this.server = new PeerServer(index);
+        this.discovery = new PeerDiscovery(nodeId,
+                InetAddress.getByName(launcher.getProperties().getProperty("peerCacheGroup")),
+                Integer.parseInt(launcher.getProperties().getProperty("peerCacheDiscoveryPort")));
+        this.port = config.getPeerCachePort();
+
+        if (config.getPeerCacheHosts() != null) {
+            for (String host : Splitter.on(',').trimResults().omitEmptyStrings().split(config.getPeerCacheHosts())) {
+                int colon = host.lastIndexOf(':');
+                try {
+                    configuredPeers.add(new Peer(host, InetAddress.getByName(host.substring(0, colon)),
+                            Integer.parseInt(host.substring(colon + 1))));
+                } catch (IOException | RuntimeException e) {
+                    log.log(Level.WARNING, "Ignoring the invalid peer " + host, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Start serving objects and looking for peers. Peers that are configured
+     * are still used if discovery fails.
+     *
+     * @throws IOException thrown if objects can't be served
+     */
+    public void start() throws IOException {
+        server.start(port);
+
+        try {
+            discovery.start(server.getPort());
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to look for peers on the local network", e);
+        }
+    }
+
+    /**
+     * Stop serving objects and looking for peers.
+     */
+    public void stop() {
+        discovery.stop();
+        server.stop();
+    }
+
+    /**
+     * Get the peers that objects can be fetched from.
+     *
+     * @return a list of peers
+     */
+    public List<Peer> getPeers() {
+        List<Peer> peers = new ArrayList<Peer>(configuredPeers);
+        peers.addAll(discovery.getPeers());
+        return peers;
+    }
+
+    /**
+     * Remember that this launcher holds an object, so that it can be
+     * shared.
+     *
+     * @param sha1 the SHA-1 hash of the object
+     * @param file the file
+     */
+    public void offer(@NonNull String sha1, @NonNull File file) {
+        index.add(sha1, file);
+    }
+
+    /**
+     * Try to fetch an object from a few peers.
+     *
+     * @param sha1 the SHA-1 hash of the object
+     * @param size the size of the object, which a peer may not send more than
+     * @param file the file to save the object to
+     * @return true if a peer had the object and it matched the hash
+     * @throws InterruptedException thrown on interruption
+     */
+    public boolean fetch(@NonNull String sha1, long size, @NonNull File file) throws InterruptedException {
+        if (size <= 0) {
+            return false;
+        }
+
+        String expected = sha1.toLowerCase(Locale.ROOT);
+        List<Peer> peers = getPeers();
+        Collections.shuffle(peers);
+
+        for (Peer peer : peers.subList(0, Math.min(MAX_PEERS_TRIED, peers.size()))) {
+            checkInterrupted();
+
+            try {
+                if (fetchFrom(peer, expected, size, file)) {
+                    log.info("Fetched " + expected + " from the peer at " + peer);
+                    return true;
+                }
+            } catch (IOException e) {
+                log.log(Level.FINE, "Failed to fetch " + expected + " from the peer at " + peer, e);
+                discovery.forget(peer);
+                file.delete();
+            }
+        }
+
+        return false;
+    }
+
+    private boolean fetchFrom(Peer peer, String sha1, long size, File file) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) peer.getObjectUrl(sha1).openConnection(Proxy.NO_PROXY);
+        conn.setConnectTimeout(CONNECT_TIMEOUT);
+        conn.setReadTimeout(READ_TIMEOUT);
+        conn.setUseCaches(false);
+
+        try {
+            int code = conn.getResponseCode();
+            if (code == HttpURLConnection.HTTP_NOT_FOUND) {
+                return false;
+            } else if (code != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Got response code " + code);
+            } else if (conn.getContentLength() > size) {
+                throw new IOException("Got " + conn.getContentLength() + " bytes, but expected " + size);
+            }
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            Closer closer = Closer.create();
+            try {
+                DigestInputStream in = closer.register(new DigestInputStream(conn.getInputStream(), digest));
+                FileOutputStream out = closer.register(new FileOutputStream(file));
+
+                // A peer could otherwise fill the disk by never ending the body
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long total = 0;
+                int len;
+                while ((len = in.read(buffer)) != -1) {
+                    total += len;
+                    if (total > size) {
+                        throw new IOException("Got more than the expected " + size + " bytes");
+                    }
+                    out.write(buffer, 0, len);
+                }
+            } finally {
+                closer.close();
+            }
+
+            String actual = BaseEncoding.base16().lowerCase().encode(digest.digest());
+            if (!actual.equals(sha1)) {
+                log.warning("The peer at " + peer + " sent " + actual + " instead of " + sha1);
+                file.delete();
+                return false;
+            }
+
+            return true;
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.peer;
+
+import com.google.common.base.Charsets;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Finds other launchers on the local network by sending and listening
+ * for announcements on a multicast group.
+ *
+ * <p>An announcement is a single line of text:
+ * {@code SKPEER <protocol> <node ID> <port>}. The address of the peer is
+ * taken from the packet, and the peer is forgotten when it hasn't been
+ * heard from for a while. Announcements are looped back, so launchers on
+ * the same host find each other too.</p>
+ */
+@Log
+public class PeerDiscovery {
+
+    private static final String MAGIC = "SKPEER";
+    private static final int PROTOCOL = 1;
+    private static final long ANNOUNCE_INTERVAL = 5000;
+    private static final long PEER_TIMEOUT = 20000;
+    private static final int MAX_PACKET_SIZE = 512;
+
+    private final String nodeId;
+    private final InetAddress group;
+    private final int port;
+    private final ConcurrentMap<String, Peer> peers = new ConcurrentHashMap<String, Peer>();
+    private MulticastSocket socket;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Create a new discovery.
+     *
+     * @param nodeId the ID of this launcher, which is ignored in announcements
+     * @param group the multicast group
+     * @param port the UDP port of the group
+     */
+    public PeerDiscovery(@NonNull String nodeId, @NonNull InetAddress group, int port) {
+        this.nodeId = nodeId;
+        this.group = group;
+        this.port = port;
+    }
+
+    /**
+     * Join the group and start announcing.
+     *
+     * @param servicePort the port that objects are served on
+     * @throws IOException thrown if the group can't be joined
+     */
+    public synchronized void start(int servicePort) throws IOException {
+        if (socket != null) {
+            throw new IllegalStateException("Already started");
+        }
+
+        MulticastSocket socket = new MulticastSocket(port);
+        try {
+            socket.setTimeToLive(1);
+            socket.setLoopbackMode(false); // false enables loopback
+            socket.joinGroup(group);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        this.socket = socket;
+
+        final byte[] announcement = (MAGIC + " " + PROTOCOL + " " + nodeId + " " + servicePort).getBytes(Charsets.UTF_8);
+
+        scheduler = Executors.newScheduledThreadPool(2, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Peer discovery");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                announce(announcement);
+            }
+        }, 0, ANNOUNCE_INTERVAL, TimeUnit.MILLISECONDS);
+
+        scheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                receive();
+            }
+        });
+    }
+
+    /**
+     * Leave the group.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+
+        if (socket != null) {
+            socket.close();
+            socket = null;
+        }
+    }
+
+    /**
+     * Get the peers that have been heard from recently.
+     *
+     * @return a list of peers
+     */
+    public List<Peer> getPeers() {
+        long now = System.currentTimeMillis();
+        List<Peer> found = new ArrayList<Peer>();
+
+        for (Iterator<Peer> it = peers.values().iterator(); it.hasNext(); ) {
+            Peer peer = it.next();
+            if (now - peer.getLastSeen() > PEER_TIMEOUT) {
+                it.remove();
+            } else {
+                found.add(peer);
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Forget a peer that could not be reached, until it announces itself
+     * again.
+     *
+     * @param peer the peer
+     */
+    public void forget(Peer peer) {
+        peers.remove(peer.getNodeId(), peer);
+    }
+
+    private void announce(byte[] announcement) {
+        MulticastSocket socket = this.socket;
+        if (socket == null) return;
+
+        try {
+            socket.send(new DatagramPacket(announcement, announcement.length, group, port));
+        } catch (IOException e) {
+            log.log(Level.FINE, "Failed to announce to " + group, e);
+        }
+    }
+
+    private void receive() {
+        byte[] buffer = new byte[MAX_PACKET_SIZE];
+
+        while (!Thread.currentThread().isInterrupted()) {
+            MulticastSocket socket = this.socket;
+            if (socket == null) return;
+
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+            } catch (SocketException e) {
+                return; // Closed
+            } catch (IOException e) {
+                log.log(Level.FINE, "Failed to receive an announcement", e);
+                continue;
+            }
+
+            String[] parts = new String(packet.getData(), packet.getOffset(), packet.getLength(), Charsets.UTF_8).trim().split(" ");
+            if (parts.length < 4 || !parts[0].equals(MAGIC) || !parts[1].equals(String.valueOf(PROTOCOL))) {
+                continue;
+            }
+
+            String id = parts[2];
+            if (id.equals(nodeId)) {
+                continue;
+            }
+
+            int servicePort;
+            try {
+                servicePort = Integer.parseInt(parts[3]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+
+            Peer peer = peers.get(id);
+            if (peer == null || peer.getPort() != servicePort || !peer.getAddress().equals(packet.getAddress())) {
+                peer = new Peer(id, packet.getAddress(), servicePort);
+                peers.put(id, peer);
+                log.info("Found a peer at " + peer);
+            }
+            peer.setLastSeen(System.currentTimeMillis());
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.peer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skcraft.launcher.Instance;
+import com.skcraft.launcher.InstanceList;
+import com.skcraft.launcher.Launcher;
+import com.skcraft.launcher.model.loader.LoaderManifest;
+import com.skcraft.launcher.model.minecraft.Library;
+import com.skcraft.launcher.model.minecraft.VersionManifest;
+import com.skcraft.launcher.model.modpack.FileInstall;
+import com.skcraft.launcher.model.modpack.Manifest;
+import com.skcraft.launcher.model.modpack.ManifestEntry;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+
+/**
+ * Finds the file that holds the object with a given SHA-1 hash.
+ *
+ * <p>Assets are stored by hash already. Libraries, game JARs and the files
+ * of modpacks are found through the manifests of the installed instances,
+ * which are read again when they are older than a minute. Files that were
+ * just downloaded are added as they arrive so that they can be shared while
+ * other launchers are still updating.</p>
+ *
+ * <p>Files are not hashed before they are served, so a file changed by the
+ * user may be offered. Peers verify everything they fetch.</p>
+ */
+@Log
+public class PeerObjectIndex {
+
+    private static final long MAX_AGE = 60000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Launcher launcher;
+    private final ConcurrentMap<String, File> downloaded = new ConcurrentHashMap<String, File>();
+    private volatile Map<String, File> installed = Collections.emptyMap();
+    private volatile long builtAt;
+
+    public PeerObjectIndex(@NonNull Launcher launcher) {
+        this.launcher = launcher;
+    }
+
+    /**
+     * Add a file that was just downloaded.
+     *
+     * @param sha1 the SHA-1 hash of the file
+     * @param file the file
+     */
+    public void add(String sha1, File file) {
+        downloaded.put(sha1.toLowerCase(Locale.ROOT), file);
+    }
+
+    /**
+     * Find the file that holds an object.
+     *
+     * @param sha1 the SHA-1 hash, in lowercase
+     * @return the file, or null if the object isn't held
+     */
+    public File find(String sha1) {
+        File asset = new File(launcher.getAssets().getDir(), "objects/" + sha1.substring(0, 2) + "/" + sha1);
+        if (asset.isFile()) {
+            return asset;
+        }
+
+        File file = downloaded.get(sha1);
+        if (file != null) {
+            if (file.isFile()) {
+                return file;
+            }
+            // Moved into place since, so it may be found below
+            downloaded.remove(sha1, file);
+        }
+
+        if (System.currentTimeMillis() - builtAt > MAX_AGE) {
+            rebuild();
+        }
+
+        file = installed.get(sha1);
+        return file != null && file.isFile() ? file : null;
+    }
+
+    /**
+     * Read the manifests of the installed instances again.
+     */
+    public synchronized void rebuild() {
+        List<Instance> instances = new ArrayList<Instance>();
+        InstanceList list = launcher.getInstances();
+        synchronized (list) {
+            for (Instance instance : list.getInstances()) {
+                if (instance.isInstalled()) {
+                    instances.add(instance);
+                }
+            }
+        }
+
+        Map<String, File> index = new HashMap<String, File>();
+
+        for (Instance instance : instances) {
+            try {
+                File versionPath = instance.getVersionPath();
+                if (versionPath.exists()) {
+                    VersionManifest version = mapper.readValue(versionPath, VersionManifest.class);
+                    addLibraries(index, version.getLibraries());
+
+                    VersionManifest.Artifact client = version.getDownloads().get("client");
+                    if (client != null && client.getHash() != null) {
+                        put(index, client.getHash(), launcher.getJarPath(version));
+                    }
+                }
+
+                File manifestPath = instance.getManifestPath();
+                if (manifestPath.exists()) {
+                    Manifest manifest = mapper.readValue(manifestPath, Manifest.class);
+                    for (LoaderManifest loader : manifest.getLoaders().values()) {
+                        addLibraries(index, loader.getLibraries());
+                    }
+
+                    for (ManifestEntry entry : manifest.getTasks()) {
+                        if (entry instanceof FileInstall) {
+                            FileInstall file = (FileInstall) entry;
+                            if (file.getHash() != null && !file.isUserFile()) {
+                                put(index, file.getHash(), new File(instance.getContentDir(), file.getTargetPath()));
+                            }
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed to read the manifests of " + instance.getName() + " for sharing", e);
+            }
+        }
+
+        installed = index;
+        builtAt = System.currentTimeMillis();
+    }
+
+    private void addLibraries(Map<String, File> index, Iterable<Library> libraries) {
+        if (libraries == null) return;
+
+        for (Library library : libraries) {
+            if (library.getDownloads() == null) continue;
+
+            for (Library.Artifact artifact : library.getDownloads().getAllArtifacts()) {
+                if (artifact.getSha1() != null && artifact.getPath() != null) {
+                    put(index, artifact.getSha1(), new File(launcher.getLibrariesDir(), artifact.getPath()));
+                }
+            }
+        }
+    }
+
+    private static void put(Map<String, File> index, String sha1, File file) {
+        index.put(sha1.toLowerCase(Locale.ROOT), file);
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.peer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+
+/**
+ * Serves the objects that this launcher holds to other launchers over HTTP.
+ * Objects are requested by SHA-1 hash at {@code /objects/<hash>}, and only
+ * files known to the {@link PeerObjectIndex} can be served.
+ */
+@Log
+public class PeerServer {
+
+    public static final String OBJECTS_PATH = "/objects/";
+
+    private static final Pattern SHA1_PATTERN = Pattern.compile("^[0-9a-f]{40}$");
+    private static final int THREAD_COUNT = 4;
+
+    private final PeerObjectIndex index;
+    private final AtomicLong servedCount = new AtomicLong();
+    private final AtomicLong servedBytes = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PeerServer(@NonNull PeerObjectIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Start serving.
+     *
+     * @param port the TCP port, or 0 to pick any free port
+     * @throws IOException thrown if the port can't be bound
+     */
+    public synchronized void start(int port) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Already started");
+        }
+
+        executor = Executors.newFixedThreadPool(THREAD_COUNT, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Peer server");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext(OBJECTS_PATH, new ObjectHandler());
+        server.setExecutor(executor);
+        server.start();
+
+        log.info("Serving objects to peers on port " + getPort());
+    }
+
+    /**
+     * Stop serving.
+     */
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+
+        log.info("Served " + servedCount.get() + " object(s) (" + servedBytes.get() / 1024 + " KB) to peers");
+    }
+
+    /**
+     * Get the port that is being served on.
+     *
+     * @return the port, or -1 if not started
+     */
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    private class ObjectHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                String method = exchange.getRequestMethod();
+                if (!method.equals("GET") && !method.equals("HEAD")) {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+
+                String hash = exchange.getRequestURI().getPath().substring(OBJECTS_PATH.length()).toLowerCase(Locale.ROOT);
+                File file = SHA1_PATTERN.matcher(hash).matches() ? index.find(hash) : null;
+                if (file == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+
+                long length = file.length();
+                exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+
+                if (method.equals("HEAD")) {
+                    exchange.getResponseHeaders().set("Content-Length", String.valueOf(length));
+                    exchange.sendResponseHeaders(200, -1);
+                    return;
+                }
+
+                exchange.sendResponseHeaders(200, length);
+                OutputStream out = exchange.getResponseBody();
+                try {
+                    Files.copy(file.toPath(), out);
+                } finally {
+                    out.close();
+                }
+
+                servedCount.incrementAndGet();
+                servedBytes.addAndGet(length);
+            } catch (IOException e) {
+                log.log(Level.FINE, "Failed to serve " + exchange.getRequestURI() + " to " + exchange.getRemoteAddress(), e);
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,221 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.selfupdate;
+
+import com.google.common.base.Charsets;
+import lombok.NonNull;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static com.skcraft.launcher.LauncherUtils.checkInterrupted;
+
+/**
+ * Creates and applies binary deltas, which describe a file as runs of bytes
+ * copied from an older version of the file and new bytes in between.
+ *
+ * <p>Blocks of the old file are found in the new file with a rolling hash,
+ * much like rsync does. The entries of a jar that didn't change between
+ * two builds are usually compressed to the same bytes, so a delta between
+ * two launcher jars holds little more than the entries that changed.</p>
+ *
+ * <p>A delta starts with {@code SKDELTA1}, and the rest is deflated: the
+ * length of the new file as a long, then any number of copy operations
+ * (the byte 1, the offset in the old file as a long and the length as an
+ * int) and insert operations (the byte 2, the length as an int and the
+ * bytes), ending with the byte 0.</p>
+ */
+public final class BinaryDelta {
+
+    private static final byte[] MAGIC = "SKDELTA1".getBytes(Charsets.US_ASCII);
+    private static final int END = 0;
+    private static final int COPY = 1;
+    private static final int INSERT = 2;
+    private static final int BLOCK_SIZE = 32;
+    private static final int PRIME = 0x01000193;
+    private static final int BUFFER_SIZE = 1024 * 32;
+
+    private BinaryDelta() {
+    }
+
+    /**
+     * Create a delta that turns one file into another.
+     *
+     * @param source the old file
+     * @param target the new file
+     * @param out the stream to write the delta to
+     * @throws IOException thrown on I/O error
+     */
+    public static void diff(@NonNull byte[] source, @NonNull byte[] target, @NonNull OutputStream out)
+            throws IOException {
+        out.write(MAGIC);
+        DeflaterOutputStream deflater = new DeflaterOutputStream(out);
+        DataOutputStream dos = new DataOutputStream(deflater);
+        dos.writeLong(target.length);
+
+        // Index the blocks of the old file, keeping the first of any duplicates
+        Map<Integer, Integer> index = new HashMap<Integer, Integer>();
+        for (int offset = 0; offset + BLOCK_SIZE <= source.length; offset += BLOCK_SIZE) {
+            int hash = hash(source, offset);
+            if (!index.containsKey(hash)) {
+                index.put(hash, offset);
+            }
+        }
+
+        int power = 1;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            power *= PRIME;
+        }
+
+        int literalStart = 0;
+        int i = 0;
+        int hash = target.length >= BLOCK_SIZE ? hash(target, 0) : 0;
+
+        while (i + BLOCK_SIZE <= target.length) {
+            Integer candidate = index.get(hash);
+            if (candidate != null && regionMatches(source, candidate, target, i, BLOCK_SIZE)) {
+                int start = i;
+                int sourceStart = candidate;
+                while (start > literalStart && sourceStart > 0 && source[sourceStart - 1] == target[start - 1]) {
+                    start--;
+                    sourceStart--;
+                }
+
+                int end = i + BLOCK_SIZE;
+                int sourceEnd = candidate + BLOCK_SIZE;
+                while (end < target.length && sourceEnd < source.length && source[sourceEnd] == target[end]) {
+                    end++;
+                    sourceEnd++;
+                }
+
+                writeInsert(dos, target, literalStart, start - literalStart);
+                dos.writeByte(COPY);
+                dos.writeLong(sourceStart);
+                dos.writeInt(end - start);
+
+                i = end;
+                literalStart = end;
+                if (i + BLOCK_SIZE <= target.length) {
+                    hash = hash(target, i);
+                }
+            } else {
+                if (i + BLOCK_SIZE < target.length) {
+                    hash = (hash - (target[i] & 0xff) * power) * PRIME + (target[i + BLOCK_SIZE] & 0xff);
+                }
+                i++;
+            }
+        }
+
+        writeInsert(dos, target, literalStart, target.length - literalStart);
+        dos.writeByte(END);
+        dos.flush();
+        deflater.finish();
+    }
+
+    /**
+     * Apply a delta to an old file.
+     *
+     * @param source the old file
+     * @param delta the delta
+     * @param target the file to write the new file to
+     * @throws IOException thrown on I/O error, or if the delta is corrupt
+     * @throws InterruptedException thrown on interruption
+     */
+    public static void patch(@NonNull File source, @NonNull InputStream delta, @NonNull File target)
+            throws IOException, InterruptedException {
+        byte[] magic = new byte[MAGIC.length];
+        new DataInputStream(delta).readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a binary delta");
+        }
+
+        DataInputStream dis = new DataInputStream(new InflaterInputStream(delta));
+        RandomAccessFile raf = new RandomAccessFile(source, "r");
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(target), BUFFER_SIZE);
+
+        try {
+            long expectedLength = dis.readLong();
+            long sourceLength = raf.length();
+            long written = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+
+            while (true) {
+                int op = dis.readUnsignedByte();
+                if (op == END) {
+                    break;
+                } else if (op == COPY) {
+                    long offset = dis.readLong();
+                    int length = dis.readInt();
+                    if (offset < 0 || length < 0 || offset + length > sourceLength) {
+                        throw new IOException("The delta copies from outside of " + source.getName());
+                    }
+                    raf.seek(offset);
+                    for (int left = length; left > 0; ) {
+                        int len = Math.min(left, buffer.length);
+                        raf.readFully(buffer, 0, len);
+                        out.write(buffer, 0, len);
+                        left -= len;
+                    }
+                    written += length;
+                } else if (op == INSERT) {
+                    int length = dis.readInt();
+                    if (length < 0) {
+                        throw new IOException("The delta is corrupt");
+                    }
+                    for (int left = length; left > 0; ) {
+                        int len = Math.min(left, buffer.length);
+                        dis.readFully(buffer, 0, len);
+                        out.write(buffer, 0, len);
+                        left -= len;
+                    }
+                    written += length;
+                } else {
+                    throw new IOException("The delta is corrupt (unknown operation " + op + ")");
+                }
+
+                checkInterrupted();
+            }
+
+            if (written != expectedLength) {
+                throw new IOException("The delta produced " + written + " bytes, but " + expectedLength + " were expected");
+            }
+        } finally {
+            raf.close();
+            out.close();
+        }
+    }
+
+    private static void writeInsert(DataOutputStream dos, byte[] data, int offset, int length) throws IOException {
+        if (length > 0) {
+            dos.writeByte(INSERT);
+            dos.writeInt(length);
+            dos.write(data, offset, length);
+        }
+    }
+
+    private static int hash(byte[] data, int offset) {
+        int hash = 0;
+        for (int i = offset; i < offset + BLOCK_SIZE; i++) {
+            hash = hash * PRIME + (data[i] & 0xff);
+        }
+        return hash;
+    }
+
+    private static boolean regionMatches(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[aOffset + i] != b[bOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
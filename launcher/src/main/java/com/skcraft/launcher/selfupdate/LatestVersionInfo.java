@@ -10,6 +10,8 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Data;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -18,5 +20,11 @@ public class LatestVersionInfo {
     private String version;
     private URL url;
     private boolean packed;
+    /**
+     * The SHA-1 hash of the latest jar, which patched jars are checked
+     * against. Patches are not used if it's missing.
+     */
+    private String sha1;
+    private List<LauncherPatch> patches = new ArrayList<LauncherPatch>();
 
 }
@@ -0,0 +1,30 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.selfupdate;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.net.URL;
+
+/**
+ * A binary delta that turns an older launcher jar into the latest one.
+ *
+ * @see BinaryDelta
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LauncherPatch {
+
+    /**
+     * The SHA-1 hash of the jar that the patch applies to.
+     */
+    private String from;
+    private URL url;
+    private long size;
+
+}
@@ -6,6 +6,10 @@
 
 package com.skcraft.launcher.selfupdate;
 
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Closer;
+import com.google.common.io.Files;
 import com.skcraft.concurrency.DefaultProgress;
 import com.skcraft.concurrency.ProgressObservable;
 import com.skcraft.launcher.Launcher;
@@ -13,24 +17,50 @@ import com.skcraft.launcher.install.FileMover;
 import com.skcraft.launcher.install.Installer;
 import com.skcraft.launcher.util.SharedLocale;
 import lombok.NonNull;
+import lombok.extern.java.Log;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.logging.Level;
 
+/**
+ * Downloads the latest version of the launcher into the directory of
+ * launcher binaries, where the bootstrap picks it up.
+ *
+ * <p>If the update advertises a patch from a jar that is already in the
+ * directory, only the patch is downloaded and the new jar is built from
+ * the old one. The full jar is downloaded if no patch applies or if the
+ * patched jar doesn't match the advertised hash.</p>
+ */
+@Log
 public class SelfUpdater implements Callable<File>, ProgressObservable {
 
+    /**
+     * The number of the newest binaries that are hashed to find a patch.
+     */
+    private static final int MAX_PATCH_BASES = 3;
+
     private final Launcher launcher;
-    private final URL url;
+    private final LatestVersionInfo info;
     private final Installer installer;
     private ProgressObservable progress = new DefaultProgress(0, SharedLocale.tr("updater.updating"));
 
     public SelfUpdater(@NonNull Launcher launcher, @NonNull URL url) {
+        this(launcher, createInfo(url));
+    }
+
+    public SelfUpdater(@NonNull Launcher launcher, @NonNull LatestVersionInfo info) {
         this.launcher = launcher;
-        this.url = url;
-        this.installer = new Installer(launcher.getInstallerDir());
+        this.info = info;
+        this.installer = launcher.createInstaller();
     }
 
     @Override
@@ -40,11 +70,22 @@ public class SelfUpdater implements Callable<File>, ProgressObservable {
         try {
             File dir = launcher.getLauncherBinariesDir();
             File file = new File(dir, System.currentTimeMillis() + ".jar");
-            File tempFile = installer.getDownloader().download(url, "", 10000, "launcher.jar");
+
+            if (tryPatch(dir, file)) {
+                return file;
+            }
+
+            File tempFile = installer.getDownloader().download(info.getUrl(), "", 10000, "launcher.jar");
 
             progress = installer.getDownloader();
             installer.download();
 
+            String sha1 = info.getSha1();
+            if (!Strings.isNullOrEmpty(sha1) && !sha1.equalsIgnoreCase(hash(tempFile))) {
+                tempFile.delete();
+                throw new IOException("The downloaded launcher doesn't match the SHA-1 hash " + sha1);
+            }
+
             installer.queue(new FileMover(tempFile, file));
 
             progress = installer;
@@ -56,6 +97,116 @@ public class SelfUpdater implements Callable<File>, ProgressObservable {
         }
     }
 
+    /**
+     * Build the new jar from a patch against one of the existing binaries,
+     * if the update has a patch for one of them.
+     *
+     * @param dir the directory of launcher binaries
+     * @param file the file to write the new jar to
+     * @return true if the new jar was built
+     * @throws InterruptedException thrown on interruption
+     */
+    private boolean tryPatch(File dir, File file) throws InterruptedException {
+        String sha1 = info.getSha1();
+        List<LauncherPatch> patches = info.getPatches();
+        if (Strings.isNullOrEmpty(sha1) || patches == null || patches.isEmpty()) {
+            return false;
+        }
+
+        Map<String, LauncherPatch> patchesByBase = new HashMap<String, LauncherPatch>();
+        for (LauncherPatch patch : patches) {
+            if (patch.getFrom() != null && patch.getUrl() != null) {
+                patchesByBase.put(patch.getFrom().toLowerCase(), patch);
+            }
+        }
+
+        File[] binaries = dir.listFiles();
+        if (binaries == null) {
+            return false;
+        }
+
+        List<File> candidates = new ArrayList<File>();
+        for (File binary : binaries) {
+            if (binary.isFile() && binary.getName().endsWith(".jar")) {
+                candidates.add(binary);
+            }
+        }
+
+        Collections.sort(candidates, new Comparator<File>() {
+            @Override
+            public int compare(File o1, File o2) {
+                return Long.compare(o2.lastModified(), o1.lastModified());
+            }
+        });
+
+        for (File base : candidates.subList(0, Math.min(MAX_PATCH_BASES, candidates.size()))) {
+            LauncherPatch patch;
+            try {
+                patch = patchesByBase.get(hash(base));
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed to hash " + base.getAbsolutePath(), e);
+                continue;
+            }
+
+            if (patch != null) {
+                return applyPatch(base, patch, file);
+            }
+        }
+
+        return false;
+    }
+
+    private boolean applyPatch(File base, LauncherPatch patch, File file) throws InterruptedException {
+        log.info("Updating the launcher with a patch against " + base.getAbsolutePath() + " from " + patch.getUrl());
+
+        Installer patchInstaller = launcher.createInstaller();
+        File patchFile = patchInstaller.getDownloader().download(
+                patch.getUrl(), "", patch.getSize() > 0 ? patch.getSize() : 10000, "launcher.patch");
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+
+        try {
+            progress = patchInstaller.getDownloader();
+            patchInstaller.download();
+
+            progress = new DefaultProgress(-1, SharedLocale.tr("updater.updating"));
+            Closer closer = Closer.create();
+            try {
+                InputStream is = closer.register(new BufferedInputStream(new FileInputStream(patchFile)));
+                BinaryDelta.patch(base, is, tempFile);
+            } finally {
+                closer.close();
+            }
+
+            String actual = hash(tempFile);
+            if (!actual.equalsIgnoreCase(info.getSha1())) {
+                throw new IOException("The patched launcher has the SHA-1 hash " + actual + ", but " +
+                        info.getSha1() + " was expected");
+            }
+
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Failed to rename " + tempFile + " to " + file);
+            }
+
+            return true;
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to update the launcher with a patch, so downloading it in full", e);
+            tempFile.delete();
+            return false;
+        } finally {
+            patchFile.delete();
+        }
+    }
+
+    private static String hash(File file) throws IOException {
+        return Files.hash(file, Hashing.sha1()).toString();
+    }
+
+    private static LatestVersionInfo createInfo(URL url) {
+        LatestVersionInfo info = new LatestVersionInfo();
+        info.setUrl(url);
+        return info;
+    }
+
     @Override
     public double getProgress() {
         return progress.getProgress();
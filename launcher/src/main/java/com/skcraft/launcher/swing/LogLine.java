@@ -0,0 +1,52 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.swing;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import javax.swing.text.AttributeSet;
+
+/**
+ * A single line (or the start of a line) shown in a {@link MessageLog}.
+ */
+public class LogLine {
+
+    @Getter private final String text;
+    @Getter private final AttributeSet attributes;
+    @Getter private final boolean complete;
+
+    /**
+     * Create a new line.
+     *
+     * @param text the text, without a line terminator
+     * @param attributes the attributes, or null for the default
+     * @param complete false if more text may still be appended to this line
+     */
+    public LogLine(@NonNull String text, AttributeSet attributes, boolean complete) {
+        this.text = text;
+        this.attributes = attributes;
+        this.complete = complete;
+    }
+
+    /**
+     * Create a new line that continues this one with the text of the given
+     * line, keeping the attributes of this line.
+     *
+     * @param next the following part of the line
+     * @return a new line
+     */
+    public LogLine append(LogLine next) {
+        return new LogLine(text + next.getText(), attributes, next.isComplete());
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.swing;
+
+import javax.swing.*;
+import java.util.List;
+
+/**
+ * A list model that keeps the last <em>n</em> lines of a log in a ring
+ * buffer, so that appending to a full log is constant-time and does not
+ * require shifting the remaining lines.
+ *
+ * <p>Like other Swing models, this model should only be accessed from
+ * the event dispatch thread.</p>
+ */
+public class LogListModel extends AbstractListModel<LogLine> {
+
+    private final LogLine[] lines;
+    private int head;
+    private int size;
+
+    /**
+     * Create a new model.
+     *
+     * @param capacity the maximum number of lines to keep
+     */
+    public LogListModel(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+
+        this.lines = new LogLine[capacity];
+    }
+
+    public int getCapacity() {
+        return lines.length;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public LogLine getElementAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds (size: " + size + ")");
+        }
+        return lines[(head + index) % lines.length];
+    }
+
+    /**
+     * Append a batch of lines, discarding the oldest lines if the model is
+     * over capacity. Listeners are notified once for the whole batch.
+     *
+     * <p>If the last line in the model is not complete, the first line of
+     * the batch is joined to it.</p>
+     *
+     * @param batch the lines
+     */
+    public void addAll(List<LogLine> batch) {
+        int start = 0;
+
+        if (size > 0 && !batch.isEmpty()) {
+            int last = size - 1;
+            LogLine lastLine = getElementAt(last);
+            if (!lastLine.isComplete()) {
+                lines[(head + last) % lines.length] = lastLine.append(batch.get(0));
+                fireContentsChanged(this, last, last);
+                start = 1;
+            }
+        }
+
+        int count = batch.size() - start;
+        if (count <= 0) {
+            return;
+        }
+
+        // Only the tail of a very large batch would survive anyway
+        if (count > lines.length) {
+            start += count - lines.length;
+            count = lines.length;
+        }
+
+        int evicted = Math.max(0, size + count - lines.length);
+        if (evicted > 0) {
+            for (int i = 0; i < evicted; i++) {
+                lines[(head + i) % lines.length] = null;
+            }
+            head = (head + evicted) % lines.length;
+            size -= evicted;
+            fireIntervalRemoved(this, 0, evicted - 1);
+        }
+
+        int first = size;
+        for (int i = start; i < batch.size(); i++) {
+            lines[(head + size) % lines.length] = batch.get(i);
+            size++;
+        }
+        fireIntervalAdded(this, first, size - 1);
+    }
+
+    /**
+     * Remove all lines.
+     */
+    public void clear() {
+        int oldSize = size;
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = null;
+        }
+        head = 0;
+        size = 0;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+    }
+
+    /**
+     * Get the text of all the lines in the model, separated by new lines.
+     *
+     * @return the text
+     */
+    public String getText() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            builder.append(getElementAt(i).getText());
+            builder.append("\n");
+        }
+        return builder.toString();
+    }
+
+}
@@ -6,36 +6,60 @@
 
 package com.skcraft.launcher.swing;
 
-import com.skcraft.launcher.LauncherUtils;
-import com.skcraft.launcher.util.LimitLinesDocumentListener;
+import com.google.common.base.Charsets;
 import com.skcraft.launcher.util.SimpleLogFormatter;
 
 import javax.swing.*;
-import javax.swing.text.*;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseEvent;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PrintWriter;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
+import static com.skcraft.launcher.util.SharedLocale.tr;
 import static org.apache.commons.io.IOUtils.closeQuietly;
 
 /**
  * A simple message log.
+ *
+ * <p>Lines written to the log from any thread are queued and added to the
+ * view in batches at most every {@link #FLUSH_INTERVAL} milliseconds. Only
+ * the last <em>n</em> lines are kept, and if lines arrive faster than they
+ * can be shown, the oldest queued lines are dropped rather than blocking
+ * the writer (such as the stdout of a game process).</p>
  */
 public class MessageLog extends JPanel {
 
     private static final Logger rootLogger = Logger.getLogger("");
+    private static final int FLUSH_INTERVAL = 50;
     
     private final int numLines;
     private final boolean colorEnabled;
     
-    protected JTextComponent textComponent;
-    protected Document document;
+    protected LogListModel model;
+    protected JList<LogLine> list;
+    protected JScrollPane scrollText;
+    private int widestLine;
+
+    private final ArrayDeque<LogLine> pending = new ArrayDeque<LogLine>();
+    private int droppedCount;
+    private boolean flushScheduled;
+    private final Timer flushTimer;
 
     private Handler loggerHandler;
     protected final SimpleAttributeSet defaultAttributes = new SimpleAttributeSet();
@@ -56,84 +80,200 @@ public class MessageLog extends JPanel {
         this.infoAttributes = new SimpleAttributeSet();
         this.debugAttributes = new SimpleAttributeSet();
 
+        flushTimer = new Timer(FLUSH_INTERVAL, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                flush();
+            }
+        });
+        flushTimer.setRepeats(false);
+
         setLayout(new BorderLayout());
         
         initComponents();
     }
 
     private void initComponents() {
-        if (colorEnabled) {
-            JTextPane text = new JTextPane() {
-                @Override
-                public boolean getScrollableTracksViewportWidth() {
-                    return true;
-                }
-            };
-            this.textComponent = text;
-        } else {
-            JTextArea text = new JTextArea();
-            this.textComponent = text;
-            text.setLineWrap(true);
-            text.setWrapStyleWord(true);
-        }
+        model = new LogListModel(numLines);
+        list = new JList<LogLine>(model);
+        list.setFont(new JLabel().getFont());
+        list.setCellRenderer(new LogLineRenderer());
 
-        textComponent.setFont(new JLabel().getFont());
-        textComponent.setEditable(false);
-        textComponent.setComponentPopupMenu(TextFieldPopupMenu.INSTANCE);
-        DefaultCaret caret = (DefaultCaret) textComponent.getCaret();
-        caret.setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
-        document = textComponent.getDocument();
-        document.addDocumentListener(new LimitLinesDocumentListener(numLines, true));
-        
-        JScrollPane scrollText = new JScrollPane(textComponent);
+        // With a fixed cell size, JList only has to render the visible rows
+        FontMetrics metrics = list.getFontMetrics(list.getFont());
+        list.setFixedCellHeight(metrics.getHeight() + 1);
+        list.setFixedCellWidth(1);
+
+        final JPopupMenu popup = createPopupMenu();
+        list.addMouseListener(new PopupMouseAdapter() {
+            @Override
+            protected void showPopup(MouseEvent e) {
+                popup.show(e.getComponent(), e.getX(), e.getY());
+            }
+        });
+
+        scrollText = new JScrollPane(list);
         scrollText.setBorder(null);
         scrollText.setVerticalScrollBarPolicy(
                 ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS);
         scrollText.setHorizontalScrollBarPolicy(
-                ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
+                ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
         
         add(scrollText, BorderLayout.CENTER);
     }
+
+    private JPopupMenu createPopupMenu() {
+        JPopupMenu popup = new JPopupMenu();
+
+        JMenuItem copyItem = new JMenuItem(tr("context.copy"), 'C');
+        copyItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (list.isSelectionEmpty() && model.getSize() > 0) {
+                    list.setSelectionInterval(0, model.getSize() - 1);
+                }
+                TransferHandler.getCopyAction().actionPerformed(
+                        new ActionEvent(list, ActionEvent.ACTION_PERFORMED, "copy"));
+            }
+        });
+        popup.add(copyItem);
+
+        popup.addSeparator();
+
+        JMenuItem selectAllItem = new JMenuItem(tr("context.selectAll"), 'A');
+        selectAllItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (model.getSize() > 0) {
+                    list.setSelectionInterval(0, model.getSize() - 1);
+                }
+            }
+        });
+        popup.add(selectAllItem);
+
+        return popup;
+    }
     
     public String getPastableText() {
-        String text = textComponent.getText().replaceAll("[\r\n]+", "\n");
+        String text = model.getText();
         text = text.replaceAll("Session ID is [A-Fa-f0-9]+", "Session ID is [redacted]");
         return text;
     }
 
     public void clear() {
-        textComponent.setText("");
+        synchronized (pending) {
+            pending.clear();
+            droppedCount = 0;
+        }
+        model.clear();
+        widestLine = 0;
+        list.setFixedCellWidth(1);
     }
     
     /**
      * Log a message given the {@link javax.swing.text.AttributeSet}.
+     *
+     * <p>This method may be called from any thread. The message is shown
+     * with the next batch of lines.</p>
      * 
      * @param line line
      * @param attributes attribute set, or null for none
      */
-    public void log(final String line, AttributeSet attributes) {
-        final Document d = document;
-        final JTextComponent t = textComponent;
-        if (colorEnabled) {
-            if (line.startsWith("(!!)")) {
-                attributes = highlightedAttributes;
+    public void log(String line, AttributeSet attributes) {
+        List<LogLine> lines = new ArrayList<LogLine>();
+        int start = 0;
+        int length = line.length();
+
+        while (start < length) {
+            int end = line.indexOf('\n', start);
+            boolean complete = end != -1;
+            if (!complete) {
+                end = length;
             }
+
+            int textEnd = end;
+            if (textEnd > start && line.charAt(textEnd - 1) == '\r') {
+                textEnd--;
+            }
+
+            String text = line.substring(start, textEnd);
+            AttributeSet a = attributes;
+            if (colorEnabled && text.startsWith("(!!)")) {
+                a = highlightedAttributes;
+            }
+            lines.add(new LogLine(text, a, complete));
+            start = end + 1;
         }
-        final AttributeSet a = attributes;
-        
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    int offset = d.getLength();
-                    d.insertString(offset, line,
-                            (a != null && colorEnabled) ? a : defaultAttributes);
-                    t.setCaretPosition(d.getLength());
-                } catch (BadLocationException ble) {
-                
+
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        synchronized (pending) {
+            for (LogLine logLine : lines) {
+                if (pending.size() >= numLines) {
+                    pending.removeFirst();
+                    droppedCount++;
                 }
+                pending.addLast(logLine);
             }
-        });
+
+            if (!flushScheduled) {
+                flushScheduled = true;
+                flushTimer.start();
+            }
+        }
+    }
+
+    /**
+     * Move queued lines into the view. Must be called on the event
+     * dispatch thread.
+     */
+    private void flush() {
+        List<LogLine> batch;
+        int dropped;
+
+        synchronized (pending) {
+            batch = new ArrayList<LogLine>(pending.size() + 1);
+            batch.addAll(pending);
+            pending.clear();
+            dropped = droppedCount;
+            droppedCount = 0;
+            flushScheduled = false;
+        }
+
+        if (dropped > 0) {
+            batch.add(0, new LogLine(tr("console.linesDropped", dropped), highlightedAttributes, true));
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        JScrollBar scrollBar = scrollText.getVerticalScrollBar();
+        boolean atBottom = scrollBar.getValue() + scrollBar.getVisibleAmount()
+                >= scrollBar.getMaximum() - list.getFixedCellHeight();
+
+        FontMetrics metrics = list.getFontMetrics(list.getFont());
+        int widest = widestLine;
+        for (LogLine line : batch) {
+            widest = Math.max(widest, metrics.stringWidth(getDisplayText(line)));
+        }
+
+        model.addAll(batch);
+
+        if (widest > widestLine) {
+            widestLine = widest;
+            list.setFixedCellWidth(widest + 10);
+        }
+
+        if (atBottom && model.getSize() > 0) {
+            list.ensureIndexIsVisible(model.getSize() - 1);
+        }
+    }
+
+    private static String getDisplayText(LogLine line) {
+        return line.getText().replace("\t", "    ");
     }
     
     /**
@@ -199,31 +339,59 @@ public class MessageLog extends JPanel {
         consume(from, getOutputStream(attributes));
     }
     
+    /**
+     * Consume an input stream and print it to the dialog, also copying
+     * the decoded text to the given writer. The consumer will be in a
+     * separate daemon thread, and the writer is closed once the stream ends.
+     *
+     * @param from stream to read
+     * @param copyTo writer to copy the text to
+     */
+    public void consume(InputStream from, Writer copyTo) {
+        consume(from, getOutputStream(), copyTo);
+    }
+
+    private void consume(InputStream from, ConsoleOutputStream outputStream) {
+        consume(from, outputStream, null);
+    }
+
     /**
      * Internal method to consume a stream.
      * 
      * @param from stream to consume
      * @param outputStream console stream to write to
+     * @param copyTo writer to copy to, or null
      */
-    private void consume(InputStream from, ConsoleOutputStream outputStream) {
-        final InputStream in = from;
-        final PrintWriter out = new PrintWriter(outputStream, true);
+    private void consume(InputStream from, ConsoleOutputStream outputStream, final Writer copyTo) {
+        final Reader in = new InputStreamReader(from, Charsets.UTF_8);
+        final AttributeSet attributes = outputStream.attributes;
         Thread thread = new Thread(new Runnable() {
             @Override
             public void run() {
-                byte[] buffer = new byte[1024];
+                // InputStreamReader keeps partial multi-byte sequences
+                // between reads, so characters are never split
+                char[] buffer = new char[8192];
+                Writer copy = copyTo;
                 try {
                     int len;
                     while ((len = in.read(buffer)) != -1) {
                         String s = new String(buffer, 0, len);
                         System.out.print(s);
-                        out.append(s);
-                        out.flush();
+                        log(s, attributes);
+
+                        if (copy != null) {
+                            try {
+                                copy.write(buffer, 0, len);
+                            } catch (IOException e) {
+                                closeQuietly(copy);
+                                copy = null;
+                            }
+                        }
                     }
                 } catch (IOException e) {
                 } finally {
                     closeQuietly(in);
-                    closeQuietly(out);
+                    closeQuietly(copy);
                 }
             }
         });
@@ -299,6 +467,25 @@ public class MessageLog extends JPanel {
         }
     }
     
+    /**
+     * Renders a line using the color of its attributes.
+     */
+    private class LogLineRenderer extends DefaultListCellRenderer {
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                      boolean isSelected, boolean cellHasFocus) {
+            LogLine line = (LogLine) value;
+            super.getListCellRendererComponent(list, getDisplayText(line), index, isSelected, cellHasFocus);
+
+            AttributeSet attributes = line.getAttributes();
+            if (colorEnabled && !isSelected && attributes != null && attributes.isDefined(StyleConstants.Foreground)) {
+                setForeground(StyleConstants.getForeground(attributes));
+            }
+
+            return this;
+        }
+    }
+    
     /**
      * Used to send console messages to the console.
      */
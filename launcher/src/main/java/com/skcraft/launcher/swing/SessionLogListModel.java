@@ -0,0 +1,86 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.swing;
+
+import com.skcraft.launcher.launch.log.LogLevel;
+import com.skcraft.launcher.launch.log.SessionLogReader;
+import com.skcraft.launcher.launch.log.SessionLogRecord;
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * A list model that reads the lines of a session log on demand, so that
+ * only the blocks holding the visible lines are loaded.
+ */
+@Log
+public class SessionLogListModel extends AbstractListModel<SessionLogRecord> {
+
+    @Getter private SessionLogReader reader;
+    private List<Long> matches;
+    private boolean loggedError;
+
+    /**
+     * Show every line of the given log.
+     *
+     * @param reader the reader, or null to show nothing
+     */
+    public void setReader(SessionLogReader reader) {
+        this.reader = reader;
+        this.matches = null;
+        this.loggedError = false;
+        fireUpdate();
+    }
+
+    /**
+     * Only show the given lines of the current log.
+     *
+     * @param matches the line numbers, or null to show every line
+     */
+    public void setMatches(List<Long> matches) {
+        this.matches = matches;
+        fireUpdate();
+    }
+
+    public boolean isFiltered() {
+        return matches != null;
+    }
+
+    @Override
+    public int getSize() {
+        if (reader == null) {
+            return 0;
+        } else if (matches != null) {
+            return matches.size();
+        } else {
+            return (int) Math.min(Integer.MAX_VALUE, reader.getLineCount());
+        }
+    }
+
+    @Override
+    public SessionLogRecord getElementAt(int index) {
+        long line = matches != null ? matches.get(index) : index;
+        try {
+            return reader.getLine(line);
+        } catch (IOException e) {
+            if (!loggedError) {
+                log.log(Level.WARNING, "Failed to read " + reader.getFile().getAbsolutePath(), e);
+                loggedError = true;
+            }
+            return new SessionLogRecord(0, true, LogLevel.ERROR, "<" + e.getMessage() + ">");
+        }
+    }
+
+    private void fireUpdate() {
+        fireContentsChanged(this, 0, Integer.MAX_VALUE);
+    }
+
+}
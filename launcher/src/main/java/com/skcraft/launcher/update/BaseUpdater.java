@@ -66,11 +66,22 @@ public abstract class BaseUpdater {
     private final Launcher launcher;
     private final Environment environment = Environment.getInstance();
     private final List<Runnable> executeOnCompletion = new ArrayList<Runnable>();
+    private UpdateTransaction transaction;
 
     protected BaseUpdater(@NonNull Launcher launcher) {
         this.launcher = launcher;
     }
 
+    /**
+     * Set the transaction that files of the package are installed in, so
+     * that the update can be resumed and rolled back.
+     *
+     * @param transaction the transaction, or null to install files directly
+     */
+    protected void setTransaction(UpdateTransaction transaction) {
+        this.transaction = transaction;
+    }
+
     protected void complete() {
         for (Runnable runnable : executeOnCompletion) {
             runnable.run();
@@ -78,6 +89,20 @@ public abstract class BaseUpdater {
     }
 
     protected Manifest installPackage(@NonNull Installer installer, @NonNull Instance instance) throws Exception {
+        return installPackage(installer, instance, fetchManifest(instance, instance.getManifestPath()));
+    }
+
+    /**
+     * Queue the files of a package manifest that has already been fetched.
+     *
+     * @param installer the installer
+     * @param instance the instance
+     * @param manifest the manifest
+     * @return the manifest
+     * @throws Exception thrown on error
+     */
+    protected Manifest installPackage(@NonNull Installer installer, @NonNull Instance instance,
+                                      @NonNull Manifest manifest) throws Exception {
         final File contentDir = instance.getContentDir();
         final File logPath = new File(instance.getDir(), "install_log.json");
         final File cachePath = new File(instance.getDir(), "update_cache.json");
@@ -92,22 +117,6 @@ public abstract class BaseUpdater {
         final UpdateCache updateCache = Persistence.read(cachePath, UpdateCache.class);
         final FeatureCache featuresCache = Persistence.read(featuresPath, FeatureCache.class);
 
-        Manifest manifest = HttpRequest
-                .get(instance.getManifestURL())
-                .execute()
-                .expectResponseCode(200)
-                .returnContent()
-                .saveContent(instance.getManifestPath())
-                .asJson(Manifest.class);
-
-        if (manifest.getMinimumVersion() > Launcher.PROTOCOL_VERSION) {
-            throw new LauncherException("Update required", SharedLocale.tr("errors.updateRequiredError"));
-        }
-
-        if (manifest.getBaseUrl() == null) {
-            manifest.setBaseUrl(instance.getManifestURL());
-        }
-
         final List<Feature> features = manifest.getFeatures();
         if (!features.isEmpty()) {
             for (Feature feature : features) {
@@ -119,17 +128,7 @@ public abstract class BaseUpdater {
 
             Collections.sort(features);
 
-            SwingUtilities.invokeLater(new Runnable() {
-                @Override
-                public void run() {
-                    new FeatureSelectionDialog(ProgressDialog.getLastDialog(), features, BaseUpdater.this)
-                            .setVisible(true);
-                }
-            });
-
-            synchronized (this) {
-                this.wait();
-            }
+            selectFeatures(features);
 
             for (Feature feature : features) {
                 featuresCache.getSelected().put(Strings.nullToEmpty(feature.getName()), feature.isSelected());
@@ -151,7 +150,9 @@ public abstract class BaseUpdater {
             loaders.put(entry.getKey(), new LocalLoader(entry.getValue(), localFilesMap));
         }
 
+        final UpdateTransaction transaction = this.transaction;
         InstallExtras extras = new InstallExtras(contentDir, loaders);
+        extras.setTransaction(transaction);
         for (ManifestEntry entry : manifest.getTasks()) {
             entry.install(installer, currentLog, updateCache, extras);
         }
@@ -162,7 +163,16 @@ public abstract class BaseUpdater {
                 for (Map.Entry<String, Set<String>> entry : previousLog.getEntrySet()) {
                     for (String path : entry.getValue()) {
                         if (!currentLog.has(path)) {
-                            new File(contentDir, path).delete();
+                            File file = new File(contentDir, path);
+                            if (transaction != null) {
+                                try {
+                                    transaction.remove(file);
+                                } catch (IOException e) {
+                                    log.log(Level.WARNING, "Failed to remove " + file.getAbsolutePath(), e);
+                                }
+                            } else {
+                                file.delete();
+                            }
                         }
                     }
                 }
@@ -176,6 +186,102 @@ public abstract class BaseUpdater {
         return manifest;
     }
 
+    /**
+     * Download the package manifest of an instance.
+     *
+     * @param instance the instance
+     * @param saveTo the file to save a copy of the manifest to
+     * @return the manifest
+     * @throws IOException thrown on I/O error
+     * @throws InterruptedException thrown on interruption
+     * @throws LauncherException thrown if the manifest needs a newer launcher
+     */
+    protected Manifest fetchManifest(@NonNull Instance instance, @NonNull File saveTo)
+            throws IOException, InterruptedException, LauncherException {
+        Manifest manifest = HttpRequest
+                .get(instance.getManifestURL())
+                .execute()
+                .expectResponseCode(200)
+                .returnContent()
+                .saveContent(saveTo)
+                .asJson(Manifest.class);
+
+        if (manifest.getMinimumVersion() > Launcher.PROTOCOL_VERSION) {
+            throw new LauncherException("Update required", SharedLocale.tr("errors.updateRequiredError"));
+        }
+
+        if (manifest.getBaseUrl() == null) {
+            manifest.setBaseUrl(instance.getManifestURL());
+        }
+
+        return manifest;
+    }
+
+    /**
+     * Let the user choose which optional features to install, and wait for
+     * them to close the dialog. The features start out with the choices that
+     * were made during the last update.
+     *
+     * @param features the features, which are updated with the choices
+     * @throws InterruptedException thrown on interruption
+     */
+    protected void selectFeatures(final List<Feature> features) throws InterruptedException {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                new FeatureSelectionDialog(ProgressDialog.getLastDialog(), features, BaseUpdater.this)
+                        .setVisible(true);
+            }
+        });
+
+        synchronized (this) {
+            this.wait();
+        }
+    }
+
+    /**
+     * Check whether the package manifest contains an embedded version manifest,
+     * otherwise we'll have to download the one for the given Minecraft version.
+     *
+     * BACKWARDS COMPATIBILITY:
+     * Old manifests have an embedded version manifest without the minecraft JARs list present.
+     * If we find a manifest without that jar list, fetch the newer copy from launchermeta and use the list from that.
+     * We can't just replace the manifest outright because library versions might differ and that screws up Runner.
+     */
+    protected VersionManifest readVersionManifest(Manifest manifest) throws IOException, InterruptedException {
+        VersionManifest version = manifest.getVersionManifest();
+        URL url = url(launcher.getProperties().getProperty("versionManifestUrl"));
+
+        if (version == null) {
+            version = fetchVersionManifest(url, manifest);
+        }
+
+        if (version.getDownloads().isEmpty()) {
+            // Backwards compatibility hack
+            VersionManifest otherManifest = fetchVersionManifest(url, manifest);
+
+            version.setDownloads(otherManifest.getDownloads());
+            version.setAssetIndex(otherManifest.getAssetIndex());
+        }
+
+        return version;
+    }
+
+    private static VersionManifest fetchVersionManifest(URL url, Manifest manifest) throws IOException, InterruptedException {
+        ReleaseList releases = HttpRequest.get(url)
+                .execute()
+                .expectResponseCode(200)
+                .returnContent()
+                .asJson(ReleaseList.class);
+
+        Version relVersion = releases.find(manifest.getGameVersion());
+        return HttpRequest.get(url(relVersion.getUrl()))
+                .execute()
+                .expectResponseCode(200)
+                .returnContent()
+                .asJson(VersionManifest.class);
+    }
+
     protected void installJar(@NonNull Installer installer,
                               @NonNull VersionManifest.Artifact artifact,
                               @NonNull File jarFile,
@@ -185,7 +291,8 @@ public abstract class BaseUpdater {
             long size = artifact.getSize();
             if (size <= 0) size = JAR_SIZE_ESTIMATE;
 
-            File tempFile = installer.getDownloader().download(url, "", size, jarFile.getName());
+            File tempFile = installer.getDownloader().download(
+                    Collections.singletonList(url), "", artifact.getHash(), size, jarFile.getName());
             installer.queue(new FileMover(tempFile, jarFile));
             if (artifact.getHash() != null) {
                 installer.queue(new FileVerify(jarFile, jarFile.getName(), artifact.getHash()));
@@ -229,7 +336,7 @@ public abstract class BaseUpdater {
                 }
 
                 File tempFile = installer.getDownloader().download(
-                        urls, "", entry.getValue().getSize(), entry.getKey());
+                        urls, "", hash, entry.getValue().getSize(), entry.getKey());
                 installer.queue(new FileMover(tempFile, targetFile));
                 log.info("Fetching " + path + " from " + urls);
                 downloading.add(path);
@@ -272,7 +379,7 @@ public abstract class BaseUpdater {
                         }
                     }
 
-                    File tempFile = installer.getDownloader().download(urls, "", size,
+                    File tempFile = installer.getDownloader().download(urls, "", artifact.getSha1(), size,
                             library.getName().toString());
                     log.info("Fetching " + path + " from " + urls);
                     installer.queue(new FileMover(tempFile, targetFile));
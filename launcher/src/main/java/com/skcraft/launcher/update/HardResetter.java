@@ -8,29 +8,46 @@ package com.skcraft.launcher.update;
 
 import com.skcraft.concurrency.ProgressObservable;
 import com.skcraft.launcher.Instance;
-import com.skcraft.launcher.LauncherUtils;
+import com.skcraft.launcher.install.UpdateTransaction;
 import com.skcraft.launcher.persistence.Persistence;
+import com.skcraft.launcher.util.BulkDeleter;
 import lombok.NonNull;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.concurrent.Callable;
+import java.util.concurrent.locks.Lock;
 
 import static com.skcraft.launcher.util.SharedLocale.tr;
 
 public class HardResetter implements Callable<Instance>, ProgressObservable {
 
     private final Instance instance;
+    private final File trashDir;
     private File currentDir;
+    private volatile BulkDeleter deleter;
 
     public HardResetter(@NonNull Instance instance) {
+        this(instance, null);
+    }
+
+    /**
+     * Create a new resetter.
+     *
+     * @param instance the instance
+     * @param trashDir a directory to move files into to be deleted in the
+     *                 background, or null to wait for them to be deleted
+     */
+    public HardResetter(@NonNull Instance instance, File trashDir) {
         this.instance = instance;
+        this.trashDir = trashDir;
     }
 
     @Override
     public double getProgress() {
-        return -1;
+        BulkDeleter deleter = this.deleter;
+        return deleter != null ? deleter.getProgress() : -1;
     }
 
     @Override
@@ -40,11 +57,23 @@ public class HardResetter implements Callable<Instance>, ProgressObservable {
 
     @Override
     public Instance call() throws Exception {
+        // Wait for a staged update that is still being written to stop
+        Lock stagingLock = UpdateStager.getLock(instance);
+        stagingLock.lockInterruptibly();
+        try {
+            return reset();
+        } finally {
+            stagingLock.unlock();
+        }
+    }
+
+    private Instance reset() throws Exception {
         instance.setInstalled(false);
         instance.setUpdatePending(true);
         Persistence.commitAndForget(instance);
 
         new File(instance.getDir(), "update_cache.json").delete();
+        UpdateTransaction.discard(instance);
 
         removeDir(new File(instance.getContentDir(), "config"));
         removeDir(new File(instance.getContentDir(), "mods"));
@@ -56,10 +85,16 @@ public class HardResetter implements Callable<Instance>, ProgressObservable {
         try {
             if (dir.isDirectory()) {
                 currentDir = dir;
-                LauncherUtils.interruptibleDelete(dir, new ArrayList<File>());
+                if (trashDir != null) {
+                    BulkDeleter.deleteViaTrash(dir, trashDir, new ArrayList<File>());
+                } else {
+                    deleter = new BulkDeleter(dir);
+                    deleter.delete(new ArrayList<File>());
+                }
             }
         } finally {
             currentDir = null;
+            deleter = null;
         }
     }
 
@@ -9,8 +9,8 @@ package com.skcraft.launcher.update;
 import com.skcraft.concurrency.ProgressObservable;
 import com.skcraft.launcher.Instance;
 import com.skcraft.launcher.LauncherException;
-import com.skcraft.launcher.LauncherUtils;
 import com.skcraft.launcher.persistence.Persistence;
+import com.skcraft.launcher.util.BulkDeleter;
 import lombok.NonNull;
 
 import java.io.File;
@@ -18,6 +18,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.locks.Lock;
 
 import static com.skcraft.launcher.LauncherUtils.checkInterrupted;
 import static com.skcraft.launcher.util.SharedLocale.tr;
@@ -25,14 +26,29 @@ import static com.skcraft.launcher.util.SharedLocale.tr;
 public class Remover implements Callable<Instance>, ProgressObservable {
 
     private final Instance instance;
+    private final File trashDir;
+    private volatile BulkDeleter deleter;
 
     public Remover(@NonNull Instance instance) {
+        this(instance, null);
+    }
+
+    /**
+     * Create a new remover.
+     *
+     * @param instance the instance
+     * @param trashDir a directory to move the instance into to be deleted in
+     *                 the background, or null to wait for it to be deleted
+     */
+    public Remover(@NonNull Instance instance, File trashDir) {
         this.instance = instance;
+        this.trashDir = trashDir;
     }
 
     @Override
     public double getProgress() {
-        return -1;
+        BulkDeleter deleter = this.deleter;
+        return deleter != null ? deleter.getProgress() : -1;
     }
 
     @Override
@@ -42,21 +58,37 @@ public class Remover implements Callable<Instance>, ProgressObservable {
 
     @Override
     public Instance call() throws Exception {
+        // Wait for a staged update that is still being written to stop, or
+        // it could bring back the directory after it was deleted
+        Lock stagingLock = UpdateStager.getLock(instance);
+        stagingLock.lockInterruptibly();
+        try {
+            return remove();
+        } finally {
+            stagingLock.unlock();
+        }
+    }
+
+    private Instance remove() throws Exception {
         instance.setInstalled(false);
         instance.setUpdatePending(true);
         Persistence.commitAndForget(instance);
 
         checkInterrupted();
 
-        Thread.sleep(2000);
-
         List<File> failures = new ArrayList<File>();
 
-        try {
-            LauncherUtils.interruptibleDelete(instance.getDir(), failures);
-        } catch (IOException e) {
+        if (trashDir != null) {
+            BulkDeleter.deleteViaTrash(instance.getDir(), trashDir, failures);
+        } else {
+            delete(failures);
+        }
+
+        if (failures.size() > 0) {
+            // Files may have been held open for a moment, such as by a virus scanner
             Thread.sleep(1000);
-            LauncherUtils.interruptibleDelete(instance.getDir(), failures);
+            failures.clear();
+            delete(failures);
         }
 
         if (failures.size() > 0) {
@@ -67,4 +99,9 @@ public class Remover implements Callable<Instance>, ProgressObservable {
         return instance;
     }
 
+    private void delete(List<File> failures) throws IOException, InterruptedException {
+        deleter = new BulkDeleter(instance.getDir());
+        deleter.delete(failures);
+    }
+
 }
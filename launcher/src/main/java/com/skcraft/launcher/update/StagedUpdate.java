@@ -0,0 +1,31 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.update;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * Describes the files of an update that were downloaded into the staging
+ * area of an instance before the update was installed.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class StagedUpdate {
+
+    private String version;
+    private Date created = new Date();
+    /**
+     * True once every file of the update has been downloaded. Files of an
+     * incomplete staging are still used, and the rest are downloaded when
+     * the update is installed.
+     */
+    private boolean complete;
+
+}
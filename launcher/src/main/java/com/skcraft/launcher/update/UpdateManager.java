@@ -10,6 +10,7 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.skcraft.concurrency.ObservableFuture;
+import com.skcraft.concurrency.TaskPriority;
 import com.skcraft.launcher.Launcher;
 import com.skcraft.launcher.dialog.ProgressDialog;
 import com.skcraft.launcher.selfupdate.LatestVersionInfo;
@@ -51,7 +52,8 @@ public class UpdateManager {
     }
 
     public void checkForUpdate(final Window window) {
-        ListenableFuture<LatestVersionInfo> future = launcher.getExecutor().submit(new UpdateChecker(launcher));
+        ListenableFuture<LatestVersionInfo> future = launcher.getScheduler().submit(
+                TaskPriority.BACKGROUND, "checkForUpdate", new UpdateChecker(launcher));
 
         Futures.addCallback(future, new FutureCallback<LatestVersionInfo>() {
             @Override
@@ -74,9 +76,9 @@ public class UpdateManager {
         final URL url = pendingUpdate.getUrl();
 
         if (url != null) {
-            SelfUpdater downloader = new SelfUpdater(launcher, url);
-            ObservableFuture<File> future = new ObservableFuture<File>(
-                    launcher.getExecutor().submit(downloader), downloader);
+            SelfUpdater downloader = new SelfUpdater(launcher, pendingUpdate);
+            ObservableFuture<File> future = launcher.getScheduler().submitObservable(
+                    TaskPriority.UPDATE, "selfUpdate", downloader);
 
             Futures.addCallback(future, new FutureCallback<File>() {
                 @Override
@@ -0,0 +1,62 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.update;
+
+import com.skcraft.concurrency.ProgressObservable;
+import com.skcraft.launcher.Instance;
+import com.skcraft.launcher.install.UpdateTransaction;
+import com.skcraft.launcher.persistence.Persistence;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.Lock;
+
+import static com.skcraft.launcher.util.SharedLocale.tr;
+
+/**
+ * Puts back the files that the last update of an instance replaced.
+ */
+@Log
+public class UpdateRollback implements Callable<Instance>, ProgressObservable {
+
+    private final Instance instance;
+
+    public UpdateRollback(@NonNull Instance instance) {
+        this.instance = instance;
+    }
+
+    @Override
+    public double getProgress() {
+        return -1;
+    }
+
+    @Override
+    public String getStatus() {
+        return tr("instanceRollback.rollingBack", instance.getTitle());
+    }
+
+    @Override
+    public Instance call() throws Exception {
+        Lock stagingLock = UpdateStager.getLock(instance);
+        stagingLock.lockInterruptibly();
+        try {
+            String version = UpdateTransaction.rollback(instance);
+
+            if (version != null) {
+                instance.setVersion(version);
+            }
+            instance.setUpdatePending(false);
+            Persistence.commitAndForget(instance);
+        } finally {
+            stagingLock.unlock();
+        }
+
+        return instance;
+    }
+
+}
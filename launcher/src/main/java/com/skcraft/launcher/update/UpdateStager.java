@@ -0,0 +1,244 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.update;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.skcraft.launcher.Instance;
+import com.skcraft.launcher.Launcher;
+import com.skcraft.launcher.install.Installer;
+import com.skcraft.launcher.model.minecraft.VersionManifest;
+import com.skcraft.launcher.model.modpack.Feature;
+import com.skcraft.launcher.model.modpack.Manifest;
+import com.skcraft.launcher.persistence.Persistence;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+import static com.skcraft.launcher.util.HttpRequest.url;
+
+/**
+ * Downloads a pending update of an installed instance into a staging area
+ * without installing it, so that the {@link Updater} only has to run the
+ * local install phase when the game is launched.
+ *
+ * <p>Downloads are named after what they contain, so the updater simply
+ * uses the staging area as its download directory and skips every file that
+ * is already there. A file only appears there once it has been downloaded
+ * completely, so staging that was interrupted by a crash picks up where it
+ * left off. The staging area is thrown away when the instance moves on to
+ * another version.</p>
+ */
+@Log
+public class UpdateStager extends BaseUpdater implements Callable<Instance> {
+
+    private static final int DOWNLOAD_THREADS = 2;
+    private static final ConcurrentMap<File, Lock> locks = new ConcurrentHashMap<File, Lock>();
+
+    private final Launcher launcher;
+    private final Instance instance;
+
+    public UpdateStager(@NonNull Launcher launcher, @NonNull Instance instance) {
+        super(launcher);
+
+        this.launcher = launcher;
+        this.instance = instance;
+    }
+
+    /**
+     * Get the staging area of an instance.
+     *
+     * @param instance the instance
+     * @return the directory, which may not exist
+     */
+    public static File getStagingDir(Instance instance) {
+        return new File(instance.getDir(), "staging");
+    }
+
+    private static File getStagedUpdateFile(Instance instance) {
+        return new File(getStagingDir(instance), "staging.json");
+    }
+
+    /**
+     * Get the lock that is held while the staging area of an instance is
+     * written to.
+     *
+     * @param instance the instance
+     * @return the lock
+     */
+    public static Lock getLock(Instance instance) {
+        File dir = getStagingDir(instance).getAbsoluteFile();
+        Lock lock = locks.get(dir);
+        if (lock == null) {
+            Lock created = new ReentrantLock();
+            lock = locks.putIfAbsent(dir, created);
+            if (lock == null) {
+                lock = created;
+            }
+        }
+        return lock;
+    }
+
+    /**
+     * Read the update staged for the version that the instance is to be
+     * updated to. Staging for any other version is discarded.
+     *
+     * @param instance the instance
+     * @return the staged update, or null if there is none
+     */
+    public static StagedUpdate readStagedUpdate(Instance instance) {
+        File file = getStagedUpdateFile(instance);
+        StagedUpdate staged = file.exists() ? Persistence.read(file, StagedUpdate.class, true) : null;
+
+        if (staged != null && staged.getVersion() != null && staged.getVersion().equals(instance.getVersion())) {
+            return staged;
+        }
+
+        if (getStagingDir(instance).exists()) {
+            log.info("Discarding the staged update of " + instance.getName() + " because it is out of date");
+            discard(instance);
+        }
+
+        return null;
+    }
+
+    /**
+     * Delete the staging area of an instance.
+     *
+     * @param instance the instance
+     */
+    public static void discard(Instance instance) {
+        File dir = getStagingDir(instance);
+        try {
+            if (dir.exists()) {
+                FileUtils.deleteDirectory(dir);
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to delete the staging area " + dir.getAbsolutePath(), e);
+        }
+    }
+
+    @Override
+    public Instance call() throws Exception {
+        if (!instance.isInstalled() || !instance.isUpdatePending() || instance.getManifestURL() == null) {
+            return instance;
+        }
+
+        Lock lock = getLock(instance);
+        lock.lockInterruptibly();
+        try {
+            // The instance may have been deleted or reset while waiting
+            if (!instance.isInstalled()) {
+                return instance;
+            }
+
+            stage();
+        } finally {
+            lock.unlock();
+        }
+
+        return instance;
+    }
+
+    private void stage() throws Exception {
+        StagedUpdate staged = readStagedUpdate(instance);
+        if (staged != null && staged.isComplete()) {
+            log.info("The update of " + instance.getName() + " to " + staged.getVersion() + " is already staged");
+            return;
+        }
+
+        File stagingDir = getStagingDir(instance);
+        File stagedUpdateFile = getStagedUpdateFile(instance);
+
+        log.info("Staging the update of " + instance.getName() + " to " + instance.getVersion() + "...");
+        Manifest manifest = fetchManifest(instance, new File(stagingDir, "manifest.json"));
+
+        if (manifest.getVersion() == null || !manifest.getVersion().equals(instance.getVersion())) {
+            // The list of packages will catch up, and staging starts over then
+            log.info("The manifest of " + instance.getName() + " is at version " + manifest.getVersion() +
+                    " rather than " + instance.getVersion() + ", so the update is not staged");
+            discard(instance);
+            return;
+        }
+
+        // Written first so that the files of an interrupted staging are recognized
+        if (staged == null) {
+            staged = new StagedUpdate();
+            staged.setVersion(manifest.getVersion());
+            Persistence.write(stagedUpdateFile, staged, Persistence.L2F_LIST_PRETTY_PRINTER);
+        }
+
+        ListeningExecutorService executor = MoreExecutors.listeningDecorator(
+                Executors.newFixedThreadPool(DOWNLOAD_THREADS, new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "Update stager");
+                        thread.setDaemon(true);
+                        thread.setPriority(Thread.MIN_PRIORITY);
+                        return thread;
+                    }
+                }));
+
+        try {
+            Installer installer = new Installer(stagingDir, executor);
+            installer.setPeerCache(launcher.getPeerCache());
+            installer.setMirrorStats(launcher.getMirrorStats());
+            installer.setBandwidthShaper(launcher.getBandwidthShaper(), true);
+            installPackage(installer, instance, manifest);
+
+            VersionManifest version = readVersionManifest(manifest);
+            URL jarSource = url(version.getDownloads().get("client").getUrl());
+            installJar(installer, version.getDownloads().get("client"), launcher.getJarPath(version), jarSource);
+
+            List<URL> librarySources = new ArrayList<URL>();
+            if (manifest.getLibrariesUrl() != null) {
+                librarySources.add(manifest.getLibrariesUrl());
+            }
+            librarySources.add(launcher.propUrl("librariesSource"));
+            librarySources.addAll(launcher.propUrls("librariesMirrors"));
+            installLibraries(installer, manifest, launcher.getLibrariesDir(), librarySources);
+
+            List<URL> assetsSources = new ArrayList<URL>();
+            assetsSources.add(launcher.propUrl("assetsSource"));
+            assetsSources.addAll(launcher.propUrls("assetsMirrors"));
+            installAssets(installer, version, url(version.getAssetIndex().getUrl()), assetsSources);
+
+            installer.download();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        staged.setComplete(true);
+        Persistence.write(stagedUpdateFile, staged, Persistence.L2F_LIST_PRETTY_PRINTER);
+
+        log.info("The update of " + instance.getName() + " to " + manifest.getVersion() + " has been staged");
+    }
+
+    /**
+     * Nobody is asked while staging, so the choices made during the last
+     * update are used. Features that are chosen differently when the update
+     * is installed are downloaded then.
+     */
+    @Override
+    protected void selectFeatures(List<Feature> features) {
+    }
+
+}
@@ -8,18 +8,18 @@ package com.skcraft.launcher.update;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.skcraft.concurrency.DefaultProgress;
+import com.skcraft.concurrency.ListenableProgress;
 import com.skcraft.concurrency.ProgressFilter;
-import com.skcraft.concurrency.ProgressObservable;
+import com.skcraft.concurrency.ProgressListener;
+import com.skcraft.concurrency.ProgressRelay;
 import com.skcraft.launcher.Instance;
 import com.skcraft.launcher.Launcher;
 import com.skcraft.launcher.LauncherException;
 import com.skcraft.launcher.install.Installer;
-import com.skcraft.launcher.model.minecraft.ReleaseList;
-import com.skcraft.launcher.model.minecraft.Version;
+import com.skcraft.launcher.install.UpdateTransaction;
 import com.skcraft.launcher.model.minecraft.VersionManifest;
 import com.skcraft.launcher.model.modpack.Manifest;
 import com.skcraft.launcher.persistence.Persistence;
-import com.skcraft.launcher.util.HttpRequest;
 import com.skcraft.launcher.util.SharedLocale;
 import lombok.Getter;
 import lombok.NonNull;
@@ -33,15 +33,15 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Lock;
 import java.util.logging.Level;
 
 import static com.skcraft.launcher.util.HttpRequest.url;
 
 @Log
-public class Updater extends BaseUpdater implements Callable<Instance>, ProgressObservable {
+public class Updater extends BaseUpdater implements Callable<Instance>, ListenableProgress {
 
     private final ObjectMapper mapper = new ObjectMapper();
-    private final Installer installer;
     private final Launcher launcher;
     private final Instance instance;
 
@@ -51,17 +51,18 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
     private List<URL> librarySources = new ArrayList<URL>();
     private List<URL> assetsSources = new ArrayList<URL>();
 
-    private ProgressObservable progress = new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.preparingUpdate"));
+    private final ProgressRelay progress = new ProgressRelay(new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.preparingUpdate")));
 
     public Updater(@NonNull Launcher launcher, @NonNull Instance instance) {
         super(launcher);
 
-        this.installer = new Installer(launcher.getInstallerDir());
         this.launcher = launcher;
         this.instance = instance;
 
         librarySources.add(launcher.propUrl("librariesSource"));
+        librarySources.addAll(launcher.propUrls("librariesMirrors"));
         assetsSources.add(launcher.propUrl("assetsSource"));
+        assetsSources.addAll(launcher.propUrls("assetsMirrors"));
     }
 
     @Override
@@ -94,7 +95,15 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
 
         if (updateDesired) {
             log.info("Updating " + instance.getTitle() + "...");
-            update(instance);
+
+            // Wait for the update to stop being staged in the background
+            Lock stagingLock = UpdateStager.getLock(instance);
+            stagingLock.lockInterruptibly();
+            try {
+                update(instance);
+            } finally {
+                stagingLock.unlock();
+            }
         } else {
             log.info("No update found for " + instance.getTitle());
         }
@@ -102,50 +111,6 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
         return instance;
     }
 
-    /**
-     * Check whether the package manifest contains an embedded version manifest,
-     * otherwise we'll have to download the one for the given Minecraft version.
-     *
-     * BACKWARDS COMPATIBILITY:
-     * Old manifests have an embedded version manifest without the minecraft JARs list present.
-     * If we find a manifest without that jar list, fetch the newer copy from launchermeta and use the list from that.
-     * We can't just replace the manifest outright because library versions might differ and that screws up Runner.
-     */
-    private VersionManifest readVersionManifest(Manifest manifest) throws IOException, InterruptedException {
-        VersionManifest version = manifest.getVersionManifest();
-        URL url = url(launcher.getProperties().getProperty("versionManifestUrl"));
-
-        if (version == null) {
-            version = fetchVersionManifest(url, manifest);
-        }
-
-        if (version.getDownloads().isEmpty()) {
-            // Backwards compatibility hack
-            VersionManifest otherManifest = fetchVersionManifest(url, manifest);
-
-            version.setDownloads(otherManifest.getDownloads());
-            version.setAssetIndex(otherManifest.getAssetIndex());
-        }
-
-        mapper.writeValue(instance.getVersionPath(), version);
-        return version;
-    }
-
-    private static VersionManifest fetchVersionManifest(URL url, Manifest manifest) throws IOException, InterruptedException {
-        ReleaseList releases = HttpRequest.get(url)
-                .execute()
-                .expectResponseCode(200)
-                .returnContent()
-                .asJson(ReleaseList.class);
-
-        Version relVersion = releases.find(manifest.getGameVersion());
-        return HttpRequest.get(url(relVersion.getUrl()))
-                .execute()
-                .expectResponseCode(200)
-                .returnContent()
-                .asJson(VersionManifest.class);
-    }
-
     /**
      * Update the given instance.
      *
@@ -159,9 +124,30 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
         instance.setLocal(true);
         Persistence.commitAndForget(instance);
 
+        // Files that were downloaded ahead of time are picked up from the staging area
+        File stagingDir = UpdateStager.getStagingDir(instance);
+        boolean staged = UpdateStager.readStagedUpdate(instance) != null;
+        if (staged) {
+            log.info("Using the update staged in " + stagingDir.getAbsolutePath());
+        }
+        Installer installer = staged ? launcher.createInstaller(stagingDir) : launcher.createInstaller();
+
+        // Replaced files are set aside so that an interrupted update can be resumed or rolled back
+        UpdateTransaction transaction = UpdateTransaction.begin(instance);
+        try {
+            installUpdate(instance, installer, transaction, staged);
+        } finally {
+            transaction.close();
+        }
+    }
+
+    private void installUpdate(Instance instance, Installer installer, UpdateTransaction transaction,
+                               boolean staged) throws Exception {
+        setTransaction(transaction);
+
         // Read manifest
         log.info("Reading package manifest...");
-        progress = new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.readingManifest"));
+        progress.set(new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.readingManifest")));
         Manifest manifest = installPackage(installer, instance);
 
         // Update instance from manifest
@@ -169,10 +155,11 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
 
         // Read version manifest
         log.info("Reading version manifest...");
-        progress = new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.readingVersion"));
+        progress.set(new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.readingVersion")));
         VersionManifest version = readVersionManifest(manifest);
+        mapper.writeValue(instance.getVersionPath(), version);
 
-        progress = new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.buildingDownloadList"));
+        progress.set(new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.buildingDownloadList")));
 
         // Install the .jar
         File jarPath = launcher.getJarPath(version);
@@ -190,26 +177,31 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
             librarySources.add(0, url);
         }
 
-        progress = new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.collectingLibraries"));
+        progress.set(new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.collectingLibraries")));
         installLibraries(installer, manifest, launcher.getLibrariesDir(), librarySources);
 
         // Download assets
         log.info("Enumerating assets to download...");
-        progress = new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.collectingAssets"));
+        progress.set(new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.collectingAssets")));
         installAssets(installer, version, url(version.getAssetIndex().getUrl()), assetsSources);
 
         log.info("Executing download phase...");
-        progress = ProgressFilter.between(installer.getDownloader(), 0, 0.98);
+        progress.set(ProgressFilter.between(installer.getDownloader(), 0, 0.98));
         installer.download();
 
         log.info("Executing install phase...");
-        progress = ProgressFilter.between(installer, 0.98, 1);
+        progress.set(ProgressFilter.between(installer, 0.98, 1));
         installer.execute(launcher);
 
         installer.executeLate(launcher);
 
         log.info("Completing...");
         complete();
+        transaction.commit();
+
+        if (staged) {
+            UpdateStager.discard(instance);
+        }
 
         // Update the instance's information
         log.info("Writing instance information...");
@@ -233,5 +225,15 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
         return progress.getStatus();
     }
 
+    @Override
+    public boolean addProgressListener(ProgressListener listener) {
+        return progress.addProgressListener(listener);
+    }
+
+    @Override
+    public void removeProgressListener(ProgressListener listener) {
+        progress.removeProgressListener(listener);
+    }
+
 
 }
@@ -8,7 +8,9 @@ package com.skcraft.launcher.util;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.skcraft.concurrency.ProgressObservable;
+import com.skcraft.concurrency.ListenableProgress;
+import com.skcraft.concurrency.ProgressListener;
+import com.skcraft.concurrency.ProgressNotifier;
 import lombok.Data;
 import lombok.Getter;
 import lombok.extern.java.Log;
@@ -31,7 +33,7 @@ import static org.apache.commons.io.IOUtils.closeQuietly;
  * {@link java.net.HttpURLConnection} or {@link javax.net.ssl.HttpsURLConnection}.
  */
 @Log
-public class HttpRequest implements Closeable, ProgressObservable {
+public class HttpRequest implements Closeable, ListenableProgress {
 
     private static final int READ_TIMEOUT = 1000 * 60 * 10;
     private static final int READ_BUFFER_SIZE = 1024 * 8;
@@ -43,13 +45,16 @@ public class HttpRequest implements Closeable, ProgressObservable {
     private final URL url;
     private String contentType;
     private byte[] body;
+    private File bodyFile;
     private HttpURLConnection conn;
     private InputStream inputStream;
     private int redirectCount;
 
     private PartialDownloadInfo resumeInfo = null;
-    private long contentLength = -1;
-    private long readBytes = 0;
+    private volatile long contentLength = -1;
+    private volatile long readBytes = 0;
+    private Throttle throttle;
+    private final ProgressNotifier notifier = new ProgressNotifier();
 
     /**
      * Create a new HTTP request.
@@ -87,6 +92,19 @@ public class HttpRequest implements Closeable, ProgressObservable {
         return this;
     }
 
+    /**
+     * Stream the contents of a file as the body.
+     *
+     * @param file the file
+     * @param contentType the content type
+     * @return this object
+     */
+    public HttpRequest bodyFile(File file, String contentType) {
+        this.contentType = contentType;
+        this.bodyFile = file;
+        return this;
+    }
+
     /**
      * Add a header.
      *
@@ -142,6 +160,9 @@ public class HttpRequest implements Closeable, ProgressObservable {
             conn.setRequestProperty("Content-Type", contentType);
             conn.setRequestProperty("Content-Length", Integer.toString(body.length));
             conn.setDoInput(true);
+        } else if (bodyFile != null) {
+            conn.setRequestProperty("Content-Type", contentType);
+            conn.setFixedLengthStreamingMode(bodyFile.length());
         }
 
         if (resumeInfo != null) {
@@ -164,12 +185,26 @@ public class HttpRequest implements Closeable, ProgressObservable {
             out.write(body);
             out.flush();
             out.close();
+        } else if (bodyFile != null) {
+            OutputStream out = conn.getOutputStream();
+            InputStream in = new FileInputStream(bodyFile);
+            try {
+                byte[] data = new byte[READ_BUFFER_SIZE];
+                int len;
+                while ((len = in.read(data)) >= 0) {
+                    out.write(data, 0, len);
+                }
+            } finally {
+                closeQuietly(in);
+                out.close();
+            }
         }
 
         switch (conn.getResponseCode()) {
             case HttpURLConnection.HTTP_SEE_OTHER:
                 method = "GET";
                 body = null;
+                bodyFile = null;
             case HttpURLConnection.HTTP_MOVED_PERM:
             case HttpURLConnection.HTTP_MOVED_TEMP:
             case HttpURLConnection.HTTP_ACCEPTED:
@@ -268,6 +303,20 @@ public class HttpRequest implements Closeable, ProgressObservable {
         return conn.getResponseCode();
     }
 
+    /**
+     * Get the value of a header of the response.
+     *
+     * @param name the name of the header
+     * @return the value, or null if the response doesn't have the header
+     */
+    public String getHeaderField(String name) {
+        if (conn == null) {
+            throw new IllegalArgumentException("No connection has been made");
+        }
+
+        return conn.getHeaderField(name);
+    }
+
     /**
      * Check if the response code indicates a successful request.
      * @return True if response code is 2xx, false otherwise.
@@ -377,7 +426,11 @@ public class HttpRequest implements Closeable, ProgressObservable {
             while ((len = bis.read(data, 0, READ_BUFFER_SIZE)) >= 0) {
                 out.write(data, 0, len);
                 readBytes += len;
+                notifier.fire();
                 checkInterrupted();
+                if (throttle != null) {
+                    throttle.acquire(len);
+                }
             }
 
             if (contentLength >= 0 && contentLength != readBytes) {
@@ -409,6 +462,18 @@ public class HttpRequest implements Closeable, ProgressObservable {
         return this;
     }
 
+    /**
+     * Limit the rate at which the body is saved.
+     *
+     * @param throttle the throttle, or null for no limit
+     * @return this object
+     */
+    public HttpRequest setThrottle(Throttle throttle) {
+        this.throttle = throttle;
+
+        return this;
+    }
+
     public boolean isResumedRequest() {
         return resumeInfo != null;
     }
@@ -427,6 +492,31 @@ public class HttpRequest implements Closeable, ProgressObservable {
         return null;
     }
 
+    /**
+     * Get the number of bytes of the body that have been saved so far.
+     *
+     * @return the number of bytes
+     */
+    public long getReadBytes() {
+        return readBytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Listeners are called after every chunk of the body that is saved.</p>
+     */
+    @Override
+    public boolean addProgressListener(ProgressListener listener) {
+        notifier.add(listener);
+        return true;
+    }
+
+    @Override
+    public void removeProgressListener(ProgressListener listener) {
+        notifier.remove(listener);
+    }
+
     @Override
     public void close() throws IOException {
         if (conn != null) conn.disconnect();
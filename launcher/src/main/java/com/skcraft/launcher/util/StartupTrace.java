@@ -0,0 +1,101 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.util;
+
+import lombok.extern.java.Log;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records when the phases of starting the launcher were reached, so that
+ * the time it takes for the window to show can be followed in the log.
+ *
+ * <p>Only the first time that a phase is reached is recorded. The trace is
+ * logged once, when both the first frame has been shown and the instance
+ * list has been loaded, whichever happens last. The bootstrap passes
+ * the time that it started in the {@value #BOOTSTRAP_PROPERTY} system
+ * property.</p>
+ */
+@Log
+public final class StartupTrace {
+
+    public static final String BOOTSTRAP_PROPERTY = "skcraft.launcher.bootstrapTime";
+    public static final String FIRST_FRAME = "first frame shown";
+    public static final String INSTANCES_READY = "instance list ready";
+
+    private static final Map<String, Long> phases = new LinkedHashMap<String, Long>();
+    private static boolean reported;
+
+    static {
+        try {
+            phases.put("JVM start", ManagementFactory.getRuntimeMXBean().getStartTime());
+        } catch (Throwable ignored) {
+            // The management API is missing on some stripped-down runtimes
+        }
+
+        try {
+            String bootstrapTime = System.getProperty(BOOTSTRAP_PROPERTY);
+            if (bootstrapTime != null) {
+                phases.put("bootstrap", Long.parseLong(bootstrapTime));
+            }
+        } catch (NumberFormatException ignored) {
+        }
+    }
+
+    private StartupTrace() {
+    }
+
+    /**
+     * Record that a phase was reached now, unless it was reached before.
+     *
+     * @param phase the name of the phase
+     */
+    public static synchronized void mark(String phase) {
+        if (!phases.containsKey(phase)) {
+            phases.put(phase, System.currentTimeMillis());
+        }
+
+        if (!reported && phases.containsKey(FIRST_FRAME) && phases.containsKey(INSTANCES_READY)) {
+            report();
+        }
+    }
+
+    /**
+     * Get the time from when the process started to when the first window
+     * was shown.
+     *
+     * @return the time in milliseconds, or -1 if not known yet
+     */
+    public static synchronized long getTimeToFirstFrame() {
+        Long start = getStart();
+        Long frame = phases.get(FIRST_FRAME);
+        return start != null && frame != null ? frame - start : -1;
+    }
+
+    private static void report() {
+        reported = true;
+
+        Long start = getStart();
+        StringBuilder builder = new StringBuilder("Startup trace:");
+        for (Map.Entry<String, Long> entry : phases.entrySet()) {
+            builder.append("\n  +").append(entry.getValue() - start).append(" ms ").append(entry.getKey());
+        }
+        log.info(builder.toString());
+
+        long timeToFirstFrame = getTimeToFirstFrame();
+        if (timeToFirstFrame >= 0) {
+            log.info("Time to first frame: " + timeToFirstFrame + " ms");
+        }
+    }
+
+    private static Long getStart() {
+        return phases.isEmpty() ? null : phases.values().iterator().next();
+    }
+
+}
@@ -0,0 +1,23 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.util;
+
+/**
+ * Slows a transfer down to a rate.
+ */
+public interface Throttle {
+
+    /**
+     * Account for bytes that were transferred, blocking until the transfer
+     * may continue.
+     *
+     * @param bytes the number of bytes
+     * @throws InterruptedException thrown on interruption
+     */
+    void acquire(int bytes) throws InterruptedException;
+
+}
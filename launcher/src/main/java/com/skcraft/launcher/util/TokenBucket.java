@@ -0,0 +1,104 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.util;
+
+/**
+ * A token bucket that limits a transfer to a number of bytes per second,
+ * while allowing bursts of up to a second's worth.
+ *
+ * <p>Bytes are taken from the bucket as soon as they have been transferred,
+ * even if that leaves it in debt, and the caller then sleeps until the debt
+ * has been paid off. This keeps the rate exact for chunks of any size. The
+ * rate can be changed while the bucket is in use.</p>
+ */
+public class TokenBucket implements Throttle {
+
+    private static final long MAX_SLEEP = 1000;
+
+    // Guarded by this
+    private long rate;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    /**
+     * Create a new bucket without a limit.
+     */
+    public TokenBucket() {
+        this(0);
+    }
+
+    /**
+     * Create a new bucket.
+     *
+     * @param rate the rate in bytes per second, or 0 for no limit
+     */
+    public TokenBucket(long rate) {
+        this.rate = Math.max(0, rate);
+        this.tokens = this.rate;
+    }
+
+    /**
+     * Get the rate.
+     *
+     * @return the rate in bytes per second, or 0 for no limit
+     */
+    public synchronized long getRate() {
+        return rate;
+    }
+
+    /**
+     * Set the rate.
+     *
+     * @param rate the rate in bytes per second, or 0 for no limit
+     */
+    public synchronized void setRate(long rate) {
+        rate = Math.max(0, rate);
+        if (rate != this.rate) {
+            refill();
+            this.rate = rate;
+            tokens = Math.min(tokens, rate);
+        }
+    }
+
+    @Override
+    public void acquire(int bytes) throws InterruptedException {
+        long sleep;
+
+        synchronized (this) {
+            if (rate == 0) {
+                return;
+            }
+
+            refill();
+            tokens -= bytes;
+            sleep = tokens < 0 ? (long) Math.ceil(-tokens * 1000 / rate) : 0;
+        }
+
+        // Sleep in steps so that a rate that is raised takes effect soon
+        while (sleep > 0) {
+            Thread.sleep(Math.min(sleep, MAX_SLEEP));
+
+            synchronized (this) {
+                if (rate == 0) {
+                    return;
+                }
+
+                refill();
+                sleep = tokens < 0 ? (long) Math.ceil(-tokens * 1000 / rate) : 0;
+            }
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        if (rate > 0) {
+            tokens = Math.min(rate, tokens + (now - lastRefill) / 1e9 * rate);
+        }
+        lastRefill = now;
+    }
+
+}